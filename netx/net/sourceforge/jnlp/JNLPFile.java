@@ -36,6 +36,7 @@ import net.sourceforge.jnlp.cache.ResourceTracker;
 import net.sourceforge.jnlp.cache.UpdatePolicy;
 import net.sourceforge.jnlp.runtime.JNLPClassLoader;
 import net.sourceforge.jnlp.runtime.JNLPRuntime;
+import net.sourceforge.jnlp.runtime.StartupTimeline;
 import net.sourceforge.jnlp.util.ClasspathMatcher;
 import net.sourceforge.jnlp.util.logging.OutputController;
 
@@ -307,13 +308,17 @@ public class JNLPFile {
         if (location == null || policy == null)
             throw new IllegalArgumentException(R("NullParameter"));
 
+        StartupTimeline.Phase phase = StartupTimeline.start("fetch jnlp", location);
         try {
             ResourceTracker tracker = new ResourceTracker(false); // no prefetch
+            tracker.setOwner(location);
             tracker.addResource(location, version, null, policy);
             File f = tracker.getCacheFile(location);
             return new FileInputStream(f);
         } catch (Exception ex) {
             throw new IOException(ex);
+        } finally {
+            phase.end();
         }
     }
 
@@ -774,6 +779,7 @@ public class JNLPFile {
      * @param location the file location or {@code null}
      */
     private void parse(InputStream input, URL location, URL forceCodebase) throws ParseException {
+        StartupTimeline.Phase phase = StartupTimeline.start("parse jnlp", location);
         try {
             //if (location != null)
             //  location = new URL(location, "."); // remove filename
@@ -801,6 +807,8 @@ public class JNLPFile {
         } catch (Exception ex) {
             OutputController.getLogger().log(ex);
             throw new RuntimeException(ex.toString());
+        } finally {
+            phase.end();
         }
     }
 
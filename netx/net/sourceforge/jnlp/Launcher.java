@@ -31,12 +31,15 @@ import java.util.List;
 import java.util.Map;
 import net.sourceforge.jnlp.util.JarFile;
 
+import net.sourceforge.jnlp.cache.BackgroundUpdater;
 import net.sourceforge.jnlp.cache.CacheUtil;
+import net.sourceforge.jnlp.cache.LaunchManifest;
 import net.sourceforge.jnlp.cache.UpdatePolicy;
 import net.sourceforge.jnlp.runtime.AppletInstance;
 import net.sourceforge.jnlp.runtime.ApplicationInstance;
 import net.sourceforge.jnlp.runtime.JNLPClassLoader;
 import net.sourceforge.jnlp.runtime.JNLPRuntime;
+import net.sourceforge.jnlp.runtime.StartupTimeline;
 import net.sourceforge.jnlp.services.InstanceExistsException;
 import net.sourceforge.jnlp.services.ServiceUtil;
 
@@ -218,6 +221,40 @@ public class Launcher {
      * @throws LaunchException if an error occurred while launching (also sent to handler)
      */
     public ApplicationInstance launch(JNLPFile file, Container cont) throws LaunchException {
+        return launch(file, cont, null);
+    }
+
+    /**
+     * @param location location passed to {@link #launch(URL)}, the key of
+     * the launch manifest, or null
+     */
+    private ApplicationInstance launch(JNLPFile file, Container cont, URL location) throws LaunchException {
+        UpdatePolicy policy = updatePolicy;
+        if (isBackgroundUpdate(file) && policy != UpdatePolicy.FORCE) {
+            // cached jars are used as they are, BackgroundUpdater checks them once the application runs
+            policy = UpdatePolicy.NEVER;
+            if (location == null && file.getFileLocation() != null) {
+                // launch(URL) applies staged updates before it parses the file
+                BackgroundUpdater.applyStaged(file.getFileLocation());
+            }
+        }
+        return launchWithPolicy(file, cont, policy, location, null);
+    }
+
+    private static boolean isBackgroundUpdate(JNLPFile file) {
+        return file.isApplication() && file.getUpdate() != null
+                && file.getUpdate().getCheck() == UpdateDesc.Check.BACKGROUND;
+    }
+
+    /**
+     * @param policy update policy of this launch; the launcher's own policy
+     * is left as it is, so concurrent launches do not see each other's
+     * @param location location passed to {@link #launch(URL)}, the key of
+     * the launch manifest, or null
+     * @param manifest manifest this launch was started from, or null
+     */
+    private ApplicationInstance launchWithPolicy(JNLPFile file, Container cont, UpdatePolicy policy,
+            URL location, LaunchManifest manifest) throws LaunchException {
         TgThread tg;
 
         mergeExtraInformation(file, extra);
@@ -243,13 +280,10 @@ public class Launcher {
         }
 
         if (file instanceof PluginBridge && cont != null) {
-            tg = new TgThread(file, cont, true);
-        }
-        else if (cont == null) {
-            tg = new TgThread(file);
+            tg = new TgThread(file, cont, policy, true);
         }
         else {
-            tg = new TgThread(file, cont);
+            tg = new TgThread(file, cont, policy, location, manifest);
         }
 
         tg.start();
@@ -284,7 +318,102 @@ public class Launcher {
      */
     public ApplicationInstance launch(URL location) throws LaunchException {
         JNLPRuntime.saveHistory(location.toExternalForm());
-        return launch(fromUrl(location));
+
+        LaunchManifest manifest = LaunchManifest.load(location);
+        if (manifest != null && BackgroundUpdater.applyStaged(manifest.getLocation())) {
+            // the cache changed under the manifest, record it again
+            manifest.discard();
+            manifest = null;
+        }
+        if (manifest != null && !JNLPRuntime.isOfflineForced()) {
+            JNLPRuntime.detectOnline(manifest.getLocation());
+        }
+        if (manifest != null && updatePolicy != UpdatePolicy.FORCE && manifest.isLaunchableFromCache()) {
+            JNLPFile file = fromManifest(manifest);
+            if (file != null) {
+                OutputController.getLogger().log("Launching " + location + " from the cache");
+                return launchWithPolicy(file, null, UpdatePolicy.NEVER, location, manifest);
+            }
+        }
+        return launch(fromUrl(location), null, location);
+    }
+
+    /**
+     * Returns the cached JNLPFile recorded in a launch manifest, or null if
+     * it can not be read; the normal launch path is taken then.
+     */
+    private JNLPFile fromManifest(LaunchManifest manifest) {
+        try {
+            return new JNLPFile(manifest.getLocation(), (Version) null, parserSettings, UpdatePolicy.NEVER);
+        } catch (Exception ex) {
+            OutputController.getLogger().log(ex);
+            manifest.discard();
+            return null;
+        }
+    }
+
+    /**
+     * Records the launch manifest of an application whose main class was
+     * loaded, or, if the application was started from its manifest, checks
+     * the remote resources in the background.
+     */
+    private void updateLaunchManifest(ApplicationInstance app, String mainName, URL location, final LaunchManifest launchManifest) {
+        if (!(app.getClassLoader() instanceof JNLPClassLoader)) {
+            return;
+        }
+        if (location == null) {
+            startBackgroundUpdate(app, mainName);
+            return;
+        }
+        if (launchManifest != null && launchManifest.getUpdateCheck() == UpdateDesc.Check.BACKGROUND) {
+            BackgroundUpdater.getInstance(launchManifest.getLocation()).start(launchManifest.getEntries());
+            return;
+        }
+        if (launchManifest != null) {
+            Thread revalidation = new Thread(mainGroup, new Runnable() {
+                @Override
+                public void run() {
+                    launchManifest.revalidate();
+                }
+            }, "LaunchManifestRevalidation");
+            revalidation.setDaemon(true);
+            revalidation.start();
+            return;
+        }
+        JNLPClassLoader loader = (JNLPClassLoader) app.getClassLoader();
+        try {
+            LaunchManifest manifest = LaunchManifest.create(location, loader.getJNLPFiles(), mainName, loader.getSigningState().name());
+            if (manifest != null) {
+                manifest.store();
+                if (manifest.getUpdateCheck() == UpdateDesc.Check.BACKGROUND) {
+                    BackgroundUpdater.getInstance(manifest.getLocation()).start(manifest.getEntries());
+                }
+            }
+        } catch (Exception ex) {
+            // the manifest only speeds up later launches
+            OutputController.getLogger().log(ex);
+        }
+    }
+
+    /**
+     * Starts the background update of an application launched without a
+     * location to record its manifest under; its cached jars were used
+     * without a check.
+     */
+    private void startBackgroundUpdate(ApplicationInstance app, String mainName) {
+        JNLPFile file = app.getJNLPFile();
+        if (!isBackgroundUpdate(file) || file.getFileLocation() == null) {
+            return;
+        }
+        JNLPClassLoader loader = (JNLPClassLoader) app.getClassLoader();
+        try {
+            LaunchManifest manifest = LaunchManifest.create(file.getFileLocation(), loader.getJNLPFiles(), mainName, loader.getSigningState().name());
+            if (manifest != null) {
+                BackgroundUpdater.getInstance(manifest.getLocation()).start(manifest.getEntries());
+            }
+        } catch (Exception ex) {
+            OutputController.getLogger().log(ex);
+        }
     }
 
     /**
@@ -493,10 +622,15 @@ public class Launcher {
      * Launches a JNLP application.  This method should be called
      * from a thread in the application's thread group.
      * @param file jnlpfile - source of application
+     * @param policy update policy of the application's resources
+     * @param location location passed to {@link #launch(URL)}, the key of
+     * the launch manifest, or null
+     * @param manifest manifest this launch was started from, or null
      * @return application to be launched
      * @throws net.sourceforge.jnlp.LaunchException if launch fails on unrecoverable exception
      */
-    protected ApplicationInstance launchApplication(JNLPFile file) throws LaunchException {
+    protected ApplicationInstance launchApplication(JNLPFile file, UpdatePolicy policy,
+            URL location, LaunchManifest manifest) throws LaunchException {
         if (!file.isApplication()) {
             throw launchError(new LaunchException(file, null, R("LSFatal"), R("LCClient"), R("LNotApplication"), R("LNotApplicationInfo")));
         }
@@ -526,8 +660,14 @@ public class Launcher {
 
             handler.launchInitialized(file);
 
-            ApplicationInstance app = createApplication(file);
-            app.initialize();
+            StartupTimeline.Phase phase = StartupTimeline.start("create application", file.getFileLocation());
+            ApplicationInstance app;
+            try {
+                app = createApplication(file, policy);
+                app.initialize();
+            } finally {
+                phase.end();
+            }
 
             String mainName = file.getApplication().getMainClass();
 
@@ -549,7 +689,13 @@ public class Launcher {
                         R("LCantDetermineMainClassInfo")));
             }
 
-            Class<?> mainClass = app.getClassLoader().loadClass(mainName);
+            phase = StartupTimeline.start("load main class", mainName);
+            Class<?> mainClass;
+            try {
+                mainClass = app.getClassLoader().loadClass(mainName);
+            } finally {
+                phase.end();
+            }
 
             Method main = mainClass.getMethod("main", new Class<?>[] { String[].class });
             String args[] = file.getApplication().getArguments();
@@ -565,10 +711,17 @@ public class Launcher {
 
             handler.launchStarting(app);
 
+            updateLaunchManifest(app, mainName, location, manifest);
+
             main.setAccessible(true);
 
             OutputController.getLogger().log("Invoking main() with args: " + Arrays.toString(args));
-            main.invoke(null, new Object[] { args });
+            phase = StartupTimeline.start("invoke main", mainName);
+            try {
+                main.invoke(null, new Object[] { args });
+            } finally {
+                phase.end();
+            }
 
             return app;
         } catch (LaunchException lex) {
@@ -624,10 +777,11 @@ public class Launcher {
      * @param file the JNLP file
      * @param enableCodeBase whether to add the codebase URL to the classloader
      * @param cont container where to put application
+     * @param policy update policy of the applet's resources
      * @return application
      * @throws net.sourceforge.jnlp.LaunchException if deploy unrecoverably die
      */
-    protected ApplicationInstance launchApplet(JNLPFile file, boolean enableCodeBase, Container cont) throws LaunchException {
+    protected ApplicationInstance launchApplet(JNLPFile file, boolean enableCodeBase, Container cont, UpdatePolicy policy) throws LaunchException {
         if (!file.isApplet()) {
             throw launchError(new LaunchException(file, null, R("LSFatal"), R("LCClient"), R("LNotApplet"), R("LNotAppletInfo")));
         }
@@ -647,7 +801,7 @@ public class Launcher {
         AppletInstance applet = null;
         try {
             ServiceUtil.checkExistingSingleInstance(file);
-            applet = createApplet(file, enableCodeBase, cont);
+            applet = createApplet(file, enableCodeBase, cont, policy);
             applet.initialize();
             applet.getAppletEnvironment().startApplet(); // this should be a direct call to applet instance
             return applet;
@@ -670,17 +824,18 @@ public class Launcher {
      * @param file the JNLP file
      * @param enableCodeBase whether to add the codebase URL to the classloader
      * @param cont container where to put applet
+     * @param policy update policy of the applet's resources
      * @return applet
      * @throws net.sourceforge.jnlp.LaunchException if deploy unrecoverably die
      */
-    protected ApplicationInstance getApplet(JNLPFile file, boolean enableCodeBase, Container cont) throws LaunchException {
+    protected ApplicationInstance getApplet(JNLPFile file, boolean enableCodeBase, Container cont, UpdatePolicy policy) throws LaunchException {
         if (!file.isApplet()) {
             throw launchError(new LaunchException(file, null, R("LSFatal"), R("LCClient"), R("LNotApplet"), R("LNotAppletInfo")));
         }
         AppletInstance applet = null;
         try {
             ServiceUtil.checkExistingSingleInstance(file);
-            applet = createApplet(file, enableCodeBase, cont);
+            applet = createApplet(file, enableCodeBase, cont, policy);
             applet.initialize();
             return applet;
 
@@ -713,6 +868,7 @@ public class Launcher {
      * @param file the JNLP file
      * @param enableCodeBase whether to add the codebase URL to the classloader
      * @param cont container where to put applet
+     * @param policy update policy of the applet's resources
      * @return applet
      * @throws net.sourceforge.jnlp.LaunchException if deploy unrecoverably die
      */
@@ -720,10 +876,10 @@ public class Launcher {
     //and then appelts creates in little bit strange manner. This issue is visible with
     //randomly showing/notshowing spalshscreens.
     //See also PluginAppletViewer.framePanel
-    protected  AppletInstance createApplet(JNLPFile file, boolean enableCodeBase, Container cont) throws LaunchException {
+    protected  AppletInstance createApplet(JNLPFile file, boolean enableCodeBase, Container cont, UpdatePolicy policy) throws LaunchException {
          AppletInstance appletInstance = null;
          try {
-            JNLPClassLoader loader = JNLPClassLoader.getInstance(file, updatePolicy, enableCodeBase);
+            JNLPClassLoader loader = JNLPClassLoader.getInstance(file, policy, enableCodeBase);
 
             if (enableCodeBase) {
                 loader.enableCodeBase();
@@ -794,12 +950,13 @@ public class Launcher {
     /**
      * Creates an Application.
      * @param file the JNLP file
+     * @param policy update policy of the application's resources
      * @return application
      * @throws net.sourceforge.jnlp.LaunchException if deploy unrecoverably die
      */
-    protected ApplicationInstance createApplication(JNLPFile file) throws LaunchException {
+    protected ApplicationInstance createApplication(JNLPFile file, UpdatePolicy policy) throws LaunchException {
         try {
-            JNLPClassLoader loader = JNLPClassLoader.getInstance(file, updatePolicy, false);
+            JNLPClassLoader loader = JNLPClassLoader.getInstance(file, policy, false);
             ThreadGroup group = Thread.currentThread().getThreadGroup();
 
             ApplicationInstance app = new ApplicationInstance(file, group, loader);
@@ -893,23 +1050,22 @@ public class Launcher {
         private ApplicationInstance application;
         private LaunchException exception;
         private Container cont;
+        private UpdatePolicy policy;
+        private URL location;
+        private LaunchManifest manifest;
         private boolean isPlugin = false;
 
-        TgThread(JNLPFile file) {
-            this(file, null);
-        }
-
-        TgThread(JNLPFile file, Container cont) {
-            super(createThreadGroup(file), file.getTitle());
-
-            this.file = file;
-            this.cont = cont;
+        TgThread(JNLPFile file, Container cont, UpdatePolicy policy, URL location, LaunchManifest manifest) {
+            this(file, cont, policy, false);
+            this.location = location;
+            this.manifest = manifest;
         }
 
-        TgThread(JNLPFile file, Container cont, boolean isPlugin) {
+        TgThread(JNLPFile file, Container cont, UpdatePolicy policy, boolean isPlugin) {
             super(createThreadGroup(file), file.getTitle());
             this.file = file;
             this.cont = cont;
+            this.policy = policy;
             this.isPlugin = isPlugin;
         }
 
@@ -927,13 +1083,13 @@ public class Launcher {
                 if (isPlugin) {
                     // Do not display download indicators if we're using gcjwebplugin.
                     JNLPRuntime.setDefaultDownloadIndicator(null);
-                    application = getApplet(file, ((PluginBridge)file).codeBaseLookup(), cont);
+                    application = getApplet(file, ((PluginBridge)file).codeBaseLookup(), cont, policy);
                 } else {
                     if (file.isApplication()) {
-                        application = launchApplication(file);
+                        application = launchApplication(file, policy, location, manifest);
                     }
                     else if (file.isApplet()) {
-                        application = launchApplet(file, true, cont);
+                        application = launchApplet(file, true, cont, policy);
                     } // enable applet code base
                     else if (file.isInstaller()) {
                         application = launchInstaller(file);
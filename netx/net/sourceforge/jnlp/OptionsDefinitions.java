@@ -73,6 +73,7 @@ public class OptionsDefinitions {
         NOFORK("-Xnofork", "BXnofork"),
         NOHEADERS("-Xignoreheaders", "BXignoreheaders"),
         OFFLINE("-Xoffline", "BXoffline"),
+        DAEMON("-Xdaemon", "BXdaemon"),
         TRUSTNONE("-Xtrustnone","BOTrustnone"),
         JNLP("-jnlp","BOJnlp", NumberOfArguments.ONE),
         HTML("-html","BOHtml", NumberOfArguments.ONE_OR_MORE),
@@ -84,6 +85,8 @@ public class OptionsDefinitions {
         RESETALL("-reset", "all", "IBOResetAll"),
         RESET("-reset", "name", "IBOReset", NumberOfArguments.ONE_OR_MORE),
         CHECK("-check", "name", "IBOCheck"),
+        CACHESTATS("-cachestats", "IBOCacheStats"),
+        PRUNE("-prune", "application", "IBOPrune", NumberOfArguments.ONE_OR_MORE),
         HELP2("-help", "BOHelp2"),
         //policyeditor
         //-help
@@ -171,6 +174,8 @@ public class OptionsDefinitions {
             OPTIONS.RESETALL,
             OPTIONS.HEADLESS,
             OPTIONS.CHECK,
+            OPTIONS.CACHESTATS,
+            OPTIONS.PRUNE,
             OPTIONS.VERBOSE
         });
     }
@@ -194,6 +199,7 @@ public class OptionsDefinitions {
             OPTIONS.VIEWER,
             OPTIONS.CLEARCACHE,
             OPTIONS.LICENSE,
+            OPTIONS.DAEMON,
             OPTIONS.HELP1}
         );
     }
@@ -44,6 +44,9 @@ import java.net.MalformedURLException;
 import java.net.Proxy;
 import java.net.URI;
 import java.net.URL;
+import java.security.AccessController;
+import java.security.PrivilegedActionException;
+import java.security.PrivilegedExceptionAction;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -89,6 +92,10 @@ public class BrowserAwareProxySelector extends JNLPProxySelector {
 
     private PacEvaluator browserProxyAutoConfig = null;
 
+    /* browser preferences are only read once, and only when needed */
+    private final Object initializationLock = new Object();
+    private volatile boolean initialized = false;
+
     /**
      * Create a new instance of this class, reading configuration fropm the browser
      */
@@ -96,13 +103,33 @@ public class BrowserAwareProxySelector extends JNLPProxySelector {
         super(config);
     }
 
+    /**
+     * Reads the browser preferences, unless that was done already. Called on
+     * the first use of browser settings, so calling it early is optional.
+     */
     public void initialize() {
-        try {
-            initFromBrowserConfig();
-        } catch (IOException e) {
-            OutputController.getLogger().log(e);
-            OutputController.getLogger().log(OutputController.Level.ERROR_ALL, R("RProxyFirefoxNotFound"));
-            browserProxyType = PROXY_TYPE_NONE;
+        if (initialized) {
+            return;
+        }
+        synchronized (initializationLock) {
+            if (initialized) {
+                return;
+            }
+            try {
+                // the first use may come from application code
+                AccessController.doPrivileged(new PrivilegedExceptionAction<Void>() {
+                    @Override
+                    public Void run() throws IOException {
+                        initFromBrowserConfig();
+                        return null;
+                    }
+                });
+            } catch (PrivilegedActionException e) {
+                OutputController.getLogger().log(e.getException());
+                OutputController.getLogger().log(OutputController.Level.ERROR_ALL, R("RProxyFirefoxNotFound"));
+                browserProxyType = PROXY_TYPE_NONE;
+            }
+            initialized = true;
         }
     }
 
@@ -182,6 +209,7 @@ public class BrowserAwareProxySelector extends JNLPProxySelector {
      */
     @Override
     protected List<Proxy> getFromBrowser(URI uri) {
+        initialize();
         List<Proxy> proxies = new ArrayList<Proxy>();
 
         String optionDescription = null;
@@ -0,0 +1,513 @@
+/* BackgroundUpdater.java
+   Copyright (C) 2026 Red Hat, Inc.
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License as published by
+the Free Software Foundation, version 2.
+
+IcedTea is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to
+the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version.
+*/
+
+package net.sourceforge.jnlp.cache;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import net.sourceforge.jnlp.config.PathsAndFiles;
+import net.sourceforge.jnlp.runtime.JNLPRuntime;
+import net.sourceforge.jnlp.security.ConnectionFactory;
+import net.sourceforge.jnlp.util.StreamUtils;
+import net.sourceforge.jnlp.util.logging.OutputController;
+
+/**
+ * Updates an application in the background, as asked for by
+ * {@code <update check="background">}.
+ * <p>
+ * The application is launched from the cache right away. Afterwards a low
+ * priority thread compares the recorded resources with the server and
+ * downloads newer ones into a staging directory; the cache the running
+ * application uses is left alone. Only when every changed resource has been
+ * downloaded is the staged set committed, by atomically writing its
+ * descriptor. The next launch moves the staged files into the cache before
+ * anything is loaded, see {@link #applyStaged(URL)}.
+ * </p>
+ */
+public final class BackgroundUpdater {
+
+    public enum State {
+        /** no check was started */
+        IDLE,
+        /** comparing the cached resources with the server */
+        CHECKING,
+        /** downloading changed resources into the staging area */
+        DOWNLOADING,
+        /** an update is staged and will be applied on the next launch */
+        STAGED,
+        /** every resource is current */
+        UP_TO_DATE,
+        /** the check was cancelled, nothing was staged */
+        CANCELLED,
+        /** the check failed, nothing was staged */
+        FAILED
+    }
+
+    private static final String STAGING_DIR = "staging";
+    private static final String STAGED_FILE = "staged.properties";
+
+    private static final String KEY_FORMAT = "format";
+    private static final String KEY_LOCATION = "jnlp.location";
+    private static final String KEY_RESOURCES = "resources";
+    private static final String RESOURCE_PREFIX = "resource.";
+    private static final String KEY_RESOURCE_LOCATION = ".location";
+    private static final String KEY_RESOURCE_FILE = ".file";
+    private static final String KEY_RESOURCE_MODIFIED = ".modified";
+
+    private static final ConcurrentMap<String, BackgroundUpdater> updaters = new ConcurrentHashMap<>();
+
+    private final URL location;
+    private final File stagingDir;
+    private final List<URL> available = Collections.synchronizedList(new ArrayList<URL>());
+    private List<LaunchManifest.Entry> entries = Collections.emptyList();
+    private volatile State state = State.IDLE;
+    private FutureTask<State> task;
+
+    BackgroundUpdater(URL location, File stagingDir) {
+        this.location = location;
+        this.stagingDir = stagingDir;
+    }
+
+    /**
+     * @param location the location of the application's JNLP file
+     * @return the updater of the application, created if needed
+     */
+    public static BackgroundUpdater getInstance(URL location) {
+        String key = location.toExternalForm();
+        BackgroundUpdater updater = updaters.get(key);
+        if (updater == null) {
+            updater = new BackgroundUpdater(location, getStagingDir(location));
+            BackgroundUpdater existing = updaters.putIfAbsent(key, updater);
+            if (existing != null) {
+                updater = existing;
+            }
+        }
+        return updater;
+    }
+
+    /**
+     * @param location the location of the application's JNLP file
+     * @return the updater of the application, or {@code null} if no update
+     * was started for it in this JVM
+     */
+    public static BackgroundUpdater get(URL location) {
+        return updaters.get(location.toExternalForm());
+    }
+
+    static File getStagingDir(URL location) {
+        return new File(new File(PathsAndFiles.CACHE_DIR.getFullPath(), STAGING_DIR), LaunchManifest.hash(location.toExternalForm()));
+    }
+
+    /**
+     * Starts checking the given resources in a low priority daemon thread,
+     * unless a check is already running.
+     *
+     * @param entries the resources to check
+     * @return whether a new check was started
+     */
+    public synchronized boolean start(final List<LaunchManifest.Entry> entries) {
+        if (isRunning()) {
+            return false;
+        }
+        this.entries = entries;
+        available.clear();
+        state = State.CHECKING;
+        task = new FutureTask<>(new Callable<State>() {
+            @Override
+            public State call() {
+                State result = update(entries);
+                if (state != State.CANCELLED) {
+                    state = result;
+                }
+                return result;
+            }
+        });
+        Thread thread = new Thread(task, "BackgroundUpdater");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+        return true;
+    }
+
+    /**
+     * Checks the resources of the last check again.
+     *
+     * @return whether a new check was started
+     */
+    public synchronized boolean restart() {
+        return start(entries);
+    }
+
+    /**
+     * Stops a running check; partially downloaded files are removed.
+     */
+    public synchronized void cancel() {
+        if (isRunning()) {
+            task.cancel(true);
+            state = State.CANCELLED;
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return task != null && !task.isDone();
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * @return the resources for which a newer version was found on the
+     * server, whether or not its download has completed yet
+     */
+    public List<URL> getAvailableUpdates() {
+        synchronized (available) {
+            return new ArrayList<>(available);
+        }
+    }
+
+    /**
+     * @return whether an update is staged to be applied on the next launch
+     */
+    public boolean isStaged() {
+        return new File(stagingDir, STAGED_FILE).isFile();
+    }
+
+    /**
+     * Waits for the running check to finish.
+     *
+     * @param timeout how long to wait, in milliseconds
+     * @return the final state, or the current one if the check did not
+     * finish in time
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public State await(long timeout) throws InterruptedException {
+        FutureTask<State> current;
+        synchronized (this) {
+            current = task;
+        }
+        if (current == null) {
+            return state;
+        }
+        try {
+            return current.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException | CancellationException ex) {
+            return state;
+        }
+    }
+
+    private State update(List<LaunchManifest.Entry> entries) {
+        if (!JNLPRuntime.isOnline()) {
+            return State.IDLE;
+        }
+        List<LaunchManifest.Entry> changed = new ArrayList<>();
+        try {
+            for (LaunchManifest.Entry entry : entries) {
+                // a versioned resource never changes, a new version has a new entry in the descriptor
+                if (entry.getVersion() != null) {
+                    continue;
+                }
+                if (isChanged(entry.getLocation())) {
+                    changed.add(entry);
+                    available.add(entry.getLocation());
+                }
+                if (Thread.currentThread().isInterrupted()) {
+                    return State.CANCELLED;
+                }
+            }
+            if (changed.isEmpty()) {
+                return State.UP_TO_DATE;
+            }
+
+            state = State.DOWNLOADING;
+            clearStagingDir(stagingDir);
+            Properties staged = new Properties();
+            staged.setProperty(KEY_FORMAT, LaunchManifest.FORMAT_VERSION);
+            staged.setProperty(KEY_LOCATION, location.toExternalForm());
+            staged.setProperty(KEY_RESOURCES, Integer.toString(changed.size()));
+            for (int i = 0; i < changed.size(); i++) {
+                LaunchManifest.Entry entry = changed.get(i);
+                File file = new File(stagingDir, i + "-" + entry.getFile().getName());
+                long lastModified = download(entry.getLocation(), file);
+                String prefix = RESOURCE_PREFIX + i;
+                staged.setProperty(prefix + KEY_RESOURCE_LOCATION, entry.getLocation().toExternalForm());
+                staged.setProperty(prefix + KEY_RESOURCE_FILE, file.getName());
+                staged.setProperty(prefix + KEY_RESOURCE_MODIFIED, Long.toString(lastModified));
+            }
+            // committing the set: without this file nothing is applied
+            LaunchManifest.storeAtomically(staged, new File(stagingDir, STAGED_FILE), "staged update of " + location);
+            OutputController.getLogger().log("Staged update of " + changed.size() + " resources of " + location);
+            return State.STAGED;
+        } catch (InterruptedIOException ex) {
+            clearStagingDir(stagingDir);
+            return State.CANCELLED;
+        } catch (IOException ex) {
+            OutputController.getLogger().log(ex);
+            clearStagingDir(stagingDir);
+            return Thread.currentThread().isInterrupted() ? State.CANCELLED : State.FAILED;
+        }
+    }
+
+    private static void clearStagingDir(File stagingDir) {
+        File[] files = stagingDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (!file.delete()) {
+                    OutputController.getLogger().log("Can not delete staged file " + file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Asks the server whether the unversioned resource differs from its
+     * cached copy. The Last-Modified header decides; without it the length
+     * is compared.
+     *
+     * @throws IOException also if the server answers with an error, e.g. the
+     * resource is gone
+     */
+    static boolean isChanged(URL url) throws IOException {
+        URLConnection connection = ConnectionFactory.getConnectionFactory().openConnection(url);
+        try {
+            if (connection instanceof HttpURLConnection) {
+                HttpURLConnection http = (HttpURLConnection) connection;
+                http.setRequestMethod(ResourceTracker.RequestMethods.HEAD.toString());
+                int code = http.getResponseCode();
+                if (code == HttpURLConnection.HTTP_NOT_FOUND) {
+                    throw new FileNotFoundException(url + " is not available any more");
+                }
+                if (code >= HttpURLConnection.HTTP_BAD_REQUEST) {
+                    throw new IOException("Checking " + url + " failed with HTTP " + code);
+                }
+            }
+            long lastModified = connection.getLastModified();
+            if (lastModified > 0) {
+                return !CacheUtil.isCurrent(url, null, lastModified);
+            }
+            long length = connection.getContentLengthLong();
+            return length >= 0 && length != new CacheEntry(url, null).getRemoteContentLength();
+        } finally {
+            ConnectionFactory.getConnectionFactory().disconnect(connection);
+        }
+    }
+
+    private static long download(final URL url, File target) throws IOException {
+        File dir = target.getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Can not create " + dir);
+        }
+        URLConnection connection = ConnectionFactory.getConnectionFactory().openConnection(url);
+        try (InputStream in = connection.getInputStream()) {
+            StreamUtils.copyToFile(in, target, new StreamUtils.TransferListener() {
+                @Override
+                public void transferred(int count) throws IOException {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new InterruptedIOException("update of " + url + " cancelled");
+                    }
+                }
+            });
+            return connection.getLastModified();
+        } finally {
+            ConnectionFactory.getConnectionFactory().disconnect(connection);
+        }
+    }
+
+    /**
+     * Moves a committed staged update of an application into the cache.
+     * Must be called before the application is launched. Each staged file
+     * replaces its cache entry the same way a regular update does: the old
+     * entry is marked for deletion and the file is renamed into a new one.
+     * The update is applied completely or not at all; if a file can not be
+     * moved, those moved already are moved back and the update is tried
+     * again on the next launch.
+     *
+     * @param location the location of the application's JNLP file
+     * @return whether an update was applied
+     */
+    public static boolean applyStaged(URL location) {
+        File dir = getStagingDir(location);
+        File stagedFile = new File(dir, STAGED_FILE);
+        if (!stagedFile.isFile()) {
+            return false;
+        }
+        Properties staged = new Properties();
+        try (InputStream in = new FileInputStream(stagedFile)) {
+            staged.load(in);
+        } catch (IOException ex) {
+            OutputController.getLogger().log(ex);
+            return false;
+        }
+        List<StagedResource> resources = new ArrayList<>();
+        try {
+            if (LaunchManifest.FORMAT_VERSION.equals(staged.getProperty(KEY_FORMAT))) {
+                int count = Integer.parseInt(staged.getProperty(KEY_RESOURCES, "0"));
+                for (int i = 0; i < count; i++) {
+                    String prefix = RESOURCE_PREFIX + i;
+                    StagedResource resource = new StagedResource(
+                            new URL(staged.getProperty(prefix + KEY_RESOURCE_LOCATION)),
+                            new File(dir, staged.getProperty(prefix + KEY_RESOURCE_FILE)),
+                            Long.parseLong(staged.getProperty(prefix + KEY_RESOURCE_MODIFIED)));
+                    if (!resource.file.isFile()) {
+                        throw new FileNotFoundException(resource.file.getPath());
+                    }
+                    resources.add(resource);
+                }
+            }
+        } catch (IOException | RuntimeException ex) {
+            // an incomplete set is never applied
+            OutputController.getLogger().log(OutputController.Level.ERROR_ALL, "Discarding the staged update of " + location);
+            OutputController.getLogger().log(ex);
+            resources.clear();
+        }
+        if (!resources.isEmpty() && !install(resources, location)) {
+            return false;
+        }
+        if (!stagedFile.delete()) {
+            OutputController.getLogger().log("Can not delete " + stagedFile);
+        }
+        clearStagingDir(dir);
+        if (!resources.isEmpty()) {
+            OutputController.getLogger().log("Applied the staged update of " + location);
+        }
+        return !resources.isEmpty();
+    }
+
+    /**
+     * Moves every staged file into a new cache entry, and only then
+     * supersedes the old entries. New entries are found before old ones, so
+     * the application sees the new files only once all of them are there.
+     *
+     * @return false if the files were moved back, as one could not be moved
+     */
+    private static boolean install(List<StagedResource> resources, URL owner) {
+        List<CacheEntry> oldEntries = new ArrayList<>();
+        List<File> cacheFiles = new ArrayList<>();
+        try {
+            for (StagedResource resource : resources) {
+                oldEntries.add(new CacheEntry(resource.location, null));
+                File cacheFile = CacheUtil.makeNewCacheFile(resource.location, null);
+                if (cacheFile == null) {
+                    throw new IOException("Can not create a cache entry for " + resource.location);
+                }
+                cacheFiles.add(cacheFile);
+                Files.move(resource.file.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException ex) {
+            OutputController.getLogger().log(OutputController.Level.ERROR_ALL, "Could not apply the staged update of " + owner + ", keeping it for the next launch");
+            OutputController.getLogger().log(ex);
+            rollBack(resources, cacheFiles);
+            return false;
+        }
+        for (int i = 0; i < resources.size(); i++) {
+            StagedResource resource = resources.get(i);
+            CacheEntry oldEntry = oldEntries.get(i);
+            oldEntry.lock();
+            try {
+                if (oldEntry.isCached()) {
+                    oldEntry.markForDelete();
+                    oldEntry.store();
+                }
+            } finally {
+                oldEntry.unlock();
+            }
+            CacheEntry newEntry = new CacheEntry(resource.location, null);
+            newEntry.lock();
+            try {
+                newEntry.setRemoteContentLength(cacheFiles.get(i).length());
+                newEntry.setLastModified(resource.lastModified);
+                newEntry.setLastUpdated(System.currentTimeMillis());
+                newEntry.store();
+            } finally {
+                newEntry.unlock();
+            }
+            CacheUtil.recordCacheFile(cacheFiles.get(i), owner);
+        }
+        return true;
+    }
+
+    private static void rollBack(List<StagedResource> resources, List<File> cacheFiles) {
+        for (int i = 0; i < cacheFiles.size(); i++) {
+            File staged = resources.get(i).file;
+            File cacheFile = cacheFiles.get(i);
+            try {
+                if (!staged.exists() && cacheFile.isFile()) {
+                    Files.move(cacheFile.toPath(), staged.toPath());
+                }
+            } catch (IOException ex) {
+                OutputController.getLogger().log(ex);
+            }
+            CacheUtil.removeCacheFile(cacheFile);
+        }
+    }
+
+    /** a file of a staged update and what it replaces */
+    private static final class StagedResource {
+
+        final URL location;
+        final File file;
+        final long lastModified;
+
+        StagedResource(URL location, File file, long lastModified) {
+            this.location = location;
+            this.file = file;
+            this.lastModified = lastModified;
+        }
+    }
+}
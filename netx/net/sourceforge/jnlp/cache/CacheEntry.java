@@ -234,6 +234,10 @@ public class CacheEntry {
      */
     public void markForDelete() { // once marked it should not be unmarked.
         properties.setProperty("delete", Boolean.toString(true));
+        String infoPath = properties.getStoreFile().getPath();
+        if (infoPath.endsWith(".info")) {
+            CacheUtil.recordMarkedForDelete(new File(infoPath.substring(0, infoPath.length() - ".info".length())));
+        }
     }
 
     /**
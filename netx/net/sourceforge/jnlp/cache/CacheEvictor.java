@@ -0,0 +1,298 @@
+/* CacheEvictor.java
+   Copyright (C) 2026 Red Hat, Inc.
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License as published by
+the Free Software Foundation, version 2.
+
+IcedTea is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to
+the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version.
+*/
+
+package net.sourceforge.jnlp.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import net.sourceforge.jnlp.config.DeploymentConfiguration;
+import net.sourceforge.jnlp.runtime.JNLPRuntime;
+import net.sourceforge.jnlp.util.FileUtils;
+import net.sourceforge.jnlp.util.logging.OutputController;
+
+/**
+ * Keeps the cache below {@link DeploymentConfiguration#KEY_CACHE_MAX_SIZE}
+ * while applications run.
+ * <p>
+ * Whenever an item written to the cache brings the running total kept in
+ * the cache index over the limit (the high watermark), a background thread
+ * removes the least recently used items until the total drops to
+ * {@link DeploymentConfiguration#KEY_CACHE_EVICTION_LOW_WATERMARK} percent
+ * of the limit. It works in small batches and holds the index lock only to
+ * update the index, so launches waiting for the index are delayed by one
+ * batch at most, and they never wait for the eviction as a whole.
+ * </p>
+ * <p>
+ * Items in use are pinned: the resources of every tracker registered with
+ * {@link #pin(ResourceTracker)} (the running applications' jars) are never
+ * removed, nor are items used during the last minute. Pins only cover this
+ * JVM, so nothing is evicted while other instances of netx are running,
+ * the same rule {@link CacheUtil#clearCache()} follows. Staged updates live in the
+ * staging directory, which is not part of the index and thus neither
+ * counted nor touched.
+ * </p>
+ */
+public final class CacheEvictor {
+
+    /** most items removed while holding the index lock */
+    static final int BATCH_SIZE = 32;
+
+    /** items used more recently than this many milliseconds are kept */
+    static final long RECENT_USE = 60 * 1000;
+
+    private static final AtomicBoolean running = new AtomicBoolean(false);
+
+    private static final Map<ResourceTracker, Boolean> pinned =
+            Collections.synchronizedMap(new WeakHashMap<ResourceTracker, Boolean>());
+
+    private CacheEvictor() {
+    }
+
+    /**
+     * Keeps the resources of the given tracker in the cache for as long as
+     * the tracker is in use.
+     *
+     * @param tracker the tracker of a running application
+     */
+    public static void pin(ResourceTracker tracker) {
+        pinned.put(tracker, Boolean.TRUE);
+    }
+
+    /**
+     * Releases the resources of the given tracker for eviction.
+     *
+     * @param tracker a tracker previously passed to {@link #pin}
+     */
+    public static void unpin(ResourceTracker tracker) {
+        pinned.remove(tracker);
+    }
+
+    /**
+     * @return the configured cache size limit in bytes, negative for
+     * unlimited
+     */
+    static long getHighWatermark() {
+        try {
+            long maxSize = Long.parseLong(JNLPRuntime.getConfiguration().getProperty(DeploymentConfiguration.KEY_CACHE_MAX_SIZE));
+            return maxSize < 0 ? -1 : maxSize << 20;
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    /**
+     * @param high the cache size limit in bytes
+     * @return the size in bytes an eviction reduces the cache to
+     */
+    static long getLowWatermark(long high) {
+        int percent = 80;
+        try {
+            percent = Integer.parseInt(JNLPRuntime.getConfiguration().getProperty(DeploymentConfiguration.KEY_CACHE_EVICTION_LOW_WATERMARK));
+        } catch (NumberFormatException ex) {
+            // keep default
+        }
+        percent = Math.max(0, Math.min(100, percent));
+        return high / 100 * percent;
+    }
+
+    /**
+     * Starts an eviction in the background if the given total exceeds the
+     * cache size limit and no eviction is running yet. Returns immediately.
+     *
+     * @param totalSize the running total of the cache index
+     */
+    static void evictIfNeeded(long totalSize) {
+        final long high = getHighWatermark();
+        if (high < 0 || totalSize <= high) {
+            return;
+        }
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        Thread t = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    int removed = evict(high, getLowWatermark(high), System.currentTimeMillis() - RECENT_USE);
+                    OutputController.getLogger().log("Cache eviction removed " + removed + " items");
+                } catch (Exception ex) {
+                    OutputController.getLogger().log(ex);
+                } finally {
+                    running.set(false);
+                }
+            }
+        }, "CacheEvictor");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        t.start();
+    }
+
+    /**
+     * Removes least recently used, unpinned items, {@link #BATCH_SIZE} at a
+     * time, until the cache is no larger than {@code low}. Does nothing if
+     * the cache is not larger than {@code high}. Stops as soon as other
+     * instances of netx are running, as their applications may use any
+     * item; {@link CacheUtil#clearCache()} does the same.
+     *
+     * @param high size in bytes above which eviction starts
+     * @param low size in bytes eviction reduces the cache to
+     * @param keepUsedAfter items used after this time are kept
+     * @return number of items removed
+     */
+    static int evict(long high, long low, long keepUsedAfter) {
+        int removed = 0;
+        while (true) {
+            Batch batch = new Batch(removed == 0 ? high : Long.MIN_VALUE, low, keepUsedAfter);
+            if (!JNLPRuntime.runIfNoOtherNetxRunning(batch)) {
+                OutputController.getLogger().log("Other instances of netx are running, cache eviction skipped");
+                return removed;
+            }
+            if (batch.folders.isEmpty()) {
+                // small enough, or everything left is pinned
+                return removed;
+            }
+            // gone from the index, so instances starting now do not use them
+            for (File folder : batch.folders) {
+                try {
+                    FileUtils.recursiveDelete(folder, folder);
+                } catch (IOException ex) {
+                    OutputController.getLogger().log(ex);
+                }
+            }
+            removed += batch.folders.size();
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Removes up to {@link #BATCH_SIZE} items from the index and collects
+     * their folders. Runs while other instances of netx are kept from
+     * starting, so it only touches the index; the folders are deleted
+     * afterwards.
+     */
+    private static final class Batch implements Runnable {
+
+        private final long high;
+        private final long low;
+        private final long keepUsedAfter;
+        final List<File> folders = new ArrayList<>();
+
+        /**
+         * @param high size in bytes above which eviction starts, or
+         * {@link Long#MIN_VALUE} if it started already
+         */
+        Batch(long high, long low, long keepUsedAfter) {
+            this.high = high;
+            this.low = low;
+            this.keepUsedAfter = keepUsedAfter;
+        }
+
+        @Override
+        public void run() {
+            CacheLRUWrapper lruHandler = CacheLRUWrapper.getInstance();
+            synchronized (lruHandler) {
+                lruHandler.lock();
+                try {
+                    lruHandler.load();
+                    List<CacheIndexEntry> entries = lruHandler.getIndexedEntries();
+                    long total = 0;
+                    for (CacheIndexEntry e : entries) {
+                        total += Math.max(e.getSize(), 0);
+                    }
+                    // the running total is recounted on every batch, so it
+                    // can not drift for long
+                    lruHandler.setTotalSize(total);
+                    if (total <= high || total <= low) {
+                        lruHandler.store();
+                        return;
+                    }
+
+                    Set<String> pins = getPinnedPaths();
+                    // superseded items go first, then least recently used
+                    List<CacheIndexEntry> candidates = new ArrayList<>();
+                    for (int i = entries.size() - 1; i >= 0; i--) {
+                        if (entries.get(i).isMarkedForDelete()) {
+                            candidates.add(entries.get(i));
+                        }
+                    }
+                    for (int i = entries.size() - 1; i >= 0; i--) {
+                        if (!entries.get(i).isMarkedForDelete()) {
+                            candidates.add(entries.get(i));
+                        }
+                    }
+                    for (CacheIndexEntry e : candidates) {
+                        if (total <= low || folders.size() >= BATCH_SIZE) {
+                            break;
+                        }
+                        if (pins.contains(e.getFile().getPath()) || e.getLastUsed() > keepUsedAfter) {
+                            continue;
+                        }
+                        lruHandler.removeEntry(e.getKey());
+                        folders.add(e.getFolder());
+                        total -= Math.max(e.getSize(), 0);
+                    }
+                    lruHandler.store();
+                } finally {
+                    lruHandler.unlock();
+                }
+            }
+        }
+    }
+
+    private static Set<String> getPinnedPaths() {
+        List<ResourceTracker> trackers;
+        synchronized (pinned) {
+            trackers = new ArrayList<>(pinned.keySet());
+        }
+        Set<String> paths = new HashSet<>();
+        for (ResourceTracker tracker : trackers) {
+            for (File f : tracker.getLocalFiles()) {
+                paths.add(f.getPath());
+            }
+        }
+        return paths;
+    }
+}
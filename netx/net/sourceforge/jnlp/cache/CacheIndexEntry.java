@@ -0,0 +1,135 @@
+/* CacheIndexEntry.java
+   Copyright (C) 2026 Red Hat, Inc.
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License as published by
+the Free Software Foundation, version 2.
+
+IcedTea is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to
+the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version.
+*/
+
+package net.sourceforge.jnlp.cache;
+
+import java.io.File;
+
+/**
+ * Snapshot of one cache item as recorded in the cache index. Everything here
+ * is read from the index, so listing the cache does not touch the items
+ * themselves.
+ */
+public class CacheIndexEntry {
+
+    /** size of an item whose file is missing or could not be measured */
+    public static final long SIZE_UNKNOWN = -1;
+
+    private final String key;
+    private final File file;
+    private final File folder;
+    private final long size;
+    private final long lastWritten;
+    private final long lastUsed;
+    private final String owner;
+    private final boolean markedForDelete;
+
+    CacheIndexEntry(String key, File file, File folder, long size, long lastWritten, String owner, boolean markedForDelete) {
+        this.key = key;
+        this.file = file;
+        this.folder = folder;
+        this.size = size;
+        this.lastWritten = lastWritten;
+        this.lastUsed = Long.parseLong(key.split(",")[0]);
+        this.owner = owner;
+        this.markedForDelete = markedForDelete;
+    }
+
+    /**
+     * @return the key of this item in the recently_used file
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return the cached file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * @return the numbered folder directly below the cache directory which
+     * holds this item and nothing else
+     */
+    public File getFolder() {
+        return folder;
+    }
+
+    /**
+     * @return size of the cached file in bytes, or {@link #SIZE_UNKNOWN}
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * @return time the cached file was last written
+     */
+    public long getLastWritten() {
+        return lastWritten;
+    }
+
+    /**
+     * @return time the item was last used
+     */
+    public long getLastUsed() {
+        return lastUsed;
+    }
+
+    /**
+     * @return location of the JNLP file or applet page the item was
+     * downloaded for, or {@code null} if it is not known
+     */
+    public String getOwner() {
+        return owner;
+    }
+
+    /**
+     * @return true if the item was superseded and is to be removed by the
+     * next clean up
+     */
+    public boolean isMarkedForDelete() {
+        return markedForDelete;
+    }
+
+    @Override
+    public String toString() {
+        return file.getPath();
+    }
+}
@@ -44,8 +44,11 @@ import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import net.sourceforge.jnlp.config.InfrastructureFileDescriptor;
@@ -66,8 +69,23 @@ public class CacheLRUWrapper {
      * back-end of how LRU is implemented This file is to keep track of the most
      * recently used items. The items are to be kept with key = (current time
      * accessed) followed by folder of item. value = path to file.
+     *
+     * Next to it lives the entry info file, which records per folder of item
+     * what the cache viewer and the clean up need to know (size, owning
+     * application, delete flag), so that neither has to walk the cache
+     * directory. Its keys are folder followed by "." and the attribute name,
+     * plus the running total of all item sizes. It is loaded and stored
+     * together with the recently_used file and only modified while that one
+     * is locked.
      */
-    
+
+    static final String ENTRY_INFO_SUFFIX = ".entries";
+    private static final String INFO_SIZE = "size";
+    private static final String INFO_WRITTEN = "written";
+    private static final String INFO_OWNER = "owner";
+    private static final String INFO_DELETE = "delete";
+    private static final String INFO_TOTAL_SIZE = "total.size";
+
     private final InfrastructureFileDescriptor recentlyUsedPropertiesFile;
     private final InfrastructureFileDescriptor cacheDir;
     
@@ -129,6 +147,20 @@ public class CacheLRUWrapper {
         
     }
 
+    private PropertiesFile cachedEntryInfoPropertiesFile = null;
+
+    /**
+     * @return the properties file holding size, owner and delete flag of
+     * the items listed in the recently_used file
+     */
+    synchronized PropertiesFile getEntryInfoPropertiesFile() {
+        File file = new File(recentlyUsedPropertiesFile.getFile().getPath() + ENTRY_INFO_SUFFIX);
+        if (cachedEntryInfoPropertiesFile == null || !file.equals(cachedEntryInfoPropertiesFile.getStoreFile())) {
+            cachedEntryInfoPropertiesFile = new PropertiesFile(file);
+        }
+        return cachedEntryInfoPropertiesFile;
+    }
+
     /**
      * @return the cacheDir
      */
@@ -152,6 +184,7 @@ public class CacheLRUWrapper {
      */
     public synchronized void load() {
         boolean loaded = getRecentlyUsedPropertiesFile().load();
+        getEntryInfoPropertiesFile().load();
         /* 
          * clean up possibly corrupted entries
          */
@@ -210,11 +243,39 @@ public class CacheLRUWrapper {
     public synchronized boolean store() {
         if (getRecentlyUsedPropertiesFile().isHeldByCurrentThread()) {
             getRecentlyUsedPropertiesFile().store();
+            storeEntryInfo();
             return true;
         }
         return false;
     }
 
+    /**
+     * Drops the info of items no longer listed in the recently_used file and
+     * writes the rest to disk.
+     */
+    private void storeEntryInfo() {
+        PropertiesFile info = getEntryInfoPropertiesFile();
+        Set<String> folders = new HashSet<>();
+        for (Object path : getRecentlyUsedPropertiesFile().values()) {
+            folders.add(getFolderOrNull((String) path));
+        }
+        boolean modified = false;
+        for (Iterator<Object> it = info.keySet().iterator(); it.hasNext();) {
+            String key = (String) it.next();
+            int dot = key.indexOf('.');
+            if (key.equals(INFO_TOTAL_SIZE)) {
+                continue;
+            }
+            if (dot < 0 || !folders.contains(key.substring(0, dot))) {
+                it.remove();
+                modified = true;
+            }
+        }
+        if (modified || !info.isEmpty()) {
+            info.store();
+        }
+    }
+
     /**
      * This adds a new entry to file.
      * 
@@ -242,6 +303,7 @@ public class CacheLRUWrapper {
         if (!props.containsKey(key)) {
             return false;
         }
+        removeEntryInfo(getFolderOrNull(props.getProperty(key)));
         props.remove(key);
         return true;
     }
@@ -252,6 +314,205 @@ public class CacheLRUWrapper {
         return folder.substring(len + 1, index);
     }
 
+    private String getFolderOrNull(String path) {
+        String cacheDirPath = getCacheDir().getFullPath();
+        if (path == null || !path.startsWith(cacheDirPath + File.separator)) {
+            return null;
+        }
+        int index = path.indexOf(File.separatorChar, cacheDirPath.length() + 1);
+        if (index < 0) {
+            return null;
+        }
+        return path.substring(cacheDirPath.length() + 1, index);
+    }
+
+    private void removeEntryInfo(String folder) {
+        if (folder == null) {
+            return;
+        }
+        PropertiesFile info = getEntryInfoPropertiesFile();
+        setTotalSize(getTotalSize() - getRecordedSize(folder));
+        info.remove(folder + "." + INFO_SIZE);
+        info.remove(folder + "." + INFO_WRITTEN);
+        info.remove(folder + "." + INFO_OWNER);
+        info.remove(folder + "." + INFO_DELETE);
+    }
+
+    /**
+     * Records size, time of writing and owning application of the item
+     * stored at the given path. Called whenever an item has been written,
+     * so that listing the cache never needs to look at the item itself.
+     *
+     * @param path path to cache item
+     * @param size size of the item in bytes
+     * @param written time the item was written
+     * @param owner location of the JNLP file or page the item belongs to,
+     * {@code null} to keep the owner recorded so far
+     * @return true if the path denotes a cache item, false otherwise
+     */
+    public synchronized boolean setEntryInfo(String path, long size, long written, String owner) {
+        String folder = getFolderOrNull(path);
+        if (folder == null) {
+            return false;
+        }
+        PropertiesFile info = getEntryInfoPropertiesFile();
+        setTotalSize(getTotalSize() - getRecordedSize(folder) + Math.max(size, 0));
+        info.setProperty(folder + "." + INFO_SIZE, Long.toString(size));
+        info.setProperty(folder + "." + INFO_WRITTEN, Long.toString(written));
+        if (owner != null) {
+            info.setProperty(folder + "." + INFO_OWNER, owner);
+        }
+        return true;
+    }
+
+    private long getRecordedSize(String folder) {
+        try {
+            return Math.max(Long.parseLong(getEntryInfoPropertiesFile().getProperty(folder + "." + INFO_SIZE, "0")), 0);
+        } catch (NumberFormatException ex) {
+            return 0;
+        }
+    }
+
+    /**
+     * Returns the running total of the sizes of all indexed items. It is
+     * kept up to date by {@link #setEntryInfo} and {@link #removeEntry}, so
+     * enforcing the cache size limit does not have to sum up the items.
+     *
+     * @return total size of the cache in bytes
+     */
+    public synchronized long getTotalSize() {
+        try {
+            return Math.max(Long.parseLong(getEntryInfoPropertiesFile().getProperty(INFO_TOTAL_SIZE, "0")), 0);
+        } catch (NumberFormatException ex) {
+            return 0;
+        }
+    }
+
+    /**
+     * Corrects the running total, e.g. after the items were counted anew.
+     *
+     * @param size total size of the cache in bytes
+     */
+    synchronized void setTotalSize(long size) {
+        getEntryInfoPropertiesFile().setProperty(INFO_TOTAL_SIZE, Long.toString(Math.max(size, 0)));
+    }
+
+    /**
+     * Records that the item stored at the given path was superseded and is
+     * to be removed by the next clean up.
+     *
+     * @param path path to cache item
+     * @return true if the path denotes a cache item, false otherwise
+     */
+    public synchronized boolean markEntryForDelete(String path) {
+        String folder = getFolderOrNull(path);
+        if (folder == null) {
+            return false;
+        }
+        getEntryInfoPropertiesFile().setProperty(folder + "." + INFO_DELETE, Boolean.toString(true));
+        return true;
+    }
+
+    /**
+     * Returns the items of the cache, most recently used first, together
+     * with what is recorded about them. Items recorded before the entry info
+     * file existed are measured once and recorded, so later calls are served
+     * from the index alone.
+     *
+     * @return list of indexed items sorted by descending time of use
+     */
+    public synchronized List<CacheIndexEntry> getIndexedEntries() {
+        List<CacheIndexEntry> result = new ArrayList<>();
+        for (Entry<String, String> e : getLRUSortedEntries()) {
+            String folder = getFolderOrNull(e.getValue());
+            if (folder == null) {
+                continue;
+            }
+            result.add(toIndexEntry(e.getKey(), e.getValue(), folder, true));
+        }
+        return result;
+    }
+
+    /**
+     * Looks up the newest indexed item of each of the given locations.
+     * Unlike {@link #getIndexedEntries()}, nothing is sorted or recorded;
+     * items recorded by older versions are measured without keeping the
+     * result.
+     *
+     * @param urlPaths locations, as the paths of the items below their
+     * cache folder
+     * @return the newest item of every location found in the index, by
+     * location
+     */
+    public synchronized Map<String, CacheIndexEntry> findIndexedEntries(Set<String> urlPaths) {
+        Map<String, Entry<String, String>> newest = new HashMap<>();
+        for (Entry<Object, Object> e : getRecentlyUsedPropertiesFile().entrySet()) {
+            String path = (String) e.getValue();
+            String folder = getFolderOrNull(path);
+            if (folder == null) {
+                continue;
+            }
+            String urlPath = path.substring(getCacheDir().getFullPath().length() + 1 + folder.length());
+            if (!urlPaths.contains(urlPath)) {
+                continue;
+            }
+            String key = (String) e.getKey();
+            Entry<String, String> current = newest.get(urlPath);
+            if (current == null || getTimestamp(key) > getTimestamp(current.getKey())) {
+                newest.put(urlPath, new AbstractMap.SimpleImmutableEntry<>(key, path));
+            }
+        }
+        Map<String, CacheIndexEntry> result = new HashMap<>();
+        for (Entry<String, Entry<String, String>> e : newest.entrySet()) {
+            String path = e.getValue().getValue();
+            result.put(e.getKey(), toIndexEntry(e.getValue().getKey(), path, getFolderOrNull(path), false));
+        }
+        return result;
+    }
+
+    private static long getTimestamp(String key) {
+        return Long.parseLong(key.split(",")[0]);
+    }
+
+    /**
+     * @param record whether an item recorded by an older version is
+     * recorded in the entry info once measured
+     */
+    private CacheIndexEntry toIndexEntry(String key, String path, String folder, boolean record) {
+        PropertiesFile info = getEntryInfoPropertiesFile();
+        File file = new File(path);
+        String size = info.getProperty(folder + "." + INFO_SIZE);
+        boolean delete = Boolean.parseBoolean(info.getProperty(folder + "." + INFO_DELETE));
+        String recordedWritten = "0";
+        if (size == null) {
+            PropertiesFile entryInfo = new PropertiesFile(new File(file.getPath() + ".info"));
+            long measured = file.isFile() ? file.length() : CacheIndexEntry.SIZE_UNKNOWN;
+            delete |= Boolean.parseBoolean(entryInfo.getProperty("delete"));
+            if (record) {
+                setEntryInfo(path, measured, file.lastModified(), null);
+                if (delete) {
+                    markEntryForDelete(path);
+                }
+            }
+            size = Long.toString(measured);
+            recordedWritten = Long.toString(file.lastModified());
+        }
+        long written;
+        try {
+            written = Long.parseLong(info.getProperty(folder + "." + INFO_WRITTEN, recordedWritten));
+        } catch (NumberFormatException ex) {
+            written = 0;
+        }
+        long length;
+        try {
+            length = Long.parseLong(size);
+        } catch (NumberFormatException ex) {
+            length = CacheIndexEntry.SIZE_UNKNOWN;
+        }
+        return new CacheIndexEntry(key, file, new File(getCacheDir().getFullPath(), folder),
+                length, written, info.getProperty(folder + "." + INFO_OWNER), delete);
+    }
+
     /**
      * This updates the given key to reflect it was recently accessed.
      * 
@@ -345,5 +606,6 @@ public class CacheLRUWrapper {
 
     void clearLRUSortedEntries() {
         getRecentlyUsedPropertiesFile().clear();
+        getEntryInfoPropertiesFile().clear();
     }
 }
@@ -16,7 +16,6 @@
 
 package net.sourceforge.jnlp.cache;
 
-import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
@@ -34,8 +33,12 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.Permission;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
@@ -50,7 +53,7 @@ import static net.sourceforge.jnlp.runtime.Translator.R;
 
 import net.sourceforge.jnlp.security.ConnectionFactory;
 import net.sourceforge.jnlp.util.FileUtils;
-import net.sourceforge.jnlp.util.PropertiesFile;
+import net.sourceforge.jnlp.util.StreamUtils;
 import net.sourceforge.jnlp.util.logging.OutputController;
 
 /**
@@ -62,7 +65,8 @@ import net.sourceforge.jnlp.util.logging.OutputController;
  */
 public class CacheUtil {
 
-
+    /** how often progress of DownloadService downloads is reported, in ms */
+    private static final long PROGRESS_UPDATE_RATE = 150;
 
     /**
      * Caches a resource and returns a URL for it in the cache;
@@ -154,17 +158,20 @@ public class CacheUtil {
         }
 
         OutputController.getLogger().log(OutputController.Level.ERROR_DEBUG, "Clearing cache directory: " + cacheDir);
-        lruHandler.lock();
-        try {
-            cacheDir = cacheDir.getCanonicalFile();
-            FileUtils.recursiveDelete(cacheDir, cacheDir);
-            cacheDir.mkdir();
-            lruHandler.clearLRUSortedEntries();
-            lruHandler.store();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        } finally {
-            lruHandler.unlock();
+        // same lock order as getCacheFile: the monitor, then the file lock
+        synchronized (lruHandler) {
+            lruHandler.lock();
+            try {
+                cacheDir = cacheDir.getCanonicalFile();
+                FileUtils.recursiveDelete(cacheDir, cacheDir);
+                cacheDir.mkdir();
+                lruHandler.clearLRUSortedEntries();
+                lruHandler.store();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            } finally {
+                lruHandler.unlock();
+            }
         }
         return true;
     }
@@ -432,28 +439,15 @@ public class CacheUtil {
 
     /**
      * Copies from an input stream to an output stream.  On
-     * completion, both streams will be closed.  Streams are
-     * buffered automatically.
+     * completion, both streams will be closed.  Streams need
+     * not be buffered, see {@link StreamUtils#copyStream(InputStream, OutputStream, StreamUtils.TransferListener)}.
      * @param is stream to read from
      * @param os stream to write to
      * @throws java.io.IOException if copy fails
      */
     public static void streamCopy(InputStream is, OutputStream os) throws IOException {
-        if (!(is instanceof BufferedInputStream))
-            is = new BufferedInputStream(is);
-
-        if (!(os instanceof BufferedOutputStream))
-            os = new BufferedOutputStream(os);
-
         try {
-            byte b[] = new byte[4096];
-            while (true) {
-                int c = is.read(b, 0, b.length);
-                if (c == -1)
-                    break;
-
-                os.write(b, 0, c);
-            }
+            StreamUtils.copyStream(is, os, null);
         } finally {
             is.close();
             os.close();
@@ -576,10 +570,72 @@ public class CacheUtil {
         }
     }
 
+    /**
+     * Waits for the resources to download, reporting their progress to the
+     * listener passed by the application to the DownloadService. The
+     * resources download concurrently; every update reports the bytes read
+     * of each resource that advanced, and the overall percentage of all of
+     * them.
+     *
+     * @param tracker tracker the resources were added to
+     * @param resources the resources to wait for
+     * @param versions the versions of the resources, elements may be null
+     * @param listener the listener of the application, or null
+     * @return the resources which failed to download
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    public static List<URL> waitForResources(ResourceTracker tracker, URL resources[], Version versions[], DownloadServiceListener listener) throws InterruptedException {
+        if (listener == null) {
+            tracker.waitForResources(resources, 0);
+        } else {
+            long lastRead[] = new long[resources.length];
+            Arrays.fill(lastRead, -1);
+            boolean done;
+            do {
+                done = tracker.waitForResources(resources, PROGRESS_UPDATE_RATE);
+
+                long read = 0;
+                long total = 0;
+                for (URL url : resources) {
+                    read += tracker.getAmountRead(url);
+                    total += Math.max(0, tracker.getTotalSize(url));
+                }
+                int percent = done ? 100 : (int) Math.min(99, (100 * read) / Math.max(1, total));
+
+                for (int i = 0; i < resources.length; i++) {
+                    long amount = tracker.getAmountRead(resources[i]);
+                    // the last round always reports, so the listener sees 100 percent
+                    if ((done || amount != lastRead[i]) && !tracker.hasFailed(resources[i])) {
+                        lastRead[i] = amount;
+                        listener.progress(resources[i], toString(versions[i]), amount, tracker.getTotalSize(resources[i]), percent);
+                    }
+                }
+            } while (!done);
+        }
+
+        List<URL> failed = new ArrayList<>();
+        for (int i = 0; i < resources.length; i++) {
+            if (tracker.hasFailed(resources[i])) {
+                failed.add(resources[i]);
+                if (listener != null) {
+                    listener.downloadFailed(resources[i], toString(versions[i]));
+                }
+            }
+        }
+        return failed;
+    }
+
+    private static String toString(Version version) {
+        return version == null ? null : version.toString();
+    }
+
     /**
      * This will remove all old cache items.
+     *
+     * @return number of items removed, or -1 if other instances of netx are
+     * running and nothing was removed
      */
-    public static void cleanCache() {
+    public static int cleanCache() {
         CacheLRUWrapper lruHandler = CacheLRUWrapper.getInstance();
         if (okToClearCache()) {
             // First we want to figure out which stuff we need to delete.
@@ -598,29 +654,27 @@ public class CacheUtil {
                 maxSize = maxSize << 20; // Convert from megabyte to byte (Negative values will be considered unlimited.)
                 long curSize = 0;
 
-                for (Entry<String, String> e : lruHandler.getLRUSortedEntries()) {
-                    // Check if the item is contained in cacheOrder.
+                // Sizes and delete flags come from the index, nothing is
+                // read from the items themselves.
+                for (CacheIndexEntry e : lruHandler.getIndexedEntries()) {
                     final String key = e.getKey();
-                    final String path = e.getValue();
-
-                    File file = new File(path);
-                    PropertiesFile pf = new PropertiesFile(new File(path + ".info"));
-                    boolean delete = Boolean.parseBoolean(pf.getProperty("delete"));
 
                 /*
-                 * This will get me the root directory specific to this cache item.
+                 * The folder holds this cache item only.
                  * Example:
                  *  cacheDir = /home/user1/.icedtea/cache
                  *  file.getPath() = /home/user1/.icedtea/cache/0/http/www.example.com/subdir/a.jar
-                 *  rStr first becomes: /0/http/www.example.com/subdir/a.jar
-                 *  then rstr becomes: /home/user1/.icedtea/cache/0
+                 *  folder becomes: /home/user1/.icedtea/cache/0
+                 *  urlPath becomes: /http/www.example.com/subdir/a.jar
                  */
-                    String rStr = file.getPath().substring(lruHandler.getCacheDir().getFullPath().length());
-                    rStr = lruHandler.getCacheDir().getFullPath()+ rStr.substring(0, rStr.indexOf(File.separatorChar, 1));
-                    long len = file.length();
+                    String rStr = e.getFolder().getPath();
+                    String urlPath = e.getFile().getPath().substring(rStr.length());
+                    long len = e.getSize();
 
-                    if (keep.contains(file.getPath().substring(rStr.length()))) {
+                    if (keep.contains(urlPath)) {
+                        // an older copy of an item we keep
                         lruHandler.removeEntry(key);
+                        remove.add(rStr);
                         continue;
                     }
 
@@ -628,35 +682,203 @@ public class CacheUtil {
                  * we remove entries from our lru if any of the following condition is met.
                  * Conditions:
                  *  - delete: file has been marked for deletion.
-                 *  - !file.isFile(): if someone tampered with the directory, file doesn't exist.
+                 *  - len < 0: if someone tampered with the directory, file doesn't exist.
                  *  - maxSize >= 0 && curSize + len > maxSize: If a limit was set and the new size
                  *  on disk would exceed the maximum size.
                  */
-                    if (delete || !file.isFile() || (maxSize >= 0 && curSize + len > maxSize)) {
+                    if (e.isMarkedForDelete() || len < 0 || (maxSize >= 0 && curSize + len > maxSize)) {
                         lruHandler.removeEntry(key);
                         remove.add(rStr);
                         continue;
                     }
 
                     curSize += len;
-                    keep.add(file.getPath().substring(rStr.length()));
-
-                    for (File f : file.getParentFile().listFiles()) {
-                        if (!(f.equals(file) || f.equals(pf.getStoreFile()))) {
-                            try {
-                                FileUtils.recursiveDelete(f, f);
-                            } catch (IOException e1) {
-                                OutputController.getLogger().log(OutputController.Level.ERROR_ALL, e1);
-                            }
-                        }
+                    keep.add(urlPath);
+                }
+                lruHandler.setTotalSize(curSize);
+                lruHandler.store();
+            } finally {
+                lruHandler.unlock();
+            }
+            removeSetOfDirectories(remove);
+            return remove.size();
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the items of the cache as recorded in the cache index, most
+     * recently used first. The cache directory itself is not walked.
+     *
+     * @return list of the indexed cache items
+     */
+    public static List<CacheIndexEntry> getIndexedEntries() {
+        CacheLRUWrapper lruHandler = CacheLRUWrapper.getInstance();
+        synchronized (lruHandler) {
+            lruHandler.lock();
+            try {
+                lruHandler.load();
+                List<CacheIndexEntry> entries = lruHandler.getIndexedEntries();
+                // keeps what was measured for items recorded by older versions
+                lruHandler.store();
+                return entries;
+            } finally {
+                lruHandler.unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns which of the given resources have a copy in the cache. All of
+     * them are answered from a single read of the cache index, rather than
+     * by looking up the cache entry of each one. The index is only read,
+     * never written.
+     *
+     * @param sources locations of the resources
+     * @return the locations which are cached; resources which can not be
+     * cached are never included
+     */
+    public static Set<URL> getCachedResources(Collection<URL> sources) {
+        Map<URL, String> urlPaths = new HashMap<>();
+        for (URL source : sources) {
+            if (isCacheable(source, null)) {
+                urlPaths.put(source, urlToPath(source, "").getPath());
+            }
+        }
+        if (urlPaths.isEmpty()) {
+            return new HashSet<>();
+        }
+
+        Map<String, CacheIndexEntry> newest;
+        CacheLRUWrapper lruHandler = CacheLRUWrapper.getInstance();
+        synchronized (lruHandler) {
+            // held only while the index is read, so a concurrent store is not seen half written
+            lruHandler.lock();
+            try {
+                lruHandler.load();
+            } finally {
+                lruHandler.unlock();
+            }
+            newest = lruHandler.findIndexedEntries(new HashSet<>(urlPaths.values()));
+        }
+
+        Set<URL> result = new HashSet<>();
+        for (Map.Entry<URL, String> source : urlPaths.entrySet()) {
+            CacheIndexEntry entry = newest.get(source.getValue());
+            if (entry != null && !entry.isMarkedForDelete() && entry.getSize() != CacheIndexEntry.SIZE_UNKNOWN) {
+                result.add(source.getKey());
+            }
+        }
+        return result;
+    }
 
+    /**
+     * Removes the given items from the cache index and deletes their
+     * folders.
+     *
+     * @param entries items obtained from {@link #getIndexedEntries()}
+     * @return number of items removed, or -1 if other instances of netx are
+     * running and nothing was removed
+     */
+    public static int removeIndexedEntries(Collection<CacheIndexEntry> entries) {
+        if (!okToClearCache()) {
+            OutputController.getLogger().log(OutputController.Level.ERROR_ALL, R("CCannotClearCache"));
+            return -1;
+        }
+        CacheLRUWrapper lruHandler = CacheLRUWrapper.getInstance();
+        Set<String> remove = new HashSet<>();
+        int removed = 0;
+        synchronized (lruHandler) {
+            lruHandler.lock();
+            try {
+                lruHandler.load();
+                for (CacheIndexEntry e : entries) {
+                    if (lruHandler.removeEntry(e.getKey())) {
+                        remove.add(e.getFolder().getPath());
+                        removed++;
                     }
                 }
                 lruHandler.store();
             } finally {
                 lruHandler.unlock();
             }
-            removeSetOfDirectories(remove);
+        }
+        removeSetOfDirectories(remove);
+        return removed;
+    }
+
+    /**
+     * Records size and owner of a cache item in the cache index once the
+     * item has been written.
+     *
+     * @param cacheFile the item just written
+     * @param owner location of the JNLP file or page the item was downloaded
+     * for, or {@code null} if not known
+     */
+    static void recordCacheFile(File cacheFile, URL owner) {
+        CacheLRUWrapper lruHandler = CacheLRUWrapper.getInstance();
+        synchronized (lruHandler) {
+            lruHandler.lock();
+            try {
+                lruHandler.load();
+                lruHandler.setEntryInfo(cacheFile.getPath(), cacheFile.length(), System.currentTimeMillis(),
+                        owner == null ? null : owner.toString());
+                lruHandler.store();
+            } finally {
+                lruHandler.unlock();
+            }
+            CacheEvictor.evictIfNeeded(lruHandler.getTotalSize());
+        }
+    }
+
+    /**
+     * Removes a cache item which was never used from the index and deletes
+     * its folder.
+     *
+     * @param cacheFile the item
+     */
+    static void removeCacheFile(File cacheFile) {
+        CacheLRUWrapper lruHandler = CacheLRUWrapper.getInstance();
+        File folder = null;
+        synchronized (lruHandler) {
+            lruHandler.lock();
+            try {
+                lruHandler.load();
+                for (CacheIndexEntry e : lruHandler.getIndexedEntries()) {
+                    if (e.getFile().equals(cacheFile) && lruHandler.removeEntry(e.getKey())) {
+                        folder = e.getFolder();
+                    }
+                }
+                lruHandler.store();
+            } finally {
+                lruHandler.unlock();
+            }
+        }
+        if (folder != null) {
+            try {
+                FileUtils.recursiveDelete(folder, folder);
+            } catch (IOException e) {
+                OutputController.getLogger().log(e);
+            }
+        }
+    }
+
+    /**
+     * Records in the cache index that a cache item was superseded.
+     *
+     * @param cacheFile the superseded item
+     */
+    static void recordMarkedForDelete(File cacheFile) {
+        CacheLRUWrapper lruHandler = CacheLRUWrapper.getInstance();
+        synchronized (lruHandler) {
+            lruHandler.lock();
+            try {
+                lruHandler.load();
+                lruHandler.markEntryForDelete(cacheFile.getPath());
+                lruHandler.store();
+            } finally {
+                lruHandler.unlock();
+            }
         }
     }
 
@@ -57,6 +57,9 @@ public class DefaultDownloadIndicator implements DownloadIndicator {
     /** time to wait after completing but before window closes */
     private static final int CLOSE_DELAY = 750;
 
+    /** time between two refreshes of the shown progress */
+    private static final int FRAME_INTERVAL = 100;
+
     /** the display window */
     private static JDialog dialog;
     private static final Object dialogMutex = new Object();
@@ -166,6 +169,7 @@ public class DefaultDownloadIndicator implements DownloadIndicator {
         ActionListener hider = new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent evt) {
+                ((DownloadPanel) listener).stopUpdates();
                 synchronized(dialogMutex) {
                     dialog.getContentPane().remove((DownloadPanel) listener);
                     dialog.pack();
@@ -219,6 +223,12 @@ public class DefaultDownloadIndicator implements DownloadIndicator {
         /** list of ProgressPanels */
         private List<ProgressPanel> panels = new ArrayList<>();
 
+        /** progress reported since the last frame */
+        private final ProgressAggregator aggregator = new ProgressAggregator();
+        /** shows the reported progress once per frame */
+        private final Timer frameTimer;
+        private int shownPercent = 0;
+
         /**
          * Create a new download panel for with the specified download
          * name.
@@ -271,6 +281,14 @@ public class DefaultDownloadIndicator implements DownloadIndicator {
                 }
             });
             setOverallPercent(0);
+
+            frameTimer = new Timer(FRAME_INTERVAL, new ActionListener() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    showUpdates();
+                }
+            });
+            frameTimer.start();
         }
 
         /**
@@ -309,25 +327,47 @@ public class DefaultDownloadIndicator implements DownloadIndicator {
         }
 
         /**
-         * Update the download progress of a url.
+         * Update the download progress of a url. Only the progress is
+         * recorded here, it is shown with the next frame.
          */
-        protected void update(final URL url, final String version,
-                              final long readSoFar, final long total,
-                              final int overallPercent) {
-            Runnable r = new Runnable() {
-                @Override
-                public void run() {
-                    if (!urls.contains(url))
-                        addProgressPanel(url, version);
+        protected void update(URL url, String version,
+                              long readSoFar, long total,
+                              int overallPercent) {
+            aggregator.update(url, version, readSoFar, total, overallPercent);
+        }
 
-                    setOverallPercent(overallPercent);
-                    ProgressPanel panel = panels.get(urls.indexOf(url));
-                    panel.setProgress(readSoFar, total);
-                    panel.repaint();
+        /**
+         * Shows the latest progress of every url reported since the last
+         * frame, and the overall percent once. Runs on the event dispatch
+         * thread.
+         */
+        private void showUpdates() {
+            List<ProgressAggregator.Progress> updates = aggregator.takeUpdates();
+            if (updates.isEmpty())
+                return;
+
+            for (ProgressAggregator.Progress progress : updates) {
+                if (!urls.contains(progress.getUrl()))
+                    addProgressPanel(progress.getUrl(), progress.getVersion());
+
+                ProgressPanel panel = panels.get(urls.indexOf(progress.getUrl()));
+                panel.setProgress(progress.getReadSoFar(), progress.getTotal());
+                panel.repaint();
+            }
 
-                }
-            };
-            SwingUtilities.invokeLater(r);
+            int percent = aggregator.getOverallPercent();
+            if (percent != shownPercent) {
+                shownPercent = percent;
+                setOverallPercent(percent);
+            }
+        }
+
+        /**
+         * Shows what is left to show and stops refreshing.
+         */
+        void stopUpdates() {
+            frameTimer.stop();
+            showUpdates();
         }
 
         /**
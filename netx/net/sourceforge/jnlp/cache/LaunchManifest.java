@@ -0,0 +1,457 @@
+/* LaunchManifest.java
+   Copyright (C) 2026 Red Hat, Inc.
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License as published by
+the Free Software Foundation, version 2.
+
+IcedTea is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to
+the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version.
+*/
+
+package net.sourceforge.jnlp.cache;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import net.sourceforge.jnlp.JARDesc;
+import net.sourceforge.jnlp.JNLPFile;
+import net.sourceforge.jnlp.UpdateDesc;
+import net.sourceforge.jnlp.Version;
+import net.sourceforge.jnlp.config.PathsAndFiles;
+import net.sourceforge.jnlp.runtime.JNLPRuntime;
+import net.sourceforge.jnlp.util.logging.OutputController;
+
+/**
+ * A compact record of a successful application launch.
+ * <p>
+ * After an application has been launched, the resolved descriptor, the
+ * cache files of its jars, the result of jar verification and the main
+ * class are written to a small properties file next to the cache. A later
+ * launch of the same location which is offline, or which asked for
+ * {@code <update check="background">}, can then start straight from the
+ * cache without contacting the server, as long as every recorded file is
+ * still present and unchanged. The remote resources are revalidated after
+ * the application is running; a stale manifest is discarded so that the
+ * following launch goes through the normal update path.
+ * </p>
+ */
+public final class LaunchManifest {
+
+    /** bump when the format changes; manifests of other versions are ignored */
+    static final String FORMAT_VERSION = "1";
+
+    private static final String MANIFEST_DIR = "launch";
+    private static final String SUFFIX = ".properties";
+
+    private static final String KEY_FORMAT = "format";
+    private static final String KEY_LOCATION = "jnlp.location";
+    private static final String KEY_MAIN_CLASS = "main.class";
+    private static final String KEY_UPDATE_CHECK = "update.check";
+    private static final String KEY_SIGNING = "signing";
+    private static final String KEY_RECORDED = "recorded";
+    private static final String KEY_VALIDATED = "validated";
+    private static final String KEY_RESOURCES = "resources";
+    private static final String RESOURCE_PREFIX = "resource.";
+    private static final String KEY_RESOURCE_LOCATION = ".location";
+    private static final String KEY_RESOURCE_VERSION = ".version";
+    private static final String KEY_RESOURCE_FILE = ".file";
+    private static final String KEY_RESOURCE_LENGTH = ".length";
+    private static final String KEY_RESOURCE_MODIFIED = ".modified";
+
+    /**
+     * A cached file the application was launched from.
+     */
+    public static final class Entry {
+
+        private final URL location;
+        private final Version version;
+        private final File file;
+        private final long length;
+        private final long lastModified;
+
+        Entry(URL location, Version version, File file, long length, long lastModified) {
+            this.location = location;
+            this.version = version;
+            this.file = file;
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+
+        /**
+         * Records the current state of a cache file.
+         */
+        static Entry of(URL location, Version version, File file) {
+            return new Entry(location, version, file, file.length(), file.lastModified());
+        }
+
+        public URL getLocation() {
+            return location;
+        }
+
+        public Version getVersion() {
+            return version;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        /**
+         * @return whether the cache file still exists with the recorded
+         * length and modification time
+         */
+        public boolean isIntact() {
+            return file.isFile() && file.length() == length && file.lastModified() == lastModified;
+        }
+    }
+
+    private final File manifestFile;
+    private final URL location;
+    private final String mainClass;
+    private final UpdateDesc.Check updateCheck;
+    private final String signing;
+    private final List<Entry> entries;
+    private final long recorded;
+    private long validated;
+
+    LaunchManifest(File manifestFile, URL location, String mainClass, UpdateDesc.Check updateCheck,
+            String signing, List<Entry> entries, long recorded, long validated) {
+        this.manifestFile = manifestFile;
+        this.location = location;
+        this.mainClass = mainClass;
+        this.updateCheck = updateCheck;
+        this.signing = signing;
+        this.entries = Collections.unmodifiableList(new ArrayList<>(entries));
+        this.recorded = recorded;
+        this.validated = validated;
+    }
+
+    /**
+     * @param launchLocation the location the application was launched from
+     * @return the file the manifest of this location is kept in
+     */
+    public static File getManifestFile(URL launchLocation) {
+        File dir = new File(PathsAndFiles.CACHE_DIR.getFullPath(), MANIFEST_DIR);
+        return new File(dir, hash(launchLocation.toExternalForm()) + SUFFIX);
+    }
+
+    /**
+     * Loads the manifest recorded for a launch location.
+     *
+     * @param launchLocation the location the application is launched from
+     * @return the manifest, or {@code null} if there is none or it can not
+     * be read
+     */
+    public static LaunchManifest load(URL launchLocation) {
+        return load(getManifestFile(launchLocation));
+    }
+
+    static LaunchManifest load(File manifestFile) {
+        if (!manifestFile.isFile()) {
+            return null;
+        }
+        Properties props = new Properties();
+        try (InputStream in = new FileInputStream(manifestFile)) {
+            props.load(in);
+        } catch (IOException ex) {
+            OutputController.getLogger().log(ex);
+            return null;
+        }
+        if (!FORMAT_VERSION.equals(props.getProperty(KEY_FORMAT))) {
+            return null;
+        }
+        try {
+            URL location = new URL(props.getProperty(KEY_LOCATION));
+            String check = props.getProperty(KEY_UPDATE_CHECK);
+            int count = Integer.parseInt(props.getProperty(KEY_RESOURCES, "0"));
+            List<Entry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String prefix = RESOURCE_PREFIX + i;
+                String version = props.getProperty(prefix + KEY_RESOURCE_VERSION);
+                entries.add(new Entry(
+                        new URL(props.getProperty(prefix + KEY_RESOURCE_LOCATION)),
+                        version == null ? null : new Version(version),
+                        new File(props.getProperty(prefix + KEY_RESOURCE_FILE)),
+                        Long.parseLong(props.getProperty(prefix + KEY_RESOURCE_LENGTH)),
+                        Long.parseLong(props.getProperty(prefix + KEY_RESOURCE_MODIFIED))));
+            }
+            return new LaunchManifest(manifestFile, location,
+                    props.getProperty(KEY_MAIN_CLASS),
+                    check == null ? UpdateDesc.Check.TIMEOUT : UpdateDesc.Check.valueOf(check),
+                    props.getProperty(KEY_SIGNING),
+                    entries,
+                    Long.parseLong(props.getProperty(KEY_RECORDED, "0")),
+                    Long.parseLong(props.getProperty(KEY_VALIDATED, "0")));
+        } catch (MalformedURLException | RuntimeException ex) {
+            // NumberFormatException, IllegalArgumentException or NullPointerException of a damaged file
+            OutputController.getLogger().log("Ignoring damaged launch manifest " + manifestFile);
+            OutputController.getLogger().log(ex);
+            return null;
+        }
+    }
+
+    /**
+     * Collects a manifest for a launched application. Only resources which
+     * are in the cache are recorded; if an eager jar is not cacheable the
+     * application can not be started from the cache at all and {@code null}
+     * is returned.
+     *
+     * @param launchLocation the location the application was launched from
+     * @param files the descriptor of the application followed by the
+     * descriptors of its extensions
+     * @param mainClass the main class which was loaded
+     * @param signing the signing state the jars were verified to
+     * @return the manifest, not yet stored, or {@code null}
+     */
+    public static LaunchManifest create(URL launchLocation, List<JNLPFile> files, String mainClass, String signing) {
+        if (files.isEmpty()) {
+            return null;
+        }
+        JNLPFile main = files.get(0);
+        List<Entry> entries = new ArrayList<>();
+        for (JNLPFile file : files) {
+            addEntry(entries, file.getFileLocation(), null);
+            for (JARDesc jar : file.getResources().getJARs()) {
+                if (!jar.isCacheable()) {
+                    return null;
+                }
+                if (!addEntry(entries, jar.getLocation(), jar.getVersion()) && jar.isEager()
+                        && CacheUtil.isCacheable(jar.getLocation(), jar.getVersion())) {
+                    return null;
+                }
+            }
+        }
+        UpdateDesc update = main.getUpdate();
+        long now = System.currentTimeMillis();
+        return new LaunchManifest(getManifestFile(launchLocation), main.getFileLocation(), mainClass,
+                update == null ? UpdateDesc.Check.TIMEOUT : update.getCheck(),
+                signing, entries, now, now);
+    }
+
+    private static boolean addEntry(List<Entry> entries, URL location, Version version) {
+        if (location == null || !CacheUtil.isCacheable(location, version) || !CacheUtil.isCached(location, version)) {
+            return false;
+        }
+        File file = CacheUtil.getCacheFile(location, version);
+        if (file == null || !file.isFile()) {
+            return false;
+        }
+        entries.add(Entry.of(location, version, file));
+        return true;
+    }
+
+    /**
+     * Writes the manifest. The file is replaced atomically so that a
+     * concurrent launch never sees a partial manifest.
+     *
+     * @throws IOException if the manifest can not be written
+     */
+    public void store() throws IOException {
+        Properties props = new Properties();
+        props.setProperty(KEY_FORMAT, FORMAT_VERSION);
+        props.setProperty(KEY_LOCATION, location.toExternalForm());
+        if (mainClass != null) {
+            props.setProperty(KEY_MAIN_CLASS, mainClass);
+        }
+        props.setProperty(KEY_UPDATE_CHECK, updateCheck.name());
+        if (signing != null) {
+            props.setProperty(KEY_SIGNING, signing);
+        }
+        props.setProperty(KEY_RECORDED, Long.toString(recorded));
+        props.setProperty(KEY_VALIDATED, Long.toString(validated));
+        props.setProperty(KEY_RESOURCES, Integer.toString(entries.size()));
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            String prefix = RESOURCE_PREFIX + i;
+            props.setProperty(prefix + KEY_RESOURCE_LOCATION, entry.location.toExternalForm());
+            if (entry.version != null) {
+                props.setProperty(prefix + KEY_RESOURCE_VERSION, entry.version.toString());
+            }
+            props.setProperty(prefix + KEY_RESOURCE_FILE, entry.file.getPath());
+            props.setProperty(prefix + KEY_RESOURCE_LENGTH, Long.toString(entry.length));
+            props.setProperty(prefix + KEY_RESOURCE_MODIFIED, Long.toString(entry.lastModified));
+        }
+        storeAtomically(props, manifestFile, "launch manifest of " + location);
+    }
+
+    /**
+     * Writes properties to a temporary file next to the target and renames
+     * it over the target, so readers see either the old or the new content.
+     */
+    static void storeAtomically(Properties props, File target, String comment) throws IOException {
+        File dir = target.getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Can not create " + dir);
+        }
+        File tmp = File.createTempFile(target.getName(), ".tmp", dir);
+        try {
+            try (OutputStream out = new FileOutputStream(tmp)) {
+                props.store(out, comment);
+            }
+            Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp.toPath());
+        }
+    }
+
+    /**
+     * Removes the manifest, so that the next launch takes the normal path.
+     */
+    public void discard() {
+        if (manifestFile.exists() && !manifestFile.delete()) {
+            OutputController.getLogger().log("Can not delete launch manifest " + manifestFile);
+        }
+    }
+
+    /**
+     * @return whether every recorded cache file is still present and
+     * unchanged
+     */
+    public boolean isIntact() {
+        for (Entry entry : entries) {
+            if (!entry.isIntact()) {
+                OutputController.getLogger().log("Launch manifest of " + location + " is out of date: " + entry.file + " changed");
+                return false;
+            }
+        }
+        return !entries.isEmpty();
+    }
+
+    /**
+     * An application is started from its manifest when the runtime is
+     * offline, or when the application asked for its updates to be checked
+     * in the background, and every recorded file is still intact.
+     *
+     * @return whether the application may be launched straight from the
+     * cache
+     */
+    public boolean isLaunchableFromCache() {
+        if (JNLPRuntime.isOnline() && updateCheck != UpdateDesc.Check.BACKGROUND) {
+            return false;
+        }
+        return isIntact();
+    }
+
+    /**
+     * Checks the recorded remote resources against the server. If any of
+     * them changed the manifest is discarded, so the next launch updates
+     * the application; otherwise its validation time is refreshed. Nothing
+     * is checked while offline. Versioned resources are immutable by
+     * definition and are not checked.
+     *
+     * @return {@code false} if the manifest was found to be stale
+     */
+    public boolean revalidate() {
+        if (!JNLPRuntime.isOnline()) {
+            return true;
+        }
+        for (Entry entry : entries) {
+            if (entry.version != null) {
+                continue;
+            }
+            try {
+                if (BackgroundUpdater.isChanged(entry.location)) {
+                    OutputController.getLogger().log("Cached " + entry.location + " is out of date, discarding launch manifest of " + location);
+                    discard();
+                    return false;
+                }
+            } catch (IOException ex) {
+                // server not reachable right now; keep the manifest and try next time
+                OutputController.getLogger().log(ex);
+                return true;
+            }
+        }
+        validated = System.currentTimeMillis();
+        try {
+            store();
+        } catch (IOException ex) {
+            OutputController.getLogger().log(ex);
+        }
+        return true;
+    }
+
+    public URL getLocation() {
+        return location;
+    }
+
+    public String getMainClass() {
+        return mainClass;
+    }
+
+    public UpdateDesc.Check getUpdateCheck() {
+        return updateCheck;
+    }
+
+    public String getSigning() {
+        return signing;
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public long getRecorded() {
+        return recorded;
+    }
+
+    public long getValidated() {
+        return validated;
+    }
+
+    static String hash(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] bytes = digest.digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(bytes.length * 2);
+            for (byte b : bytes) {
+                sb.append(String.format("%02x", b & 0xff));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            // every java platform is required to provide SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/* ProgressAggregator.java
+   Copyright (C) 2026 Red Hat, Inc.
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License as published by
+the Free Software Foundation, version 2.
+
+IcedTea is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to
+the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version.
+*/
+
+package net.sourceforge.jnlp.cache;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects download progress reported from any thread, keeping only the
+ * latest state of each resource, so the user interface can take all of it
+ * in one batch per frame instead of handling every report.
+ */
+final class ProgressAggregator {
+
+    /**
+     * The latest reported state of one resource.
+     */
+    static final class Progress {
+
+        private final URL url;
+        private final String version;
+        private final long readSoFar;
+        private final long total;
+
+        Progress(URL url, String version, long readSoFar, long total) {
+            this.url = url;
+            this.version = version;
+            this.readSoFar = readSoFar;
+            this.total = total;
+        }
+
+        URL getUrl() {
+            return url;
+        }
+
+        String getVersion() {
+            return version;
+        }
+
+        /**
+         * @return bytes read, or -1 if the download failed
+         */
+        long getReadSoFar() {
+            return readSoFar;
+        }
+
+        /**
+         * @return the size, or -1 if not known or the download failed
+         */
+        long getTotal() {
+            return total;
+        }
+    }
+
+    /** states not taken yet, in the order the resources were first reported */
+    private final Map<URL, Progress> pending = new LinkedHashMap<>();
+    private int overallPercent = 0;
+
+    /**
+     * Records the state of a resource, replacing one not taken yet.
+     *
+     * @param overallPercent progress of all resources, ignored if negative
+     */
+    synchronized void update(URL url, String version, long readSoFar, long total, int overallPercent) {
+        pending.put(url, new Progress(url, version, readSoFar, total));
+        if (overallPercent >= 0) {
+            this.overallPercent = overallPercent;
+        }
+    }
+
+    /**
+     * @return the states recorded since the last call, one per resource
+     */
+    synchronized List<Progress> takeUpdates() {
+        if (pending.isEmpty()) {
+            return new ArrayList<>(0);
+        }
+        List<Progress> updates = new ArrayList<>(pending.values());
+        pending.clear();
+        return updates;
+    }
+
+    /**
+     * @return the last reported progress of all resources
+     */
+    synchronized int getOverallPercent() {
+        return overallPercent;
+    }
+}
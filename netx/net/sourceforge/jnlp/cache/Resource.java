@@ -22,6 +22,7 @@ import java.util.Collection;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Future;
 
 import net.sourceforge.jnlp.DownloadOptions;
 import net.sourceforge.jnlp.Version;
@@ -65,8 +66,8 @@ public class Resource {
         PROCESSING // in queue or being worked on
     }
 
-    /** list of weak references of resources currently in use */
-    private static final WeakList<Resource> resources = new WeakList<>();
+    /** weak registry of resources currently in use */
+    private static final ResourceRegistry resources = new ResourceRegistry();
 
     /** weak list of trackers monitoring this resource */
     private final WeakList<ResourceTracker> trackers = new WeakList<>();
@@ -94,6 +95,9 @@ public class Resource {
 
     /** the status of the resource */
     private final EnumSet<Status> status = EnumSet.noneOf(Status.class);
+
+    /** completes when the status reaches DOWNLOADED or ERROR; guarded by status */
+    private ResourceCompletion completion = new ResourceCompletion(this);
     
     /** Update policy for this resource */
     private final UpdatePolicy updatePolicy;
@@ -121,24 +125,9 @@ public class Resource {
      */
     public static Resource getResource(URL location, Version requestVersion, UpdatePolicy updatePolicy) {
         //TODO -rename to create resource?
-        synchronized (resources) {
-            Resource resource = new Resource(location, requestVersion, updatePolicy);
-
-            //FIXME - url ignores port during its comparison
-            //this may affect test-suites
-            int index = resources.indexOf(resource);
-            if (index >= 0) { // return existing object
-                Resource result = resources.get(index);
-                if (result != null) {
-                    return result;
-                }
-            }
-
-            resources.add(resource);
-            resources.trimToSize();
-
-            return resource;
-        }
+        //FIXME - url ignores port during its comparison
+        //this may affect test-suites
+        return resources.intern(new Resource(location, requestVersion, updatePolicy));
     }
 
     /**
@@ -328,6 +317,7 @@ public class Resource {
             if (add != null) {
                 status.addAll(add);
             }
+            statusChanged();
         }
     }
 
@@ -338,6 +328,7 @@ public class Resource {
     public void setStatusFlag(Status flag) {
         synchronized (status) {
             status.add(flag);
+            statusChanged();
         }
     }
 
@@ -348,6 +339,7 @@ public class Resource {
     public void setStatusFlags(Collection<Status> flags) {
         synchronized (status) {
             status.addAll(flags);
+            statusChanged();
         }
     }
 
@@ -358,6 +350,7 @@ public class Resource {
     public void unsetStatusFlag(Collection<Status> flags) {
         synchronized (status) {
             status.removeAll(flags);
+            statusChanged();
         }
     }
 
@@ -367,6 +360,33 @@ public class Resource {
     public void resetStatus() {
         synchronized (status) {
             status.clear();
+            statusChanged();
+        }
+    }
+
+    /**
+     * Completes the current completion once the resource is finished, or
+     * starts a new one when a finished resource is reset for another
+     * download. Must be called holding the status lock.
+     */
+    private void statusChanged() {
+        if (status.contains(Status.DOWNLOADED) || status.contains(Status.ERROR)) {
+            completion.complete();
+        } else if (completion.isDone()) {
+            completion = new ResourceCompletion(this);
+        }
+    }
+
+    /**
+     * Returns a future which completes once the resource is downloaded or
+     * failed to download. If the resource is reset afterwards, a later call
+     * returns a new future.
+     *
+     * @return the completion of the resource
+     */
+    public Future<Resource> getCompletion() {
+        synchronized (status) {
+            return completion;
         }
     }
 
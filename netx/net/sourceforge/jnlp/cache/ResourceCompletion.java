@@ -0,0 +1,133 @@
+/* ResourceCompletion.java
+   Copyright (C) 2026 Red Hat, Inc.
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License as published by
+the Free Software Foundation, version 2.
+
+IcedTea is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to
+the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version.
+*/
+
+package net.sourceforge.jnlp.cache;
+
+import java.util.Collection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Completes once its {@link Resource} is downloaded or failed.
+ * <p>
+ * Every resource owns one; waiting threads block on the completions of the
+ * resources they need only, instead of on a monitor shared by all trackers
+ * which every status change had to wake up. A completion can not be
+ * cancelled, and it never fails: an {@code ERROR} status completes it too,
+ * callers check the status afterwards as before.
+ * </p>
+ */
+final class ResourceCompletion implements Future<Resource> {
+
+    private final Resource resource;
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    ResourceCompletion(Resource resource) {
+        this.resource = resource;
+    }
+
+    void complete() {
+        done.countDown();
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return false;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return false;
+    }
+
+    @Override
+    public boolean isDone() {
+        return done.getCount() == 0;
+    }
+
+    @Override
+    public Resource get() throws InterruptedException {
+        done.await();
+        return resource;
+    }
+
+    @Override
+    public Resource get(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
+        if (!done.await(timeout, unit)) {
+            throw new TimeoutException("Timed out waiting for " + resource);
+        }
+        return resource;
+    }
+
+    /**
+     * Waits for all the futures, sharing one deadline between them.
+     *
+     * @param futures the futures to wait for
+     * @param timeout the time in ms to wait, or {@code 0} to wait until all
+     * are done
+     * @return {@code true} if all completed, {@code false} if the timeout
+     * was reached first
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    static boolean awaitAll(Collection<? extends Future<?>> futures, long timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        for (Future<?> future : futures) {
+            if (future.isDone()) {
+                continue;
+            }
+            try {
+                if (timeout <= 0) {
+                    future.get();
+                } else {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    future.get(remaining, TimeUnit.NANOSECONDS);
+                }
+            } catch (TimeoutException ex) {
+                return false;
+            } catch (ExecutionException ex) {
+                // a failed future is finished as well, the others are still awaited
+            }
+        }
+        return true;
+    }
+}
@@ -9,13 +9,11 @@ import static net.sourceforge.jnlp.cache.Resource.Status.PRECONNECT;
 import static net.sourceforge.jnlp.cache.Resource.Status.PREDOWNLOAD;
 
 import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLConnection;
@@ -30,18 +28,19 @@ import java.util.zip.GZIPInputStream;
 import net.sourceforge.jnlp.DownloadOptions;
 import net.sourceforge.jnlp.Version;
 import net.sourceforge.jnlp.runtime.JNLPRuntime;
+import net.sourceforge.jnlp.runtime.StartupTimeline;
 import net.sourceforge.jnlp.security.ConnectionFactory;
 import net.sourceforge.jnlp.util.HttpUtils;
+import net.sourceforge.jnlp.util.StreamUtils;
+import net.sourceforge.jnlp.util.StreamUtils.WriteOption;
 import net.sourceforge.jnlp.util.logging.OutputController;
 
 public class ResourceDownloader implements Runnable {
 
     private final Resource resource;
-    private final Object lock;
 
-    public ResourceDownloader(Resource resource, Object lock) {
+    public ResourceDownloader(Resource resource) {
         this.resource = resource;
-        this.lock = lock;
     }
 
     static int getUrlResponseCode(URL url, Map<String, String> requestProperties, ResourceTracker.RequestMethods requestMethod) throws IOException {
@@ -101,12 +100,22 @@ public class ResourceDownloader implements Runnable {
         if (resource.isSet(PRECONNECT) && !resource.hasFlags(EnumSet.of(ERROR, CONNECTING, CONNECTED))) {
             resource.changeStatus(EnumSet.noneOf(Resource.Status.class), EnumSet.of(CONNECTING));
             resource.fireDownloadEvent(); // fire CONNECTING
-            initializeResource();
+            StartupTimeline.Phase phase = StartupTimeline.start("connect", resource.getLocation());
+            try {
+                initializeResource();
+            } finally {
+                phase.end();
+            }
         }
         if (resource.isSet(PREDOWNLOAD) && !resource.hasFlags(EnumSet.of(ERROR, DOWNLOADING, DOWNLOADED))) {
             resource.changeStatus(EnumSet.noneOf(Resource.Status.class), EnumSet.of(DOWNLOADING));
             resource.fireDownloadEvent(); // fire CONNECTING
-            downloadResource();
+            StartupTimeline.Phase phase = StartupTimeline.start("download", resource.getLocation());
+            try {
+                downloadResource();
+            } finally {
+                phase.end();
+            }
         }
     }
 
@@ -129,9 +138,6 @@ public class ResourceDownloader implements Runnable {
         } catch (Exception e) {
             OutputController.getLogger().log(e);
             resource.changeStatus(EnumSet.noneOf(Resource.Status.class), EnumSet.of(ERROR));
-            synchronized (lock) {
-                lock.notifyAll(); // wake up wait's to check for completion
-            }
             resource.fireDownloadEvent(); // fire ERROR
         }
     }
@@ -181,9 +187,6 @@ public class ResourceDownloader implements Runnable {
             entry.setLastUpdated(System.currentTimeMillis());
             entry.store();
 
-            synchronized (lock) {
-                lock.notifyAll(); // wake up wait's to check for completion
-            }
             resource.fireDownloadEvent(); // fire CONNECTED
 
             // explicitly close the URLConnection.
@@ -213,9 +216,6 @@ public class ResourceDownloader implements Runnable {
                 resource.changeStatus(EnumSet.noneOf(Resource.Status.class), EnumSet.of(ERROR));
             }
 
-            synchronized (lock) {
-                lock.notifyAll(); // wake up wait's to check for completion
-            }
             resource.fireDownloadEvent(); // fire CONNECTED or ERROR
 
         } finally {
@@ -310,16 +310,10 @@ public class ResourceDownloader implements Runnable {
             }
 
             resource.changeStatus(EnumSet.of(DOWNLOADING), EnumSet.of(DOWNLOADED));
-            synchronized (lock) {
-                lock.notifyAll(); // wake up wait's to check for completion
-            }
             resource.fireDownloadEvent(); // fire DOWNLOADED
         } catch (Exception ex) {
             OutputController.getLogger().log(ex);
             resource.changeStatus(EnumSet.noneOf(Resource.Status.class), EnumSet.of(ERROR));
-            synchronized (lock) {
-                lock.notifyAll();
-            }
             resource.fireDownloadEvent(); // fire ERROR
         } finally {
             if (connection != null) {
@@ -353,7 +347,7 @@ public class ResourceDownloader implements Runnable {
         CacheEntry downloadEntry = new CacheEntry(downloadLocation, resource.getDownloadVersion());
         OutputController.getLogger().log(OutputController.Level.ERROR_DEBUG, "Downloading file: " + downloadLocation + " into: " + downloadEntry.getCacheFile().getCanonicalPath());
         if (!downloadEntry.isCurrent(connection.getLastModified())) {
-            writeDownloadToFile(resource, downloadLocation, new BufferedInputStream(connection.getInputStream()));
+            writeDownloadToFile(resource, downloadLocation, connection.getInputStream());
         } else {
             resource.setTransferred(CacheUtil.getCacheFile(downloadLocation, resource.getDownloadVersion()).length());
         }
@@ -370,39 +364,28 @@ public class ResourceDownloader implements Runnable {
         } finally {
             entry.unlock();
         }
+        ResourceTracker tracker = resource.getTracker();
+        CacheUtil.recordCacheFile(entry.getCacheFile(), tracker == null ? null : tracker.getOwner());
     }
 
-    private void writeDownloadToFile(Resource resource, URL downloadLocation, InputStream in) throws IOException {
-        byte buf[] = new byte[1024];
-        int rlen;
-        try (OutputStream out = CacheUtil.getOutputStream(downloadLocation, resource.getDownloadVersion())) {
-            while (-1 != (rlen = in.read(buf))) {
-                resource.incrementTransferred(rlen);
-                out.write(buf, 0, rlen);
-            }
-            
-            in.close();
+    private void writeDownloadToFile(final Resource resource, URL downloadLocation, InputStream in) throws IOException {
+        try (InputStream input = in) {
+            StreamUtils.copyToFile(input, CacheUtil.getCacheFile(downloadLocation, resource.getDownloadVersion()),
+                    new StreamUtils.TransferListener() {
+                        @Override
+                        public void transferred(int count) {
+                            resource.incrementTransferred(count);
+                        }
+                    }, WriteOption.ATOMIC);
         }
     }
 
     private void uncompressGzip(URL compressedLocation, URL uncompressedLocation, Version version) throws IOException {
         OutputController.getLogger().log(OutputController.Level.ERROR_DEBUG, "Extracting gzip: " + compressedLocation + " to " + uncompressedLocation);
-        byte buf[] = new byte[1024];
-        int rlen;
 
         try (GZIPInputStream gzInputStream = new GZIPInputStream(new FileInputStream(CacheUtil
-                .getCacheFile(compressedLocation, version)))) {
-            InputStream inputStream = new BufferedInputStream(gzInputStream);
-            
-            BufferedOutputStream outputStream = new BufferedOutputStream(new FileOutputStream(CacheUtil
-                    .getCacheFile(uncompressedLocation, version)));
-            
-            while (-1 != (rlen = inputStream.read(buf))) {
-                outputStream.write(buf, 0, rlen);
-            }
-            
-            outputStream.close();
-            inputStream.close();
+                .getCacheFile(compressedLocation, version)), StreamUtils.BUFFER_SIZE)) {
+            StreamUtils.copyToFile(gzInputStream, CacheUtil.getCacheFile(uncompressedLocation, version), null, WriteOption.ATOMIC);
         }
     }
 
@@ -0,0 +1,184 @@
+/* ResourceRegistry.java
+   Copyright (C) 2026 Red Hat, Inc.
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License as published by
+the Free Software Foundation, version 2.
+
+IcedTea is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to
+the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version.
+*/
+
+package net.sourceforge.jnlp.cache;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import net.sourceforge.jnlp.util.UrlUtils;
+import net.sourceforge.jnlp.util.logging.OutputController;
+
+/**
+ * Interns the resources currently in use, so every caller asking for the
+ * same location shares one {@link Resource}. Resources are held weakly and
+ * dropped from the registry once they are collected; lookups do not lock.
+ * <p>
+ * Two resources are the same when {@link Resource#equals(Object)} says so,
+ * that is when their locations are equal per
+ * {@link UrlUtils#urlEquals(URL, URL)} - the port and the version are not
+ * part of the identity.
+ * </p>
+ */
+final class ResourceRegistry {
+
+    private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    /** the entries whose resource was collected */
+    private final ReferenceQueue<Resource> collected = new ReferenceQueue<>();
+
+    /**
+     * Returns the registered resource with the location of the candidate,
+     * registering the candidate if there is none.
+     *
+     * @param candidate resource to register
+     * @return the resource already registered for this location, or the
+     * candidate
+     */
+    Resource intern(Resource candidate) {
+        expunge();
+        Key key = new Key(candidate.getLocation());
+        Entry entry = new Entry(key, candidate, collected);
+        while (true) {
+            Entry existing = entries.putIfAbsent(key, entry);
+            if (existing == null) {
+                return candidate;
+            }
+            Resource resource = existing.get();
+            if (resource != null) {
+                return resource;
+            }
+            // collected but not yet expunged; take its place
+            if (entries.replace(key, existing, entry)) {
+                return candidate;
+            }
+        }
+    }
+
+    /**
+     * @return the number of registered resources, including collected ones
+     * not yet removed
+     */
+    int size() {
+        expunge();
+        return entries.size();
+    }
+
+    /**
+     * Removes the entries of collected resources.
+     */
+    private void expunge() {
+        Entry entry;
+        while ((entry = (Entry) collected.poll()) != null) {
+            entries.remove(entry.key, entry);
+        }
+    }
+
+    /**
+     * A weak reference to a registered resource, remembering its key so it
+     * can be removed once the resource is collected.
+     */
+    private static final class Entry extends WeakReference<Resource> {
+
+        private final Key key;
+
+        Entry(Key key, Resource resource, ReferenceQueue<Resource> queue) {
+            super(resource, queue);
+            this.key = key;
+        }
+    }
+
+    /**
+     * The parts of a location compared by {@link UrlUtils#urlEquals(URL, URL)},
+     * taken from the normalized location.
+     */
+    static final class Key {
+
+        private final String protocol;
+        private final String host;
+        private final String path;
+        private final String query;
+        private final String ref;
+        private final int hash;
+
+        Key(URL location) {
+            URL normalized = location;
+            try {
+                normalized = UrlUtils.normalizeUrl(location);
+            } catch (Exception ex) {
+                OutputController.getLogger().log(ex);
+            }
+            protocol = lowerCase(normalized.getProtocol());
+            host = lowerCase(normalized.getHost());
+            path = normalized.getPath();
+            query = normalized.getQuery();
+            ref = normalized.getRef();
+            hash = Objects.hash(protocol, host, path, query, ref);
+        }
+
+        private static String lowerCase(String s) {
+            return s == null ? null : s.toLowerCase(Locale.ENGLISH);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return hash == other.hash
+                    && Objects.equals(protocol, other.protocol)
+                    && Objects.equals(host, other.host)
+                    && Objects.equals(path, other.path)
+                    && Objects.equals(query, other.query)
+                    && Objects.equals(ref, other.ref);
+        }
+    }
+}
@@ -32,6 +32,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.concurrent.Future;
 
 import net.sourceforge.jnlp.DownloadOptions;
 import net.sourceforge.jnlp.Version;
@@ -88,8 +89,9 @@ public class ResourceTracker {
     // defines
     //    ResourceTracker.Downloader (download threads)
 
-    // separately locks on (in order of aquire order, ie, sync on prefetch never syncs on lock):
-    //   lock, prefetch, this.resources, each resource, listeners
+    // separately locks on (in order of aquire order, ie, sync on prefetch never syncs on resources):
+    //   prefetch, this.resources, each resource, listeners
+    // waiting for downloads blocks on the completion future of each resource only
     public static enum RequestMethods{
         HEAD, GET, TESTING_UNDEF;
 
@@ -99,9 +101,7 @@ public class ResourceTracker {
             return requestMethods;
         }
     }
-    
-      /** notified on initialization or download of a resource */
-    private static final Object lock = new Object(); // used to lock static structures
+
 
     /** the resources known about by this resource tracker */
     private final List<Resource> resources = new ArrayList<>();
@@ -112,6 +112,9 @@ public class ResourceTracker {
     /** whether to download parts before requested */
     private final boolean prefetch;
 
+    /** the application the resources are downloaded for */
+    private volatile URL owner;
+
     /**
      * Creates a resource tracker that does not prefetch resources.
      */
@@ -128,6 +131,42 @@ public class ResourceTracker {
         this.prefetch = prefetch;
     }
 
+    /**
+     * @return the files in the cache of the resources of this tracker known
+     * so far
+     */
+    List<File> getLocalFiles() {
+        List<File> files = new ArrayList<>();
+        synchronized (resources) {
+            for (Resource resource : resources) {
+                File f = resource.getLocalFile();
+                if (f != null) {
+                    files.add(f);
+                }
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Sets the application the resources of this tracker are downloaded
+     * for. It is recorded in the cache index with every resource written,
+     * so the cache can be listed and pruned per application.
+     *
+     * @param owner location of the JNLP file or applet page
+     */
+    public void setOwner(URL owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * @return the application the resources of this tracker are downloaded
+     * for, or {@code null} if not set
+     */
+    public URL getOwner() {
+        return owner;
+    }
+
     /**
      * Add a resource identified by the specified location and
      * version.  The tracker only downloads one version of a given
@@ -440,6 +479,17 @@ public class ResourceTracker {
         return resource.isSet(DOWNLOADED) || resource.isSet(ERROR);
     }
 
+    /**
+     * Returns whether the download of a resource has failed.
+     *
+     * @param location the resource location
+     * @return whether the resource could not be made available
+     * @throws IllegalResourceDescriptorException if the resource is not being tracked
+     */
+    public boolean hasFailed(URL location) {
+        return getResource(location).isSet(ERROR);
+    }
+
     /**
      * Starts loading the resource if it is not already being
      * downloaded or already cached.  Resources started downloading
@@ -502,13 +552,11 @@ public class ResourceTracker {
 
     /**
      * Start a new download thread.
-     * <p>
-     * Calls to this method should be synchronized on lock.
-     * </p>
+     *
      * @param resource  resource to be download
      */
     protected void startDownloadThread(Resource resource) {
-        CachedDaemonThreadPoolProvider.DAEMON_THREAD_POOL.execute(new ResourceDownloader(resource, lock));
+        CachedDaemonThreadPoolProvider.DAEMON_THREAD_POOL.execute(new ResourceDownloader(resource));
     }
 
     static Resource selectByFilter(Collection<Resource> source, Filter<Resource> filter) {
@@ -537,8 +585,7 @@ public class ResourceTracker {
      * Selects a resource from the source list that has the
      * specified flag set.
      * <p>
-     * Calls to this method should be synchronized on lock and
-     * source list.
+     * Calls to this method should be synchronized on the source list.
      * </p>
      */
     static Resource selectByStatus(Collection<Resource> source, final Collection<Resource.Status> included, final Collection<Resource.Status> excluded) {
@@ -588,44 +635,17 @@ public class ResourceTracker {
      * @throws InterruptedException if another thread interrupted the wait
      */
     private boolean wait(Resource[] resources, long timeout) throws InterruptedException {
-        long startTime = System.currentTimeMillis();
-
         // start them downloading / connecting in background
         for (Resource resource : resources) {
             startResource(resource);
         }
 
-        // wait for completion
-        while (true) {
-            boolean finished = true;
-
-            synchronized (lock) {
-                // check for completion
-                for (Resource resource : resources) {
-                    //NetX Deadlocking may be solved by removing this
-                    //synch block.
-                    synchronized (resource) {
-                        if (!(resource.isSet(DOWNLOADED) || resource.isSet(ERROR))) {
-                            finished = false;
-                            break;
-                        }
-                    }
-                }
-                if (finished)
-                    return true;
-
-                // wait
-                long waitTime = 0;
-
-                if (timeout > 0) {
-                    waitTime = timeout - (System.currentTimeMillis() - startTime);
-                    if (waitTime <= 0)
-                        return false;
-                }
-
-                lock.wait(waitTime);
-            }
+        // wait for completion; each download completes its own resource
+        List<Future<Resource>> completions = new ArrayList<>(resources.length);
+        for (Resource resource : resources) {
+            completions.add(resource.getCompletion());
         }
+        return ResourceCompletion.awaitAll(completions, timeout);
     }
 
     interface Filter<T> {
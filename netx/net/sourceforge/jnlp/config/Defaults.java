@@ -42,6 +42,7 @@ import java.util.HashMap;
 import java.util.Map;
 import net.sourceforge.jnlp.ShortcutDesc;
 import static net.sourceforge.jnlp.config.PathsAndFiles.*;
+import net.sourceforge.jnlp.runtime.CachingPacEvaluator;
 import net.sourceforge.jnlp.runtime.JNLPProxySelector;
 import net.sourceforge.jnlp.runtime.ManifestAttributesChecker;
 
@@ -241,6 +242,16 @@ public class Defaults {
                         BasicValueValidators.getUrlValidator(),
                         null
                 },
+                {
+                        DeploymentConfiguration.KEY_PROXY_AUTO_CONFIG_CACHE_KEY,
+                        BasicValueValidators.getStringValidator(new String[] { "host", "port", "path" }),
+                        "host"
+                },
+                {
+                        DeploymentConfiguration.KEY_PROXY_AUTO_CONFIG_CACHE_SIZE,
+                        BasicValueValidators.getRangedIntegerValidator(0, Integer.MAX_VALUE),
+                        String.valueOf(CachingPacEvaluator.DEFAULT_SIZE)
+                },
                 {
                         DeploymentConfiguration.KEY_PROXY_BYPASS_LIST,
                         null,
@@ -329,6 +340,11 @@ public class Defaults {
                         BasicValueValidators.getBooleanValidator(),
                         String.valueOf(false)
                 },
+                {
+                        DeploymentConfiguration.KEY_ENABLE_STARTUP_TRACE,
+                        BasicValueValidators.getBooleanValidator(),
+                        String.valueOf(false)
+                },
                 {
                         DeploymentConfiguration.KEY_ENABLE_LOGGING_HEADERS,
                         BasicValueValidators.getBooleanValidator(),
@@ -408,6 +424,35 @@ public class Defaults {
                         null,
                         null
                 },
+                //resident javaws process
+                {
+                        DeploymentConfiguration.KEY_LAUNCHER_DAEMON,
+                        BasicValueValidators.getBooleanValidator(),
+                        String.valueOf(false)
+                },
+                {
+                        DeploymentConfiguration.KEY_LAUNCHER_DAEMON_IDLE_TIMEOUT,
+                        BasicValueValidators.getRangedIntegerValidator(0, Integer.MAX_VALUE),
+                        String.valueOf(30)
+                },
+                //persistence service storage per host, in KB
+                {
+                        DeploymentConfiguration.KEY_PERSISTENCE_QUOTA,
+                        BasicValueValidators.getRangedIntegerValidator(0, Integer.MAX_VALUE),
+                        String.valueOf(10240)
+                },
+                //size the cache is evicted down to, in percent of deployment.cache.max.size
+                {
+                        DeploymentConfiguration.KEY_CACHE_EVICTION_LOW_WATERMARK,
+                        BasicValueValidators.getRangedIntegerValidator(0, 100),
+                        String.valueOf(80)
+                },
+                //memory budget of plugin image cache
+                {
+                        DeploymentConfiguration.KEY_PLUGIN_IMAGE_CACHE_MAX_SIZE,
+                        BasicValueValidators.getRangedIntegerValidator(-1, Integer.MAX_VALUE),
+                        String.valueOf(64)
+                },
                //unsigned applet security level
                 {
                 DeploymentConfiguration.KEY_SECURITY_LEVEL,
@@ -96,10 +96,27 @@ public final class DeploymentConfiguration {
     public static final String KEY_USER_CACHE_DIR = "deployment.user.cachedir";
     public static final String KEY_USER_PERSISTENCE_CACHE_DIR = "deployment.user.pcachedir";
     public static final String KEY_SYSTEM_CACHE_DIR = "deployment.system.cachedir";
+    /*
+     * Kilobytes of persistence service storage granted to all muffins of one host together
+     */
+    public static final String KEY_PERSISTENCE_QUOTA = "deployment.javaws.muffin.quota";
 
     public static final String  KEY_CACHE_MAX_SIZE = "deployment.cache.max.size";
+    /*
+     * Percentage of deployment.cache.max.size the cache is reduced to once it grew over it
+     */
+    public static final String KEY_CACHE_EVICTION_LOW_WATERMARK = "deployment.cache.max.size.lowwatermark";
 
     public static final String KEY_CACHE_ENABLED = "deployment.javapi.cache.enabled";
+
+    /*
+     * Hand javaws launches over to a resident javaws process, started on demand
+     */
+    public static final String KEY_LAUNCHER_DAEMON = "deployment.javaws.daemon";
+    /*
+     * Minutes without launches and running applications after which the resident javaws process stops, 0 for never
+     */
+    public static final String KEY_LAUNCHER_DAEMON_IDLE_TIMEOUT = "deployment.javaws.daemon.idle";
     public static final String KEY_CACHE_COMPRESSION_ENABLED = "deployment.cache.jarcompression";
 
     public static final String KEY_USER_LOG_DIR = "deployment.user.logdir";
@@ -162,6 +179,10 @@ public final class DeploymentConfiguration {
     public static final String KEY_PROXY_SAME = "deployment.proxy.same";
 
     public static final String KEY_PROXY_AUTO_CONFIG_URL = "deployment.proxy.auto.config.url";
+    /** Which part of an url identifies a cached PAC result: host (default), port or path */
+    public static final String KEY_PROXY_AUTO_CONFIG_CACHE_KEY = "deployment.proxy.auto.cache.key";
+    /** Maximal number of cached PAC results, 0 disables the cache */
+    public static final String KEY_PROXY_AUTO_CONFIG_CACHE_SIZE = "deployment.proxy.auto.cache.size";
     public static final String KEY_PROXY_BYPASS_LIST = "deployment.proxy.bypass.list";
     public static final String KEY_PROXY_BYPASS_LOCAL = "deployment.proxy.bypass.local";
     public static final String KEY_PROXY_HTTP_HOST = "deployment.proxy.http.host";
@@ -184,6 +205,7 @@ public final class DeploymentConfiguration {
     public static final String KEY_ENABLE_LEGACY_LOGBASEDFILELOG = "deployment.log.file.legacylog";
     public static final String KEY_ENABLE_LOGGING_TOSTREAMS = "deployment.log.stdstreams";
     public static final String KEY_ENABLE_LOGGING_TOSYSTEMLOG = "deployment.log.system";
+    public static final String KEY_ENABLE_STARTUP_TRACE = "deployment.log.trace"; //writes timeline of launch as chrome trace json to log dir
     
     /*
      * manifest check
@@ -221,6 +243,10 @@ public final class DeploymentConfiguration {
      * JVM arguments for plugin
      */
     public static final String KEY_PLUGIN_JVM_ARGUMENTS= "deployment.plugin.jvm.arguments";
+    /*
+     * Size in megabytes of the image cache shared by applets, -1 for unlimited
+     */
+    public static final String KEY_PLUGIN_IMAGE_CACHE_MAX_SIZE = "deployment.plugin.imagecache.max.size";
     public static final String KEY_JRE_DIR= "deployment.jre.dir";
     
     
@@ -32,16 +32,17 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.WindowEvent;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.IOException;
-import java.nio.channels.FileLock;
 import java.text.DateFormat;
 import java.text.NumberFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
-import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
 
 import javax.swing.JButton;
 import javax.swing.JComponent;
@@ -57,14 +58,12 @@ import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.TableModel;
 import javax.swing.table.TableRowSorter;
 
-import net.sourceforge.jnlp.cache.CacheDirectory;
+import net.sourceforge.jnlp.cache.CacheIndexEntry;
 import net.sourceforge.jnlp.cache.CacheUtil;
 import net.sourceforge.jnlp.cache.DirectoryNode;
 import net.sourceforge.jnlp.config.DeploymentConfiguration;
 import net.sourceforge.jnlp.config.PathsAndFiles;
 import net.sourceforge.jnlp.runtime.Translator;
-import net.sourceforge.jnlp.util.FileUtils;
-import net.sourceforge.jnlp.util.PropertiesFile;
 import net.sourceforge.jnlp.util.logging.OutputController;
 import net.sourceforge.jnlp.util.ui.NonEditableTableModel;
 
@@ -80,9 +79,11 @@ public class CachePane extends JPanel {
             Translator.R("CVCPColType"),
             Translator.R("CVCPColDomain"),
             Translator.R("CVCPColSize"),
-            Translator.R("CVCPColLastModified") };
+            Translator.R("CVCPColLastModified"),
+            Translator.R("CVCPColApplication") };
     JTable cacheTable;
     private JButton deleteButton, refreshButton, doneButton, cleanAll;
+    private final Map<DirectoryNode, CacheIndexEntry> indexedEntries = new IdentityHashMap<>();
 
     /**
      * Creates a new instance of the CachePane.
@@ -271,70 +272,27 @@ public class CachePane extends JPanel {
             @Override
             public void run() {
                 try {
-                    FileLock fl = null;
-                    File netxRunningFile = new File(PathsAndFiles.MAIN_LOCK.getFullPath(config));
-                    if (!netxRunningFile.exists()) {
-                        try {
-                            FileUtils.createParentDir(netxRunningFile);
-                            FileUtils.createRestrictedFile(netxRunningFile, true);
-                        } catch (IOException e1) {
-                            OutputController.getLogger().log(OutputController.Level.ERROR_ALL, e1);
-                        }
-                    }
-
-                    try {
-                        fl = FileUtils.getFileLock(netxRunningFile.getPath(), false, false);
-                    } catch (FileNotFoundException e1) {
-                    }
-
                     int row = cacheTable.getSelectedRow();
-                    try {
-                        if (fl == null) {
-                            JOptionPane.showMessageDialog(parent, Translator.R("CCannotClearCache"));
-                            return;
-                        }
-                        int modelRow = cacheTable.convertRowIndexToModel(row);
-                        DirectoryNode fileNode = ((DirectoryNode) cacheTable.getModel().getValueAt(modelRow, 0));
-                        if (fileNode.getFile().delete()) {
-                            updateRecentlyUsed(fileNode.getFile());
-                            fileNode.getParent().removeChild(fileNode);
-                            FileUtils.deleteWithErrMesg(fileNode.getInfoFile());
-                            ((NonEditableTableModel) cacheTable.getModel()).removeRow(modelRow);
-                            cacheTable.getSelectionModel().clearSelection();
-                            CacheDirectory.cleanParent(fileNode);
-                        }
-                    } catch (Exception exception) {
-                        // ignore
+                    int modelRow = cacheTable.convertRowIndexToModel(row);
+                    DirectoryNode fileNode = ((DirectoryNode) cacheTable.getModel().getValueAt(modelRow, 0));
+                    CacheIndexEntry entry = indexedEntries.get(fileNode);
+                    if (entry == null) {
+                        return;
                     }
-
-                    if (fl != null) {
-                        try {
-                            fl.release();
-                            fl.channel().close();
-                        } catch (IOException e1) {
-                            OutputController.getLogger().log(OutputController.Level.ERROR_ALL, e1);
-                        }
+                    int removed = CacheUtil.removeIndexedEntries(Collections.singletonList(entry));
+                    if (removed < 0) {
+                        JOptionPane.showMessageDialog(parent, Translator.R("CCannotClearCache"));
+                        return;
                     }
+                    indexedEntries.remove(fileNode);
+                    ((NonEditableTableModel) cacheTable.getModel()).removeRow(modelRow);
+                    cacheTable.getSelectionModel().clearSelection();
                 } catch (Exception exception) {
                         OutputController.getLogger().log(OutputController.Level.ERROR_DEBUG, exception);
                 } finally {
                     restoreDisabled();
                 }
             }
-
-            private void updateRecentlyUsed(File f) {
-                File recentlyUsedFile = new File(PathsAndFiles.getRecentlyUsedFile().getFullPath(config));
-                PropertiesFile pf = new PropertiesFile(recentlyUsedFile);
-                pf.load();
-                Enumeration<Object> en = pf.keys();
-                while (en.hasMoreElements()) {
-                    String key = (String) en.nextElement();
-                    if (pf.get(key).equals(f.getAbsolutePath())) {
-                        pf.remove(key);
-                    }
-                }
-                pf.store();
-            }
         });
     }
 
@@ -418,31 +376,49 @@ public class CachePane extends JPanel {
      */
     private ArrayList<Object[]> generateData(DirectoryNode root) {
         root = new DirectoryNode("Root", location, null);
-        CacheDirectory.getDirStructure(root);
         ArrayList<Object[]> data = new ArrayList<>();
-
-        for (DirectoryNode identifier : root.getChildren()) {
-            for (DirectoryNode type : identifier.getChildren()) {
-                for (DirectoryNode domain : type.getChildren()) {
-                    for (DirectoryNode leaf : CacheDirectory.getLeafData(domain)) {
-                        final File f = leaf.getFile();
-                        Object[] o = {
-                            leaf,
-                            f.getParentFile(),
-                            type,
-                            domain,
-                            f.length(),
-                            new Date(f.lastModified())
-                        };
-                        data.add(o);
-                    }
-                }
+        indexedEntries.clear();
+
+        // Served from the cache index; the cache directory is not walked.
+        Map<String, DirectoryNode> nodes = new HashMap<>();
+        for (CacheIndexEntry entry : CacheUtil.getIndexedEntries()) {
+            // <cache>/<identifier>/<type>/<domain>/.../<name>
+            String[] parts = entry.getFile().getPath().substring(entry.getFolder().getPath().length() + 1).split(Pattern.quote(File.separator));
+            if (parts.length < 3) {
+                continue;
             }
+            DirectoryNode identifier = getNode(nodes, root, entry.getFolder());
+            DirectoryNode type = getNode(nodes, identifier, new File(entry.getFolder(), parts[0]));
+            DirectoryNode domain = getNode(nodes, type, new File(type.getFile(), parts[1]));
+            final File f = entry.getFile();
+            DirectoryNode leaf = new DirectoryNode(f.getName(), f, domain);
+            domain.addChild(leaf);
+            indexedEntries.put(leaf, entry);
+            Object[] o = {
+                leaf,
+                f.getParentFile(),
+                type,
+                domain,
+                Math.max(entry.getSize(), 0),
+                new Date(entry.getLastWritten()),
+                entry.getOwner() == null ? "" : entry.getOwner()
+            };
+            data.add(o);
         }
 
         return data;
     }
 
+    private static DirectoryNode getNode(Map<String, DirectoryNode> nodes, DirectoryNode parent, File file) {
+        DirectoryNode node = nodes.get(file.getPath());
+        if (node == null) {
+            node = new DirectoryNode(file.getName(), file, parent);
+            parent.addChild(node);
+            nodes.put(file.getPath(), node);
+        }
+        return node;
+    }
+
     /**
      * Put focus onto default button.
      */
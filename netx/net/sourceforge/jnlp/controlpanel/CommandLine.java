@@ -24,8 +24,11 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 import javax.naming.ConfigurationException;
+import net.sourceforge.jnlp.cache.CacheIndexEntry;
+import net.sourceforge.jnlp.cache.CacheUtil;
 
 import net.sourceforge.jnlp.config.ConfiguratonValidator;
 import net.sourceforge.jnlp.config.DeploymentConfiguration;
@@ -424,6 +427,101 @@ public class CommandLine {
         }
     }
 
+    /**
+     * Prints help message for the cachestats command
+     */
+    public void printCacheStatsHelp() {
+        OutputController.getLogger().printOutLn(R("Usage"));
+        OutputController.getLogger().printOutLn("  " + PROGRAM_NAME + " cachestats");
+        OutputController.getLogger().printOutLn(R("CLCacheStatsDescription"));
+    }
+
+    /**
+     * Handles the 'cachestats' command. The numbers come from the cache
+     * index, so this is fast even for a large cache. The output is tab
+     * separated and not localized, to be consumed by scripts.
+     *
+     * @return result of handling the command. SUCCESS if no errors occurred.
+     */
+    public int handleCacheStatsCommand() {
+        if (optionParser.hasOption(OptionsDefinitions.OPTIONS.HELP2)) {
+            printCacheStatsHelp();
+            return SUCCESS;
+        }
+
+        List<CacheIndexEntry> entries = CacheUtil.getIndexedEntries();
+        long totalSize = 0;
+        int superseded = 0;
+        Map<String, long[]> perApplication = new TreeMap<>();
+        for (CacheIndexEntry entry : entries) {
+            long size = Math.max(entry.getSize(), 0);
+            totalSize += size;
+            if (entry.isMarkedForDelete()) {
+                superseded++;
+            }
+            String owner = entry.getOwner() == null ? "" : entry.getOwner();
+            long[] stats = perApplication.get(owner);
+            if (stats == null) {
+                stats = new long[2];
+                perApplication.put(owner, stats);
+            }
+            stats[0]++;
+            stats[1] += size;
+        }
+
+        OutputController.getLogger().printOutLn("entries\t" + entries.size());
+        OutputController.getLogger().printOutLn("bytes\t" + totalSize);
+        OutputController.getLogger().printOutLn("superseded\t" + superseded);
+        for (Map.Entry<String, long[]> application : perApplication.entrySet()) {
+            OutputController.getLogger().printOutLn("application\t" + application.getValue()[0] + "\t"
+                    + application.getValue()[1] + "\t" + application.getKey());
+        }
+        return SUCCESS;
+    }
+
+    /**
+     * Prints help message for the prune command
+     */
+    public void printPruneHelp() {
+        OutputController.getLogger().printOutLn(R("Usage"));
+        OutputController.getLogger().printOutLn("  " + PROGRAM_NAME + " prune [application ...]");
+        OutputController.getLogger().printOutLn(R("CLPruneDescription"));
+    }
+
+    /**
+     * Handles the 'prune' command
+     *
+     * @return result of handling the command. SUCCESS if no errors occurred,
+     * ERROR if other instances of IcedTea-Web are using the cache
+     */
+    public int handlePruneCommand() {
+        if (optionParser.hasOption(OptionsDefinitions.OPTIONS.HELP2)) {
+            printPruneHelp();
+            return SUCCESS;
+        }
+
+        List<String> applications = optionParser.getParams(OptionsDefinitions.OPTIONS.PRUNE);
+        int removed;
+        if (applications.isEmpty()) {
+            removed = CacheUtil.cleanCache();
+        } else {
+            List<CacheIndexEntry> owned = new ArrayList<>();
+            for (CacheIndexEntry entry : CacheUtil.getIndexedEntries()) {
+                if (applications.contains(entry.getOwner())) {
+                    owned.add(entry);
+                }
+            }
+            removed = CacheUtil.removeIndexedEntries(owned);
+        }
+
+        if (removed < 0) {
+            OutputController.getLogger().log(OutputController.Level.MESSAGE_ALL, R("CCannotClearCache"));
+            return ERROR;
+        }
+        OutputController.getLogger().printOutLn(Integer.toString(removed));
+        return SUCCESS;
+    }
+
     /**
      * Handles overall command line arguments. The argument array is split
      * into two pieces: the first element is assumend to be the command, and
@@ -455,6 +553,10 @@ public class CommandLine {
             val = handleInfoCommand();
         } else if (optionParser.hasOption(OptionsDefinitions.OPTIONS.CHECK)) {
             val = handleCheckCommand();
+        } else if (optionParser.hasOption(OptionsDefinitions.OPTIONS.CACHESTATS)) {
+            val = handleCacheStatsCommand();
+        } else if (optionParser.hasOption(OptionsDefinitions.OPTIONS.PRUNE)) {
+            val = handlePruneCommand();
         } else if (optionParser.hasOption(OptionsDefinitions.OPTIONS.HELP2)) {
             val = handleHelpCommand();
         } else {
@@ -111,6 +111,10 @@ public final class Boot implements PrivilegedAction<Void> {
         
         DeploymentConfiguration.move14AndOlderFilesTo15StructureCatched();
 
+        if (LauncherDaemon.delegate(optionParser, argsIn)) {
+            JNLPRuntime.exit(0);
+        }
+
         if (optionParser.hasOption(OptionsDefinitions.OPTIONS.VIEWER)) {
             try {
                 CertificateViewer.main(null);
@@ -192,6 +196,7 @@ public final class Boot implements PrivilegedAction<Void> {
 
         JNLPRuntime.setInitialArgments(Arrays.asList(argsIn));
 
+        StartupTimeline.configure();
         AccessController.doPrivileged(new Boot());
 
     }
@@ -236,6 +241,10 @@ public final class Boot implements PrivilegedAction<Void> {
 
         Map<String, List<String>> extra = new HashMap<>();
 
+        if (optionParser.hasOption(OptionsDefinitions.OPTIONS.DAEMON)) {
+            LauncherDaemon.runDaemon();
+            return null;
+        }
         if (optionParser.hasOption(OptionsDefinitions.OPTIONS.HTML)) {
             boolean run = new HtmlBoot(optionParser).run(extra);
             if (!run) {
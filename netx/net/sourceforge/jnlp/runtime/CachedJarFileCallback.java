@@ -39,10 +39,8 @@ exception statement from your version.
 package net.sourceforge.jnlp.runtime;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.net.URL;
 import java.net.URLConnection;
 import java.security.AccessController;
@@ -53,6 +51,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import net.sourceforge.jnlp.security.ConnectionFactory;
 import net.sourceforge.jnlp.util.logging.OutputController;
 import net.sourceforge.jnlp.util.JarFile;
+import net.sourceforge.jnlp.util.StreamUtils;
 
 import net.sourceforge.jnlp.util.UrlUtils;
 
@@ -127,7 +126,6 @@ final class CachedJarFileCallback implements URLJarFileCallBack {
     private  java.util.jar.JarFile cacheJarFile(URL url) throws IOException {
         java.util.jar.JarFile result = null;
 
-        final int BUF_SIZE = 2048;
         URLConnection conn = ConnectionFactory.getConnectionFactory().openConnection(url);
         /* get the stream before asserting privileges */
         final InputStream in = conn.getInputStream();
@@ -137,19 +135,11 @@ final class CachedJarFileCallback implements URLJarFileCallBack {
                     AccessController.doPrivileged(new PrivilegedExceptionAction<java.util.jar.JarFile>() {
                         @Override
                         public java.util.jar.JarFile run() throws IOException {
-                            OutputStream out = null;
                             File tmpFile = null;
                             try {
                                 tmpFile = File.createTempFile("jar_cache", null);
                                 tmpFile.deleteOnExit();
-                                out = new FileOutputStream(tmpFile);
-                                int read = 0;
-                                byte[] buf = new byte[BUF_SIZE];
-                                while ((read = in.read(buf)) != -1) {
-                                    out.write(buf, 0, read);
-                                }
-                                out.close();
-                                out = null;
+                                StreamUtils.copyToFile(in, tmpFile, null);
                                 return new URLJarFile(tmpFile, null);
                             } catch (IOException e) {
                                 if (tmpFile != null) {
@@ -160,9 +150,6 @@ final class CachedJarFileCallback implements URLJarFileCallBack {
                                 if (in != null) {
                                     in.close();
                                 }
-                                if (out != null) {
-                                    out.close();
-                                }
                             }
                         }
                     });
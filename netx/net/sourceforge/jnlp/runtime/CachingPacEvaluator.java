@@ -0,0 +1,281 @@
+/* CachingPacEvaluator.java
+   Copyright (C) 2026 Red Hat, Inc.
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License as published by
+the Free Software Foundation, version 2.
+
+IcedTea is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to
+the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version.
+*/
+
+package net.sourceforge.jnlp.runtime;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.sourceforge.jnlp.config.DeploymentConfiguration;
+import net.sourceforge.jnlp.util.logging.OutputController;
+
+/**
+ * A {@link PacEvaluator} which remembers the results of the PAC file.
+ * <p>
+ * Results are kept for {@link #DEFAULT_TIMEOUT} since they were last used,
+ * and at most a configured number of them
+ * ({@link DeploymentConfiguration#KEY_PROXY_AUTO_CONFIG_CACHE_SIZE}). By
+ * default, results are shared by all urls of the same protocol and host.
+ * PAC files which decide on the port or path too need
+ * {@link DeploymentConfiguration#KEY_PROXY_AUTO_CONFIG_CACHE_KEY} set to
+ * {@code port} or {@code path}.
+ * </p>
+ * Lookups do not block each other. Two threads missing the same key at once
+ * may both evaluate the PAC file.
+ */
+public abstract class CachingPacEvaluator implements PacEvaluator {
+
+    /** Which part of the url identifies a cached result */
+    public static enum CacheKey {
+
+        /** protocol and host */
+        HOST,
+        /** protocol, host and port */
+        PORT,
+        /** the whole url, including path and query */
+        PATH;
+
+        /**
+         * @param value value of {@link DeploymentConfiguration#KEY_PROXY_AUTO_CONFIG_CACHE_KEY}
+         * @return matching key, {@link #HOST} for unknown or null values
+         */
+        public static CacheKey fromString(String value) {
+            if (value != null) {
+                for (CacheKey key : values()) {
+                    if (key.name().equalsIgnoreCase(value.trim())) {
+                        return key;
+                    }
+                }
+            }
+            return HOST;
+        }
+
+        String toKey(URL url) {
+            String protocolAndHost = url.getProtocol() + "://" + url.getHost().toLowerCase(Locale.ENGLISH);
+            switch (this) {
+                case PORT:
+                    int port = url.getPort() != -1 ? url.getPort() : url.getDefaultPort();
+                    return protocolAndHost + ":" + port;
+                case PATH:
+                    return url.toString();
+                default:
+                    return protocolAndHost;
+            }
+        }
+    }
+
+    private static class Entry {
+
+        final String result;
+        volatile long lastUse;
+
+        Entry(String result) {
+            this.result = result;
+            this.lastUse = System.nanoTime();
+        }
+    }
+
+    /** results not used for this long are evaluated again */
+    public static final long DEFAULT_TIMEOUT = TimeUnit.SECONDS.toNanos(10);
+    /** used when deployment.proxy.auto.cache.size is not set */
+    public static final int DEFAULT_SIZE = 1024;
+
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+    private final Object evictionLock = new Object();
+    private final CacheKey cacheKey;
+    private final int maxSize;
+    private final long timeout;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Creates cache configured by {@link JNLPRuntime#getConfiguration()}.
+     */
+    protected CachingPacEvaluator() {
+        this(CacheKey.fromString(JNLPRuntime.getConfiguration().getProperty(DeploymentConfiguration.KEY_PROXY_AUTO_CONFIG_CACHE_KEY)),
+                getConfiguredSize(), DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * @param cacheKey which part of url identifies a result
+     * @param maxSize maximal number of results kept, 0 disables caching
+     * @param timeout nanoseconds a result is kept since its last use
+     */
+    protected CachingPacEvaluator(CacheKey cacheKey, int maxSize, long timeout) {
+        this.cacheKey = cacheKey;
+        this.maxSize = maxSize;
+        this.timeout = timeout;
+    }
+
+    private static int getConfiguredSize() {
+        String size = JNLPRuntime.getConfiguration().getProperty(DeploymentConfiguration.KEY_PROXY_AUTO_CONFIG_CACHE_SIZE);
+        if (size != null) {
+            try {
+                return Math.max(0, Integer.parseInt(size.trim()));
+            } catch (NumberFormatException e) {
+                OutputController.getLogger().log(OutputController.Level.ERROR_ALL, e);
+            }
+        }
+        return DEFAULT_SIZE;
+    }
+
+    /**
+     * Get the proxies for accessing a given URL. The result is obtained by
+     * evaluating the PAC file with the given url (and the host) as input.
+     *
+     * This method performs caching of the result.
+     *
+     * @param url the url for which a proxy is desired
+     * @return a list of proxies in a string like
+     * <pre>"PROXY foo.example.com:8080; PROXY bar.example.com:8080; DIRECT"</pre>
+     *
+     * @see #getProxiesWithoutCaching(URL)
+     */
+    @Override
+    public String getProxies(URL url) {
+        if (maxSize == 0) {
+            return getProxiesWithoutCaching(url);
+        }
+        String key = cacheKey.toKey(url);
+        Entry entry = cache.get(key);
+        long now = System.nanoTime();
+        if (entry != null && now - entry.lastUse <= timeout) {
+            entry.lastUse = now;
+            hits.incrementAndGet();
+            return entry.result;
+        }
+        misses.incrementAndGet();
+
+        String result = getProxiesWithoutCaching(url);
+        if (result != null) {
+            cache.put(key, new Entry(result));
+            if (cache.size() > maxSize) {
+                evict();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the proxies for accessing a given URL. The result is obtained by
+     * evaluating the PAC file with the given url (and the host) as input.
+     *
+     * @param url the url for which a proxy is desired
+     * @return a list of proxies in a string like
+     * <pre>"PROXY example.com:3128; DIRECT"</pre>
+     *
+     * @see #getProxies(URL)
+     */
+    protected abstract String getProxiesWithoutCaching(URL url);
+
+    /* drops expired results, then least recently used ones down to 3/4 of maxSize */
+    private void evict() {
+        synchronized (evictionLock) {
+            if (cache.size() <= maxSize) {
+                return;
+            }
+            long now = System.nanoTime();
+            List<Map.Entry<String, Entry>> entries = new ArrayList<>(cache.entrySet());
+            for (Map.Entry<String, Entry> e : entries) {
+                if (now - e.getValue().lastUse > timeout) {
+                    cache.remove(e.getKey(), e.getValue());
+                }
+            }
+            int target = maxSize - maxSize / 4;
+            if (cache.size() <= target) {
+                return;
+            }
+            Collections.sort(entries, new Comparator<Map.Entry<String, Entry>>() {
+                @Override
+                public int compare(Map.Entry<String, Entry> a, Map.Entry<String, Entry> b) {
+                    return Long.compare(a.getValue().lastUse, b.getValue().lastUse);
+                }
+            });
+            for (Map.Entry<String, Entry> e : entries) {
+                if (cache.size() <= target) {
+                    break;
+                }
+                cache.remove(e.getKey(), e.getValue());
+            }
+        }
+    }
+
+    /**
+     * Forgets all results, eg. because the PAC file changed.
+     */
+    protected void clearCache() {
+        cache.clear();
+    }
+
+    /**
+     * @return number of results currently cached
+     */
+    public int getCacheSize() {
+        return cache.size();
+    }
+
+    /**
+     * @return number of lookups answered from the cache
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return number of lookups which evaluated the PAC file
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return hits / (hits + misses), 0 if there was no lookup yet
+     */
+    public double getHitRate() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+}
@@ -0,0 +1,129 @@
+/* DeferredSSLSocketFactory.java
+   Copyright (C) 2026 Red Hat, Inc.
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License as published by
+the Free Software Foundation, version 2.
+
+IcedTea is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to
+the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version.
+*/
+
+package net.sourceforge.jnlp.runtime;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.UnknownHostException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import javax.net.ssl.SSLSocketFactory;
+
+import net.sourceforge.jnlp.util.logging.OutputController;
+
+/**
+ * An {@link SSLSocketFactory} whose real factory is created by a task which
+ * may still be running, or may not have been started at all. The first
+ * socket waits for, or runs, the task. If the task fails, the default
+ * factory of the VM is used.
+ */
+final class DeferredSSLSocketFactory extends SSLSocketFactory {
+
+    private final FutureTask<SSLSocketFactory> task;
+    private volatile SSLSocketFactory delegate;
+
+    DeferredSSLSocketFactory(FutureTask<SSLSocketFactory> task) {
+        this.task = task;
+    }
+
+    SSLSocketFactory getDelegate() {
+        SSLSocketFactory d = delegate;
+        if (d != null) {
+            return d;
+        }
+        //no-op if already running or done
+        task.run();
+        try {
+            d = task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            //do not remember, next socket will wait again
+            return (SSLSocketFactory) SSLSocketFactory.getDefault();
+        } catch (ExecutionException e) {
+            OutputController.getLogger().log(OutputController.Level.ERROR_ALL, "Unable to set SSLSocketfactory (may _prevent_ access to sites that should be trusted)! Continuing anyway...");
+            OutputController.getLogger().log(OutputController.Level.ERROR_ALL, e.getCause());
+        }
+        if (d == null) {
+            d = (SSLSocketFactory) SSLSocketFactory.getDefault();
+        }
+        delegate = d;
+        return d;
+    }
+
+    @Override
+    public String[] getDefaultCipherSuites() {
+        return getDelegate().getDefaultCipherSuites();
+    }
+
+    @Override
+    public String[] getSupportedCipherSuites() {
+        return getDelegate().getSupportedCipherSuites();
+    }
+
+    @Override
+    public Socket createSocket() throws IOException {
+        return getDelegate().createSocket();
+    }
+
+    @Override
+    public Socket createSocket(Socket s, String host, int port, boolean autoClose) throws IOException {
+        return getDelegate().createSocket(s, host, port, autoClose);
+    }
+
+    @Override
+    public Socket createSocket(String host, int port) throws IOException, UnknownHostException {
+        return getDelegate().createSocket(host, port);
+    }
+
+    @Override
+    public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException, UnknownHostException {
+        return getDelegate().createSocket(host, port, localHost, localPort);
+    }
+
+    @Override
+    public Socket createSocket(InetAddress host, int port) throws IOException {
+        return getDelegate().createSocket(host, port);
+    }
+
+    @Override
+    public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort) throws IOException {
+        return getDelegate().createSocket(address, port, localAddress, localPort);
+    }
+}
@@ -19,7 +19,6 @@ import static net.sourceforge.jnlp.runtime.Translator.R;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
@@ -58,6 +57,8 @@ import java.util.jar.Attributes;
 import java.util.jar.JarEntry;
 import java.util.jar.Manifest;
 
+import javax.jnlp.DownloadServiceListener;
+
 import net.sourceforge.jnlp.AppletDesc;
 import net.sourceforge.jnlp.ApplicationDesc;
 import net.sourceforge.jnlp.ExtensionDesc;
@@ -74,6 +75,7 @@ import net.sourceforge.jnlp.PluginBridge;
 import net.sourceforge.jnlp.ResourcesDesc;
 import net.sourceforge.jnlp.SecurityDesc;
 import net.sourceforge.jnlp.Version;
+import net.sourceforge.jnlp.cache.CacheEvictor;
 import net.sourceforge.jnlp.cache.CacheUtil;
 import net.sourceforge.jnlp.cache.IllegalResourceDescriptorException;
 import net.sourceforge.jnlp.cache.NativeLibraryStorage;
@@ -255,6 +257,8 @@ public class JNLPClassLoader extends URLClassLoader {
         this.file = file;
         this.updatePolicy = policy;
         this.resources = file.getResources();
+        this.tracker.setOwner(file.getFileLocation());
+        CacheEvictor.pin(this.tracker);
 
         this.nativeLibraryStorage = new NativeLibraryStorage(tracker);
 
@@ -354,7 +358,13 @@ public class JNLPClassLoader extends URLClassLoader {
     private static JNLPClassLoader createInstance(JNLPFile file, UpdatePolicy policy, String mainName, boolean enableCodeBase) throws LaunchException {
         String uniqueKey = file.getUniqueKey();
         JNLPClassLoader baseLoader = uniqueKeyToLoader.get(uniqueKey);
-        JNLPClassLoader loader = new JNLPClassLoader(file, policy, mainName, enableCodeBase);
+        StartupTimeline.Phase phase = StartupTimeline.start("class loader", file.getFileLocation());
+        JNLPClassLoader loader;
+        try {
+            loader = new JNLPClassLoader(file, policy, mainName, enableCodeBase);
+        } finally {
+            phase.end();
+        }
 
         // If security level is 'high' or greater, we must check if the user allows unsigned applets 
         // when the JNLPClassLoader is created. We do so here, because doing so in the constructor 
@@ -629,7 +639,7 @@ public class JNLPClassLoader extends URLClassLoader {
 
             tracker.addResource(jar.getLocation(),
                     jar.getVersion(), file.getDownloadOptions(),
-                    jar.isCacheable() ? JNLPRuntime.getDefaultUpdatePolicy() : UpdatePolicy.FORCE);
+                    jar.isCacheable() ? getJarUpdatePolicy() : UpdatePolicy.FORCE);
         }
 
         //If there are no eager jars, initialize the first jar
@@ -1122,6 +1132,36 @@ public class JNLPClassLoader extends URLClassLoader {
         return file;
     }
 
+    /**
+     * @return the JNLP file of this classloader followed by the JNLP files
+     * of all extensions it loaded, each listed once.
+     */
+    public List<JNLPFile> getJNLPFiles() {
+        List<JNLPFile> files = new ArrayList<>();
+        collectJNLPFiles(files);
+        return files;
+    }
+
+    private void collectJNLPFiles(List<JNLPFile> files) {
+        if (files.contains(file)) {
+            return;
+        }
+        files.add(file);
+        if (loaders != null) {
+            for (JNLPClassLoader loader : loaders) {
+                loader.collectJNLPFiles(files);
+            }
+        }
+    }
+
+    /**
+     * Cacheable jars follow the update policy the classloader was created
+     * with, so a launch from the cache does not contact the server.
+     */
+    private UpdatePolicy getJarUpdatePolicy() {
+        return updatePolicy != null ? updatePolicy : JNLPRuntime.getDefaultUpdatePolicy();
+    }
+
     /**
      * Returns the permissions for the CodeSource.
      */
@@ -1268,21 +1308,11 @@ public class JNLPClassLoader extends URLClassLoader {
                                         if (!parentDir.isDirectory() && !parentDir.mkdirs()) {
                                             throw new RuntimeException(R("RNestedJarExtration"));
                                         }
-                                        FileOutputStream extractedJar = new FileOutputStream(extractedJarLocation);
-                                        InputStream is = jarFile.getInputStream(je);
-                                        
-                                        byte[] bytes = new byte[1024];
-                                        int read = is.read(bytes);
-                                        int fileSize = read;
-                                        while (read > 0) {
-                                            extractedJar.write(bytes, 0, read);
-                                            read = is.read(bytes);
-                                            fileSize += read;
+                                        long fileSize;
+                                        try (InputStream is = jarFile.getInputStream(je)) {
+                                            fileSize = StreamUtils.copyToFile(is, new File(extractedJarLocation), null);
                                         }
                                         
-                                        is.close();
-                                        extractedJar.close();
-                                        
                                         // 0 byte file? skip
                                         if (fileSize <= 0) {
                                             continue;
@@ -2125,21 +2155,37 @@ public class JNLPClassLoader extends URLClassLoader {
     }
 
     /**
-     * Downloads and initializes jars into this loader.
+     * Downloads jars into this loader. All of them are downloaded
+     * concurrently, reporting progress to the listener of the application,
+     * and the ones which were downloaded are then initialized.
      *
-     * @param ref Path of the launch or extension JNLP File containing the
-     * resource. If null, main JNLP's file location will be used instead.
-     * @param part The name of the path.
-     * @throws LaunchException
+     * @param jars jars of the JNLP file of this loader
+     * @param progress listener passed to the DownloadService, or null
+     * @return the locations of the jars which failed to download
+     * @throws InterruptedException if interrupted while waiting for the downloads
      */
-    void initializeNewJarDownload(URL ref, String part, Version version) {
-        JARDesc[] jars = ManageJnlpResources.findJars(this, ref, part, version);
+    List<URL> initializeNewJarDownload(JARDesc[] jars, DownloadServiceListener progress) throws InterruptedException {
+        URL[] urls = new URL[jars.length];
+        Version[] versions = new Version[jars.length];
+        for (int i = 0; i < jars.length; i++) {
+            urls[i] = jars[i].getLocation();
+            versions[i] = jars[i].getVersion();
+            // starts the download, addNewJar below only waits for it
+            tracker.addResource(urls[i], versions[i], null, UpdatePolicy.FORCE);
+        }
+
+        List<URL> failed = CacheUtil.waitForResources(tracker, urls, versions, progress);
 
         for (JARDesc eachJar : jars) {
+            if (failed.contains(eachJar.getLocation())) {
+                OutputController.getLogger().log(OutputController.Level.ERROR_ALL, "Failed to download jar: " + eachJar.getLocation().toString());
+                continue;
+            }
             OutputController.getLogger().log("Downloading and initializing jar: " + eachJar.getLocation().toString());
 
             this.addNewJar(eachJar, UpdatePolicy.FORCE);
         }
+        return failed;
     }
 
     /**
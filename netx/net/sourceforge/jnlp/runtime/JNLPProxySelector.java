@@ -17,7 +17,6 @@
 package net.sourceforge.jnlp.runtime;
 
 import java.io.IOException;
-import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.MalformedURLException;
 import java.net.Proxy;
@@ -25,7 +24,6 @@ import java.net.ProxySelector;
 import java.net.SocketAddress;
 import java.net.URI;
 import java.net.URL;
-import java.net.UnknownHostException;
 import java.net.Proxy.Type;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -66,6 +64,9 @@ public abstract class JNLPProxySelector extends ProxySelector {
     /** whether localhost should be bypassed for proxy purposes */
     private boolean bypassLocal = false;
 
+    /** compiled bypassList and bypassLocal */
+    private ProxyBypassMatcher bypassMatcher;
+
     /**
      * whether the http proxy should be used for https and ftp protocols as well
      */
@@ -121,6 +122,11 @@ public abstract class JNLPProxySelector extends ProxySelector {
         bypassLocal = Boolean.valueOf(config
                 .getProperty(DeploymentConfiguration.KEY_PROXY_BYPASS_LOCAL));
 
+        bypassMatcher = new ProxyBypassMatcher(bypassList, bypassLocal);
+        if (bypassLocal) {
+            ProxyBypassMatcher.prefetchLocalAddresses();
+        }
+
         sameProxy = Boolean.valueOf(config.getProperty(DeploymentConfiguration.KEY_PROXY_SAME));
 
         proxyHttpHost = getHost(config, DeploymentConfiguration.KEY_PROXY_HTTP_HOST);
@@ -138,6 +144,13 @@ public abstract class JNLPProxySelector extends ProxySelector {
         overrideHosts = config.getProperty(DeploymentConfiguration.KEY_PROXY_OVERRIDE_HOSTS);
     }
 
+    /**
+     * Replaces the evaluator created for the configured PAC url; for tests.
+     */
+    void setPacEvaluator(PacEvaluator pacEvaluator) {
+        this.pacEvaluator = pacEvaluator;
+    }
+
     /**
      * Uses the given key to get a host from the configuraion
      */
@@ -214,7 +227,8 @@ public abstract class JNLPProxySelector extends ProxySelector {
     }
 
     /**
-     * Returns true if the uri should be bypassed for proxy purposes
+     * Returns true if the uri should be bypassed for proxy purposes. Never
+     * does a DNS lookup, see {@link ProxyBypassMatcher}.
      */
     private boolean inBypassList(URI uri) {
         try {
@@ -224,19 +238,9 @@ public abstract class JNLPProxySelector extends ProxySelector {
                 case "http":
                 case "https":
                 case "ftp":
-                    URL url = uri.toURL();
-                    if (bypassLocal && isLocalHost(url.getHost())) {
-                        return true;
-                    }   if (bypassList.contains(url.getHost())) {
-                    return true;
-                }   break;
+                    return bypassMatcher.matches(uri.toURL().getHost());
                 case "socket":
-                    String host = uri.getHost();
-                    if (bypassLocal && isLocalHost(host)) {
-                        return true;
-                    }   if (bypassList.contains(host)) {
-                    return true;
-                }   break;
+                    return bypassMatcher.matches(uri.getHost());
             }
         } catch (MalformedURLException e) {
             return false;
@@ -245,40 +249,6 @@ public abstract class JNLPProxySelector extends ProxySelector {
         return false;
     }
 
-    /**
-     * @return true if the host is the hostname or the IP address of the
-     * localhost
-     * @param  host host to verify
-     */
-    private boolean isLocalHost(String host) {
-
-        try {
-            if (InetAddress.getByName(host).isLoopbackAddress()) {
-                return true;
-            }
-        } catch (UnknownHostException e1) {
-            // continue
-        }
-
-        try {
-            if (host.equals(InetAddress.getLocalHost().getHostName())) {
-                return true;
-            }
-        } catch (UnknownHostException e) {
-            // continue
-        }
-
-        try {
-            if (host.equals(InetAddress.getLocalHost().getHostAddress())) {
-                return true;
-            }
-        } catch (UnknownHostException e) {
-            // continue
-        }
-
-        return false;
-    }
-
     /**
      * Returns a list of proxies by using the information in the deployment
      * configuration
@@ -23,6 +23,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.net.Authenticator;
@@ -32,13 +33,19 @@ import java.net.URL;
 import java.net.UnknownHostException;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.security.AccessController;
 import java.security.AllPermission;
 import java.security.KeyStore;
 import java.security.Policy;
+import java.security.PrivilegedActionException;
+import java.security.PrivilegedExceptionAction;
 import java.security.Security;
 import java.text.DateFormat;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
 
 import javax.jnlp.ServiceManager;
 import javax.naming.ConfigurationException;
@@ -212,12 +219,35 @@ public class JNLPRuntime {
      */
     public static void initialize(boolean isApplication) throws IllegalStateException {
         checkInitialized();
+        StartupTimeline.configure();
+        StartupTimeline.Phase total = StartupTimeline.start("initialize");
 
+        // independent of everything below, only installed here and done
+        // in the background, or by whoever needs it first
+        final FutureTask<SSLSocketFactory> sslTask = startBootstrapTask("SSL context", new Callable<SSLSocketFactory>() {
+            @Override
+            public SSLSocketFactory call() throws Exception {
+                return createSSLSocketFactory();
+            }
+        });
+        final BrowserAwareProxySelector proxySelector = new BrowserAwareProxySelector(getConfiguration());
+        if (String.valueOf(JNLPProxySelector.PROXY_TYPE_BROWSER).equals(getConfiguration().getProperty(DeploymentConfiguration.KEY_PROXY_TYPE))) {
+            startBootstrapTask("browser proxy settings", new Callable<Void>() {
+                @Override
+                public Void call() {
+                    proxySelector.initialize();
+                    return null;
+                }
+            });
+        }
+
+        StartupTimeline.Phase phase = StartupTimeline.start("look and feel");
         try {
             UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
         } catch (Exception e) {
             OutputController.getLogger().log("Unable to set system look and feel");
         }
+        phase.end();
 
         if (JavaConsole.canShowOnStartup(isApplication)) {
             JavaConsole.getConsole().showConsoleLater();
@@ -256,6 +286,7 @@ public class JNLPRuntime {
 
         ServiceManager.setServiceManagerStub(new XServiceManagerStub()); // ignored if we're running under Web Start
 
+        phase = StartupTimeline.start("security manager");
         policy = new JNLPPolicy();
         security = new JNLPSecurityManager(); // side effect: create JWindow
 
@@ -265,30 +296,22 @@ public class JNLPRuntime {
             Policy.setPolicy(policy); // do first b/c our SM blocks setPolicy
             System.setSecurityManager(security);
         }
+        phase.end();
 
         securityDialogMessageHandler = startSecurityThreads();
 
-        // wire in custom authenticator for SSL connections
+        // wire in custom authenticator for SSL connections, the context
+        // itself is created on first use if the task did not get to it yet
         try {
-            SSLSocketFactory sslSocketFactory;
-            SSLContext context = SSLContext.getInstance("SSL");
-            KeyStore ks = KeyStores.getKeyStore(KeyStores.Level.USER, KeyStores.Type.CLIENT_CERTS);
-            KeyManagerFactory kmf = KeyManagerFactory.getInstance("SunX509");
-            SecurityUtil.initKeyManagerFactory(kmf, ks);
-            TrustManager[] trust = new TrustManager[] { getSSLSocketTrustManager() };
-            context.init(kmf.getKeyManagers(), trust, null);
-            sslSocketFactory = context.getSocketFactory();
-
-            HttpsURLConnection.setDefaultSSLSocketFactory(sslSocketFactory);
+            HttpsURLConnection.setDefaultSSLSocketFactory(new DeferredSSLSocketFactory(sslTask));
         } catch (Exception e) {
             OutputController.getLogger().log(OutputController.Level.ERROR_ALL, "Unable to set SSLSocketfactory (may _prevent_ access to sites that should be trusted)! Continuing anyway...");
             OutputController.getLogger().log(OutputController.Level.ERROR_ALL, e);
         }
 
-        // plug in a custom authenticator and proxy selector
+        // plug in a custom authenticator and proxy selector, browser
+        // preferences are read on first use if needed at all
         Authenticator.setDefault(new JNLPAuthenticator());
-        BrowserAwareProxySelector proxySelector = new BrowserAwareProxySelector(getConfiguration());
-        proxySelector.initialize();
         ProxySelector.setDefault(proxySelector);
 
         // Restrict access to netx classes
@@ -299,6 +322,51 @@ public class JNLPRuntime {
 
         initialized = true;
 
+        total.end();
+        if (StartupTimeline.isEnabled()) {
+            OutputController.getLogger().log(StartupTimeline.report());
+        }
+    }
+
+    /**
+     * Runs one independent part of {@link #initialize} in its own daemon
+     * thread. The returned task can also be run by whoever needs its result
+     * first, it is executed only once either way.
+     */
+    private static <T> FutureTask<T> startBootstrapTask(final String name, final Callable<T> callable) {
+        final FutureTask<T> task = new FutureTask<>(new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                StartupTimeline.Phase phase = StartupTimeline.start(name);
+                try {
+                    // may be run on behalf of application code
+                    return AccessController.doPrivileged(new PrivilegedExceptionAction<T>() {
+                        @Override
+                        public T run() throws Exception {
+                            return callable.call();
+                        }
+                    });
+                } catch (PrivilegedActionException e) {
+                    throw e.getException();
+                } finally {
+                    phase.end();
+                }
+            }
+        });
+        Thread thread = new Thread(task, "NetxBootstrap-" + name);
+        thread.setDaemon(true);
+        thread.start();
+        return task;
+    }
+
+    private static SSLSocketFactory createSSLSocketFactory() throws Exception {
+        SSLContext context = SSLContext.getInstance("SSL");
+        KeyStore ks = KeyStores.getKeyStore(KeyStores.Level.USER, KeyStores.Type.CLIENT_CERTS);
+        KeyManagerFactory kmf = KeyManagerFactory.getInstance("SunX509");
+        SecurityUtil.initKeyManagerFactory(kmf, ks);
+        TrustManager[] trust = new TrustManager[] { getSSLSocketTrustManager() };
+        context.init(kmf.getKeyManagers(), trust, null);
+        return context.getSocketFactory();
     }
 
     public static void reloadPolicy() {
@@ -833,6 +901,68 @@ public class JNLPRuntime {
         }
     }
 
+    /**
+     * Runs the given action only if no other instance of netx is running,
+     * the same condition under which the cache may be cleared. While the
+     * action runs, other instances can not start: they wait for the
+     * exclusive lock on {@link PathsAndFiles#MAIN_LOCK} to be released.
+     * The action should therefore be short; slow work such as deleting
+     * files belongs after it.
+     *
+     * @param action the action to run
+     * @return {@code true} if the action ran, {@code false} if other
+     * instances of netx are running
+     */
+    public synchronized static boolean runIfNoOtherNetxRunning(Runnable action) {
+        File netxRunningFile = PathsAndFiles.MAIN_LOCK.getFile();
+        if (!netxRunningFile.isFile()) {
+            action.run();
+            return true;
+        }
+        // our own shared lock would overlap the exclusive one
+        FileChannel ownChannel = null;
+        if (fileLock != null && fileLock.overlaps(0, 1)) {
+            ownChannel = fileLock.channel();
+            try {
+                fileLock.release();
+            } catch (IOException e) {
+                OutputController.getLogger().log(e);
+                return false;
+            }
+            fileLock = null;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(netxRunningFile, "rw")) {
+            FileLock exclusive;
+            try {
+                exclusive = raf.getChannel().tryLock(0, 1, false);
+            } catch (OverlappingFileLockException e) {
+                // held elsewhere in this JVM
+                exclusive = null;
+            }
+            if (exclusive == null) {
+                OutputController.getLogger().log("Other instances of netx are running");
+                return false;
+            }
+            try {
+                action.run();
+            } finally {
+                exclusive.release();
+            }
+            return true;
+        } catch (IOException e) {
+            OutputController.getLogger().log(e);
+            return false;
+        } finally {
+            if (ownChannel != null) {
+                try {
+                    fileLock = ownChannel.lock(0, 1, true);
+                } catch (IOException e) {
+                    OutputController.getLogger().log(OutputController.Level.ERROR_ALL, e);
+                }
+            }
+        }
+    }
+
     public static void setHtml(boolean html) {
         JNLPRuntime.html = html;
     }
@@ -0,0 +1,470 @@
+/* LauncherDaemon.java
+   Copyright (C) 2026 Red Hat, Inc.
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License as published by
+the Free Software Foundation, version 2.
+
+IcedTea is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to
+the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version.
+*/
+
+package net.sourceforge.jnlp.runtime;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import net.sourceforge.jnlp.JNLPFile;
+import net.sourceforge.jnlp.Launcher;
+import net.sourceforge.jnlp.OptionsDefinitions;
+import net.sourceforge.jnlp.ParseException;
+import net.sourceforge.jnlp.ParserSettings;
+import net.sourceforge.jnlp.config.DeploymentConfiguration;
+import net.sourceforge.jnlp.config.PathsAndFiles;
+import net.sourceforge.jnlp.util.FileUtils;
+import net.sourceforge.jnlp.util.logging.OutputController;
+import net.sourceforge.jnlp.util.optionparser.OptionParser;
+import net.sourceforge.jnlp.util.optionparser.UnevenParameterException;
+
+/**
+ * Optional resident javaws process, one per user and display, which keeps
+ * the runtime (security manager, keystores, proxy selector, cache index)
+ * initialized and launches every application handed to it in its own
+ * thread group, {@link sun.awt.AppContext} and {@link JNLPClassLoader}.
+ * <p>
+ * Enabled by {@link DeploymentConfiguration#KEY_LAUNCHER_DAEMON}. javaws
+ * then first tries to hand its arguments over to the daemon, much like
+ * {@link net.sourceforge.jnlp.services.XSingleInstanceService} hands them to
+ * a running instance, and launches in process if that fails, starting a
+ * daemon for the next launch. The daemon listens on a loopback port
+ * written, together with a random secret, into a file in the locks
+ * directory which only the user can read. A request starts with the secret
+ * and is rejected without reading further if it does not match; then
+ * follow the working directory of the caller, the count of arguments and
+ * the arguments, written with {@link DataOutputStream#writeUTF(String)}.
+ * Only plain launches (a JNLP file with -arg and -param) are handed over,
+ * as every other option changes state of the whole JVM. For the same
+ * reason, JNLP files declaring system properties are launched by the
+ * caller; the daemon reads the file before it replies.
+ * Applications needing a JVM of their own are forked from the daemon as
+ * usual. An application calling {@link System#exit} stops itself only.
+ * </p>
+ */
+public final class LauncherDaemon {
+
+    /** reply of the daemon if it launches the application */
+    static final int ACCEPTED = 0;
+    /** reply of the daemon if the caller has to launch the application */
+    static final int REJECTED = 1;
+
+    private static final int CONNECT_TIMEOUT = 1000;
+    /** long enough for the daemon to download the JNLP file before replying */
+    private static final int REPLY_TIMEOUT = 30 * 1000;
+    private static final int READ_TIMEOUT = 5000;
+    private static final int IDLE_CHECK_INTERVAL = 60 * 1000;
+
+    /** length of the secret, in hexadecimal digits, which starts every request */
+    static final int SECRET_LENGTH = 32;
+    /** most arguments accepted in one request */
+    static final int MAX_ARGUMENTS = 256;
+    /** most requests handled at once; further connections are rejected */
+    static final int MAX_REQUESTS = 4;
+
+    private static final List<OptionsDefinitions.OPTIONS> DELEGATED_OPTIONS = Arrays.asList(
+            OptionsDefinitions.OPTIONS.JNLP,
+            OptionsDefinitions.OPTIONS.ARG,
+            OptionsDefinitions.OPTIONS.PARAM);
+
+    private final File lockFile;
+    private final String secret;
+    private final List<ApplicationInstance> applications = new ArrayList<>();
+    private volatile long lastLaunch = System.currentTimeMillis();
+
+    LauncherDaemon(File lockFile) {
+        this.lockFile = lockFile;
+        byte[] bytes = new byte[SECRET_LENGTH / 2];
+        new SecureRandom().nextBytes(bytes);
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b & 0xff));
+        }
+        this.secret = sb.toString();
+    }
+
+    String getSecret() {
+        return secret;
+    }
+
+    /**
+     * @return true if javaws should hand launches over to a daemon
+     */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(JNLPRuntime.getConfiguration().getProperty(DeploymentConfiguration.KEY_LAUNCHER_DAEMON));
+    }
+
+    /**
+     * @return the file holding port and secret of the daemon of this user
+     * and display
+     */
+    static File getLockFile() {
+        String display = System.getenv("DISPLAY");
+        String name = "javaws-daemon" + (display == null ? "" : display);
+        return new File(PathsAndFiles.LOCKS_DIR.getFile(), FileUtils.sanitizeFileName(name));
+    }
+
+    /**
+     * @param parser the parsed javaws arguments
+     * @return true if the arguments describe a plain launch a daemon can
+     * take over
+     */
+    static boolean isDelegatable(OptionParser parser) {
+        for (OptionsDefinitions.OPTIONS option : OptionsDefinitions.getJavaWsOptions()) {
+            if (parser.hasOption(option) && !DELEGATED_OPTIONS.contains(option)) {
+                return false;
+            }
+        }
+        int mainArgs = parser.getMainArgs().size();
+        if (parser.hasOption(OptionsDefinitions.OPTIONS.JNLP)) {
+            return mainArgs == 0;
+        }
+        return mainArgs == 1;
+    }
+
+    /**
+     * Hands the launch described by the given arguments over to the daemon
+     * of this user. If the daemon is enabled but none is running, one is
+     * started for the next launch.
+     *
+     * @param parser the parsed javaws arguments
+     * @param args the javaws arguments
+     * @return true if the daemon took over the launch, false if the caller
+     * has to launch the application itself
+     */
+    public static boolean delegate(OptionParser parser, String[] args) {
+        if (!isEnabled() || !isDelegatable(parser)) {
+            return false;
+        }
+        File lock = getLockFile();
+        try {
+            String[] portAndSecret = readLockFile(lock);
+            if (portAndSecret != null && send(Integer.parseInt(portAndSecret[0]), portAndSecret[1],
+                    new File(System.getProperty("user.dir")), args) == ACCEPTED) {
+                OutputController.getLogger().log("Launch handed over to the javaws daemon");
+                return true;
+            }
+        } catch (IOException | NumberFormatException ex) {
+            OutputController.getLogger().log("javaws daemon not reachable: " + ex);
+        }
+        spawn();
+        return false;
+    }
+
+    private static String[] readLockFile(File lock) throws IOException {
+        if (!lock.isFile()) {
+            return null;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(lock))) {
+            String port = reader.readLine();
+            String secret = reader.readLine();
+            if (port == null || secret == null) {
+                return null;
+            }
+            return new String[]{port, secret};
+        }
+    }
+
+    static int send(int port, String secret, File workingDir, String[] args) throws IOException {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), CONNECT_TIMEOUT);
+            socket.setSoTimeout(REPLY_TIMEOUT);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.write(secret.getBytes(StandardCharsets.US_ASCII));
+            out.writeUTF(workingDir.getPath());
+            out.writeInt(args.length);
+            for (String arg : args) {
+                out.writeUTF(arg);
+            }
+            out.flush();
+            return socket.getInputStream().read() == ACCEPTED ? ACCEPTED : REJECTED;
+        }
+    }
+
+    private static void spawn() {
+        // this property is set by the javaws launcher to point to the javaws binary
+        String javaws = System.getProperty("icedtea-web.bin.location");
+        if (javaws == null) {
+            return;
+        }
+        try {
+            File log = new File(PathsAndFiles.LOCKS_DIR.getFile(), "javaws-daemon.log");
+            ProcessBuilder pb = new ProcessBuilder(javaws, OptionsDefinitions.OPTIONS.DAEMON.option);
+            pb.redirectErrorStream(true);
+            pb.redirectOutput(ProcessBuilder.Redirect.appendTo(log));
+            pb.start();
+            OutputController.getLogger().log("Started a javaws daemon for the next launch");
+        } catch (IOException ex) {
+            OutputController.getLogger().log(ex);
+        }
+    }
+
+    /**
+     * Turns this JVM into the daemon. Initializes the runtime, publishes
+     * port and secret and serves launch requests until it was idle for
+     * {@link DeploymentConfiguration#KEY_LAUNCHER_DAEMON_IDLE_TIMEOUT}
+     * minutes with no application left running. Does not return.
+     */
+    static void runDaemon() {
+        JNLPRuntime.initialize(true);
+        // applications calling System.exit stop only themselves
+        JNLPRuntime.setExitClass(LauncherDaemon.class);
+        int exitCode = 0;
+        try {
+            new LauncherDaemon(getLockFile()).serve();
+        } catch (IOException ex) {
+            OutputController.getLogger().log(OutputController.Level.ERROR_ALL, ex);
+            exitCode = 1;
+        }
+        JNLPRuntime.exit(exitCode);
+    }
+
+    void serve() throws IOException {
+        ThreadPoolExecutor handlers = new ThreadPoolExecutor(0, MAX_REQUESTS, IDLE_CHECK_INTERVAL, TimeUnit.MILLISECONDS,
+                new SynchronousQueue<Runnable>(), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread handler = new Thread(r, "LauncherDaemonRequest");
+                        handler.setDaemon(true);
+                        return handler;
+                    }
+                });
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            server.setSoTimeout(IDLE_CHECK_INTERVAL);
+            writeLockFile(server.getLocalPort());
+            OutputController.getLogger().log("javaws daemon listening on port " + server.getLocalPort());
+            try {
+                while (true) {
+                    try {
+                        final Socket socket = server.accept();
+                        try {
+                            handlers.execute(new Runnable() {
+                                @Override
+                                public void run() {
+                                    handle(socket);
+                                }
+                            });
+                        } catch (RejectedExecutionException ex) {
+                            // busy; the caller launches by itself
+                            OutputController.getLogger().log("javaws daemon busy, rejected a request");
+                            socket.close();
+                        }
+                    } catch (SocketTimeoutException ex) {
+                        if (isIdle()) {
+                            OutputController.getLogger().log("javaws daemon idle, stopping");
+                            return;
+                        }
+                    }
+                }
+            } finally {
+                lockFile.delete();
+            }
+        } finally {
+            handlers.shutdown();
+        }
+    }
+
+    private void writeLockFile(int port) throws IOException {
+        File dir = lockFile.getParentFile();
+        if (!dir.isDirectory()) {
+            FileUtils.createRestrictedDirectory(dir);
+        }
+        FileUtils.createRestrictedFile(lockFile, true);
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(lockFile, false))) {
+            writer.write(String.valueOf(port));
+            writer.newLine();
+            writer.write(secret);
+            writer.newLine();
+        }
+    }
+
+    boolean isIdle() {
+        long timeout;
+        try {
+            timeout = Long.parseLong(JNLPRuntime.getConfiguration().getProperty(DeploymentConfiguration.KEY_LAUNCHER_DAEMON_IDLE_TIMEOUT));
+        } catch (NumberFormatException ex) {
+            timeout = 30;
+        }
+        if (timeout <= 0 || System.currentTimeMillis() - lastLaunch < timeout * 60 * 1000) {
+            return false;
+        }
+        synchronized (applications) {
+            for (ApplicationInstance app : applications) {
+                if (app.isRunning()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    void handle(Socket socket) {
+        try {
+            socket.setSoTimeout(READ_TIMEOUT);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            byte[] secretSent = new byte[SECRET_LENGTH];
+            in.readFully(secretSent);
+            // constant time, so the secret can not be guessed digit by digit
+            if (!MessageDigest.isEqual(secret.getBytes(StandardCharsets.US_ASCII), secretSent)) {
+                OutputController.getLogger().log(OutputController.Level.ERROR_ALL, "javaws daemon: rejected a request without the secret");
+                reply(socket, REJECTED);
+                return;
+            }
+            File workingDir = new File(in.readUTF());
+            int count = in.readInt();
+            if (count < 0 || count > MAX_ARGUMENTS) {
+                OutputController.getLogger().log(OutputController.Level.ERROR_ALL, "javaws daemon: rejected a request with " + count + " arguments");
+                reply(socket, REJECTED);
+                return;
+            }
+            String[] args = new String[count];
+            for (int i = 0; i < count; i++) {
+                args[i] = in.readUTF();
+            }
+            OptionParser parser = new OptionParser(args, OptionsDefinitions.getJavaWsOptions());
+            if (!isDelegatable(parser)) {
+                reply(socket, REJECTED);
+                return;
+            }
+            URL location = getLocation(parser, workingDir);
+            if (declaresProperties(new JNLPFile(location, new ParserSettings()))) {
+                OutputController.getLogger().log("javaws daemon: " + location + " sets system properties, rejected");
+                reply(socket, REJECTED);
+                return;
+            }
+            lastLaunch = System.currentTimeMillis();
+            reply(socket, ACCEPTED);
+            launch(location, parser);
+        } catch (IOException | ParseException | UnevenParameterException ex) {
+            OutputController.getLogger().log(ex);
+            try {
+                reply(socket, REJECTED);
+            } catch (IOException e) {
+                // the caller launches by itself anyway
+            }
+        } finally {
+            try {
+                socket.close();
+            } catch (IOException ex) {
+                OutputController.getLogger().log(ex);
+            }
+        }
+    }
+
+    private static void reply(Socket socket, int reply) throws IOException {
+        if (!socket.isClosed()) {
+            socket.getOutputStream().write(reply);
+            socket.getOutputStream().flush();
+        }
+    }
+
+    /**
+     * @return the JNLP file to launch; a local file is resolved against the
+     * working directory of the caller, not of the daemon
+     */
+    static URL getLocation(OptionParser parser, File workingDir) throws IOException {
+        String location = parser.hasOption(OptionsDefinitions.OPTIONS.JNLP)
+                ? parser.getParam(OptionsDefinitions.OPTIONS.JNLP) : parser.getMainArg();
+        File file = new File(location);
+        if (!file.isAbsolute()) {
+            file = new File(workingDir, location);
+        }
+        return file.isFile() ? file.toURI().toURL() : new URL(location);
+    }
+
+    /**
+     * @return true if the application sets system properties, which all
+     * applications of the daemon would see
+     */
+    static boolean declaresProperties(JNLPFile file) {
+        return file.getResources().getProperties().length > 0;
+    }
+
+    private void launch(URL url, OptionParser parser) {
+        try {
+            Map<String, List<String>> extra = new HashMap<>();
+            extra.put("arguments", parser.getParams(OptionsDefinitions.OPTIONS.ARG));
+            extra.put("parameters", parser.getParams(OptionsDefinitions.OPTIONS.PARAM));
+            extra.put("properties", new ArrayList<String>());
+
+            Launcher launcher = new Launcher(false);
+            launcher.setParserSettings(new ParserSettings());
+            launcher.setInformationToMerge(extra);
+            ApplicationInstance app = launcher.launch(url);
+            synchronized (applications) {
+                for (Iterator<ApplicationInstance> it = applications.iterator(); it.hasNext();) {
+                    if (!it.next().isRunning()) {
+                        it.remove();
+                    }
+                }
+                if (app != null) {
+                    applications.add(app);
+                }
+            }
+        } catch (Exception ex) {
+            OutputController.getLogger().log(OutputController.Level.ERROR_ALL, ex);
+        }
+    }
+}
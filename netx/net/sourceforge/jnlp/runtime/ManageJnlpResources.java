@@ -37,10 +37,17 @@ exception statement from your version.
 
 package net.sourceforge.jnlp.runtime;
 
+import static net.sourceforge.jnlp.runtime.Translator.R;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+import javax.jnlp.DownloadServiceListener;
+
 import net.sourceforge.jnlp.JARDesc;
 import net.sourceforge.jnlp.ResourcesDesc;
 import net.sourceforge.jnlp.Version;
@@ -90,18 +97,35 @@ public class ManageJnlpResources {
     }
 
     /**
-     * Downloads jars identified by part name.
+     * Downloads jars identified by part names. The jars of all the parts
+     * are downloaded concurrently.
      * @param classLoader JNLPClassLoader of the application that is associated to the resource.
      * @param ref Path of the launch or extension JNLP File containing the
      * resource. If null, main JNLP's file location will be used instead.
-     * @param part The name of the path.
-     * @param version version of jar to be downlaoded
+     * @param parts The names of the parts.
+     * @param version version of jars to be downlaoded
+     * @param progress listener notified of the download progress, or null
+     * @throws IOException if a jar could not be downloaded
      */
-    public static void downloadJars(final JNLPClassLoader classLoader, final URL ref, final String part, final Version version) {
+    public static void downloadJars(final JNLPClassLoader classLoader, final URL ref, final String[] parts, final Version version, final DownloadServiceListener progress) throws IOException {
         JNLPClassLoader foundLoader = LocateJnlpClassLoader.getLoaderByJnlpFile(classLoader, ref);
 
-        if (foundLoader != null)
-            foundLoader.initializeNewJarDownload(ref, part, version);
+        if (foundLoader == null)
+            return;
+
+        List<JARDesc> jars = new ArrayList<>();
+        for (String part : parts)
+            jars.addAll(Arrays.asList(findJars(classLoader, ref, part, version)));
+
+        List<URL> failed;
+        try {
+            failed = foundLoader.initializeNewJarDownload(jars.toArray(new JARDesc[jars.size()]), progress);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(ex.getMessage());
+        }
+        if (!failed.isEmpty())
+            throw new IOException(R("CCouldNotDownload", failed));
     }
 
     /**
@@ -0,0 +1,364 @@
+// Copyright (C) 2026 Red Hat, Inc.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+
+package net.sourceforge.jnlp.runtime;
+
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+import net.sourceforge.jnlp.util.logging.OutputController;
+
+/**
+ * Decides whether a host bypasses the proxy, without any DNS lookup.
+ * <p>
+ * Rules of the bypass list are compiled once. Supported are:
+ * </p>
+ * <ul>
+ * <li>exact host names and IP addresses: {@code example.org}, {@code 10.0.0.1}</li>
+ * <li>domain suffixes, matching all subdomains: {@code .example.org}</li>
+ * <li>wildcards: {@code *.example.org}, {@code 10.0.*}, {@code build-*.example.org}</li>
+ * <li>CIDR blocks, matching IP address hosts only: {@code 10.0.0.0/8}, {@code fe80::/10}</li>
+ * <li>{@code <local>}: host names without a dot</li>
+ * </ul>
+ * <p>
+ * If local hosts are bypassed, a host is local when it is {@code localhost},
+ * a loopback or interface address, or the name or address of this machine.
+ * Those are looked up once per JVM in the background (see
+ * {@link #prefetchLocalAddresses()}) and never per host. Until the lookup is
+ * done, only the other rules are checked and hosts they do not match are not
+ * remembered. Decisions are remembered per host.
+ * </p>
+ */
+class ProxyBypassMatcher {
+
+    /** decisions kept before the memo is started over */
+    static final int MAX_MEMO_SIZE = 4096;
+
+    private static final Pattern IPV4 = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}");
+    private static final Pattern IPV6 = Pattern.compile("[0-9a-fA-F:.]*:[0-9a-fA-F:.]*(%\\w+)?");
+
+    private final Set<String> exactHosts = new HashSet<>();
+    private final List<String> suffixes = new ArrayList<>();
+    private final List<Pattern> wildcards = new ArrayList<>();
+    private final List<byte[][]> cidrs = new ArrayList<>();
+    private final boolean bypassPlainHostNames;
+    private final boolean bypassLocal;
+    private final Map<String, Boolean> memo = new ConcurrentHashMap<>();
+
+    /**
+     * @param rules entries of the bypass list
+     * @param bypassLocal whether local hosts bypass the proxy
+     */
+    ProxyBypassMatcher(List<String> rules, boolean bypassLocal) {
+        this.bypassLocal = bypassLocal;
+        boolean plainHostNames = false;
+        for (String rule : rules) {
+            String r = rule.trim().toLowerCase(Locale.ENGLISH);
+            if (r.isEmpty()) {
+                continue;
+            }
+            if (r.equals("<local>")) {
+                plainHostNames = true;
+            } else if (r.contains("/")) {
+                byte[][] cidr = parseCidr(r);
+                if (cidr != null) {
+                    cidrs.add(cidr);
+                } else {
+                    OutputController.getLogger().log(OutputController.Level.ERROR_ALL, "Ignoring malformed proxy bypass rule " + rule);
+                }
+            } else if (r.startsWith("*.") && r.indexOf('*', 1) < 0) {
+                suffixes.add(r.substring(1));
+            } else if (r.contains("*")) {
+                wildcards.add(compileWildcard(r));
+            } else if (r.startsWith(".")) {
+                suffixes.add(r);
+            } else {
+                exactHosts.add(normalizeHost(r));
+            }
+        }
+        this.bypassPlainHostNames = plainHostNames;
+    }
+
+    /**
+     * @param host host name or IP address, IPv6 addresses may be in brackets
+     * @return true if the host bypasses the proxy
+     */
+    boolean matches(String host) {
+        if (host == null || host.isEmpty()) {
+            return false;
+        }
+        String h = normalizeHost(host.toLowerCase(Locale.ENGLISH));
+        Boolean decision = memo.get(h);
+        if (decision == null) {
+            boolean complete = !bypassLocal || LocalAddresses.snapshot != null;
+            decision = decide(h);
+            // a host may turn out local once the lookup is done
+            if (decision || complete) {
+                if (memo.size() >= MAX_MEMO_SIZE) {
+                    memo.clear();
+                }
+                memo.put(h, decision);
+            }
+        }
+        return decision;
+    }
+
+    private boolean decide(String host) {
+        if (exactHosts.contains(host)) {
+            return true;
+        }
+        for (String suffix : suffixes) {
+            if (host.endsWith(suffix)) {
+                return true;
+            }
+        }
+        for (Pattern wildcard : wildcards) {
+            if (wildcard.matcher(host).matches()) {
+                return true;
+            }
+        }
+        byte[] address = parseAddress(host);
+        if (address == null && bypassPlainHostNames && host.indexOf('.') < 0) {
+            return true;
+        }
+        if (address != null) {
+            for (byte[][] cidr : cidrs) {
+                if (inCidr(address, cidr)) {
+                    return true;
+                }
+            }
+        }
+        return bypassLocal && isLocal(host, address);
+    }
+
+    private static boolean isLocal(String host, byte[] address) {
+        if (host.equals("localhost") || host.endsWith(".localhost")) {
+            return true;
+        }
+        if (address != null) {
+            try {
+                if (InetAddress.getByAddress(address).isLoopbackAddress()) {
+                    return true;
+                }
+            } catch (UnknownHostException e) {
+                // not possible for 4 or 16 bytes
+            }
+        }
+        return LocalAddresses.get().contains(host);
+    }
+
+    /**
+     * Starts looking up the names and addresses of this machine in the
+     * background, so no local host check waits for them.
+     */
+    static void prefetchLocalAddresses() {
+        LocalAddresses.start();
+    }
+
+    /**
+     * @param timeout how long to wait
+     * @param unit unit of the timeout
+     * @return true if the names and addresses of this machine are known
+     * @throws InterruptedException if interrupted while waiting
+     */
+    static boolean awaitLocalAddresses(long timeout, TimeUnit unit) throws InterruptedException {
+        LocalAddresses.start();
+        return LocalAddresses.ready.await(timeout, unit);
+    }
+
+    /* Names and addresses of this machine, looked up once per JVM */
+    private static class LocalAddresses {
+
+        private static final AtomicBoolean started = new AtomicBoolean();
+        private static final CountDownLatch ready = new CountDownLatch(1);
+        private static volatile Set<String> snapshot;
+
+        /**
+         * @return the names and addresses of this machine, empty while they
+         * are still being looked up
+         */
+        static Set<String> get() {
+            Set<String> result = snapshot;
+            if (result == null) {
+                start();
+                return Collections.emptySet();
+            }
+            return result;
+        }
+
+        static void start() {
+            if (!started.compareAndSet(false, true)) {
+                return;
+            }
+            Thread t = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        snapshot = lookup();
+                    } finally {
+                        ready.countDown();
+                    }
+                }
+            }, "LocalAddressesLookup");
+            t.setDaemon(true);
+            t.start();
+        }
+
+        private static Set<String> lookup() {
+            Set<String> names = new HashSet<>();
+            try {
+                InetAddress localHost = InetAddress.getLocalHost();
+                names.add(localHost.getHostName().toLowerCase(Locale.ENGLISH));
+                names.add(normalizeHost(localHost.getHostAddress()));
+            } catch (UnknownHostException e) {
+                OutputController.getLogger().log(e);
+            }
+            try {
+                Enumeration<NetworkInterface> interfaces = NetworkInterface.getNetworkInterfaces();
+                while (interfaces != null && interfaces.hasMoreElements()) {
+                    for (InetAddress address : Collections.list(interfaces.nextElement().getInetAddresses())) {
+                        names.add(normalizeHost(address.getHostAddress()));
+                    }
+                }
+            } catch (SocketException e) {
+                OutputController.getLogger().log(e);
+            }
+            return Collections.unmodifiableSet(names);
+        }
+    }
+
+    /* strips IPv6 brackets and zone id, so one address has one spelling */
+    private static String normalizeHost(String host) {
+        String h = host;
+        if (h.startsWith("[") && h.endsWith("]")) {
+            h = h.substring(1, h.length() - 1);
+        }
+        if (h.indexOf(':') >= 0) {
+            int zone = h.indexOf('%');
+            if (zone >= 0) {
+                h = h.substring(0, zone);
+            }
+            byte[] address = parseAddress(h);
+            if (address != null) {
+                try {
+                    return InetAddress.getByAddress(address).getHostAddress();
+                } catch (UnknownHostException e) {
+                    // keep as is
+                }
+            }
+        }
+        return h;
+    }
+
+    /**
+     * @return address bytes if host is an IP literal, null otherwise; never
+     * does a DNS lookup
+     */
+    static byte[] parseAddress(String host) {
+        if (IPV4.matcher(host).matches()) {
+            String[] parts = host.split("\\.");
+            byte[] address = new byte[4];
+            for (int i = 0; i < 4; i++) {
+                int part = Integer.parseInt(parts[i]);
+                if (part > 255) {
+                    return null;
+                }
+                address[i] = (byte) part;
+            }
+            return address;
+        }
+        if (IPV6.matcher(host).matches()) {
+            try {
+                // literal only: strings containing ':' are never resolved
+                return InetAddress.getByName(host).getAddress();
+            } catch (UnknownHostException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /* returns {network, mask} */
+    private static byte[][] parseCidr(String rule) {
+        int slash = rule.indexOf('/');
+        byte[] network = parseAddress(normalizeHost(rule.substring(0, slash)));
+        if (network == null) {
+            return null;
+        }
+        int prefix;
+        try {
+            prefix = Integer.parseInt(rule.substring(slash + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (prefix < 0 || prefix > network.length * 8) {
+            return null;
+        }
+        byte[] mask = new byte[network.length];
+        for (int i = 0; i < mask.length; i++) {
+            int bits = Math.max(0, Math.min(8, prefix - i * 8));
+            mask[i] = (byte) (0xff << (8 - bits));
+            network[i] &= mask[i];
+        }
+        return new byte[][] { network, mask };
+    }
+
+    private static boolean inCidr(byte[] address, byte[][] cidr) {
+        byte[] network = cidr[0];
+        byte[] mask = cidr[1];
+        if (address.length != network.length) {
+            return false;
+        }
+        for (int i = 0; i < address.length; i++) {
+            if ((address[i] & mask[i]) != network[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Pattern compileWildcard(String rule) {
+        StringBuilder regex = new StringBuilder();
+        int start = 0;
+        int star;
+        while ((star = rule.indexOf('*', start)) >= 0) {
+            if (star > start) {
+                regex.append(Pattern.quote(rule.substring(start, star)));
+            }
+            regex.append(".*");
+            start = star + 1;
+        }
+        if (start < rule.length()) {
+            regex.append(Pattern.quote(rule.substring(start)));
+        }
+        return Pattern.compile(regex.toString());
+    }
+}
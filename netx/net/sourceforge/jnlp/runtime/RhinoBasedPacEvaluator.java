@@ -43,19 +43,22 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.SocketPermission;
 import java.net.URL;
+import java.net.URLConnection;
 import java.security.AccessControlContext;
 import java.security.AccessController;
 import java.security.Permissions;
 import java.security.PrivilegedAction;
 import java.security.ProtectionDomain;
 import java.util.PropertyPermission;
+import java.util.concurrent.TimeUnit;
+import net.sourceforge.jnlp.cache.CachedDaemonThreadPoolProvider;
 import net.sourceforge.jnlp.util.logging.OutputController;
 
-import net.sourceforge.jnlp.util.TimedHashMap;
-
 import org.mozilla.javascript.Context;
 import org.mozilla.javascript.Function;
+import org.mozilla.javascript.Script;
 import org.mozilla.javascript.Scriptable;
+import org.mozilla.javascript.ScriptableObject;
 
 /**
  * Represents a Proxy Auto Config file. This object can be used to evaluate the
@@ -63,12 +66,21 @@ import org.mozilla.javascript.Scriptable;
  *
  * @see <a href="http://en.wikipedia.org/wiki/Proxy_auto-config#The_PAC_file">The PAC File</a>
  */
-public class RhinoBasedPacEvaluator implements PacEvaluator {
+public class RhinoBasedPacEvaluator extends CachingPacEvaluator {
+
+    /** how often the PAC file is checked for changes */
+    private static final long RELOAD_INTERVAL = TimeUnit.MINUTES.toNanos(5);
+    /** connect and read timeout of the PAC file download */
+    private static final int LOAD_TIMEOUT = (int) TimeUnit.SECONDS.toMillis(30);
 
     private final String pacHelperFunctionContents;
-    private final String pacContents;
     private final URL pacUrl;
-    private final TimedHashMap<String, String> cache;
+    /* scope of every thread, valid only for the generation it was made for */
+    private final ThreadLocal<ThreadScope> scopes = new ThreadLocal<>();
+    private volatile CompiledPac compiledPac;
+    // guarded by this
+    private long lastLoad;
+    private boolean reloading;
 
     /**
      * Initialize a new object by using the PAC file located at the given URL.
@@ -79,31 +91,8 @@ public class RhinoBasedPacEvaluator implements PacEvaluator {
         OutputController.getLogger().log(OutputController.Level.ERROR_DEBUG, "Using the Rhino based PAC evaluator for url " + pacUrl);
         pacHelperFunctionContents = getHelperFunctionContents();
         this.pacUrl = pacUrl;
-        pacContents = getPacContents(pacUrl);
-        cache = new TimedHashMap<String, String>();
-    }
-
-    /**
-     * Get the proxies for accessing a given URL. The result is obtained by
-     * evaluating the PAC file with the given url (and the host) as input.
-     *
-     * This method performs caching of the result.
-     *
-     * @param url the url for which a proxy is desired
-     * @return a list of proxies in a string like
-     * <pre>"PROXY foo.example.com:8080; PROXY bar.example.com:8080; DIRECT"</pre>
-     *
-     * @see #getProxiesWithoutCaching(URL)
-     */
-    public String getProxies(URL url) {
-        String cachedResult = getFromCache(url);
-        if (cachedResult != null) {
-            return cachedResult;
-        }
-
-        String result = getProxiesWithoutCaching(url);
-        addToCache(url, result);
-        return result;
+        compiledPac = new CompiledPac(getPacContents(pacUrl), pacUrl.toString(), pacHelperFunctionContents, 0, scopes);
+        lastLoad = System.nanoTime();
     }
 
     /**
@@ -116,14 +105,14 @@ public class RhinoBasedPacEvaluator implements PacEvaluator {
      *
      * @see #getProxies(URL)
      */
-    private String getProxiesWithoutCaching(URL url) {
+    @Override
+    protected String getProxiesWithoutCaching(URL url) {
         if (pacHelperFunctionContents == null) {
             OutputController.getLogger().log(OutputController.Level.ERROR_ALL, "Error loading pac functions");
             return "DIRECT";
         }
 
-        EvaluatePacAction evaluatePacAction = new EvaluatePacAction(pacContents, pacUrl.toString(),
-                pacHelperFunctionContents, url);
+        EvaluatePacAction evaluatePacAction = new EvaluatePacAction(getCompiledPac(), url);
 
         // Purposefully giving only these permissions rather than using java.policy. The "evaluatePacAction"
         // isn't supposed to do very much and so doesn't require all the default permissions given by
@@ -139,6 +128,77 @@ public class RhinoBasedPacEvaluator implements PacEvaluator {
         return AccessController.doPrivileged(evaluatePacAction, context);
     }
 
+    /**
+     * Returns the current compiled PAC script without waiting. Every
+     * {@link #RELOAD_INTERVAL} the PAC file is read again in the background;
+     * it is recompiled (and cached results dropped) only if its contents
+     * changed. Until then, the previous script keeps answering.
+     */
+    private CompiledPac getCompiledPac() {
+        synchronized (this) {
+            if (!reloading && System.nanoTime() - lastLoad >= RELOAD_INTERVAL) {
+                reloading = true;
+                startReload();
+            }
+        }
+        return compiledPac;
+    }
+
+    /**
+     * Reloads the PAC file on a pool thread of the runtime. The first
+     * evaluation after the interval may come from application code, so the
+     * thread is neither started nor run with its permissions.
+     */
+    private void startReload() {
+        final Runnable reloader = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    AccessController.doPrivileged(new PrivilegedAction<Void>() {
+                        @Override
+                        public Void run() {
+                            reload();
+                            return null;
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    OutputController.getLogger().log(OutputController.Level.ERROR_ALL, e);
+                } finally {
+                    reloaded();
+                }
+            }
+        };
+        try {
+            AccessController.doPrivileged(new PrivilegedAction<Void>() {
+                @Override
+                public Void run() {
+                    CachedDaemonThreadPoolProvider.DAEMON_THREAD_POOL.execute(reloader);
+                    return null;
+                }
+            });
+        } catch (RuntimeException e) {
+            OutputController.getLogger().log(OutputController.Level.ERROR_ALL, e);
+            reloaded();
+        }
+    }
+
+    private synchronized void reloaded() {
+        lastLoad = System.nanoTime();
+        reloading = false;
+    }
+
+    private void reload() {
+        String contents = getPacContents(pacUrl);
+        synchronized (this) {
+            if (contents != null && !contents.equals(compiledPac.getPacContents())) {
+                OutputController.getLogger().log(OutputController.Level.ERROR_DEBUG, "PAC file " + pacUrl + " changed, reloading");
+                compiledPac = new CompiledPac(contents, pacUrl.toString(), pacHelperFunctionContents,
+                        compiledPac.generation + 1, scopes);
+                clearCache();
+            }
+        }
+    }
+
     /**
      * Returns the contents of file at pacUrl as a String.
      */
@@ -147,7 +207,10 @@ public class RhinoBasedPacEvaluator implements PacEvaluator {
         try {
             String line = null;
             contents = new StringBuilder();
-            BufferedReader pacReader = new BufferedReader(new InputStreamReader(pacUrl.openStream()));
+            URLConnection connection = pacUrl.openConnection();
+            connection.setConnectTimeout(LOAD_TIMEOUT);
+            connection.setReadTimeout(LOAD_TIMEOUT);
+            BufferedReader pacReader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
             try {
                 while ((line = pacReader.readLine()) != null) {
                     // OutputController.getLogger().log(OutputController.Level.MESSAGE_ALL, line);
@@ -158,6 +221,10 @@ public class RhinoBasedPacEvaluator implements PacEvaluator {
             }
         } catch (IOException e) {
             contents = null;
+        } catch (RuntimeException e) {
+            // e.g. a SecurityException; the previous script stays in use
+            OutputController.getLogger().log(OutputController.Level.ERROR_ALL, e);
+            contents = null;
         }
 
         return (contents != null) ? contents.toString() : null;
@@ -195,20 +262,89 @@ public class RhinoBasedPacEvaluator implements PacEvaluator {
     }
 
     /**
-     * Gets an entry from the cache
+     * The helper functions and the PAC file, compiled once. Standard objects
+     * are created once, sealed, and shared by all threads. Every thread
+     * executes the compiled scripts in its own top level scope (with the
+     * shared standard objects as prototype) the first time it evaluates the
+     * PAC file, and reuses that scope afterwards, so evaluations neither
+     * parse the scripts again nor synchronize with each other.
+     * <p>
+     * All generations of the script store the scopes in the same thread
+     * local, tagged with their generation. A thread evaluating a newer
+     * generation replaces its old scope, so a recompiled script does not stay
+     * reachable through the threads which used it.
+     * </p>
+     * <p>
+     * Everything is done lazily from {@link EvaluatePacAction}, so
+     * compilation and execution of the (remote) scripts happen inside the
+     * sandbox too.
+     * </p>
      */
-    private String getFromCache(URL url) {
-        String lookupString = url.getProtocol() + "://" + url.getHost();
-        String result = cache.get(lookupString);
-        return result;
+    private static class CompiledPac {
+
+        private final String pacContents;
+        private final String pacUrl;
+        private final String pacFuncsContents;
+        private final long generation;
+        private final ThreadLocal<ThreadScope> scopes;
+        private ScriptableObject standardObjects;
+        private Script pacFuncsScript;
+        private Script pacScript;
+
+        CompiledPac(String pacContents, String pacUrl, String pacFuncsContents, long generation, ThreadLocal<ThreadScope> scopes) {
+            this.pacContents = pacContents;
+            this.pacUrl = pacUrl;
+            this.pacFuncsContents = pacFuncsContents;
+            this.generation = generation;
+            this.scopes = scopes;
+        }
+
+        String getPacContents() {
+            return pacContents;
+        }
+
+        private synchronized void compile(Context cx) {
+            if (pacScript == null) {
+                standardObjects = cx.initStandardObjects(null, true);
+                pacFuncsScript = cx.compileString(pacFuncsContents, "internal", 1, null);
+                pacScript = cx.compileString(pacContents, pacUrl, 1, null);
+            }
+        }
+
+        /**
+         * @param cx context entered by the current thread; must be in
+         * interpreted mode
+         * @return scope of the current thread with the PAC functions defined
+         */
+        Scriptable getScope(Context cx) {
+            ThreadScope current = scopes.get();
+            if (current != null && current.generation == generation) {
+                return current.scope;
+            }
+            // drop the scope of an older generation even if the scripts fail
+            scopes.remove();
+            compile(cx);
+            Scriptable scope = cx.newObject(standardObjects);
+            scope.setPrototype(standardObjects);
+            scope.setParentScope(null);
+            pacFuncsScript.exec(cx, scope);
+            pacScript.exec(cx, scope);
+            // not stored if the scripts failed, next call retries
+            scopes.set(new ThreadScope(generation, scope));
+            return scope;
+        }
     }
 
-    /**
-     * Adds an entry to the cache
-     */
-    private void addToCache(URL url, String proxyResult) {
-        String lookupString = url.getAuthority() + "://" + url.getHost();
-        cache.put(lookupString, proxyResult);
+    /* scope of one thread and the generation of the script it executed */
+    private static class ThreadScope {
+
+        final long generation;
+        final Scriptable scope;
+
+        ThreadScope(long generation, Scriptable scope) {
+            this.generation = generation;
+            this.scope = scope;
+        }
     }
 
     /**
@@ -217,19 +353,19 @@ public class RhinoBasedPacEvaluator implements PacEvaluator {
      */
     private static class EvaluatePacAction implements PrivilegedAction<String> {
 
-        private String pacContents;
-        private String pacUrl;
-        private String pacFuncsContents;
+        private CompiledPac compiledPac;
         private URL url;
 
-        public EvaluatePacAction(String pacContents, String pacUrl, String pacFuncsContents, URL url) {
-            this.pacContents = pacContents;
-            this.pacUrl = pacUrl;
-            this.pacFuncsContents = pacFuncsContents;
+        public EvaluatePacAction(CompiledPac compiledPac, URL url) {
+            this.compiledPac = compiledPac;
             this.url = url;
         }
 
         public String run() {
+            if (compiledPac.getPacContents() == null) {
+                OutputController.getLogger().log(OutputController.Level.ERROR_ALL, "Error loading pac file " + compiledPac.pacUrl);
+                return "DIRECT";
+            }
             Context cx = Context.enter();
             try {
                 /*
@@ -238,13 +374,10 @@ public class RhinoBasedPacEvaluator implements PacEvaluator {
                  * This is already running within a sandbox, but we can (and we
                  * should) lock it down further. Look into ClassShutter.
                  */
-                Scriptable scope = cx.initStandardObjects();
                 // any optimization level greater than -1 will trigger code generation
                 // and this block will then need classloader permissions
                 cx.setOptimizationLevel(-1);
-                Object result = null;
-                result = cx.evaluateString(scope, pacFuncsContents, "internal", 1, null);
-                result = cx.evaluateString(scope, pacContents, pacUrl, 1, null);
+                Scriptable scope = compiledPac.getScope(cx);
 
                 Object functionObj = scope.get("FindProxyForURL", scope);
                 if (!(functionObj instanceof Function)) {
@@ -254,7 +387,7 @@ public class RhinoBasedPacEvaluator implements PacEvaluator {
                     Function findProxyFunction = (Function) functionObj;
 
                     Object[] args = { url.toString(), url.getHost() };
-                    result = findProxyFunction.call(cx, scope, scope, args);
+                    Object result = findProxyFunction.call(cx, scope, scope, args);
                     return (String) result;
                 }
             } catch (Exception e) {
@@ -0,0 +1,347 @@
+/* StartupTimeline.java
+   Copyright (C) 2026 Red Hat, Inc.
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License as published by
+the Free Software Foundation, version 2.
+
+IcedTea is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to
+the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version.
+*/
+
+package net.sourceforge.jnlp.runtime;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import net.sourceforge.jnlp.config.DeploymentConfiguration;
+import net.sourceforge.jnlp.util.logging.FileLog;
+import net.sourceforge.jnlp.util.logging.LogConfig;
+import net.sourceforge.jnlp.util.logging.OutputController;
+
+/**
+ * Records how long the phases of starting up took, on which thread they ran
+ * and which url they were about. Recording is off unless running verbose or
+ * with {@link DeploymentConfiguration#KEY_ENABLE_STARTUP_TRACE} set; the
+ * latter also writes the timeline in Chrome trace format next to the file
+ * logs when the VM exits. When off, {@link #start} only reads a flag.
+ */
+public final class StartupTimeline {
+
+    /* all times are relative to this */
+    private static final long ORIGIN = System.nanoTime();
+
+    /* long running applications keep downloading, do not grow forever */
+    static final int MAX_PHASES = 10000;
+
+    private static volatile boolean enabled = false;
+    private static boolean traceOnExit = false;
+
+    private static final List<Phase> phases = new ArrayList<>();
+    private static int dropped = 0;
+
+    /* returned when not recording */
+    private static final Phase NONE = new Phase(null, null);
+
+    /**
+     * One measured phase. Call {@link #end()} once it is done.
+     */
+    public static final class Phase {
+
+        private final String name;
+        private final String detail;
+        private final String thread;
+        private final long threadId;
+        private final long start;
+        private volatile long end = -1;
+
+        private Phase(String name, String detail) {
+            Thread t = Thread.currentThread();
+            this.name = name;
+            this.detail = detail;
+            this.thread = t.getName();
+            this.threadId = t.getId();
+            this.start = System.nanoTime();
+        }
+
+        public void end() {
+            if (end < 0 && this != NONE) {
+                end = System.nanoTime();
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return what the phase was about, usually an url, or null
+         */
+        public String getDetail() {
+            return detail;
+        }
+
+        public String getThreadName() {
+            return thread;
+        }
+
+        /**
+         * @return start of the phase, in nanoseconds since the timeline
+         * began
+         */
+        public long getStart() {
+            return start - ORIGIN;
+        }
+
+        /**
+         * @return duration in nanoseconds, or -1 if the phase is still
+         * running
+         */
+        public long getDuration() {
+            long e = end;
+            return e < 0 ? -1 : e - start;
+        }
+    }
+
+    private StartupTimeline() {
+    }
+
+    /**
+     * Turns recording on or off according to the runtime settings, and
+     * arranges the trace to be written on exit if asked to. Can be called
+     * more than once.
+     */
+    static void configure() {
+        if (JNLPRuntime.isDebug()) {
+            setEnabled(true);
+        }
+        if (Boolean.parseBoolean(JNLPRuntime.getConfiguration().getProperty(DeploymentConfiguration.KEY_ENABLE_STARTUP_TRACE))) {
+            setEnabled(true);
+            writeTraceOnExit();
+        }
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        StartupTimeline.enabled = enabled;
+    }
+
+    /**
+     * Starts measuring a phase on the current thread.
+     *
+     * @param name name of the phase
+     * @return the phase, to be ended by the caller
+     */
+    public static Phase start(String name) {
+        return start(name, null);
+    }
+
+    /**
+     * Starts measuring a phase on the current thread.
+     *
+     * @param name name of the phase
+     * @param detail what the phase is about, usually an url; only turned to
+     * string if recording
+     * @return the phase, to be ended by the caller
+     */
+    public static Phase start(String name, Object detail) {
+        if (!enabled) {
+            return NONE;
+        }
+        Phase phase = new Phase(name, detail == null ? null : detail.toString());
+        synchronized (phases) {
+            if (phases.size() < MAX_PHASES) {
+                phases.add(phase);
+            } else {
+                dropped++;
+            }
+        }
+        return phase;
+    }
+
+    /**
+     * @return phases recorded so far, in order of start
+     */
+    public static List<Phase> getPhases() {
+        synchronized (phases) {
+            return new ArrayList<>(phases);
+        }
+    }
+
+    /**
+     * @return human readable table of all phases recorded so far
+     */
+    public static String report() {
+        StringBuilder sb = new StringBuilder("Startup timeline (start, duration in ms):");
+        for (Phase phase : getPhases()) {
+            long duration = phase.getDuration();
+            sb.append(String.format("%n  %8.1f %8s  %s [%s]",
+                    toMillis(phase.getStart()),
+                    duration < 0 ? "running" : String.format("%.1f", toMillis(duration)),
+                    phase.getName(),
+                    phase.getThreadName()));
+            if (phase.getDetail() != null) {
+                sb.append(" ").append(phase.getDetail());
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes all phases recorded so far in the Chrome trace event format, as
+     * understood by chrome://tracing and similar tools. Phases still running
+     * are written as lasting until now.
+     *
+     * @param w where to write
+     * @throws IOException if writing fails
+     */
+    public static void writeTrace(Writer w) throws IOException {
+        long now = System.nanoTime() - ORIGIN;
+        List<Phase> list = getPhases();
+        Map<Long, String> threads = new HashMap<>();
+        w.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+        boolean first = true;
+        for (Phase phase : list) {
+            threads.put(phase.threadId, phase.thread);
+            long duration = phase.getDuration();
+            w.write(first ? "\n" : ",\n");
+            first = false;
+            w.write("{\"name\":");
+            writeString(w, phase.getName());
+            w.write(",\"cat\":\"itw\",\"ph\":\"X\",\"pid\":1,\"tid\":");
+            w.write(String.valueOf(phase.threadId));
+            w.write(",\"ts\":");
+            w.write(toMicros(phase.getStart()));
+            w.write(",\"dur\":");
+            w.write(toMicros(duration < 0 ? now - phase.getStart() : duration));
+            if (phase.getDetail() != null || duration < 0) {
+                w.write(",\"args\":{");
+                if (phase.getDetail() != null) {
+                    w.write("\"url\":");
+                    writeString(w, phase.getDetail());
+                }
+                if (duration < 0) {
+                    w.write(phase.getDetail() != null ? "," : "");
+                    w.write("\"unfinished\":true");
+                }
+                w.write("}");
+            }
+            w.write("}");
+        }
+        for (Map.Entry<Long, String> thread : threads.entrySet()) {
+            w.write(first ? "\n" : ",\n");
+            first = false;
+            w.write("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":");
+            w.write(String.valueOf(thread.getKey()));
+            w.write(",\"args\":{\"name\":");
+            writeString(w, thread.getValue());
+            w.write("}}");
+        }
+        w.write("\n]");
+        synchronized (phases) {
+            if (dropped > 0) {
+                w.write(",\"droppedEvents\":" + dropped);
+            }
+        }
+        w.write("}\n");
+    }
+
+    /**
+     * Writes the trace to a new file in the log directory when the VM exits.
+     */
+    static synchronized void writeTraceOnExit() {
+        if (traceOnExit) {
+            return;
+        }
+        traceOnExit = true;
+        final File file = new File(LogConfig.getLogConfig().getIcedteaLogDir(), "itw-trace-" + FileLog.getStamp() + ".json");
+        Runtime.getRuntime().addShutdownHook(new Thread("StartupTimelineWriter") {
+            @Override
+            public void run() {
+                AccessController.doPrivileged(new PrivilegedAction<Void>() {
+                    @Override
+                    public Void run() {
+                        writeTrace(file);
+                        return null;
+                    }
+                });
+            }
+        });
+    }
+
+    private static void writeTrace(File file) {
+        File dir = file.getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+            OutputController.getLogger().log(OutputController.Level.ERROR_ALL, "Unable to create " + dir);
+            return;
+        }
+        try (Writer w = new OutputStreamWriter(new FileOutputStream(file), "UTF-8")) {
+            writeTrace(w);
+        } catch (IOException ex) {
+            OutputController.getLogger().log(OutputController.Level.ERROR_ALL, ex);
+        }
+    }
+
+    private static void writeString(Writer w, String s) throws IOException {
+        w.write('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                w.write('\\');
+                w.write(c);
+            } else if (c < 0x20) {
+                w.write(String.format("\\u%04x", (int) c));
+            } else {
+                w.write(c);
+            }
+        }
+        w.write('"');
+    }
+
+    private static String toMicros(long nanos) {
+        return String.valueOf(nanos / 1000) + "." + (nanos % 1000) / 100;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
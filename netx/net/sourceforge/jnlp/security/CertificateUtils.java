@@ -48,11 +48,14 @@ import java.math.BigInteger;
 import java.security.Key;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.cert.Certificate;
 import java.security.cert.CertificateException;
 import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
 import java.util.Enumeration;
+import java.util.Map;
 import java.util.Random;
 
 import net.sourceforge.jnlp.runtime.Translator;
@@ -161,7 +164,20 @@ public class CertificateUtils {
      * @return true if the certificate is present in one of the keystores, false otherwise
      */
     public static final boolean inKeyStores(X509Certificate c, KeyStore[] keyStores) {
+        String fingerprint = null;
         for (KeyStore keyStore : keyStores) {
+            Map<String, X509Certificate> index = KeyStores.getIndex(keyStore);
+            if (index != null) {
+                // shared snapshot of a keystore file, one lookup
+                if (fingerprint == null) {
+                    fingerprint = getFingerprint(c);
+                }
+                if (c.equals(index.get(fingerprint))) {
+                    logFound(c, keyStore);
+                    return true;
+                }
+                continue;
+            }
             try {
                 // Check against all certs
                 Enumeration<String> aliases = keyStore.aliases();
@@ -169,7 +185,7 @@ public class CertificateUtils {
                     // Verify against this entry
                     String alias = aliases.nextElement();
                     if (c.equals(keyStore.getCertificate(alias))) {
-                        OutputController.getLogger().log(Translator.R("LCertFoundIn", c.getSubjectX500Principal().getName(), KeyStores.getPathToKeystore(keyStore.hashCode())));
+                        logFound(c, keyStore);
                         return true;
                     } // else continue
                 }
@@ -181,6 +197,29 @@ public class CertificateUtils {
         return false;
     }
 
+    private static void logFound(X509Certificate c, KeyStore keyStore) {
+        OutputController.getLogger().log(OutputController.Level.MESSAGE_DEBUG, Translator.R("LCertFoundIn", c.getSubjectX500Principal().getName(), KeyStores.getPathToKeystore(keyStore.hashCode())));
+    }
+
+    /**
+     * @param c the certificate
+     * @return SHA-256 of the encoded certificate as hex string, or null if
+     * the certificate can not be encoded
+     */
+    public static String getFingerprint(Certificate c) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(c.getEncoded());
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException | CertificateException e) {
+            OutputController.getLogger().log(e);
+            return null;
+        }
+    }
+
     /**
      * Writes the certificate in base64 encoded from to the print stream.
      * See http://tools.ietf.org/html/rfc4945#section-6.1 for more information
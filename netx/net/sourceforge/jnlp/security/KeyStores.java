@@ -40,16 +40,25 @@ package net.sourceforge.jnlp.security;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.security.AccessController;
 import java.security.AllPermission;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
+import java.security.PrivilegedAction;
+import java.security.cert.Certificate;
 import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import net.sourceforge.jnlp.config.InfrastructureFileDescriptor;
 
@@ -79,7 +88,61 @@ public final class KeyStores {
         CLIENT_CERTS,
     }
 
-    public static final Map<Integer,String> keystoresPaths=new HashMap<>();
+    public static final Map<Integer,String> keystoresPaths=new ConcurrentHashMap<>();
+
+    /* incremented whenever this JVM writes a keystore, or a keystore file was changed by someone else */
+    private static final AtomicLong generation = new AtomicLong();
+
+    /* how often getGeneration() looks at the keystore files */
+    static final long CHECK_INTERVAL = TimeUnit.SECONDS.toNanos(2);
+    private static volatile long lastCheck = System.nanoTime();
+
+    /* read only keystores shared by getCertKeyStores, getCAKeyStores and getClientKeyStores, by file */
+    private static final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * A keystore as loaded from a file, together with an index of its
+     * certificates by fingerprint.
+     */
+    private static final class Snapshot {
+
+        final File file;
+        final long lastModified;
+        final long length;
+        final KeyStore keyStore;
+        final Map<String, X509Certificate> index;
+
+        Snapshot(File file, long lastModified, long length, KeyStore keyStore) {
+            this.file = file;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.keyStore = keyStore;
+            this.index = createIndex(keyStore);
+        }
+
+        boolean isCurrent() {
+            return file.lastModified() == lastModified && file.length() == length;
+        }
+
+        private static Map<String, X509Certificate> createIndex(KeyStore ks) {
+            Map<String, X509Certificate> index = new HashMap<>();
+            try {
+                Enumeration<String> aliases = ks.aliases();
+                while (aliases.hasMoreElements()) {
+                    Certificate c = ks.getCertificate(aliases.nextElement());
+                    if (c instanceof X509Certificate) {
+                        String fingerprint = CertificateUtils.getFingerprint(c);
+                        if (fingerprint != null) {
+                            index.put(fingerprint, (X509Certificate) c);
+                        }
+                    }
+                }
+            } catch (KeyStoreException e) {
+                OutputController.getLogger().log(OutputController.Level.ERROR_ALL, e);
+            }
+            return Collections.unmodifiableMap(index);
+        }
+    }
 
     private static final String KEYSTORE_TYPE = "JKS";
   
@@ -131,6 +194,112 @@ public final class KeyStores {
         return ks;
     }
 
+    /**
+     * Returns a number which changes whenever a keystore may have changed, so
+     * that anything derived from keystores can tell it is stale. Called from
+     * TLS handshakes of applications too, so the keystore files are looked
+     * at with the runtime's permissions.
+     *
+     * @return current keystores generation
+     */
+    public static long getGeneration() {
+        long now = System.nanoTime();
+        if (now - lastCheck > CHECK_INTERVAL) {
+            lastCheck = now;
+            AccessController.doPrivileged(new PrivilegedAction<Boolean>() {
+                @Override
+                public Boolean run() {
+                    return checkSnapshots();
+                }
+            });
+        }
+        return generation.get();
+    }
+
+    /**
+     * Marks everything derived from keystores as stale.
+     */
+    static void keyStoreChanged() {
+        snapshots.clear();
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Drops snapshots whose files were changed since they were loaded.
+     *
+     * @return true if any snapshot was dropped
+     */
+    static boolean checkSnapshots() {
+        boolean changed = false;
+        for (Map.Entry<String, Snapshot> e : snapshots.entrySet()) {
+            if (!e.getValue().isCurrent() && snapshots.remove(e.getKey(), e.getValue())) {
+                changed = true;
+            }
+        }
+        if (changed) {
+            generation.incrementAndGet();
+        }
+        return changed;
+    }
+
+    /**
+     * Returns a shared, read only KeyStore for the given level and type. The
+     * file is only read again when its modification time or size changed.
+     * The returned keystore must not be modified, use
+     * {@link #getKeyStore(Level, Type)} for that.
+     */
+    private static KeyStore getSharedKeyStore(Level level, Type type) {
+        SecurityManager sm = System.getSecurityManager();
+        if (sm != null) {
+            sm.checkPermission(new AllPermission());
+        }
+
+        String location = getKeyStoreLocation(level, type).getFullPath();
+        Snapshot snapshot = snapshots.get(location);
+        if (snapshot != null && snapshot.isCurrent()) {
+            return snapshot.keyStore;
+        }
+        File file = new File(location);
+        //taken before loading, so a write while loading is seen next time
+        long lastModified = file.lastModified();
+        long length = file.length();
+        KeyStore ks = getKeyStore(level, type);
+        if (ks == null) {
+            return null;
+        }
+        if (!file.exists()) {
+            // nothing on disk, nothing to share
+            return ks;
+        }
+        if (lastModified == 0) {
+            // just created by getKeyStore
+            lastModified = file.lastModified();
+            length = file.length();
+        }
+        Snapshot previous = snapshots.put(location, new Snapshot(file, lastModified, length, ks));
+        if (previous != null && previous == snapshot) {
+            // the file was changed behind our back
+            generation.incrementAndGet();
+        }
+        return ks;
+    }
+
+    /**
+     * @param ks keystore as returned by one of the {@code get*KeyStores}
+     * methods
+     * @return certificates of this keystore indexed by
+     * {@link CertificateUtils#getFingerprint}, or null if ks is not a shared
+     * snapshot
+     */
+    static Map<String, X509Certificate> getIndex(KeyStore ks) {
+        for (Snapshot snapshot : snapshots.values()) {
+            if (snapshot.keyStore == ks) {
+                return snapshot.index;
+            }
+        }
+        return null;
+    }
+
     public static String getPathToKeystore(int k) {
         String s = keystoresPaths.get(k);
         if (s == null) {
@@ -143,27 +312,29 @@ public final class KeyStores {
      * Returns an array of KeyStore that contain certificates that are trusted.
      * The KeyStores contain certificates from different sources.
      *
+     * The returned KeyStores are shared and must not be modified.
+     *
      * @return an array of KeyStore containing trusted Certificates
      */
     public static final KeyStore[] getCertKeyStores() {
         List<KeyStore> result = new ArrayList<>(10);
         /* System-level JSSE certificates */
-        KeyStore ks = getKeyStore(Level.SYSTEM, Type.JSSE_CERTS);
+        KeyStore ks = getSharedKeyStore(Level.SYSTEM, Type.JSSE_CERTS);
         if (ks != null) {
             result.add(ks);
         }
         /* System-level certificates */
-        ks = getKeyStore(Level.SYSTEM, Type.CERTS);
+        ks = getSharedKeyStore(Level.SYSTEM, Type.CERTS);
         if (ks != null) {
             result.add(ks);
         }
         /* User-level JSSE certificates */
-        ks = getKeyStore(Level.USER, Type.JSSE_CERTS);
+        ks = getSharedKeyStore(Level.USER, Type.JSSE_CERTS);
         if (ks != null) {
             result.add(ks);
         }
         /* User-level certificates */
-        ks = getKeyStore(Level.USER, Type.CERTS);
+        ks = getSharedKeyStore(Level.USER, Type.CERTS);
         if (ks != null) {
             result.add(ks);
         }
@@ -174,27 +345,29 @@ public final class KeyStores {
     /**
      * Returns an array of KeyStore that contain trusted CA certificates.
      *
+     * The returned KeyStores are shared and must not be modified.
+     *
      * @return an array of KeyStore containing trusted CA certificates
      */
     public static final KeyStore[] getCAKeyStores() {
         List<KeyStore> result = new ArrayList<>(10);
         /* System-level JSSE CA certificates */
-        KeyStore ks = getKeyStore(Level.SYSTEM, Type.JSSE_CA_CERTS);
+        KeyStore ks = getSharedKeyStore(Level.SYSTEM, Type.JSSE_CA_CERTS);
         if (ks != null) {
             result.add(ks);
         }
         /* System-level CA certificates */
-        ks = getKeyStore(Level.SYSTEM, Type.CA_CERTS);
+        ks = getSharedKeyStore(Level.SYSTEM, Type.CA_CERTS);
         if (ks != null) {
             result.add(ks);
         }
         /* User-level JSSE CA certificates */
-        ks = getKeyStore(Level.USER, Type.JSSE_CA_CERTS);
+        ks = getSharedKeyStore(Level.USER, Type.JSSE_CA_CERTS);
         if (ks != null) {
             result.add(ks);
         }
         /* User-level CA certificates */
-        ks = getKeyStore(Level.USER, Type.CA_CERTS);
+        ks = getSharedKeyStore(Level.USER, Type.CA_CERTS);
         if (ks != null) {
             result.add(ks);
         }
@@ -203,7 +376,8 @@ public final class KeyStores {
     }
 
     /**
-     * Returns KeyStores containing trusted client certificates
+     * Returns KeyStores containing trusted client certificates.
+     * The returned KeyStores are shared and must not be modified.
      *
      * @return an array of KeyStore objects that can be used to check client
      * authentication certificates
@@ -211,12 +385,12 @@ public final class KeyStores {
     public static KeyStore[] getClientKeyStores() {
         List<KeyStore> result = new ArrayList<>();
 
-        KeyStore ks = getKeyStore(Level.SYSTEM, Type.CLIENT_CERTS);
+        KeyStore ks = getSharedKeyStore(Level.SYSTEM, Type.CLIENT_CERTS);
         if (ks != null) {
             result.add(ks);
         }
 
-        ks = getKeyStore(Level.USER, Type.CLIENT_CERTS);
+        ks = getSharedKeyStore(Level.USER, Type.CLIENT_CERTS);
         if (ks != null) {
             result.add(ks);
         }
@@ -393,6 +393,7 @@ public class SecurityUtil {
                                 try (FileOutputStream fos = new FileOutputStream(f)) {
                                     ks.store(fos, pass);
                                 }
+                                KeyStores.keyStoreChanged();
                             }
                             return null;
                         }
@@ -37,26 +37,32 @@ exception statement from your version.
 
 package net.sourceforge.jnlp.security;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.net.Socket;
 import java.security.AccessController;
 import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.PrivilegedAction;
 import java.security.cert.Certificate;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import javax.net.ssl.SSLEngine;
 import javax.net.ssl.SSLSocket;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509ExtendedTrustManager;
 import javax.net.ssl.X509TrustManager;
 
-import net.sourceforge.jnlp.runtime.JNLPRuntime;
 import net.sourceforge.jnlp.security.SecurityDialogs.AccessType;
 import net.sourceforge.jnlp.security.dialogresults.BasicDialogValue;
 import net.sourceforge.jnlp.security.dialogresults.YesNoSandbox;
@@ -68,21 +74,87 @@ import sun.security.validator.ValidatorException;
  * This class implements an X509 Trust Manager. The certificates it trusts are
  * "variable", in the sense that it can dynamically, and temporarily support
  * different certificates that are not in the keystore.
+ * <p>
+ * Checks run concurrently. Only asking the user is serialized, so that one
+ * certificate is not offered in several dialogs at once. Chains which were
+ * accepted are remembered (per chain, auth type and host) for
+ * {@link #VALIDATED_TIMEOUT}, but never beyond their validity; the trust
+ * managers are reloaded and the remembered chains forgotten whenever a
+ * keystore changes (see {@link KeyStores#getGeneration()}).
+ * </p>
  */
 
 final public class VariableX509TrustManager {
 
-    /** TrustManagers containing trusted CAs */
-    private X509TrustManager[] caTrustManagers = null;
+    /** maximal number of remembered accepted chains */
+    static final int VALIDATED_CACHE_SIZE = 256;
+    /** accepted chains are checked again after this many milliseconds */
+    static final long VALIDATED_TIMEOUT = TimeUnit.MINUTES.toMillis(10);
+
+    /* trust managers loaded from one generation of the keystores */
+    private static final class TrustManagers {
+
+        /** TrustManagers containing trusted CAs */
+        final X509TrustManager[] caTrustManagers;
+        /** TrustManagers containing trusted certificates */
+        final X509TrustManager[] certTrustManagers;
+        /** TrustManagers containing trusted client certificates */
+        final X509TrustManager[] clientTrustManagers;
+        final long generation;
+
+        TrustManagers(long generation) {
+            this.generation = generation;
+            /*
+             * Load TrustManagers for trusted certificates
+             */
+            certTrustManagers = loadTrustManagers(new KeyStoreProvider() {
+                @Override
+                public KeyStore[] getKeyStores() {
+                    return KeyStores.getCertKeyStores();
+                }
+            });
+            /*
+             * Load TrustManagers for trusted CAs
+             */
+            caTrustManagers = loadTrustManagers(new KeyStoreProvider() {
+                @Override
+                public KeyStore[] getKeyStores() {
+                    return KeyStores.getCAKeyStores();
+                }
+            });
+            /*
+             * Load TrustManagers for trusted clients certificates
+             */
+            clientTrustManagers = loadTrustManagers(new KeyStoreProvider() {
+                @Override
+                public KeyStore[] getKeyStores() {
+                    return KeyStores.getClientKeyStores();
+                }
+            });
+        }
+    }
+
+    private interface KeyStoreProvider {
+
+        KeyStore[] getKeyStores();
+    }
 
-    /** TrustManagers containing trusted certificates */
-    private X509TrustManager[] certTrustManagers = null;
+    private volatile TrustManagers trustManagers;
 
-    /** TrustManagers containing trusted client certificates */
-    private X509TrustManager[] clientTrustManagers = null;
+    private final Set<Certificate> temporarilyTrusted = Collections.newSetFromMap(new ConcurrentHashMap<Certificate, Boolean>());
+    private final Set<Certificate> temporarilyUntrusted = Collections.newSetFromMap(new ConcurrentHashMap<Certificate, Boolean>());
 
-    private ArrayList<Certificate> temporarilyTrusted = new ArrayList<>();
-    private ArrayList<Certificate> temporarilyUntrusted = new ArrayList<>();
+    /* key of an accepted chain -> time (ms) until which it stays accepted */
+    private final Map<String, Long> validatedChains = Collections.synchronizedMap(
+            new LinkedHashMap<String, Long>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                    return size() > VALIDATED_CACHE_SIZE;
+                }
+            });
+
+    /* held while the user is asked, so that one certificate gets one dialog */
+    private final Object askUserLock = new Object();
 
     private static VariableX509TrustManager instance = null;
 
@@ -90,80 +162,59 @@ final public class VariableX509TrustManager {
      * Constructor initializes the system, user and custom stores
      */
     public VariableX509TrustManager() {
+        trustManagers = new TrustManagers(KeyStores.getGeneration());
+    }
 
-        /*
-         * Load TrustManagers for trusted certificates
-         */
-        try {
-            /** KeyStores containing trusted certificates */
-            KeyStore[] trustedCertKeyStores = KeyStores.getCertKeyStores();
-            certTrustManagers = new X509TrustManager[trustedCertKeyStores.length];
-
-            for (int j = 0; j < trustedCertKeyStores.length; j++) {
-                TrustManagerFactory tmFactory = TrustManagerFactory.getInstance("SunX509", "SunJSSE");
-                tmFactory.init(trustedCertKeyStores[j]);
-
-                // tm factory initialized, now get the managers so we can assign the X509 one
-                TrustManager[] trustManagers = tmFactory.getTrustManagers();
-
-                for (TrustManager trustManager : trustManagers) {
-                    if (trustManager instanceof X509TrustManager) {
-                        certTrustManagers[j] = (X509TrustManager) trustManager;
-                    }
-                }
-            }
-        } catch (Exception e) {
-            OutputController.getLogger().log(OutputController.Level.ERROR_ALL, e);
-        }
-
-        /*
-         * Load TrustManagers for trusted CAs
-         */
+    private static X509TrustManager[] loadTrustManagers(KeyStoreProvider provider) {
         try {
-            /** KeyStores containing trusted CAs */
-            KeyStore[] trustedCAKeyStores = KeyStores.getCAKeyStores();
-            caTrustManagers = new X509TrustManager[trustedCAKeyStores.length];
+            KeyStore[] keyStores = provider.getKeyStores();
+            X509TrustManager[] result = new X509TrustManager[keyStores.length];
 
-            for (int j = 0; j < caTrustManagers.length; j++) {
+            for (int j = 0; j < keyStores.length; j++) {
                 TrustManagerFactory tmFactory = TrustManagerFactory.getInstance("SunX509", "SunJSSE");
-                tmFactory.init(trustedCAKeyStores[j]);
+                tmFactory.init(keyStores[j]);
 
                 // tm factory initialized, now get the managers so we can extract the X509 one
-                TrustManager[] trustManagers = tmFactory.getTrustManagers();
+                TrustManager[] managers = tmFactory.getTrustManagers();
 
-                for (TrustManager trustManager : trustManagers) {
+                for (TrustManager trustManager : managers) {
                     if (trustManager instanceof X509TrustManager) {
-                        caTrustManagers[j] = (X509TrustManager) trustManager;
+                        result[j] = (X509TrustManager) trustManager;
                     }
                 }
             }
+            return result;
         } catch (Exception e) {
             OutputController.getLogger().log(OutputController.Level.ERROR_ALL, e);
+            return null;
         }
+    }
 
-        /*
-         * Load TrustManagers for trusted clients certificates
-         */
-        try {
-            KeyStore[] clientKeyStores = KeyStores.getClientKeyStores();
-            clientTrustManagers = new X509TrustManager[clientKeyStores.length];
-
-            for (int j = 0; j < clientTrustManagers.length; j++) {
-                TrustManagerFactory tmFactory = TrustManagerFactory.getInstance("SunX509", "SunJSSE");
-                tmFactory.init(clientKeyStores[j]);
-
-                // tm factory initialized, now get the managers so we can extract the X509 one
-                TrustManager[] trustManagers = tmFactory.getTrustManagers();
-
-                for (TrustManager trustManager : trustManagers) {
-                    if (trustManager instanceof X509TrustManager) {
-                        clientTrustManagers[j] = (X509TrustManager) trustManager;
-                    }
+    /**
+     * @return trust managers of the current keystores; reloaded (and
+     * remembered chains dropped) if a keystore changed
+     */
+    private TrustManagers getTrustManagers() {
+        TrustManagers current = trustManagers;
+        final long generation = KeyStores.getGeneration();
+        if (current.generation != generation) {
+            synchronized (this) {
+                current = trustManagers;
+                if (current.generation != generation) {
+                    OutputController.getLogger().log("Keystores changed, reloading trust managers");
+                    // keystores are read with the runtime's permissions, not the caller's
+                    current = AccessController.doPrivileged(new PrivilegedAction<TrustManagers>() {
+                        @Override
+                        public TrustManagers run() {
+                            return new TrustManagers(generation);
+                        }
+                    });
+                    validatedChains.clear();
+                    trustManagers = current;
                 }
             }
-        } catch (Exception e) {
-            OutputController.getLogger().log(OutputController.Level.ERROR_ALL, e);
         }
+        return current;
     }
 
     /**
@@ -179,7 +230,7 @@ final public class VariableX509TrustManager {
 
         boolean trusted = false;
         ValidatorException savedException = null;
-        for (X509TrustManager clientTrustManager : clientTrustManagers) {
+        for (X509TrustManager clientTrustManager : getTrustManagers().clientTrustManagers) {
             try {
                 clientTrustManager.checkClientTrusted(chain, authType);
                 trusted = true;
@@ -209,16 +260,22 @@ final public class VariableX509TrustManager {
      * @param engine The SSLEngine in use (may be null)
      * @throws java.security.cert.CertificateException if certificate is wrong
      */
-    public synchronized void checkTrustServer(X509Certificate[] chain,
+    public void checkTrustServer(X509Certificate[] chain,
                              String authType, String hostName,
                              SSLSocket socket, SSLEngine engine) throws CertificateException {
+        TrustManagers managers = getTrustManagers();
+        String validatedKey = getValidatedKey(chain, authType, hostName);
+        if (isValidated(validatedKey)) {
+            return;
+        }
+
         CertificateException ce = null;
         boolean trusted = true;
         boolean CNMatched = false;
 
         // Check trust stores
         try {
-            checkAllManagers(chain, authType, socket, engine);
+            checkAllManagers(managers, chain, authType, socket, engine);
         } catch (CertificateException e) {
             trusted = false;
             ce = e;
@@ -226,7 +283,7 @@ final public class VariableX509TrustManager {
 
         // If the certificate is not explicitly trusted, we
         // check host match
-        if (!isExplicitlyTrusted(chain, authType)) {
+        if (!isExplicitlyTrusted(managers, chain, authType)) {
             if (hostName != null) {
                 try {
                     HostnameChecker checker = HostnameChecker
@@ -241,63 +298,111 @@ final public class VariableX509TrustManager {
             }
         } else {
             // If it is explicitly trusted, just return right away.
+            setValidated(validatedKey, chain, managers);
             return;
         }
 
         // If it is (not explicitly trusted) AND
         // ((it is not in store) OR (there is a host mismatch))
         if (!trusted || !CNMatched) {
-            if (!isTemporarilyUntrusted(chain[0])) {
-                boolean b = askUser(chain, authType, trusted, CNMatched, hostName);
-
-                if (b) {
-                    temporarilyTrust(chain[0]);
+            synchronized (askUserLock) {
+                // the user may have answered for this certificate meanwhile
+                if (temporarilyTrusted.contains(chain[0])) {
                     return;
-                } else {
-                    temporarilyUntrust(chain[0]);
+                }
+                if (!isTemporarilyUntrusted(chain[0])) {
+                    boolean b = askUser(chain, authType, trusted, CNMatched, hostName);
+
+                    if (b) {
+                        temporarilyTrust(chain[0]);
+                        return;
+                    } else {
+                        temporarilyUntrust(chain[0]);
+                    }
                 }
             }
 
             throw ce;
         }
+        setValidated(validatedKey, chain, managers);
+    }
+
+    /**
+     * @return key identifying the chain, authType and host; null if the chain
+     * can not be encoded
+     */
+    static String getValidatedKey(X509Certificate[] chain, String authType, String hostName) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (X509Certificate c : chain) {
+                digest.update(c.getEncoded());
+            }
+            StringBuilder key = new StringBuilder();
+            for (byte b : digest.digest()) {
+                key.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return key.append(' ').append(authType).append(' ').append(hostName).toString();
+        } catch (NoSuchAlgorithmException | CertificateException e) {
+            OutputController.getLogger().log(e);
+            return null;
+        }
+    }
+
+    private boolean isValidated(String key) {
+        if (key == null) {
+            return false;
+        }
+        Long until = validatedChains.get(key);
+        return until != null && System.currentTimeMillis() < until;
+    }
+
+    private void setValidated(String key, X509Certificate[] chain, TrustManagers managers) {
+        if (key == null || managers != trustManagers) {
+            return;
+        }
+        long until = System.currentTimeMillis() + VALIDATED_TIMEOUT;
+        for (X509Certificate c : chain) {
+            until = Math.min(until, c.getNotAfter().getTime());
+        }
+        validatedChains.put(key, until);
     }
 
     /**
      * Check system, user and custom trust manager.
      *
-     * This method is intended to work with both, JRE6 and JRE7. If socket
-     * and engine are null, it assumes that the call is for JRE6 (i.e. not
-     * javax.net.ssl.X509ExtendedTrustManager which is Java 7 specific). If
-     * either of those are not null, it will assume that the caTrustManagers
-     * are javax.net.ssl.X509ExtendedTrustManager instances and will
-     * invoke their check methods.
+     * If socket and engine are null, the plain
+     * {@link X509TrustManager#checkServerTrusted(X509Certificate[], String)}
+     * is used. If either of those are not null, the
+     * {@link X509ExtendedTrustManager} check methods of caTrustManagers are
+     * invoked.
      *
+     * @param managers trust managers to check with
      * @param chain The certificate chain
      * @param authType The authentication type
      * @param socket the SSLSocket being used for the connection
      * @param engine the SSLEngine being used for the connection
      */
-    private void checkAllManagers(X509Certificate[] chain, String authType, Socket socket, SSLEngine engine) throws CertificateException {
+    private void checkAllManagers(TrustManagers managers, X509Certificate[] chain, String authType, Socket socket, SSLEngine engine) throws CertificateException {
 
         // first try CA TrustManagers
         boolean trusted = false;
         ValidatorException savedException = null;
-        for (X509TrustManager caTrustManager : caTrustManagers) {
+        for (X509TrustManager caTrustManager : managers.caTrustManagers) {
             try {
-                if (socket == null && engine == null) {
+                if ((socket == null && engine == null) || !(caTrustManager instanceof X509ExtendedTrustManager)) {
                     caTrustManager.checkServerTrusted(chain, authType);
                 } else {
                     try {
-                        Class<?> x509ETMClass = Class.forName("javax.net.ssl.X509ExtendedTrustManager");
                         if (engine == null) {
-                            Method mcheckServerTrusted = x509ETMClass.getDeclaredMethod("checkServerTrusted", X509Certificate[].class, String.class, Socket.class);
-                            mcheckServerTrusted.invoke(caTrustManager, chain, authType, socket);
+                            ((X509ExtendedTrustManager) caTrustManager).checkServerTrusted(chain, authType, socket);
                         } else {
-                            Method mcheckServerTrusted = x509ETMClass.getDeclaredMethod("checkServerTrusted", X509Certificate[].class, String.class, SSLEngine.class);
-                            mcheckServerTrusted.invoke(caTrustManager, chain, authType, engine);
+                            ((X509ExtendedTrustManager) caTrustManager).checkServerTrusted(chain, authType, engine);
                         }
-                    }catch (NoSuchMethodException | InvocationTargetException | IllegalAccessException | ClassNotFoundException nsme) {
-                        throw new ValidatorException(nsme.getMessage());
+                    } catch (ValidatorException e) {
+                        throw e;
+                    } catch (CertificateException e) {
+                        // eg. endpoint identification; try the other stores
+                        throw new ValidatorException(e.getMessage());
                     }
                 }
                 trusted = true;
@@ -311,7 +416,7 @@ final public class VariableX509TrustManager {
             return;
         }
 
-        for (X509TrustManager certTrustManager : certTrustManagers) {
+        for (X509TrustManager certTrustManager : managers.certTrustManagers) {
             try {
                 certTrustManager.checkServerTrusted(chain, authType);
                 trusted = true;
@@ -338,10 +443,10 @@ final public class VariableX509TrustManager {
     /**
      * Return if the user explicitly trusted this i.e. in userTrustManager or temporarilyTrusted
      */
-    private boolean isExplicitlyTrusted(X509Certificate[] chain, String authType) {
+    private boolean isExplicitlyTrusted(TrustManagers managers, X509Certificate[] chain, String authType) {
         boolean explicitlyTrusted = false;
 
-        for (X509TrustManager certTrustManager : certTrustManagers) {
+        for (X509TrustManager certTrustManager : managers.certTrustManagers) {
             try {
                 certTrustManager.checkServerTrusted(chain, authType);
                 explicitlyTrusted = true;
@@ -362,7 +467,7 @@ final public class VariableX509TrustManager {
     protected X509Certificate[] getAcceptedIssuers() {
         List<X509Certificate> issuers = new ArrayList<>();
 
-        for (X509TrustManager caTrustManager : caTrustManagers) {
+        for (X509TrustManager caTrustManager : getTrustManagers().caTrustManagers) {
             issuers.addAll(Arrays.asList(caTrustManager.getAcceptedIssuers()));
         }
 
@@ -430,7 +535,7 @@ final public class VariableX509TrustManager {
      *
      * @return The instance
      */
-    public static VariableX509TrustManager getInstance() {
+    public static synchronized VariableX509TrustManager getInstance() {
         if (instance == null)
             instance = new VariableX509TrustManager();
 
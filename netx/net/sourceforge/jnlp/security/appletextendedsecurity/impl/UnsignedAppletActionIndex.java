@@ -0,0 +1,365 @@
+/*   Copyright (C) 2026 Red Hat, Inc.
+
+ This file is part of IcedTea.
+
+ IcedTea is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, version 2.
+
+ IcedTea is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with IcedTea; see the file COPYING.  If not, write to
+ the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ 02110-1301 USA.
+
+ Linking this library statically or dynamically with other modules is
+ making a combined work based on this library.  Thus, the terms and
+ conditions of the GNU General Public License cover the whole
+ combination.
+
+ As a special exception, the copyright holders of this library give you
+ permission to link this library with independent modules to produce an
+ executable, regardless of the license terms of these independent
+ modules, and to copy and distribute the resulting executable under
+ terms of your choice, provided that you also meet, for each linked
+ independent module, the terms and conditions of the license of that
+ module.  An independent module is a module which is not derived from
+ or based on this library.  If you modify this library, you may extend
+ this exception to your version of the library, but you are not
+ obligated to do so.  If you do not wish to do so, delete this
+ exception statement from your version.
+ */
+package net.sourceforge.jnlp.security.appletextendedsecurity.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import net.sourceforge.jnlp.security.appletextendedsecurity.UnsignedAppletActionEntry;
+import net.sourceforge.jnlp.security.appletextendedsecurity.UrlRegEx;
+import net.sourceforge.jnlp.util.logging.OutputController;
+
+/**
+ * Immutable view of the entries of an applet trust settings file, prepared
+ * for matching. Regular expressions are compiled once, and entries are
+ * indexed by the literal prefix of their document base and code base, so
+ * only entries whose prefix fits the queried url are ever regex-tested.
+ */
+final class UnsignedAppletActionIndex {
+
+    private static final Comparator<Item> BY_POSITION = new Comparator<Item>() {
+        @Override
+        public int compare(Item o1, Item o2) {
+            return Integer.compare(o1.position, o2.position);
+        }
+    };
+
+    private final Stamp stamp;
+    private final List<Item> all;
+    private final PrefixIndex documentBases = new PrefixIndex();
+    private final PrefixIndex codeBases = new PrefixIndex();
+
+    /**
+     * @param items entries in file order
+     * @param stamp state of the file the entries were read from, or null if
+     * the entries are not known to be the file content
+     */
+    UnsignedAppletActionIndex(List<UnsignedAppletActionEntry> items, Stamp stamp) {
+        this.stamp = stamp;
+        List<Item> list = new ArrayList<>(items == null ? 0 : items.size());
+        if (items != null) {
+            for (UnsignedAppletActionEntry entry : items) {
+                Item item = new Item(list.size(), entry);
+                list.add(item);
+                documentBases.add(item.documentBase, item);
+                codeBases.add(item.codeBase, item);
+            }
+        }
+        documentBases.freeze();
+        codeBases.freeze();
+        this.all = Collections.unmodifiableList(list);
+    }
+
+    Stamp getStamp() {
+        return stamp;
+    }
+
+    boolean isCurrent(File file) {
+        return stamp != null && stamp.equals(Stamp.of(file));
+    }
+
+    List<UnsignedAppletActionEntry> getMatchingItems(String documentBase, String codeBase, List<String> archives) {
+        List<Item> candidates;
+        if (isSet(documentBase)) {
+            candidates = documentBases.getCandidates(documentBase);
+        } else if (isSet(codeBase)) {
+            candidates = codeBases.getCandidates(codeBase);
+        } else {
+            candidates = all;
+        }
+        List<UnsignedAppletActionEntry> result = new ArrayList<>();
+        for (Item item : candidates) {
+            if (item.isMatching(documentBase, codeBase, archives)) {
+                result.add(item.entry);
+            }
+        }
+        return result;
+    }
+
+    private static boolean isSet(String s) {
+        return s != null && !s.trim().isEmpty();
+    }
+
+    /**
+     * Longest literal text every string matched by the regular expression
+     * must start with. Conservative, for anything unusual the prefix is empty.
+     */
+    static String getLiteralPrefix(String regEx) {
+        StringBuilder sb = new StringBuilder();
+        if (regEx == null || regEx.indexOf('|') >= 0) {
+            return "";
+        }
+        int i = 0;
+        while (i < regEx.length()) {
+            char c = regEx.charAt(i);
+            if (regEx.startsWith("\\Q", i)) {
+                int end = regEx.indexOf("\\E", i + 2);
+                if (end < 0) {
+                    sb.append(regEx.substring(i + 2));
+                    return sb.toString();
+                }
+                sb.append(regEx, i + 2, end);
+                i = end + 2;
+            } else if (Character.isLetterOrDigit(c) || ":/-_@=&%,;~'\"<>#!".indexOf(c) >= 0) {
+                sb.append(c);
+                i++;
+            } else if (c == '\\' && i + 1 < regEx.length() && !Character.isLetterOrDigit(regEx.charAt(i + 1))) {
+                sb.append(regEx.charAt(i + 1));
+                i += 2;
+            } else {
+                break;
+            }
+            if (i < regEx.length() && "?*+{".indexOf(regEx.charAt(i)) >= 0) {
+                //quantifier applies to the last character
+                if (sb.length() > 0) {
+                    sb.setLength(sb.length() - 1);
+                }
+                break;
+            }
+        }
+        return sb.toString();
+    }
+
+    static boolean compareArchives(List<String> archives, List<String> saved) {
+        if (archives == null && saved !=null){
+            return false;
+        }
+        if (archives != null && saved ==null){
+            return false;
+        }
+        if (archives == null && saved ==null){
+            return true;
+        }
+        if (archives.size() != saved.size()) {
+            return false;
+        }
+        //sorted copies, entries are shared between threads
+        List<String> a = new ArrayList<>(archives);
+        List<String> s = new ArrayList<>(saved);
+        Collections.sort(a);
+        Collections.sort(s);
+        for (int i = 0; i < s.size(); i++) {
+            String string1 = s.get(i);
+            String string2 = a.get(i);
+            //intentional reference compare
+            if (string1 == string2) {
+                continue;
+            }
+            if (string1 == null || string2 == null) {
+                return false;
+            }
+            if (string1.trim().equals(string2.trim())) {
+                continue;
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Last modification time and size of a file, null time if there is no
+     * file.
+     */
+    static final class Stamp {
+
+        private final FileTime lastModified;
+        private final long length;
+
+        private Stamp(FileTime lastModified, long length) {
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+
+        static Stamp of(File file) {
+            try {
+                if (file.isFile()) {
+                    return new Stamp(Files.getLastModifiedTime(file.toPath()), file.length());
+                }
+            } catch (IOException ex) {
+                OutputController.getLogger().log(ex);
+            }
+            return new Stamp(null, -1);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Stamp)) {
+                return false;
+            }
+            Stamp other = (Stamp) obj;
+            return length == other.length
+                    && (lastModified == null ? other.lastModified == null : lastModified.equals(other.lastModified));
+        }
+
+        @Override
+        public int hashCode() {
+            return (lastModified == null ? 0 : lastModified.hashCode()) * 31 + (int) length;
+        }
+    }
+
+    /**
+     * One compiled regular expression of an entry.
+     */
+    private static final class CompiledRegEx {
+
+        final String prefix;
+        final Pattern pattern;
+
+        CompiledRegEx(UrlRegEx regEx) {
+            Pattern p = null;
+            String s = null;
+            if (regEx != null) {
+                try {
+                    p = Pattern.compile(regEx.getRegEx());
+                    s = getLiteralPrefix(regEx.getRegEx());
+                } catch (PatternSyntaxException ex) {
+                    OutputController.getLogger().log(OutputController.Level.WARNING_ALL, ex);
+                }
+            }
+            this.pattern = p;
+            this.prefix = s;
+        }
+
+        boolean matches(String s) {
+            //invalid or missing expression never matches
+            return pattern != null && s.startsWith(prefix) && pattern.matcher(s).matches();
+        }
+    }
+
+    private static final class Item {
+
+        final int position;
+        final UnsignedAppletActionEntry entry;
+        final CompiledRegEx documentBase;
+        final CompiledRegEx codeBase;
+
+        Item(int position, UnsignedAppletActionEntry entry) {
+            this.position = position;
+            this.entry = entry;
+            this.documentBase = new CompiledRegEx(entry.getDocumentBase());
+            this.codeBase = new CompiledRegEx(entry.getCodeBase());
+        }
+
+        boolean isMatching(String documentBase, String codeBase, List<String> archives) {
+            if (isSet(documentBase) && !this.documentBase.matches(documentBase)) {
+                return false;
+            }
+            if (isSet(codeBase) && !this.codeBase.matches(codeBase)) {
+                return false;
+            }
+            if (archives != null) {
+                List<String> saved = entry.getArchives();
+                if (saved == null || saved.isEmpty()) {
+                    return true;
+                }
+                return compareArchives(archives, saved);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Items by literal prefix of one of their expressions. Lookup is one hash
+     * lookup per distinct prefix length.
+     */
+    private static final class PrefixIndex {
+
+        private final Map<String, List<Item>> byPrefix = new HashMap<>();
+        private final List<Item> unprefixed = new ArrayList<>();
+        private int[] lengths;
+
+        void add(CompiledRegEx regEx, Item item) {
+            if (regEx.pattern == null) {
+                //can never match
+                return;
+            }
+            if (regEx.prefix.isEmpty()) {
+                unprefixed.add(item);
+                return;
+            }
+            List<Item> items = byPrefix.get(regEx.prefix);
+            if (items == null) {
+                items = new ArrayList<>(1);
+                byPrefix.put(regEx.prefix, items);
+            }
+            items.add(item);
+        }
+
+        void freeze() {
+            TreeSet<Integer> set = new TreeSet<>();
+            for (String prefix : byPrefix.keySet()) {
+                set.add(prefix.length());
+            }
+            lengths = new int[set.size()];
+            int i = 0;
+            for (Integer length : set) {
+                lengths[i++] = length;
+            }
+        }
+
+        List<Item> getCandidates(String s) {
+            List<Item> result = null;
+            for (int length : lengths) {
+                if (length > s.length()) {
+                    break;
+                }
+                List<Item> items = byPrefix.get(s.substring(0, length));
+                if (items != null) {
+                    if (result == null) {
+                        result = new ArrayList<>(unprefixed);
+                    }
+                    result.addAll(items);
+                }
+            }
+            if (result == null) {
+                return unprefixed;
+            }
+            //keep the order of the file, first match wins
+            Collections.sort(result, BY_POSITION);
+            return result;
+        }
+    }
+}
@@ -39,9 +39,7 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.regex.PatternSyntaxException;
 import net.sourceforge.jnlp.security.appletextendedsecurity.InvalidLineException;
 import net.sourceforge.jnlp.security.appletextendedsecurity.UnsignedAppletActionEntry;
 import net.sourceforge.jnlp.security.appletextendedsecurity.UnsignedAppletActionStorage;
@@ -61,6 +59,8 @@ public class UnsignedAppletActionStorageImpl extends LockingReaderWriter impleme
     public static final int currentVersion = 2;
     private int lineCounter = 0;
     private boolean loadingDisabled = false;
+    /* what items were when last read or written, queried without the lock */
+    private volatile UnsignedAppletActionIndex index;
 
     public UnsignedAppletActionStorageImpl(File location) {
         super(location);
@@ -69,6 +69,12 @@ public class UnsignedAppletActionStorageImpl extends LockingReaderWriter impleme
     @Override
     public void writeContents() throws IOException {
         super.writeContents();
+        if (getBackingFile().isFile() && !isReadOnly()) {
+            index = new UnsignedAppletActionIndex(items, UnsignedAppletActionIndex.Stamp.of(getBackingFile()));
+        } else {
+            //items may differ from file now, read again next time
+            index = new UnsignedAppletActionIndex(items, null);
+        }
     }
 
     @Override
@@ -76,14 +82,24 @@ public class UnsignedAppletActionStorageImpl extends LockingReaderWriter impleme
         super.writeContentsLocked();
     }
 
+    /**
+     * Reads the file, unless it has not changed since it was last read or
+     * written. Assumes lock is held.
+     */
     @Override
     protected void readContents() throws IOException {
+        UnsignedAppletActionIndex.Stamp stamp = UnsignedAppletActionIndex.Stamp.of(getBackingFile());
+        UnsignedAppletActionIndex current = index;
+        if (items != null && current != null && stamp.equals(current.getStamp())) {
+            return;
+        }
         if (items == null) {
             items = new ArrayList<>();
         } else {
             items.clear();
         }
         super.readContents();
+        index = new UnsignedAppletActionIndex(items, stamp);
     }
 
     @Override
@@ -183,47 +199,22 @@ public class UnsignedAppletActionStorageImpl extends LockingReaderWriter impleme
     }
 
     public List<UnsignedAppletActionEntry> getMatchingItems(String documentBase, String codeBase, List<String> archives) {
-        List<UnsignedAppletActionEntry> result = new ArrayList<>();
-        lock();
-        try {
-            readContents();
-            if (items == null) {
-                return result;
-            }
-            for (UnsignedAppletActionEntry unsignedAppletActionEntry : items) {
-                if (isMatching(unsignedAppletActionEntry, documentBase, codeBase, archives)) {
-                    result.add(unsignedAppletActionEntry);
-                }
+        UnsignedAppletActionIndex current = index;
+        if (current == null || !current.isCurrent(getBackingFile())) {
+            lock();
+            try {
+                readContents();
+                current = index;
+            } catch (IOException e) {
+                throw new StorageIoException(e);
+            } finally {
+                unlock();
             }
-        } catch (IOException e) {
-            throw new StorageIoException(e);
-        } finally {
-            unlock();
         }
-        return result;
-    }
-
-    private boolean isMatching(UnsignedAppletActionEntry unsignedAppletActionEntry, String documentBase, String codeBase, List<String> archives) {
-        try {
-            boolean result = true;
-            if (documentBase != null && !documentBase.trim().isEmpty()) {
-                result = result && documentBase.matches(unsignedAppletActionEntry.getDocumentBase().getRegEx());
-            }
-            if (codeBase != null && !codeBase.trim().isEmpty()) {
-                result = result && codeBase.matches(unsignedAppletActionEntry.getCodeBase().getRegEx());
-            }
-            if (archives != null) {
-                List<String> saved = unsignedAppletActionEntry.getArchives();
-                if (saved == null || saved.isEmpty()) {
-                    return result;
-                }
-                result = result && compareArchives(archives, saved);
-            }
-            return result;
-        } catch (PatternSyntaxException ex) {
-            OutputController.getLogger().log(OutputController.Level.WARNING_ALL, ex);
-            return false;
+        if (current == null) {
+            return new ArrayList<>();
         }
+        return current.getMatchingItems(documentBase, codeBase, archives);
     }
 
     @Override
@@ -231,39 +222,6 @@ public class UnsignedAppletActionStorageImpl extends LockingReaderWriter impleme
         return getBackingFile() + " " + super.toString();
     }
 
-    private boolean compareArchives(List<String> archives, List<String> saved) {
-        if (archives == null && saved !=null){
-            return false;
-        }
-        if (archives != null && saved ==null){
-            return false;
-        }
-        if (archives == null && saved ==null){
-            return true;
-        }
-        if (archives.size() != saved.size()) {
-            return false;
-        }
-        Collections.sort(archives);
-        Collections.sort(saved);
-        for (int i = 0; i < saved.size(); i++) {
-            String string1 = saved.get(i);
-            String string2 = archives.get(i);
-            //intentional reference compare
-            if (string1 == string2) {
-                continue;
-            }
-            if (string1 == null || string2 == null) {
-                return false;
-            }
-            if (string1.trim().equals(string2.trim())) {
-                continue;
-            }
-            return false;
-        }
-        return true;
-    }
-
     @Override
     public UnsignedAppletActionEntry getMatchingItemByDocumentBase(String documentBase, Class<? extends RememberableDialog> id) {
         return getMatchingItem(documentBase, null, null, id);
@@ -0,0 +1,776 @@
+/* MappedJNLPRandomAccessFile.java
+   Copyright (C) 2026 Red Hat, Inc.
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License as published by
+the Free Software Foundation, version 2.
+
+IcedTea is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to
+the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version.
+*/
+
+package net.sourceforge.jnlp.services;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.sourceforge.jnlp.util.logging.OutputController;
+
+import javax.jnlp.JNLPRandomAccessFile;
+
+/**
+ * A {@link JNLPRandomAccessFile} working on a memory mapping of the file,
+ * so reading and writing primitives does not cost a system call each.
+ * <p>
+ * The file can not grow beyond a maximum length. While it is open, the
+ * file on disk may be longer than {@link #length()}: the mapping grows in
+ * steps and the file is cut to its length on {@link #close()}. So that a
+ * handle which is never closed does not leave the file padded, the length
+ * is kept in a length record while the file is open for writing. The
+ * record is mapped too, so keeping it up to date costs a memory write.
+ * Readers take the length from the record, and the file is cut to the
+ * recorded length the next time it is opened for writing.
+ * </p>
+ * <p>
+ * The record also holds the locks of the handles. The handle open for
+ * writing holds one range of it exclusively. Every handle, reading or
+ * writing, holds another range shared while it maps the file, and the file
+ * is only ever cut by whoever gets that range exclusively, so it is never
+ * cut below what another handle has mapped. If the file can not be cut,
+ * the recorded length stays and the file is cut later.
+ * </p>
+ */
+class MappedJNLPRandomAccessFile implements JNLPRandomAccessFile {
+
+    private static final int MIN_CAPACITY = 4096;
+
+    /** bytes of a length record: the length as a long */
+    private static final int RECORD_SIZE = 8;
+    /** recorded when the length of the file on disk is the length */
+    private static final long NO_LENGTH = -1;
+    /** range of the length record locked by the handle open for writing */
+    private static final long WRITER_REGION = 0;
+    /** range of the length record locked shared by handles mapping the file */
+    private static final long MAPPED_REGION = RECORD_SIZE;
+
+    /*
+     * Length records in use by this JVM, by record file; guarded by itself.
+     * All handles of a file share one channel of its record, because closing
+     * any channel of a file may release all locks this process holds on it.
+     */
+    private static final Map<File, LengthRecord> records = new HashMap<>();
+
+    private static final class LengthRecord {
+
+        final RandomAccessFile raf;
+        final MappedByteBuffer buffer;
+        /** held shared while handles of this JVM map the file */
+        FileLock mapped;
+        /** held while a handle of this JVM has the file open for writing */
+        FileLock writer;
+        int handles;
+
+        LengthRecord(RandomAccessFile raf, MappedByteBuffer buffer, FileLock mapped) {
+            this.raf = raf;
+            this.buffer = buffer;
+            this.mapped = mapped;
+        }
+
+        FileChannel channel() {
+            return raf.getChannel();
+        }
+
+        /**
+         * @return the recorded length, or size if it is not shorter
+         */
+        long get(long size) {
+            long recorded = buffer.getLong(0);
+            return recorded >= 0 && recorded < size ? recorded : size;
+        }
+
+        void set(long length) {
+            buffer.putLong(0, length);
+        }
+    }
+
+    private final RandomAccessFile raf;
+    private final FileChannel channel;
+    private final boolean writable;
+    private final boolean sync;
+    private final long maxLength;
+
+    /** the length record and its handle, or null */
+    private final File lengthFile;
+    private LengthRecord record;
+
+    /** the mapping, null once closed */
+    private MappedByteBuffer buffer;
+    private int length;
+    private long pointer;
+
+    /**
+     * @param file the file
+     * @param mode as for {@link RandomAccessFile}
+     * @param maxLength the length the file may grow to
+     * @throws IOException if the file can not be opened or mapped
+     */
+    MappedJNLPRandomAccessFile(File file, String mode, long maxLength) throws IOException {
+        this(file, mode, maxLength, null);
+    }
+
+    /**
+     * @param file the file
+     * @param mode as for {@link RandomAccessFile}
+     * @param maxLength the length the file may grow to
+     * @param lengthFile the length record of the file, or null to keep the
+     * length nowhere and lock nothing
+     * @throws IOException if the file can not be opened or mapped, or is
+     * open for writing by another handle
+     */
+    MappedJNLPRandomAccessFile(File file, String mode, long maxLength, File lengthFile) throws IOException {
+        raf = new RandomAccessFile(file, mode);
+        channel = raf.getChannel();
+        writable = !"r".equals(mode);
+        sync = "rws".equals(mode) || "rwd".equals(mode);
+        this.lengthFile = lengthFile;
+        try {
+            long size = channel.size();
+            if (lengthFile != null) {
+                size = openRecord(file, size);
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(file + " is too large to be mapped");
+            }
+            this.length = (int) size;
+            this.maxLength = Math.min(Integer.MAX_VALUE, Math.max(maxLength, size));
+            map(length);
+        } catch (IOException ex) {
+            closeRecord();
+            raf.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Registers this handle with the length record. A handle for writing
+     * takes the writer lock and cuts the file to what a handle that was not
+     * closed recorded.
+     *
+     * @return the length of the file
+     */
+    private long openRecord(File file, long size) throws IOException {
+        synchronized (records) {
+            record = acquire(lengthFile);
+            long recorded = record.get(size);
+            if (!writable) {
+                return recorded;
+            }
+            if (record.writer != null || (record.writer = tryLock(record.channel(), WRITER_REGION, RECORD_SIZE, false)) == null) {
+                record.writer = null;
+                // this handle holds no writer lock, closeRecord must not release it
+                LengthRecord taken = record;
+                record = null;
+                release(lengthFile, taken);
+                throw new IOException(file + " is open for writing");
+            }
+            if (recorded < size && !cut(record, channel, recorded)) {
+                // mapped by other handles; what lies past the length reads as zero
+                channel.write(ByteBuffer.allocate((int) Math.min(size - recorded, Integer.MAX_VALUE)), recorded);
+            }
+            record.set(recorded);
+            return recorded;
+        }
+    }
+
+    /**
+     * Gives up the writer lock, if held, and unregisters this handle.
+     */
+    private void closeRecord() {
+        if (record == null) {
+            return;
+        }
+        synchronized (records) {
+            if (writable && record.writer != null) {
+                try {
+                    record.writer.release();
+                } catch (IOException ex) {
+                    OutputController.getLogger().log(ex);
+                }
+                record.writer = null;
+            }
+            release(lengthFile, record);
+            record = null;
+        }
+    }
+
+    /**
+     * Registers a handle with the length record of a file, opening and
+     * locking it shared if no handle of this JVM has it yet. Must be called
+     * holding the records lock.
+     */
+    private static LengthRecord acquire(File lengthFile) throws IOException {
+        LengthRecord record = records.get(lengthFile);
+        if (record == null) {
+            File dir = lengthFile.getParentFile();
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                throw new IOException("Can not create " + dir);
+            }
+            RandomAccessFile recordRaf = new RandomAccessFile(lengthFile, "rw");
+            try {
+                // waits only while someone cuts the file
+                FileLock mapped = recordRaf.getChannel().lock(MAPPED_REGION, 1, true);
+                if (recordRaf.length() < RECORD_SIZE) {
+                    recordRaf.seek(0);
+                    recordRaf.writeLong(NO_LENGTH);
+                }
+                MappedByteBuffer buffer = recordRaf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, RECORD_SIZE);
+                record = new LengthRecord(recordRaf, buffer, mapped);
+            } catch (IOException ex) {
+                recordRaf.close();
+                throw ex;
+            }
+            records.put(lengthFile, record);
+        }
+        record.handles++;
+        return record;
+    }
+
+    /**
+     * Unregisters a handle; the record is closed, releasing its locks, with
+     * the last handle of this JVM. Must be called holding the records lock.
+     */
+    private static void release(File lengthFile, LengthRecord record) {
+        if (--record.handles > 0) {
+            return;
+        }
+        records.remove(lengthFile);
+        try {
+            record.raf.close();
+        } catch (IOException ex) {
+            OutputController.getLogger().log(ex);
+        }
+    }
+
+    /**
+     * Cuts a file to the given length, if no other handle maps it. Must be
+     * called holding the records lock, by the only handle of this JVM.
+     *
+     * @return true if the file was cut
+     */
+    private static boolean cut(LengthRecord record, FileChannel file, long length) throws IOException {
+        if (record.handles != 1) {
+            return false;
+        }
+        FileChannel recordChannel = record.channel();
+        record.mapped.release();
+        try {
+            FileLock exclusive = tryLock(recordChannel, MAPPED_REGION, 1, false);
+            if (exclusive == null) {
+                return false;
+            }
+            try {
+                file.truncate(length);
+            } finally {
+                exclusive.release();
+            }
+            return true;
+        } finally {
+            record.mapped = recordChannel.lock(MAPPED_REGION, 1, true);
+        }
+    }
+
+    /**
+     * @return a lock of the range, or null if another handle holds it
+     */
+    private static FileLock tryLock(FileChannel channel, long position, long size, boolean shared) throws IOException {
+        try {
+            return channel.tryLock(position, size, shared);
+        } catch (OverlappingFileLockException ex) {
+            // held by a handle of this JVM
+            return null;
+        }
+    }
+
+    /**
+     * @return the length recorded in a length record, or size if there is
+     * no valid record
+     */
+    private static long readRecordedLength(File lengthFile, long size) {
+        if (lengthFile.length() < RECORD_SIZE) {
+            return size;
+        }
+        try (DataInputStream in = new DataInputStream(new FileInputStream(lengthFile))) {
+            long recorded = in.readLong();
+            return recorded >= 0 && recorded < size ? recorded : size;
+        } catch (IOException ex) {
+            OutputController.getLogger().log(ex);
+            return size;
+        }
+    }
+
+    /**
+     * @param file a file
+     * @param lengthFile the length record of the file
+     * @return the length of the file, which is shorter than the file on
+     * disk while it is open or if a handle was not closed
+     */
+    static long length(File file, File lengthFile) {
+        synchronized (records) {
+            LengthRecord record = records.get(lengthFile);
+            if (record != null) {
+                return record.get(file.length());
+            }
+            // no handle of this JVM holds locks the stream could drop
+            return readRecordedLength(lengthFile, file.length());
+        }
+    }
+
+    /**
+     * Prepares a file for writing by a stream: cuts it to its length, or to
+     * nothing if it is overwritten, so the stream appends at the length.
+     *
+     * @param file a file
+     * @param lengthFile the length record of the file
+     * @param overwrite true if the stream replaces the contents
+     * @throws IOException if another handle has the file open for writing,
+     * or maps it while it has to be cut
+     */
+    static void prepareStream(File file, File lengthFile, boolean overwrite) throws IOException {
+        synchronized (records) {
+            LengthRecord record = acquire(lengthFile);
+            FileLock writer = null;
+            try {
+                if (record.writer == null) {
+                    writer = tryLock(record.channel(), WRITER_REGION, RECORD_SIZE, false);
+                }
+                if (writer == null) {
+                    throw new IOException(file + " is open for writing");
+                }
+                try (RandomAccessFile f = new RandomAccessFile(file, "rw")) {
+                    long size = f.length();
+                    long cutTo = overwrite ? 0 : record.get(size);
+                    if (cutTo < size && !cut(record, f.getChannel(), cutTo)) {
+                        throw new IOException(file + " is open");
+                    }
+                }
+                // the stream only appends, the file on disk has the length
+                record.set(NO_LENGTH);
+            } finally {
+                if (writer != null) {
+                    writer.release();
+                }
+                release(lengthFile, record);
+            }
+        }
+    }
+
+    private void map(int capacity) throws IOException {
+        buffer = channel.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY, 0, capacity);
+    }
+
+    private MappedByteBuffer buffer() throws IOException {
+        if (buffer == null) {
+            throw new IOException("Stream Closed");
+        }
+        return buffer;
+    }
+
+    /**
+     * @return the position of the file pointer, checked that count bytes
+     * can be read from there
+     */
+    private int readable(int count) throws IOException {
+        buffer();
+        if (pointer + count > length) {
+            throw new EOFException();
+        }
+        return (int) pointer;
+    }
+
+    /**
+     * @return the position of the file pointer, after making room to
+     * write count bytes there; the mapping may be replaced by a larger one
+     */
+    private int writable(long count) throws IOException {
+        MappedByteBuffer current = buffer();
+        if (!writable) {
+            throw new IOException("File is open read only");
+        }
+        long end = pointer + count;
+        if (end > maxLength) {
+            throw new IOException("Maximum length of " + maxLength + " bytes exceeded");
+        }
+        if (end > current.capacity()) {
+            long capacity = Math.max(end, Math.max(MIN_CAPACITY, 2L * current.capacity()));
+            map((int) Math.min(capacity, maxLength));
+        }
+        return (int) pointer;
+    }
+
+    /**
+     * Moves the file pointer past count bytes written at it.
+     */
+    private void written(int count) {
+        pointer += count;
+        if (pointer > length) {
+            setRecordedLength((int) pointer);
+        }
+        if (sync) {
+            buffer.force();
+            if (record != null) {
+                record.buffer.force();
+            }
+        }
+    }
+
+    private void setRecordedLength(int newLength) {
+        length = newLength;
+        if (record != null) {
+            record.set(newLength);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (buffer == null) {
+            return;
+        }
+        try {
+            if (writable) {
+                buffer.force();
+                if (record == null) {
+                    channel.truncate(length);
+                } else {
+                    synchronized (records) {
+                        if (cut(record, channel, length)) {
+                            record.set(NO_LENGTH);
+                        }
+                        // otherwise the recorded length stays, and the file is cut later
+                    }
+                }
+            }
+        } finally {
+            buffer = null;
+            closeRecord();
+            raf.close();
+        }
+    }
+
+    @Override
+    public long getFilePointer() throws IOException {
+        buffer();
+        return pointer;
+    }
+
+    @Override
+    public long length() throws IOException {
+        buffer();
+        return length;
+    }
+
+    @Override
+    public void seek(long pos) throws IOException {
+        buffer();
+        if (pos < 0) {
+            throw new IOException("Negative seek offset");
+        }
+        pointer = pos;
+    }
+
+    @Override
+    public void setLength(long newLength) throws IOException {
+        if (newLength < 0) {
+            throw new IOException("Negative length");
+        }
+        long oldPointer = pointer;
+        pointer = 0;
+        try {
+            writable(newLength);
+        } finally {
+            pointer = oldPointer;
+        }
+        if (newLength < length) {
+            // bytes past the length read as zero once the file grows again
+            for (int i = (int) newLength; i < length; i++) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+        setRecordedLength((int) newLength);
+        pointer = Math.min(oldPointer, newLength);
+    }
+
+    @Override
+    public int skipBytes(int n) throws IOException {
+        buffer();
+        if (n <= 0 || pointer >= length) {
+            return 0;
+        }
+        int skipped = (int) Math.min(n, length - pointer);
+        pointer += skipped;
+        return skipped;
+    }
+
+    @Override
+    public int read() throws IOException {
+        buffer();
+        if (pointer >= length) {
+            return -1;
+        }
+        return buffer.get((int) pointer++) & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        buffer();
+        if (len == 0) {
+            return 0;
+        }
+        if (pointer >= length) {
+            return -1;
+        }
+        int count = (int) Math.min(len, length - pointer);
+        get(b, off, count);
+        return count;
+    }
+
+    @Override
+    public int read(byte[] b) throws IOException {
+        return read(b, 0, b.length);
+    }
+
+    @Override
+    public void readFully(byte[] b) throws IOException {
+        readFully(b, 0, b.length);
+    }
+
+    @Override
+    public void readFully(byte[] b, int off, int len) throws IOException {
+        readable(len);
+        get(b, off, len);
+    }
+
+    private void get(byte[] b, int off, int len) {
+        ByteBuffer view = buffer.duplicate();
+        view.position((int) pointer);
+        view.get(b, off, len);
+        pointer += len;
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+        return readByte() != 0;
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        byte v = buffer.get(readable(1));
+        pointer += 1;
+        return v;
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        return readByte() & 0xff;
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        short v = buffer.getShort(readable(2));
+        pointer += 2;
+        return v;
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        return readShort() & 0xffff;
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        char v = buffer.getChar(readable(2));
+        pointer += 2;
+        return v;
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        int v = buffer.getInt(readable(4));
+        pointer += 4;
+        return v;
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        long v = buffer.getLong(readable(8));
+        pointer += 8;
+        return v;
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        return Float.intBitsToFloat(readInt());
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        return Double.longBitsToDouble(readLong());
+    }
+
+    @Override
+    public String readLine() throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        while (c != -1 && c != '\n') {
+            if (c == '\r') {
+                if (pointer < length && buffer.get((int) pointer) == '\n') {
+                    pointer++;
+                }
+                break;
+            }
+            line.append((char) c);
+            c = read();
+        }
+        return line.toString();
+    }
+
+    @Override
+    public String readUTF() throws IOException {
+        return DataInputStream.readUTF(this);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        int pos = writable(1);
+        buffer.put(pos, (byte) b);
+        written(1);
+    }
+
+    @Override
+    public void write(byte[] b) throws IOException {
+        write(b, 0, b.length);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        int pos = writable(len);
+        ByteBuffer view = buffer.duplicate();
+        view.position(pos);
+        view.put(b, off, len);
+        written(len);
+    }
+
+    @Override
+    public void writeBoolean(boolean v) throws IOException {
+        write(v ? 1 : 0);
+    }
+
+    @Override
+    public void writeByte(int v) throws IOException {
+        write(v);
+    }
+
+    @Override
+    public void writeShort(int v) throws IOException {
+        int pos = writable(2);
+        buffer.putShort(pos, (short) v);
+        written(2);
+    }
+
+    @Override
+    public void writeChar(int v) throws IOException {
+        int pos = writable(2);
+        buffer.putChar(pos, (char) v);
+        written(2);
+    }
+
+    @Override
+    public void writeInt(int v) throws IOException {
+        int pos = writable(4);
+        buffer.putInt(pos, v);
+        written(4);
+    }
+
+    @Override
+    public void writeLong(long v) throws IOException {
+        int pos = writable(8);
+        buffer.putLong(pos, v);
+        written(8);
+    }
+
+    @Override
+    public void writeFloat(float v) throws IOException {
+        writeInt(Float.floatToIntBits(v));
+    }
+
+    @Override
+    public void writeDouble(double v) throws IOException {
+        writeLong(Double.doubleToLongBits(v));
+    }
+
+    @Override
+    public void writeBytes(String s) throws IOException {
+        byte[] b = new byte[s.length()];
+        for (int i = 0; i < b.length; i++) {
+            b[i] = (byte) s.charAt(i);
+        }
+        write(b);
+    }
+
+    @Override
+    public void writeChars(String s) throws IOException {
+        int pos = writable(2 * s.length());
+        for (int i = 0; i < s.length(); i++) {
+            buffer.putChar(pos + 2 * i, s.charAt(i));
+        }
+        written(2 * s.length());
+    }
+
+    @Override
+    public void writeUTF(String str) throws IOException {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream(str.length() + 2);
+        new DataOutputStream(encoded).writeUTF(str);
+        write(encoded.toByteArray());
+    }
+}
@@ -0,0 +1,207 @@
+/* MuffinContents.java
+   Copyright (C) 2026 Red Hat, Inc.
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License as published by
+the Free Software Foundation, version 2.
+
+IcedTea is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to
+the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version.
+*/
+
+package net.sourceforge.jnlp.services;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+
+import javax.jnlp.JNLPRandomAccessFile;
+
+/**
+ * Contents of a muffin of the PersistenceService. Writes are limited to
+ * the maximum length granted to the muffin, streams are buffered and
+ * random access works on a memory mapping of the muffin.
+ */
+class MuffinContents extends XFileContents {
+
+    private final MuffinStore store;
+    private final URL location;
+
+    MuffinContents(MuffinStore store, URL location) {
+        super(store.toFile(location));
+        this.store = store;
+        this.location = location;
+    }
+
+    private File getLengthFile() {
+        return store.toLengthFile(location);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        long length = getLength();
+        return new LimitedInputStream(new BufferedInputStream(new FileInputStream(getFile())), length);
+    }
+
+    /**
+     * @return the length of the muffin, which may be shorter than its file
+     * while it is open for random access
+     */
+    @Override
+    public long getLength() throws IOException {
+        return MappedJNLPRandomAccessFile.length(getFile(), getLengthFile());
+    }
+
+    @Override
+    public OutputStream getOutputStream(boolean overwrite) throws IOException {
+        MappedJNLPRandomAccessFile.prepareStream(getFile(), getLengthFile(), overwrite);
+        long maxLength = getMaxLength();
+        long length = getFile().length();
+        // the file was cut, so the stream appends at the length
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(getFile(), true));
+        store.markChanged(location);
+        return new LimitedOutputStream(out, length, maxLength);
+    }
+
+    @Override
+    public JNLPRandomAccessFile getRandomAccessFile(String mode) throws IOException {
+        JNLPRandomAccessFile file = new MappedJNLPRandomAccessFile(getFile(), mode, getMaxLength(), getLengthFile());
+        if (!"r".equals(mode)) {
+            store.markChanged(location);
+        }
+        return file;
+    }
+
+    @Override
+    public long getMaxLength() throws IOException {
+        return store.getMaxSize(location);
+    }
+
+    @Override
+    public long setMaxLength(long maxlength) throws IOException {
+        return store.setMaxSize(location, maxlength);
+    }
+
+    /**
+     * Ends reads at the length of the muffin.
+     */
+    private static class LimitedInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        LimitedInputStream(InputStream in, long length) {
+            super(in);
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = in.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int count = in.read(b, off, (int) Math.min(len, remaining));
+            if (count > 0) {
+                remaining -= count;
+            }
+            return count;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(in.available(), remaining);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+
+    /**
+     * Fails writes which would make the muffin longer than its maximum
+     * length, before anything of them is written.
+     */
+    private static class LimitedOutputStream extends FilterOutputStream {
+
+        private long length;
+        private final long maxLength;
+
+        LimitedOutputStream(OutputStream out, long length, long maxLength) {
+            super(out);
+            this.length = length;
+            this.maxLength = maxLength;
+        }
+
+        private void check(int count) throws IOException {
+            if (length + count > maxLength) {
+                throw new IOException("Maximum length of " + maxLength + " bytes exceeded");
+            }
+            length += count;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            check(1);
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            check(len);
+            out.write(b, off, len);
+        }
+    }
+}
@@ -0,0 +1,339 @@
+/* MuffinStore.java
+   Copyright (C) 2026 Red Hat, Inc.
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License as published by
+the Free Software Foundation, version 2.
+
+IcedTea is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to
+the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version.
+*/
+
+package net.sourceforge.jnlp.services;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.jnlp.PersistenceService;
+
+import net.sourceforge.jnlp.cache.CacheUtil;
+import net.sourceforge.jnlp.config.DeploymentConfiguration;
+import net.sourceforge.jnlp.config.PathsAndFiles;
+import net.sourceforge.jnlp.runtime.JNLPRuntime;
+import net.sourceforge.jnlp.util.FileUtils;
+import net.sourceforge.jnlp.util.PropertiesFile;
+import net.sourceforge.jnlp.util.logging.OutputController;
+
+/**
+ * Storage of the muffins of the PersistenceService.
+ * <p>
+ * Every muffin is a file below the persistence directory. Its granted
+ * maximum size and its tag are recorded in an index file next to them, so
+ * the quota of a host can be enforced across all of its muffins and all
+ * running applications. When a host runs out of quota, its
+ * {@link PersistenceService#TEMPORARY} muffins are deleted to make room.
+ * </p>
+ */
+final class MuffinStore {
+
+    static final String INDEX_FILE_NAME = "muffins";
+
+    /** directory of the length records of muffins open for writing; no host starts with a dot */
+    static final String LENGTHS_DIR_NAME = ".lengths";
+
+    private static final String MAX_SIZE = ".maxsize";
+    private static final String TAG = ".tag";
+
+    private final File root;
+    private final long quota;
+
+    /**
+     * @param root directory the muffins are stored in
+     * @param quota bytes granted to all muffins of one host together
+     */
+    MuffinStore(File root, long quota) {
+        this.root = root;
+        this.quota = quota;
+    }
+
+    /**
+     * @return the store in the configured persistence directory
+     */
+    static MuffinStore getInstance() {
+        long quota;
+        try {
+            quota = Long.parseLong(JNLPRuntime.getConfiguration().getProperty(DeploymentConfiguration.KEY_PERSISTENCE_QUOTA)) << 10;
+        } catch (NumberFormatException ex) {
+            quota = Long.MAX_VALUE;
+        }
+        return new MuffinStore(new File(PathsAndFiles.PCACHE_DIR.getFullPath()), quota);
+    }
+
+    /**
+     * @return the file holding the muffin
+     */
+    File toFile(URL location) {
+        return new File(root, toKey(location));
+    }
+
+    /**
+     * @return the length record of the muffin, see {@link MappedJNLPRandomAccessFile}
+     */
+    File toLengthFile(URL location) {
+        return new File(new File(root, LENGTHS_DIR_NAME), toKey(location));
+    }
+
+    /**
+     * @return the path of the muffin relative to the store, with / separators
+     */
+    private static String toKey(URL location) {
+        String path = CacheUtil.urlToPath(location, "").getPath().replace(File.separatorChar, '/');
+        return path.startsWith("/") ? path.substring(1) : path;
+    }
+
+    /**
+     * @return the key prefix shared by all muffins of the host of the key
+     */
+    private static String toOrigin(String key) {
+        int protocolEnd = key.indexOf('/');
+        int hostEnd = key.indexOf('/', protocolEnd + 1);
+        return hostEnd < 0 ? key : key.substring(0, hostEnd + 1);
+    }
+
+    private PropertiesFile lockIndex() {
+        PropertiesFile index = new PropertiesFile(new File(root, INDEX_FILE_NAME));
+        index.lock();
+        index.load();
+        return index;
+    }
+
+    /**
+     * Creates a new, empty muffin.
+     *
+     * @param location the muffin
+     * @param maxsize requested maximum size in bytes
+     * @return the granted maximum size, which may be less than requested
+     * @throws IOException if the muffin exists or the host has no quota left
+     */
+    long create(URL location, long maxsize) throws IOException {
+        File file = toFile(location);
+        String key = toKey(location);
+        PropertiesFile index = lockIndex();
+        try {
+            if (file.exists()) {
+                throw new IOException("File already exists.");
+            }
+            long granted = grant(index, key, maxsize);
+            if (granted <= 0 && maxsize > 0) {
+                throw new IOException("Persistence storage quota of " + location.getHost() + " is exceeded.");
+            }
+            FileUtils.createParentDir(file, "Persistence store for " + location.toString());
+            FileUtils.createRestrictedFile(file, true);
+            index.setProperty(key + MAX_SIZE, Long.toString(granted));
+            index.setProperty(key + TAG, Integer.toString(PersistenceService.DIRTY));
+            index.store();
+            return granted;
+        } finally {
+            index.unlock();
+        }
+    }
+
+    /**
+     * Deletes a muffin and what is recorded about it.
+     */
+    void delete(URL location) {
+        String key = toKey(location);
+        PropertiesFile index = lockIndex();
+        try {
+            FileUtils.deleteWithErrMesg(toFile(location), " tocache");
+            toLengthFile(location).delete();
+            index.remove(key + MAX_SIZE);
+            index.remove(key + TAG);
+            index.store();
+        } finally {
+            index.unlock();
+        }
+    }
+
+    /**
+     * Returns the maximum size of a muffin. Muffins created before sizes
+     * were recorded are granted what is left of the quota of their host,
+     * but at least their current length.
+     *
+     * @return the maximum size in bytes
+     */
+    long getMaxSize(URL location) {
+        File file = toFile(location);
+        String key = toKey(location);
+        PropertiesFile index = lockIndex();
+        try {
+            String recorded = index.getProperty(key + MAX_SIZE);
+            if (recorded != null) {
+                try {
+                    return Long.parseLong(recorded);
+                } catch (NumberFormatException ex) {
+                    // grant again
+                }
+            }
+            long granted = Math.max(MappedJNLPRandomAccessFile.length(file, toLengthFile(location)), grant(index, key, quota));
+            index.setProperty(key + MAX_SIZE, Long.toString(granted));
+            index.store();
+            return granted;
+        } finally {
+            index.unlock();
+        }
+    }
+
+    /**
+     * Changes the maximum size of a muffin. It never becomes smaller than
+     * the current length of the muffin.
+     *
+     * @return the granted maximum size, which may be less than requested
+     */
+    long setMaxSize(URL location, long maxsize) {
+        File file = toFile(location);
+        String key = toKey(location);
+        PropertiesFile index = lockIndex();
+        try {
+            long granted = Math.max(MappedJNLPRandomAccessFile.length(file, toLengthFile(location)), grant(index, key, maxsize));
+            index.setProperty(key + MAX_SIZE, Long.toString(granted));
+            index.store();
+            return granted;
+        } finally {
+            index.unlock();
+        }
+    }
+
+    /**
+     * Works out how much of the requested size the quota of the host
+     * allows, not counting what the muffin itself holds now. Temporary
+     * muffins of the host are deleted if that is needed to grant the
+     * request. Entries of muffins deleted by other means are forgotten.
+     */
+    private long grant(PropertiesFile index, String key, long requested) {
+        String origin = toOrigin(key);
+        long used = 0;
+        List<String> temporary = new ArrayList<>();
+        for (String name : index.stringPropertyNames()) {
+            if (!name.startsWith(origin) || !name.endsWith(MAX_SIZE)) {
+                continue;
+            }
+            String other = name.substring(0, name.length() - MAX_SIZE.length());
+            if (other.equals(key)) {
+                continue;
+            }
+            if (!new File(root, other).exists()) {
+                index.remove(other + MAX_SIZE);
+                index.remove(other + TAG);
+                continue;
+            }
+            if (Integer.toString(PersistenceService.TEMPORARY).equals(index.getProperty(other + TAG))) {
+                temporary.add(other);
+            }
+            used += getRecordedSize(index, other);
+        }
+
+        for (String other : temporary) {
+            if (used + requested <= quota) {
+                break;
+            }
+            OutputController.getLogger().log("Deleting temporary muffin " + other + " to free persistence storage");
+            used -= getRecordedSize(index, other);
+            FileUtils.deleteWithErrMesg(new File(root, other), " tocache");
+            index.remove(other + MAX_SIZE);
+            index.remove(other + TAG);
+        }
+        return Math.max(0, Math.min(requested, quota - used));
+    }
+
+    private long getRecordedSize(PropertiesFile index, String key) {
+        try {
+            return Math.max(0, Long.parseLong(index.getProperty(key + MAX_SIZE)));
+        } catch (NumberFormatException ex) {
+            return new File(root, key).length();
+        }
+    }
+
+    /**
+     * @return the tag of the muffin, {@link PersistenceService#CACHED} if
+     * none was set
+     */
+    int getTag(URL location) {
+        String key = toKey(location);
+        PropertiesFile index = lockIndex();
+        try {
+            return Integer.parseInt(index.getProperty(key + TAG, Integer.toString(PersistenceService.CACHED)));
+        } catch (NumberFormatException ex) {
+            return PersistenceService.CACHED;
+        } finally {
+            index.unlock();
+        }
+    }
+
+    /**
+     * Tags a muffin.
+     *
+     * @throws IllegalArgumentException if the tag is not one of the
+     * {@link PersistenceService} ones
+     */
+    void setTag(URL location, int tag) {
+        if (tag != PersistenceService.CACHED && tag != PersistenceService.DIRTY && tag != PersistenceService.TEMPORARY) {
+            throw new IllegalArgumentException("Unknown tag " + tag);
+        }
+        String key = toKey(location);
+        PropertiesFile index = lockIndex();
+        try {
+            index.setProperty(key + TAG, Integer.toString(tag));
+            index.store();
+        } finally {
+            index.unlock();
+        }
+    }
+
+    /**
+     * Records that the muffin changed locally: a cached muffin becomes
+     * dirty, temporary ones stay temporary.
+     */
+    void markChanged(URL location) {
+        String key = toKey(location);
+        PropertiesFile index = lockIndex();
+        try {
+            String tag = index.getProperty(key + TAG);
+            if (tag == null || Integer.toString(PersistenceService.CACHED).equals(tag)) {
+                index.setProperty(key + TAG, Integer.toString(PersistenceService.DIRTY));
+                index.store();
+            }
+        } finally {
+            index.unlock();
+        }
+    }
+}
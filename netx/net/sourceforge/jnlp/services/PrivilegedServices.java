@@ -0,0 +1,985 @@
+/* PrivilegedServices.java
+   Copyright (C) 2026 Red Hat, Inc.
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License as published by
+the Free Software Foundation, version 2.
+
+IcedTea is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to
+the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version.
+*/
+
+package net.sourceforge.jnlp.services;
+
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.Transferable;
+import java.awt.datatransfer.UnsupportedFlavorException;
+import java.awt.print.PageFormat;
+import java.awt.print.Pageable;
+import java.awt.print.Printable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.security.PrivilegedActionException;
+import java.security.PrivilegedExceptionAction;
+
+import javax.jnlp.BasicService;
+import javax.jnlp.ClipboardService;
+import javax.jnlp.DownloadService;
+import javax.jnlp.DownloadService2;
+import javax.jnlp.DownloadServiceListener;
+import javax.jnlp.ExtendedService;
+import javax.jnlp.ExtensionInstallerService;
+import javax.jnlp.FileContents;
+import javax.jnlp.FileOpenService;
+import javax.jnlp.FileSaveService;
+import javax.jnlp.JNLPRandomAccessFile;
+import javax.jnlp.PersistenceService;
+import javax.jnlp.PrintService;
+import javax.jnlp.SingleInstanceListener;
+
+import net.sourceforge.jnlp.JNLPFile;
+
+/**
+ * Wrappers handed to applications instead of the services themselves. Each
+ * call is made in the security context of the system classes (ie,
+ * AllPermissions), so the services must be more than extremely careful in
+ * the operations they perform.
+ * <p>
+ * The wrappers are written out for every interface instead of using a
+ * reflective {@link java.lang.reflect.Proxy}: a call costs one
+ * {@link AccessController#doPrivileged} and no reflection. Exceptions
+ * thrown by the services reach the application unwrapped.
+ * </p>
+ */
+final class PrivilegedServices {
+
+    private PrivilegedServices() {
+    }
+
+    static BasicService wrap(BasicService service) {
+        return new PrivilegedBasicService(service);
+    }
+
+    /**
+     * @return one wrapper serving as both the DownloadService and the
+     * DownloadService2
+     */
+    static PrivilegedDownloadService wrap(XDownloadService service) {
+        return new PrivilegedDownloadService(service);
+    }
+
+    static ExtendedService wrap(ExtendedService service) {
+        return new PrivilegedExtendedService(service);
+    }
+
+    static ExtensionInstallerService wrap(ExtensionInstallerService service) {
+        return new PrivilegedExtensionInstallerService(service);
+    }
+
+    static PersistenceService wrap(PersistenceService service) {
+        return new PrivilegedPersistenceService(service);
+    }
+
+    static FileOpenService wrap(FileOpenService service) {
+        return new PrivilegedFileOpenService(service);
+    }
+
+    static FileSaveService wrap(FileSaveService service) {
+        return new PrivilegedFileSaveService(service);
+    }
+
+    static ClipboardService wrap(ClipboardService service) {
+        return new PrivilegedClipboardService(service);
+    }
+
+    static PrintService wrap(PrintService service) {
+        return new PrivilegedPrintService(service);
+    }
+
+    static ExtendedSingleInstanceService wrap(ExtendedSingleInstanceService service) {
+        return new PrivilegedSingleInstanceService(service);
+    }
+
+    static FileContents wrap(FileContents contents) {
+        return new PrivilegedFileContents(contents);
+    }
+
+    static Transferable wrap(Transferable transferable) {
+        return new PrivilegedTransferable(transferable);
+    }
+
+    private static <T> T call(PrivilegedExceptionAction<T> action) throws IOException {
+        try {
+            return AccessController.doPrivileged(action);
+        } catch (PrivilegedActionException ex) {
+            // only checked exceptions are wrapped, and IOException is the only one declared
+            throw (IOException) ex.getException();
+        }
+    }
+
+    private static <T> T callTransferable(PrivilegedExceptionAction<T> action) throws UnsupportedFlavorException, IOException {
+        try {
+            return AccessController.doPrivileged(action);
+        } catch (PrivilegedActionException ex) {
+            if (ex.getException() instanceof UnsupportedFlavorException) {
+                throw (UnsupportedFlavorException) ex.getException();
+            }
+            throw (IOException) ex.getException();
+        }
+    }
+
+    private static final class PrivilegedBasicService implements BasicService {
+
+        private final BasicService target;
+
+        PrivilegedBasicService(BasicService target) {
+            this.target = target;
+        }
+
+        @Override
+        public URL getCodeBase() {
+            return AccessController.doPrivileged(new PrivilegedAction<URL>() {
+                @Override
+                public URL run() {
+                    return target.getCodeBase();
+                }
+            });
+        }
+
+        @Override
+        public boolean isOffline() {
+            return AccessController.doPrivileged(new PrivilegedAction<Boolean>() {
+                @Override
+                public Boolean run() {
+                    return target.isOffline();
+                }
+            });
+        }
+
+        @Override
+        public boolean showDocument(final URL url) {
+            return AccessController.doPrivileged(new PrivilegedAction<Boolean>() {
+                @Override
+                public Boolean run() {
+                    return target.showDocument(url);
+                }
+            });
+        }
+
+        @Override
+        public boolean isWebBrowserSupported() {
+            return AccessController.doPrivileged(new PrivilegedAction<Boolean>() {
+                @Override
+                public Boolean run() {
+                    return target.isWebBrowserSupported();
+                }
+            });
+        }
+    }
+
+    static final class PrivilegedDownloadService implements DownloadService, DownloadService2 {
+
+        private final XDownloadService target;
+
+        PrivilegedDownloadService(XDownloadService target) {
+            this.target = target;
+        }
+
+        @Override
+        public boolean isResourceCached(final URL ref, final String version) {
+            return AccessController.doPrivileged(new PrivilegedAction<Boolean>() {
+                @Override
+                public Boolean run() {
+                    return target.isResourceCached(ref, version);
+                }
+            });
+        }
+
+        @Override
+        public boolean isPartCached(final String part) {
+            return AccessController.doPrivileged(new PrivilegedAction<Boolean>() {
+                @Override
+                public Boolean run() {
+                    return target.isPartCached(part);
+                }
+            });
+        }
+
+        @Override
+        public boolean isPartCached(final String[] parts) {
+            return AccessController.doPrivileged(new PrivilegedAction<Boolean>() {
+                @Override
+                public Boolean run() {
+                    return target.isPartCached(parts);
+                }
+            });
+        }
+
+        @Override
+        public boolean isExtensionPartCached(final URL ref, final String version, final String part) {
+            return AccessController.doPrivileged(new PrivilegedAction<Boolean>() {
+                @Override
+                public Boolean run() {
+                    return target.isExtensionPartCached(ref, version, part);
+                }
+            });
+        }
+
+        @Override
+        public boolean isExtensionPartCached(final URL ref, final String version, final String[] parts) {
+            return AccessController.doPrivileged(new PrivilegedAction<Boolean>() {
+                @Override
+                public Boolean run() {
+                    return target.isExtensionPartCached(ref, version, parts);
+                }
+            });
+        }
+
+        @Override
+        public void loadResource(final URL ref, final String version, final DownloadServiceListener progress) throws IOException {
+            call(new PrivilegedExceptionAction<Void>() {
+                @Override
+                public Void run() throws IOException {
+                    target.loadResource(ref, version, progress);
+                    return null;
+                }
+            });
+        }
+
+        @Override
+        public void loadPart(final String part, final DownloadServiceListener progress) throws IOException {
+            call(new PrivilegedExceptionAction<Void>() {
+                @Override
+                public Void run() throws IOException {
+                    target.loadPart(part, progress);
+                    return null;
+                }
+            });
+        }
+
+        @Override
+        public void loadPart(final String[] parts, final DownloadServiceListener progress) throws IOException {
+            call(new PrivilegedExceptionAction<Void>() {
+                @Override
+                public Void run() throws IOException {
+                    target.loadPart(parts, progress);
+                    return null;
+                }
+            });
+        }
+
+        @Override
+        public void loadExtensionPart(final URL ref, final String version, final String part, final DownloadServiceListener progress) throws IOException {
+            call(new PrivilegedExceptionAction<Void>() {
+                @Override
+                public Void run() throws IOException {
+                    target.loadExtensionPart(ref, version, part, progress);
+                    return null;
+                }
+            });
+        }
+
+        @Override
+        public void loadExtensionPart(final URL ref, final String version, final String[] parts, final DownloadServiceListener progress) throws IOException {
+            call(new PrivilegedExceptionAction<Void>() {
+                @Override
+                public Void run() throws IOException {
+                    target.loadExtensionPart(ref, version, parts, progress);
+                    return null;
+                }
+            });
+        }
+
+        @Override
+        public void removeResource(final URL ref, final String version) throws IOException {
+            call(new PrivilegedExceptionAction<Void>() {
+                @Override
+                public Void run() throws IOException {
+                    target.removeResource(ref, version);
+                    return null;
+                }
+            });
+        }
+
+        @Override
+        public void removePart(final String part) throws IOException {
+            call(new PrivilegedExceptionAction<Void>() {
+                @Override
+                public Void run() throws IOException {
+                    target.removePart(part);
+                    return null;
+                }
+            });
+        }
+
+        @Override
+        public void removePart(final String[] parts) throws IOException {
+            call(new PrivilegedExceptionAction<Void>() {
+                @Override
+                public Void run() throws IOException {
+                    target.removePart(parts);
+                    return null;
+                }
+            });
+        }
+
+        @Override
+        public void removeExtensionPart(final URL ref, final String version, final String part) throws IOException {
+            call(new PrivilegedExceptionAction<Void>() {
+                @Override
+                public Void run() throws IOException {
+                    target.removeExtensionPart(ref, version, part);
+                    return null;
+                }
+            });
+        }
+
+        @Override
+        public void removeExtensionPart(final URL ref, final String version, final String[] parts) throws IOException {
+            call(new PrivilegedExceptionAction<Void>() {
+                @Override
+                public Void run() throws IOException {
+                    target.removeExtensionPart(ref, version, parts);
+                    return null;
+                }
+            });
+        }
+
+        @Override
+        public DownloadServiceListener getDefaultProgressWindow() {
+            return AccessController.doPrivileged(new PrivilegedAction<DownloadServiceListener>() {
+                @Override
+                public DownloadServiceListener run() {
+                    return target.getDefaultProgressWindow();
+                }
+            });
+        }
+
+        @Override
+        public ResourceSpec[] getCachedResources(final ResourceSpec spec) {
+            return AccessController.doPrivileged(new PrivilegedAction<ResourceSpec[]>() {
+                @Override
+                public ResourceSpec[] run() {
+                    return target.getCachedResources(spec);
+                }
+            });
+        }
+
+        @Override
+        public ResourceSpec[] getUpdateAvaiableReosurces(final ResourceSpec spec) {
+            return AccessController.doPrivileged(new PrivilegedAction<ResourceSpec[]>() {
+                @Override
+                public ResourceSpec[] run() {
+                    return target.getUpdateAvaiableReosurces(spec);
+                }
+            });
+        }
+    }
+
+    private static final class PrivilegedExtendedService implements ExtendedService {
+
+        private final ExtendedService target;
+
+        PrivilegedExtendedService(ExtendedService target) {
+            this.target = target;
+        }
+
+        @Override
+        public FileContents openFile(final File file) throws IOException {
+            return call(new PrivilegedExceptionAction<FileContents>() {
+                @Override
+                public FileContents run() throws IOException {
+                    return target.openFile(file);
+                }
+            });
+        }
+
+        @Override
+        public FileContents[] openFiles(final File[] files) throws IOException {
+            return call(new PrivilegedExceptionAction<FileContents[]>() {
+                @Override
+                public FileContents[] run() throws IOException {
+                    return target.openFiles(files);
+                }
+            });
+        }
+    }
+
+    private static final class PrivilegedExtensionInstallerService implements ExtensionInstallerService {
+
+        private final ExtensionInstallerService target;
+
+        PrivilegedExtensionInstallerService(ExtensionInstallerService target) {
+            this.target = target;
+        }
+
+        @Override
+        public String getInstallPath() {
+            return AccessController.doPrivileged(new PrivilegedAction<String>() {
+                @Override
+                public String run() {
+                    return target.getInstallPath();
+                }
+            });
+        }
+
+        @Override
+        public String getExtensionVersion() {
+            return AccessController.doPrivileged(new PrivilegedAction<String>() {
+                @Override
+                public String run() {
+                    return target.getExtensionVersion();
+                }
+            });
+        }
+
+        @Override
+        public URL getExtensionLocation() {
+            return AccessController.doPrivileged(new PrivilegedAction<URL>() {
+                @Override
+                public URL run() {
+                    return target.getExtensionLocation();
+                }
+            });
+        }
+
+        @Override
+        public void hideProgressBar() {
+            AccessController.doPrivileged(new PrivilegedAction<Void>() {
+                @Override
+                public Void run() {
+                    target.hideProgressBar();
+                    return null;
+                }
+            });
+        }
+
+        @Override
+        public void hideStatusWindow() {
+            AccessController.doPrivileged(new PrivilegedAction<Void>() {
+                @Override
+                public Void run() {
+                    target.hideStatusWindow();
+                    return null;
+                }
+            });
+        }
+
+        @Override
+        public void setHeading(final String heading) {
+            AccessController.doPrivileged(new PrivilegedAction<Void>() {
+                @Override
+                public Void run() {
+                    target.setHeading(heading);
+                    return null;
+                }
+            });
+        }
+
+        @Override
+        public void setStatus(final String status) {
+            AccessController.doPrivileged(new PrivilegedAction<Void>() {
+                @Override
+                public Void run() {
+                    target.setStatus(status);
+                    return null;
+                }
+            });
+        }
+
+        @Override
+        public void updateProgress(final int value) {
+            AccessController.doPrivileged(new PrivilegedAction<Void>() {
+                @Override
+                public Void run() {
+                    target.updateProgress(value);
+                    return null;
+                }
+            });
+        }
+
+        @Override
+        public void installSucceeded(final boolean needsReboot) {
+            AccessController.doPrivileged(new PrivilegedAction<Void>() {
+                @Override
+                public Void run() {
+                    target.installSucceeded(needsReboot);
+                    return null;
+                }
+            });
+        }
+
+        @Override
+        public void installFailed() {
+            AccessController.doPrivileged(new PrivilegedAction<Void>() {
+                @Override
+                public Void run() {
+                    target.installFailed();
+                    return null;
+                }
+            });
+        }
+
+        @Override
+        public void setJREInfo(final String platformVersion, final String jrePath) {
+            AccessController.doPrivileged(new PrivilegedAction<Void>() {
+                @Override
+                public Void run() {
+                    target.setJREInfo(platformVersion, jrePath);
+                    return null;
+                }
+            });
+        }
+
+        @Override
+        public void setNativeLibraryInfo(final String path) {
+            AccessController.doPrivileged(new PrivilegedAction<Void>() {
+                @Override
+                public Void run() {
+                    target.setNativeLibraryInfo(path);
+                    return null;
+                }
+            });
+        }
+
+        @Override
+        public String getInstalledJRE(final URL url, final String version) {
+            return AccessController.doPrivileged(new PrivilegedAction<String>() {
+                @Override
+                public String run() {
+                    return target.getInstalledJRE(url, version);
+                }
+            });
+        }
+    }
+
+    private static final class PrivilegedPersistenceService implements PersistenceService {
+
+        private final PersistenceService target;
+
+        PrivilegedPersistenceService(PersistenceService target) {
+            this.target = target;
+        }
+
+        @Override
+        public long create(final URL url, final long maxsize) throws IOException {
+            return call(new PrivilegedExceptionAction<Long>() {
+                @Override
+                public Long run() throws IOException {
+                    return target.create(url, maxsize);
+                }
+            });
+        }
+
+        @Override
+        public FileContents get(final URL url) throws IOException {
+            return call(new PrivilegedExceptionAction<FileContents>() {
+                @Override
+                public FileContents run() throws IOException {
+                    return target.get(url);
+                }
+            });
+        }
+
+        @Override
+        public void delete(final URL url) throws IOException {
+            call(new PrivilegedExceptionAction<Void>() {
+                @Override
+                public Void run() throws IOException {
+                    target.delete(url);
+                    return null;
+                }
+            });
+        }
+
+        @Override
+        public String[] getNames(final URL url) throws IOException {
+            return call(new PrivilegedExceptionAction<String[]>() {
+                @Override
+                public String[] run() throws IOException {
+                    return target.getNames(url);
+                }
+            });
+        }
+
+        @Override
+        public int getTag(final URL url) throws IOException {
+            return call(new PrivilegedExceptionAction<Integer>() {
+                @Override
+                public Integer run() throws IOException {
+                    return target.getTag(url);
+                }
+            });
+        }
+
+        @Override
+        public void setTag(final URL url, final int tag) throws IOException {
+            call(new PrivilegedExceptionAction<Void>() {
+                @Override
+                public Void run() throws IOException {
+                    target.setTag(url, tag);
+                    return null;
+                }
+            });
+        }
+    }
+
+    private static final class PrivilegedFileOpenService implements FileOpenService {
+
+        private final FileOpenService target;
+
+        PrivilegedFileOpenService(FileOpenService target) {
+            this.target = target;
+        }
+
+        @Override
+        public FileContents openFileDialog(final String pathHint, final String[] extensions) throws IOException {
+            return call(new PrivilegedExceptionAction<FileContents>() {
+                @Override
+                public FileContents run() throws IOException {
+                    return target.openFileDialog(pathHint, extensions);
+                }
+            });
+        }
+
+        @Override
+        public FileContents[] openMultiFileDialog(final String pathHint, final String[] extensions) throws IOException {
+            return call(new PrivilegedExceptionAction<FileContents[]>() {
+                @Override
+                public FileContents[] run() throws IOException {
+                    return target.openMultiFileDialog(pathHint, extensions);
+                }
+            });
+        }
+    }
+
+    private static final class PrivilegedFileSaveService implements FileSaveService {
+
+        private final FileSaveService target;
+
+        PrivilegedFileSaveService(FileSaveService target) {
+            this.target = target;
+        }
+
+        @Override
+        public FileContents saveFileDialog(final String pathHint, final String[] extensions, final InputStream stream, final String name) throws IOException {
+            return call(new PrivilegedExceptionAction<FileContents>() {
+                @Override
+                public FileContents run() throws IOException {
+                    return target.saveFileDialog(pathHint, extensions, stream, name);
+                }
+            });
+        }
+
+        @Override
+        public FileContents saveAsFileDialog(final String pathHint, final String[] extensions, final FileContents contents) throws IOException {
+            return call(new PrivilegedExceptionAction<FileContents>() {
+                @Override
+                public FileContents run() throws IOException {
+                    return target.saveAsFileDialog(pathHint, extensions, contents);
+                }
+            });
+        }
+    }
+
+    private static final class PrivilegedClipboardService implements ClipboardService {
+
+        private final ClipboardService target;
+
+        PrivilegedClipboardService(ClipboardService target) {
+            this.target = target;
+        }
+
+        @Override
+        public Transferable getContents() {
+            return AccessController.doPrivileged(new PrivilegedAction<Transferable>() {
+                @Override
+                public Transferable run() {
+                    return target.getContents();
+                }
+            });
+        }
+
+        @Override
+        public void setContents(final Transferable contents) {
+            AccessController.doPrivileged(new PrivilegedAction<Void>() {
+                @Override
+                public Void run() {
+                    target.setContents(contents);
+                    return null;
+                }
+            });
+        }
+    }
+
+    private static final class PrivilegedPrintService implements PrintService {
+
+        private final PrintService target;
+
+        PrivilegedPrintService(PrintService target) {
+            this.target = target;
+        }
+
+        @Override
+        public PageFormat getDefaultPage() {
+            return AccessController.doPrivileged(new PrivilegedAction<PageFormat>() {
+                @Override
+                public PageFormat run() {
+                    return target.getDefaultPage();
+                }
+            });
+        }
+
+        @Override
+        public PageFormat showPageFormatDialog(final PageFormat page) {
+            return AccessController.doPrivileged(new PrivilegedAction<PageFormat>() {
+                @Override
+                public PageFormat run() {
+                    return target.showPageFormatDialog(page);
+                }
+            });
+        }
+
+        @Override
+        public boolean print(final Pageable document) {
+            return AccessController.doPrivileged(new PrivilegedAction<Boolean>() {
+                @Override
+                public Boolean run() {
+                    return target.print(document);
+                }
+            });
+        }
+
+        @Override
+        public boolean print(final Printable painter) {
+            return AccessController.doPrivileged(new PrivilegedAction<Boolean>() {
+                @Override
+                public Boolean run() {
+                    return target.print(painter);
+                }
+            });
+        }
+    }
+
+    private static final class PrivilegedSingleInstanceService implements ExtendedSingleInstanceService {
+
+        private final ExtendedSingleInstanceService target;
+
+        PrivilegedSingleInstanceService(ExtendedSingleInstanceService target) {
+            this.target = target;
+        }
+
+        @Override
+        public void addSingleInstanceListener(final SingleInstanceListener listener) {
+            AccessController.doPrivileged(new PrivilegedAction<Void>() {
+                @Override
+                public Void run() {
+                    target.addSingleInstanceListener(listener);
+                    return null;
+                }
+            });
+        }
+
+        @Override
+        public void removeSingleInstanceListener(final SingleInstanceListener listener) {
+            AccessController.doPrivileged(new PrivilegedAction<Void>() {
+                @Override
+                public Void run() {
+                    target.removeSingleInstanceListener(listener);
+                    return null;
+                }
+            });
+        }
+
+        @Override
+        public void checkSingleInstanceRunning(final JNLPFile jnlpFile) {
+            AccessController.doPrivileged(new PrivilegedAction<Void>() {
+                @Override
+                public Void run() {
+                    target.checkSingleInstanceRunning(jnlpFile);
+                    return null;
+                }
+            });
+        }
+
+        @Override
+        public void initializeSingleInstance() {
+            AccessController.doPrivileged(new PrivilegedAction<Void>() {
+                @Override
+                public Void run() {
+                    target.initializeSingleInstance();
+                    return null;
+                }
+            });
+        }
+    }
+
+    private static final class PrivilegedFileContents implements FileContents {
+
+        private final FileContents target;
+
+        PrivilegedFileContents(FileContents target) {
+            this.target = target;
+        }
+
+        @Override
+        public String getName() throws IOException {
+            return call(new PrivilegedExceptionAction<String>() {
+                @Override
+                public String run() throws IOException {
+                    return target.getName();
+                }
+            });
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return call(new PrivilegedExceptionAction<InputStream>() {
+                @Override
+                public InputStream run() throws IOException {
+                    return target.getInputStream();
+                }
+            });
+        }
+
+        @Override
+        public OutputStream getOutputStream(final boolean overwrite) throws IOException {
+            return call(new PrivilegedExceptionAction<OutputStream>() {
+                @Override
+                public OutputStream run() throws IOException {
+                    return target.getOutputStream(overwrite);
+                }
+            });
+        }
+
+        @Override
+        public long getLength() throws IOException {
+            return call(new PrivilegedExceptionAction<Long>() {
+                @Override
+                public Long run() throws IOException {
+                    return target.getLength();
+                }
+            });
+        }
+
+        @Override
+        public boolean canRead() throws IOException {
+            return call(new PrivilegedExceptionAction<Boolean>() {
+                @Override
+                public Boolean run() throws IOException {
+                    return target.canRead();
+                }
+            });
+        }
+
+        @Override
+        public boolean canWrite() throws IOException {
+            return call(new PrivilegedExceptionAction<Boolean>() {
+                @Override
+                public Boolean run() throws IOException {
+                    return target.canWrite();
+                }
+            });
+        }
+
+        @Override
+        public JNLPRandomAccessFile getRandomAccessFile(final String mode) throws IOException {
+            return call(new PrivilegedExceptionAction<JNLPRandomAccessFile>() {
+                @Override
+                public JNLPRandomAccessFile run() throws IOException {
+                    return target.getRandomAccessFile(mode);
+                }
+            });
+        }
+
+        @Override
+        public long getMaxLength() throws IOException {
+            return call(new PrivilegedExceptionAction<Long>() {
+                @Override
+                public Long run() throws IOException {
+                    return target.getMaxLength();
+                }
+            });
+        }
+
+        @Override
+        public long setMaxLength(final long maxlength) throws IOException {
+            return call(new PrivilegedExceptionAction<Long>() {
+                @Override
+                public Long run() throws IOException {
+                    return target.setMaxLength(maxlength);
+                }
+            });
+        }
+    }
+
+    private static final class PrivilegedTransferable implements Transferable {
+
+        private final Transferable target;
+
+        PrivilegedTransferable(Transferable target) {
+            this.target = target;
+        }
+
+        @Override
+        public DataFlavor[] getTransferDataFlavors() {
+            return AccessController.doPrivileged(new PrivilegedAction<DataFlavor[]>() {
+                @Override
+                public DataFlavor[] run() {
+                    return target.getTransferDataFlavors();
+                }
+            });
+        }
+
+        @Override
+        public boolean isDataFlavorSupported(final DataFlavor flavor) {
+            return AccessController.doPrivileged(new PrivilegedAction<Boolean>() {
+                @Override
+                public Boolean run() {
+                    return target.isDataFlavorSupported(flavor);
+                }
+            });
+        }
+
+        @Override
+        public Object getTransferData(final DataFlavor flavor) throws UnsupportedFlavorException, IOException {
+            return callTransferable(new PrivilegedExceptionAction<Object>() {
+                @Override
+                public Object run() throws UnsupportedFlavorException, IOException {
+                    return target.getTransferData(flavor);
+                }
+            });
+        }
+    }
+}
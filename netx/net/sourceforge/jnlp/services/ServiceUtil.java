@@ -16,13 +16,8 @@
 
 package net.sourceforge.jnlp.services;
 
-import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
-import java.security.PrivilegedActionException;
-import java.security.PrivilegedExceptionAction;
 
 import javax.jnlp.BasicService;
 import javax.jnlp.ClipboardService;
@@ -149,68 +144,6 @@ public class ServiceUtil {
         }
     }
 
-    /**
-     * Creates a Proxy object implementing the specified interface
-     * when makes all calls in the security context of the system
-     * classes (ie, AllPermissions).  This means that the services
-     * must be more than extremely careful in the operations they
-     * perform.
-     */
-    static Object createPrivilegedProxy(Class<?> iface, final Object receiver) {
-        return java.lang.reflect.Proxy.newProxyInstance(XServiceManagerStub.class.getClassLoader(),
-                new Class<?>[] { iface },
-                new PrivilegedHandler(receiver));
-    }
-
-    /**
-     * calls the object's method using privileged access
-     */
-    private static class PrivilegedHandler implements InvocationHandler {
-        private final Object receiver;
-
-        PrivilegedHandler(Object receiver) {
-            this.receiver = receiver;
-        }
-
-        @Override
-        public Object invoke(Object proxy, final Method method, final Object[] args) throws Throwable {
-            if (JNLPRuntime.isDebug()) {
-                OutputController.getLogger().log(OutputController.Level.ERROR_DEBUG, "call privileged method: " + method.getName());
-                if (args != null) {
-                    for (Object arg : args) {
-                        OutputController.getLogger().log(OutputController.Level.ERROR_DEBUG, "           arg: " + arg);
-                    }
-                }
-            }
-
-            PrivilegedExceptionAction<Object> invoker = new PrivilegedExceptionAction<Object>() {
-                @Override
-                public Object run() throws Exception {
-                    return method.invoke(receiver, args);
-                }
-            };
-
-            try {
-                Object result = AccessController.doPrivileged(invoker);
-
-                OutputController.getLogger().log(OutputController.Level.ERROR_DEBUG, "        result: " + result);
-
-                return result;
-            } catch (PrivilegedActionException e) {
-                // Any exceptions thrown by the actual methods are wrapped by a
-                // InvocationTargetException, which is further wrapped by the
-                // PrivilegedActionException. Lets unwrap them to make the
-                // proxy transparent to the callers
-                if (e.getCause() instanceof InvocationTargetException) {
-                    throw e.getCause().getCause();
-                } else {
-                    throw e.getCause();
-                }
-            }
-
-        }
-    };
-
     /**
      * Returns whether the app requesting a JNLP service has the right permissions.
      * If it doesn't, user is prompted for permissions. This method should only be
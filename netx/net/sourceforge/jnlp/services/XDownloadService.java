@@ -18,10 +18,16 @@ package net.sourceforge.jnlp.services;
 
 import java.io.*;
 import java.net.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 import javax.jnlp.*;
 
 import net.sourceforge.jnlp.JARDesc;
+import net.sourceforge.jnlp.JNLPFile;
 import net.sourceforge.jnlp.Version;
+import net.sourceforge.jnlp.cache.BackgroundUpdater;
 import net.sourceforge.jnlp.cache.CacheUtil;
 import net.sourceforge.jnlp.runtime.JNLPClassLoader;
 import net.sourceforge.jnlp.runtime.ManageJnlpResources;
@@ -33,7 +39,7 @@ import net.sourceforge.jnlp.runtime.JNLPRuntime;
  * @author <a href="mailto:jmaxwell@users.sourceforge.net">Jon A. Maxwell (JAM)</a> - initial author
  * @version $Revision: 1.7 $
  */
-class XDownloadService implements DownloadService {
+class XDownloadService implements DownloadService, DownloadService2 {
 
     /**
      * Returns the {@link JNLPClassLoader} of the application
@@ -57,19 +63,7 @@ class XDownloadService implements DownloadService {
      * url and version) is cached locally.
      */
     public boolean isExtensionPartCached(URL ref, String version, String part) {
-        boolean allCached = true;
-        Version resourceVersion = (version == null) ? null : new Version(version);
-
-        JARDesc[] jars = ManageJnlpResources.findJars(this.getClassLoader(), ref, part, resourceVersion);
-
-        if (jars.length <= 0)
-            return false;
-
-        for (int i = 0; i < jars.length && allCached; i++) {
-            allCached = CacheUtil.isCached(jars[i].getLocation(), resourceVersion);
-        }
-
-        return allCached;
+        return this.isExtensionPartCached(ref, version, new String[] { part });
     }
 
     /**
@@ -77,14 +71,8 @@ class XDownloadService implements DownloadService {
      * url and version) are cached locally.
      */
     public boolean isExtensionPartCached(URL ref, String version, String[] parts) {
-        boolean allCached = true;
-        if (parts.length <= 0)
-            return false;
-
-        for (String eachPart : parts)
-            allCached = this.isExtensionPartCached(ref, version, eachPart);
-
-        return allCached;
+        Version resourceVersion = (version == null) ? null : new Version(version);
+        return this.isCached(ref, parts, resourceVersion);
     }
 
     /**
@@ -94,17 +82,7 @@ class XDownloadService implements DownloadService {
      * the application.
      */
     public boolean isPartCached(String part) {
-        boolean allCached = true;
-        JARDesc[] jars = ManageJnlpResources.findJars(this.getClassLoader(), null, part, null);
-
-        if (jars.length <= 0)
-            return false;
-
-        for (int i = 0; i < jars.length && allCached; i++) {
-            allCached = CacheUtil.isCached(jars[i].getLocation(), null);
-        }
-
-        return allCached;
+        return this.isPartCached(new String[] { part });
     }
 
     /**
@@ -114,14 +92,27 @@ class XDownloadService implements DownloadService {
      * application.
      */
     public boolean isPartCached(String[] parts) {
-        boolean allCached = true;
+        return this.isCached(null, parts, null);
+    }
+
+    /**
+     * Returns whether every part has jars and all of them are cached. The
+     * jars of all parts are looked up in one read of the cache index.
+     */
+    private boolean isCached(URL ref, String[] parts, Version version) {
         if (parts.length <= 0)
             return false;
 
-        for (String eachPart : parts)
-            allCached = this.isPartCached(eachPart);
+        List<URL> locations = new ArrayList<>();
+        for (String eachPart : parts) {
+            JARDesc[] jars = ManageJnlpResources.findJars(this.getClassLoader(), ref, eachPart, version);
+            if (jars.length <= 0)
+                return false;
+            for (JARDesc eachJar : jars)
+                locations.add(eachJar.getLocation());
+        }
 
-        return allCached;
+        return CacheUtil.getCachedResources(locations).containsAll(locations);
     }
 
     /**
@@ -134,13 +125,14 @@ class XDownloadService implements DownloadService {
     }
 
     /**
-     * Downloads the parts of an extension.
+     * Downloads the parts of an extension. The jars of all parts are
+     * downloaded concurrently.
      *
      * @throws IOException
      */
     public void loadExtensionPart(URL ref, String version, String[] parts, DownloadServiceListener progress) throws IOException {
-        for (String eachPart : parts)
-            this.loadExtensionPart(ref, version, eachPart, progress);
+        Version resourceVersion = (version == null) ? null : new Version(version);
+        ManageJnlpResources.downloadJars(this.getClassLoader(), ref, parts, resourceVersion, progress);
     }
 
     /**
@@ -149,18 +141,17 @@ class XDownloadService implements DownloadService {
      * @throws IOException
      */
     public void loadExtensionPart(URL ref, String version, String part, DownloadServiceListener progress) throws IOException {
-        Version resourceVersion = (version == null) ? null : new Version(version);
-        ManageJnlpResources.downloadJars(this.getClassLoader(), ref, part, resourceVersion);
+        this.loadExtensionPart(ref, version, new String[] { part }, progress);
     }
 
     /**
-     * Downloads the parts.
+     * Downloads the parts. The jars of all parts are downloaded
+     * concurrently.
      *
      * @throws IOException
      */
     public void loadPart(String[] parts, DownloadServiceListener progress) throws IOException {
-        for (String eachPart : parts)
-            this.loadPart(eachPart, progress);
+        ManageJnlpResources.downloadJars(this.getClassLoader(), null, parts, null, progress);
     }
 
     /**
@@ -169,7 +160,7 @@ class XDownloadService implements DownloadService {
      * @throws IOException
      */
     public void loadPart(String part, DownloadServiceListener progress) throws IOException {
-        ManageJnlpResources.downloadJars(this.getClassLoader(), null, part, null);
+        this.loadPart(new String[] { part }, progress);
     }
 
     /**
@@ -236,4 +227,136 @@ class XDownloadService implements DownloadService {
         ManageJnlpResources.removeExternalCachedResource(this.getClassLoader(), ref, version);
     }
 
+    /**
+     * Returns the resources of the application which are cached and match
+     * the given spec. The url and version of the spec are regular
+     * expressions, a {@code null} one matches everything.
+     */
+    public ResourceSpec[] getCachedResources(ResourceSpec spec) {
+        List<ResourceSpec> result = new ArrayList<>();
+        for (ResourceSpec resource : getResources()) {
+            if (matches(spec, resource) && isCached(resource)) {
+                result.add(resource);
+            }
+        }
+        return result.toArray(new ResourceSpec[result.size()]);
+    }
+
+    /**
+     * Returns the resources of the application matching the given spec for
+     * which the background update check found a newer version.
+     */
+    public ResourceSpec[] getUpdateAvaiableReosurces(ResourceSpec spec) {
+        List<ResourceSpec> result = new ArrayList<>();
+        BackgroundUpdater updater = getBackgroundUpdater();
+        if (updater == null) {
+            return new ResourceSpec[0];
+        }
+        List<URL> available = updater.getAvailableUpdates();
+        for (ResourceSpec resource : getResources()) {
+            if (matches(spec, resource) && available.contains(toURL(resource))) {
+                result.add(resource);
+            }
+        }
+        return result.toArray(new ResourceSpec[result.size()]);
+    }
+
+    /**
+     * Starts the background update check of the application again.
+     *
+     * @return whether a check was started; {@code false} if one is running
+     * or the application does not update in the background
+     */
+    public boolean checkForUpdate() {
+        BackgroundUpdater updater = getBackgroundUpdater();
+        return updater != null && updater.restart();
+    }
+
+    /**
+     * Stops a running background update check.
+     */
+    public void cancelUpdate() {
+        BackgroundUpdater updater = getBackgroundUpdater();
+        if (updater != null) {
+            updater.cancel();
+        }
+    }
+
+    /**
+     * @return the state of the background update of the application
+     */
+    public BackgroundUpdater.State getUpdateState() {
+        BackgroundUpdater updater = getBackgroundUpdater();
+        return updater == null ? BackgroundUpdater.State.IDLE : updater.getState();
+    }
+
+    /**
+     * @return whether an update is staged, to be applied on the next launch
+     */
+    public boolean isUpdateStaged() {
+        BackgroundUpdater updater = getBackgroundUpdater();
+        return updater != null && updater.isStaged();
+    }
+
+    BackgroundUpdater getBackgroundUpdater() {
+        return BackgroundUpdater.get(this.getClassLoader().getJNLPFile().getFileLocation());
+    }
+
+    /**
+     * Lists the descriptors and jars of the application and its extensions.
+     */
+    private List<ResourceSpec> getResources() {
+        List<ResourceSpec> resources = new ArrayList<>();
+        List<JNLPFile> files = this.getClassLoader().getJNLPFiles();
+        for (int i = 0; i < files.size(); i++) {
+            JNLPFile file = files.get(i);
+            if (file.getFileLocation() != null) {
+                resources.add(new ResourceSpec(file.getFileLocation().toExternalForm(), null, i == 0 ? APPLICATION : EXTENSION));
+            }
+            for (JARDesc jar : file.getResources().getJARs()) {
+                resources.add(new ResourceSpec(jar.getLocation().toExternalForm(),
+                        jar.getVersion() == null ? null : jar.getVersion().toString(), JAR));
+            }
+        }
+        return resources;
+    }
+
+    static boolean matches(ResourceSpec spec, ResourceSpec resource) {
+        if (spec == null) {
+            return true;
+        }
+        if (spec.getType() != ALL && spec.getType() != resource.getType()) {
+            return false;
+        }
+        return matches(spec.getUrl(), resource.getUrl()) && matches(spec.getVersion(), resource.getVersion());
+    }
+
+    private static boolean matches(String regex, String value) {
+        if (regex == null) {
+            return true;
+        }
+        if (value == null) {
+            return false;
+        }
+        try {
+            return Pattern.matches(regex, value);
+        } catch (PatternSyntaxException ex) {
+            return regex.equals(value);
+        }
+    }
+
+    private static boolean isCached(ResourceSpec resource) {
+        URL url = toURL(resource);
+        Version version = resource.getVersion() == null ? null : new Version(resource.getVersion());
+        return url != null && CacheUtil.isCacheable(url, version) && CacheUtil.isCached(url, version);
+    }
+
+    private static URL toURL(ResourceSpec resource) {
+        try {
+            return new URL(resource.getUrl());
+        } catch (MalformedURLException ex) {
+            return null;
+        }
+    }
+
 }
@@ -38,8 +38,7 @@ public class XExtendedService implements ExtendedService {
 
         /* FIXME: this opens a file with read/write mode, not just read or write */
         if (ServiceUtil.checkAccess(AccessType.READ_FILE, new Object[] { secureFile.getAbsolutePath() })) {
-            return (FileContents) ServiceUtil.createPrivilegedProxy(FileContents.class,
-                    new XFileContents(secureFile));
+            return PrivilegedServices.wrap(new XFileContents(secureFile));
         } else {
             return null;
         }
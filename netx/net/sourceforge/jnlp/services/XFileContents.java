@@ -38,6 +38,13 @@ class XFileContents implements FileContents {
         this.file = new File(file.getPath());
     }
 
+    /**
+     * @return the file of these contents
+     */
+    protected File getFile() {
+        return file;
+    }
+
     /**
      *
      * @throws IOException if an I/O exception occurs.
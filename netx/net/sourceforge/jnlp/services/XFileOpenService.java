@@ -66,9 +66,7 @@ class XFileOpenService implements FileOpenService {
             JFileChooser chooser = new JFileChooser();
             int chosen = chooser.showOpenDialog(null);
             if (chosen == JFileChooser.APPROVE_OPTION) {
-                return (FileContents) ServiceUtil.createPrivilegedProxy(
-                           FileContents.class,
-                           new XFileContents(chooser.getSelectedFile()));
+                return PrivilegedServices.wrap(new XFileContents(chooser.getSelectedFile()));
             } else {
                 return null;
             }
@@ -94,7 +92,7 @@ class XFileOpenService implements FileOpenService {
                 FileContents[] result = new FileContents[length];
                 for (int i = 0; i < length; i++) {
                     XFileContents xfile = new XFileContents(files[i]);
-                    result[i] = (FileContents) ServiceUtil.createPrivilegedProxy(FileContents.class, xfile);
+                    result[i] = PrivilegedServices.wrap(xfile);
                 }
                 return result;
             } else {
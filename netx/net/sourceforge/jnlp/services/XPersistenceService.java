@@ -22,9 +22,7 @@ import java.util.*;
 import javax.jnlp.*;
 
 import net.sourceforge.jnlp.cache.*;
-import net.sourceforge.jnlp.config.PathsAndFiles;
 import net.sourceforge.jnlp.runtime.*;
-import net.sourceforge.jnlp.util.FileUtils;
 import net.sourceforge.jnlp.util.logging.OutputController;
 
 /**
@@ -83,28 +81,19 @@ class XPersistenceService implements PersistenceService {
      * @return the file
      */
     protected File toCacheFile(URL location) throws MalformedURLException {
-        String pcache =  PathsAndFiles.PCACHE_DIR.getFullPath();
-        return CacheUtil.urlToPath(location, pcache);
+        return MuffinStore.getInstance().toFile(location);
     }
 
     /**
      *
      * @return the maximum size of storage that got granted, in bytes
      * @throws MalformedURLException if the application cannot access the location
+     * @throws IOException if the muffin exists or the quota of the host is used up
      */
     public long create(URL location, long maxsize) throws MalformedURLException, IOException {
         checkLocation(location);
 
-        File file = toCacheFile(location);
-        FileUtils.createParentDir(file, "Persistence store for "
-                    + location.toString());
-
-        if (file.exists())
-            throw new IOException("File already exists.");
-
-        FileUtils.createRestrictedFile(file, true);
-
-        return maxsize;
+        return MuffinStore.getInstance().create(location, maxsize);
     }
 
     /**
@@ -114,7 +103,7 @@ class XPersistenceService implements PersistenceService {
     public void delete(URL location) throws MalformedURLException, IOException {
         checkLocation(location);
 
-        FileUtils.deleteWithErrMesg(toCacheFile(location), " tocache");
+        MuffinStore.getInstance().delete(location);
     }
 
     /**
@@ -124,15 +113,17 @@ class XPersistenceService implements PersistenceService {
     public FileContents get(URL location) throws MalformedURLException, IOException, FileNotFoundException {
         checkLocation(location);
 
-        File file = toCacheFile(location);
-        if (!file.exists()) {
+        MuffinStore store = MuffinStore.getInstance();
+        checkExists(store, location);
+
+        return PrivilegedServices.wrap(new MuffinContents(store, location));
+    }
+
+    private static void checkExists(MuffinStore store, URL location) throws FileNotFoundException {
+        if (!store.toFile(location).exists()) {
             throw new FileNotFoundException("Persistence store for "
                     + location.toString() + " is not found.");
         }
-        FileUtils.createParentDir(file, "Persistence store for "
-                    + location.toString());
-
-        return (FileContents) ServiceUtil.createPrivilegedProxy(FileContents.class, new XFileContents(file));
     }
 
     /**
@@ -164,12 +155,10 @@ class XPersistenceService implements PersistenceService {
     public int getTag(URL location) throws MalformedURLException, IOException {
         checkLocation(location);
 
-        // todo: actually implement tags
+        MuffinStore store = MuffinStore.getInstance();
+        checkExists(store, location);
 
-        if (toCacheFile(location).exists())
-            return PersistenceService.CACHED;
-
-        return PersistenceService.CACHED;
+        return store.getTag(location);
     }
 
     /**
@@ -179,7 +168,10 @@ class XPersistenceService implements PersistenceService {
     public void setTag(URL location, int tag) throws MalformedURLException, IOException {
         checkLocation(location);
 
-        // todo: actually implement tags
+        MuffinStore store = MuffinStore.getInstance();
+        checkExists(store, location);
+
+        store.setTag(location, tag);
     }
 
 }
@@ -51,20 +51,24 @@ public class XServiceManagerStub implements ServiceManagerStub {
             "javax.jnlp.FileSaveService",
             "javax.jnlp.ClipboardService",
             "javax.jnlp.PrintService",
-            "javax.jnlp.SingleInstanceService"
+            "javax.jnlp.SingleInstanceService",
+            "javax.jnlp.DownloadService2"
     };
 
+    private static final Object downloadService = PrivilegedServices.wrap(new XDownloadService());
+
     private static Object services[] = {
-            ServiceUtil.createPrivilegedProxy(BasicService.class, new XBasicService()),
-            ServiceUtil.createPrivilegedProxy(DownloadService.class, new XDownloadService()),
-            ServiceUtil.createPrivilegedProxy(ExtendedService.class, new XExtendedService()),
-            ServiceUtil.createPrivilegedProxy(ExtensionInstallerService.class, new XExtensionInstallerService()),
-            ServiceUtil.createPrivilegedProxy(PersistenceService.class, new XPersistenceService()),
-            ServiceUtil.createPrivilegedProxy(FileOpenService.class, new XFileOpenService()),
-            ServiceUtil.createPrivilegedProxy(FileSaveService.class, new XFileSaveService()),
-            ServiceUtil.createPrivilegedProxy(ClipboardService.class, new XClipboardService()),
-            ServiceUtil.createPrivilegedProxy(PrintService.class, new XPrintService()),
-            ServiceUtil.createPrivilegedProxy(ExtendedSingleInstanceService.class, new XSingleInstanceService())
+            PrivilegedServices.wrap(new XBasicService()),
+            downloadService,
+            PrivilegedServices.wrap(new XExtendedService()),
+            PrivilegedServices.wrap(new XExtensionInstallerService()),
+            PrivilegedServices.wrap(new XPersistenceService()),
+            PrivilegedServices.wrap(new XFileOpenService()),
+            PrivilegedServices.wrap(new XFileSaveService()),
+            PrivilegedServices.wrap(new XClipboardService()),
+            PrivilegedServices.wrap(new XPrintService()),
+            PrivilegedServices.wrap(new XSingleInstanceService()),
+            downloadService
     };
 
     public XServiceManagerStub() {
@@ -47,6 +47,7 @@ import net.sourceforge.jnlp.JNLPFile;
 import net.sourceforge.jnlp.LaunchException;
 import net.sourceforge.jnlp.cache.ResourceTracker;
 import net.sourceforge.jnlp.runtime.JNLPClassLoader.SecurityDelegate;
+import net.sourceforge.jnlp.runtime.StartupTimeline;
 import net.sourceforge.jnlp.security.AppVerifier;
 import net.sourceforge.jnlp.security.CertVerifier;
 import net.sourceforge.jnlp.security.CertificateUtils;
@@ -242,7 +243,13 @@ public class JarCertVerifier implements CertVerifier {
                     continue;
                 }
 
-                VerifyResult result = verifyJar(localFile);
+                StartupTimeline.Phase phase = StartupTimeline.start("verify jar", jar.getLocation());
+                VerifyResult result;
+                try {
+                    result = verifyJar(localFile);
+                } finally {
+                    phase.end();
+                }
 
                 if (result == VerifyResult.UNSIGNED) {
                     unverifiedJars.add(localFile);
@@ -258,8 +265,13 @@ public class JarCertVerifier implements CertVerifier {
             }
         }
 
-        for (CertPath certPath : certs.keySet())
-            checkTrustedCerts(certPath);
+        StartupTimeline.Phase phase = StartupTimeline.start("check certificates");
+        try {
+            for (CertPath certPath : certs.keySet())
+                checkTrustedCerts(certPath);
+        } finally {
+            phase.end();
+        }
     }
 
     /**
@@ -40,13 +40,58 @@ package net.sourceforge.jnlp.util;
 import net.sourceforge.jnlp.util.logging.OutputController;
 import java.io.BufferedReader;
 import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
 
 public class StreamUtils {
 
+    /** size of the buffers used to copy streams */
+    public static final int BUFFER_SIZE = 64 * 1024;
+
+    /** most bytes moved by one channel transfer, so progress is reported along the way */
+    private static final int TRANSFER_SIZE = 1024 * 1024;
+
+    /** one spare copy buffer per thread; a nested copy allocates its own */
+    private static final ThreadLocal<byte[]> buffers = new ThreadLocal<>();
+
+    /**
+     * Receives the number of bytes copied so far, chunk by chunk.
+     */
+    public interface TransferListener {
+
+        /**
+         * @param count bytes copied since the previous call
+         * @throws IOException to abort the copy
+         */
+        void transferred(int count) throws IOException;
+    }
+
+    /**
+     * How {@link #copyToFile(InputStream, File, TransferListener, WriteOption...)}
+     * writes the file.
+     */
+    public enum WriteOption {
+        /** force the contents to the device before returning */
+        SYNC,
+        /**
+         * write into a temporary file next to the target and rename it over
+         * the target when complete, so the target is never seen half written
+         */
+        ATOMIC
+    }
+
     /**
      * Closes a stream, without throwing IOException.
      * In IOException is properly logged and consumed
@@ -71,14 +116,139 @@ public class StreamUtils {
      */
     public static void copyStream(InputStream input, OutputStream output)
             throws IOException {
-        byte[] buffer = new byte[1024];
-        while (true) {
-            int bytesRead = input.read(buffer);
-            if (bytesRead == -1) {
-                break;
+        copyStream(input, output, null);
+    }
+
+    /**
+     * Copy an input stream's contents into an output stream. Neither stream
+     * is closed. Files are copied by their channels, other streams through a
+     * pooled buffer of {@link #BUFFER_SIZE} bytes, so there is no need to
+     * wrap them in buffered streams.
+     *
+     * @param input input stream
+     * @param output stream where to copy input
+     * @param listener told about every copied chunk, may be null
+     * @return the number of bytes copied
+     * @throws java.io.IOException if IO fails
+     */
+    public static long copyStream(InputStream input, OutputStream output, TransferListener listener)
+            throws IOException {
+        if (input instanceof FileInputStream && output instanceof FileOutputStream) {
+            return transfer(((FileInputStream) input).getChannel(), ((FileOutputStream) output).getChannel(), listener);
+        }
+        byte[] buffer = takeBuffer();
+        try {
+            long total = 0;
+            int bytesRead;
+            while ((bytesRead = input.read(buffer)) != -1) {
+                output.write(buffer, 0, bytesRead);
+                total += bytesRead;
+                if (listener != null) {
+                    listener.transferred(bytesRead);
+                }
+            }
+            return total;
+        } finally {
+            buffers.set(buffer);
+        }
+    }
+
+    /**
+     * Writes the remaining contents of an input stream into a file. The input
+     * stream is not closed.
+     *
+     * @param input input stream
+     * @param target the file to write
+     * @param listener told about every copied chunk, may be null
+     * @param options how to write the file
+     * @return the number of bytes copied
+     * @throws IOException if IO fails; with {@link WriteOption#ATOMIC} the
+     * target is then left as it was
+     */
+    public static long copyToFile(InputStream input, File target, TransferListener listener, WriteOption... options)
+            throws IOException {
+        List<WriteOption> opts = Arrays.asList(options);
+        boolean sync = opts.contains(WriteOption.SYNC);
+        boolean atomic = opts.contains(WriteOption.ATOMIC);
+        File file = atomic ? File.createTempFile("." + target.getName() + ".", ".part", target.getAbsoluteFile().getParentFile()) : target;
+        boolean written = false;
+        try {
+            long total;
+            try (FileOutputStream output = new FileOutputStream(file)) {
+                total = copyStream(input, output, listener);
+                if (sync) {
+                    output.getChannel().force(true);
+                }
+            }
+            if (atomic) {
+                rename(file, target, sync);
+            }
+            written = true;
+            return total;
+        } finally {
+            if (atomic && !written && !file.delete()) {
+                OutputController.getLogger().log(OutputController.Level.ERROR_DEBUG, "Could not delete " + file);
+            }
+        }
+    }
+
+    /**
+     * Copies a file with {@link #copyToFile(InputStream, File, TransferListener, WriteOption...)}.
+     *
+     * @param source the file to read
+     * @param target the file to write
+     * @param options how to write the file
+     * @return the number of bytes copied
+     * @throws IOException if IO fails
+     */
+    public static long copyFile(File source, File target, WriteOption... options) throws IOException {
+        try (FileInputStream input = new FileInputStream(source)) {
+            return copyToFile(input, target, null, options);
+        }
+    }
+
+    private static long transfer(FileChannel input, FileChannel output, TransferListener listener) throws IOException {
+        long start = input.position();
+        long total = 0;
+        long count;
+        // transferTo writes at the output's position, so files opened for appending are appended to
+        while ((count = input.transferTo(start + total, TRANSFER_SIZE, output)) > 0) {
+            total += count;
+            if (listener != null) {
+                listener.transferred((int) count);
             }
-            output.write(buffer, 0, bytesRead);
         }
+        input.position(start + total);
+        return total;
+    }
+
+    private static void rename(File source, File target, boolean sync) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (sync) {
+            // makes the rename itself durable; directories can not be opened everywhere
+            try (FileChannel dir = FileChannel.open(target.getAbsoluteFile().getParentFile().toPath(), StandardOpenOption.READ)) {
+                dir.force(true);
+            } catch (IOException ex) {
+                OutputController.getLogger().log(OutputController.Level.ERROR_DEBUG, ex);
+            }
+        }
+    }
+
+    /**
+     * @return this thread's spare copy buffer, or a new one if it is in use;
+     * give it back with {@code buffers.set}
+     */
+    private static byte[] takeBuffer() {
+        byte[] buffer = buffers.get();
+        if (buffer == null) {
+            return new byte[BUFFER_SIZE];
+        }
+        buffers.set(null);
+        return buffer;
     }
 
     public static String readStreamAsString(InputStream stream)  throws IOException {
@@ -59,6 +59,7 @@ import java.util.Map;
 import java.util.Observable;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import javax.swing.JButton;
 import javax.swing.JComponent;
 import javax.swing.JDialog;
@@ -148,6 +149,17 @@ public class JavaConsole implements ObservableMessagesProvider {
         public Map<String, String> getLoaderInfo();
     }
 
+    /**
+     * Source of named counters (caches, stores...) printed by the statistics
+     * button of the console.
+     */
+    public static interface StatisticsProvider {
+
+        public String getName();
+
+        public Map<String, String> getStatistics();
+    }
+
     private static JavaConsole console;
 
     private Dimension lastSize;
@@ -155,6 +167,7 @@ public class JavaConsole implements ObservableMessagesProvider {
     private JPanel contentPanel;
     private JPanel outputsPanel;
     private ClassLoaderInfoProvider classLoaderInfoProvider;
+    private final List<StatisticsProvider> statisticsProviders = new CopyOnWriteArrayList<StatisticsProvider>();
     private JSpinner numberOfOutputs;
     private PublicObservable observable = new PublicObservable();
     private boolean initialized = false;
@@ -319,6 +332,17 @@ public class JavaConsole implements ObservableMessagesProvider {
             }
         });
 
+        JButton statisticsButton = new JButton(R("CONSOLEstatistics"));
+        buttonPanel.add(statisticsButton);
+        statisticsButton.addActionListener(new ActionListener() {
+
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                printStatistics();
+                updateModel();
+            }
+        });
+
         JButton threadListButton = new JButton(R("CONSOLEthreadList"));
         buttonPanel.add(threadListButton);
         threadListButton.addActionListener(new ActionListener() {
@@ -457,6 +481,25 @@ public class JavaConsole implements ObservableMessagesProvider {
         }
     }
 
+    public void addStatisticsProvider(StatisticsProvider provider) {
+        statisticsProviders.add(provider);
+    }
+
+    private void printStatistics() {
+        if (statisticsProviders.isEmpty()) {
+            OutputController.getLogger().log(OutputController.Level.MESSAGE_ALL, R("CONSOLEnoStatistics"));
+            return;
+        }
+        OutputController.getLogger().log(OutputController.Level.MESSAGE_ALL, " ----");
+        for (StatisticsProvider provider : statisticsProviders) {
+            OutputController.getLogger().log(OutputController.Level.MESSAGE_ALL, "  " + provider.getName() + ":");
+            for (Map.Entry<String, String> stat : provider.getStatistics().entrySet()) {
+                OutputController.getLogger().log(OutputController.Level.MESSAGE_ALL, "    " + stat.getKey() + ": " + stat.getValue());
+            }
+        }
+        OutputController.getLogger().log(OutputController.Level.MESSAGE_ALL, " ----");
+    }
+
     private void printMemoryInfo() {
         OutputController.getLogger().log(OutputController.Level.MESSAGE_ALL, " ----- ");
         OutputController.getLogger().log(OutputController.Level.MESSAGE_ALL, "  " + R("CONSOLEmemoryInfo") + ":");
@@ -0,0 +1,164 @@
+/* JSBatch.java
+   Copyright (C) 2026  Red Hat
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2, or (at your option)
+any later version.
+
+IcedTea is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to the
+Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version. */
+
+
+package netscape.javascript;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import sun.applet.PluginAppletViewer;
+import sun.applet.PluginCallFuture;
+import sun.applet.PluginCallRequest;
+
+/**
+ * Queues several JavaScript operations and sends them to the browser
+ * together. Instead of one blocking round trip per operation, all queued
+ * operations are written in one go by {@link #send()} and their results are
+ * collected through the returned futures.
+ * <pre>
+ * JSBatch batch = new JSBatch();
+ * for (int i = 0; i &lt; cells.length; i++) {
+ *     batch.setMember(cells[i], "innerHTML", values[i]);
+ * }
+ * Future&lt;Object&gt; title = batch.getMember(document, "title");
+ * batch.sendAndWait();
+ * </pre>
+ * Futures of a batch are completed only after the batch was sent. A batch
+ * can be reused after {@link #send()}. Instances are not thread safe.
+ */
+public final class JSBatch {
+
+    private final List<PluginCallRequest> pending = new ArrayList<>();
+    private final List<Future<Object>> sent = new ArrayList<>();
+
+    /**
+     * Queues {@link JSObject#getMember(String)}.
+     * @param target object whose member is read
+     * @param name name of the member
+     * @return future holding the member once the batch was sent and replied
+     */
+    public Future<Object> getMember(JSObject target, String name) {
+        return queue(target.getMemberRequest(name));
+    }
+
+    /**
+     * Queues {@link JSObject#setMember(String, Object)}.
+     * @param target object whose member is set
+     * @param name name of the member
+     * @param value value to be set
+     * @return future which is done once the member was set
+     */
+    public Future<Object> setMember(JSObject target, String name, Object value) {
+        return queue(target.setMemberRequest(name, value));
+    }
+
+    /**
+     * Queues {@link JSObject#call(String, Object[])}.
+     * @param target object whose method is called
+     * @param methodName name of the method
+     * @param args parameters for method
+     * @return future holding the result of the call
+     */
+    public Future<Object> call(JSObject target, String methodName, Object args[]) {
+        return queue(target.callRequest(methodName, args));
+    }
+
+    /**
+     * Queues {@link JSObject#eval(String)}.
+     * @param target context of the evaluation
+     * @param s expression to be evaluated
+     * @return future holding the result of evaluation
+     */
+    public Future<Object> eval(JSObject target, String s) {
+        return queue(target.evalRequest(s));
+    }
+
+    /**
+     * @return number of operations queued and not yet sent
+     */
+    public int size() {
+        return pending.size();
+    }
+
+    /**
+     * Sends all queued operations in one write and returns without waiting
+     * for the replies.
+     */
+    public void send() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        PluginAppletViewer.sendCallRequests(pending);
+        pending.clear();
+        // forget operations which already completed, so fire-and-forget use does not leak
+        for (Iterator<Future<Object>> it = sent.iterator(); it.hasNext();) {
+            if (it.next().isDone()) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Sends all queued operations and waits until the browser replied to all
+     * operations sent by this batch so far.
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void sendAndWait() throws InterruptedException {
+        send();
+        try {
+            for (Future<Object> future : sent) {
+                future.get();
+            }
+        } catch (ExecutionException ex) {
+            // PluginCallFuture does not fail, replies are always delivered
+            throw new JSException(ex.toString());
+        } finally {
+            sent.clear();
+        }
+    }
+
+    private Future<Object> queue(PluginCallRequest request) {
+        pending.add(request);
+        Future<Object> future = new PluginCallFuture(request);
+        sent.add(future);
+        return future;
+    }
+}
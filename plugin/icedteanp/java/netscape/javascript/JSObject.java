@@ -49,8 +49,12 @@ package netscape.javascript;
 import java.applet.Applet;
 import java.security.AccessControlException;
 import java.security.AccessController;
+import java.util.Collections;
+import java.util.concurrent.Future;
 
 import sun.applet.PluginAppletViewer;
+import sun.applet.PluginCallFuture;
+import sun.applet.PluginCallRequest;
 import sun.applet.PluginDebug;
 
 /**
@@ -252,6 +256,76 @@ public final class JSObject {
         return PluginAppletViewer.eval(internal, s);
     }
 
+    /**
+     * Asynchronous variant of {@link #getMember(String)}. Returns as soon as
+     * the request is sent to the browser.
+     * @param name name of the member to be searched in
+     * @return future holding the member once the browser replied
+     * @see JSBatch
+     */
+    public Future<Object> getMemberAsync(String name) {
+        PluginDebug.debug("JSObject.getMemberAsync ", name);
+        return send(getMemberRequest(name));
+    }
+
+    /**
+     * Asynchronous variant of {@link #setMember(String, Object)}.
+     * @param name name of the member
+     * @param value value to best to the named member
+     * @return future which is done once the browser set the member
+     * @see JSBatch
+     */
+    public Future<Object> setMemberAsync(String name, Object value) {
+        PluginDebug.debug("JSObject.setMemberAsync ", name, " ", value);
+        return send(setMemberRequest(name, value));
+    }
+
+    /**
+     * Asynchronous variant of {@link #call(String, Object[])}.
+     * @param methodName - name of the method to be called
+     * @param args parameters for method
+     * @return future holding the result of method call
+     * @see JSBatch
+     */
+    public Future<Object> callAsync(String methodName, Object args[]) {
+        PluginDebug.debug("JSObject.callAsync ", methodName);
+        return send(callRequest(methodName, args));
+    }
+
+    /**
+     * Asynchronous variant of {@link #eval(String)}.
+     * @param s expression to be evaluated
+     * @return future holding the result of evaluation
+     * @see JSBatch
+     */
+    public Future<Object> evalAsync(String s) {
+        PluginDebug.debug("JSObject.evalAsync ", s);
+        return send(evalRequest(s));
+    }
+
+    PluginCallRequest getMemberRequest(String name) {
+        return PluginAppletViewer.createGetMemberRequest(internal, name);
+    }
+
+    PluginCallRequest setMemberRequest(String name, Object value) {
+        return PluginAppletViewer.createSetMemberRequest(internal, name, value);
+    }
+
+    PluginCallRequest callRequest(String methodName, Object args[]) {
+        if (args == null)
+            args = new Object[0];
+        return PluginAppletViewer.createCallRequest(internal, methodName, args);
+    }
+
+    PluginCallRequest evalRequest(String s) {
+        return PluginAppletViewer.createEvalRequest(internal, s);
+    }
+
+    private static Future<Object> send(PluginCallRequest request) {
+        PluginAppletViewer.sendCallRequests(Collections.singletonList(request));
+        return new PluginCallFuture(request);
+    }
+
     /**
      * Converts a JSObject to a String.
      * @return string representation of this object
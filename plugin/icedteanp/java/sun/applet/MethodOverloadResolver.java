@@ -40,9 +40,7 @@ package sun.applet;
 import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
 
 /*
  * This class resolved overloaded methods in Java objects using a cost
@@ -411,30 +409,12 @@ public class MethodOverloadResolver {
 
     private static Method[] getMatchingMethods(Class<?> c, String name,
             int paramCount) {
-        List<Method> matchingMethods = new ArrayList<Method>();
-
-        for (Method m : c.getMethods()) {
-            if (m.getName().equals(name)) {
-                if (m.getParameterTypes().length == paramCount) {
-                    matchingMethods.add(m);
-                }
-            }
-        }
-
-        return matchingMethods.toArray(new Method[0]);
+        return ReflectionCache.getMethods(c, name, paramCount);
     }
 
     private static Constructor<?>[] getMatchingConstructors(Class<?> c,
             int paramCount) {
-        List<Constructor<?>> matchingConstructors = new ArrayList<Constructor<?>>();
-
-        for (Constructor<?> cs : c.getConstructors()) {
-            if (cs.getParameterTypes().length == paramCount) {
-                matchingConstructors.add(cs);
-            }
-        }
-
-        return matchingConstructors.toArray(new Constructor<?>[0]);
+        return ReflectionCache.getConstructors(c, paramCount);
     }
 
     private static Class<?> getPrimitiveType(Class<?> c) {
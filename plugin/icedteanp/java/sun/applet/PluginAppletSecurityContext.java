@@ -52,10 +52,8 @@ import java.security.CodeSource;
 import java.security.Permissions;
 import java.security.PrivilegedAction;
 import java.security.ProtectionDomain;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 import net.sourceforge.jnlp.DefaultLaunchHandler;
@@ -65,171 +63,6 @@ import netscape.javascript.JSObject;
 import netscape.javascript.JSObjectCreatePermission;
 import netscape.javascript.JSUtil;
 
-class Signature {
-    private String signature;
-    private int currentIndex;
-    private List<Class<?>> typeList;
-    private static final char ARRAY = '[';
-    private static final char OBJECT = 'L';
-    private static final char SIGNATURE_ENDCLASS = ';';
-    private static final char SIGNATURE_FUNC = '(';
-    private static final char SIGNATURE_ENDFUNC = ')';
-    private static final char VOID = 'V';
-    private static final char BOOLEAN = 'Z';
-    private static final char BYTE = 'B';
-    private static final char CHARACTER = 'C';
-    private static final char SHORT = 'S';
-    private static final char INTEGER = 'I';
-    private static final char LONG = 'J';
-    private static final char FLOAT = 'F';
-    private static final char DOUBLE = 'D';
-
-    private String nextTypeName() {
-        char key = signature.charAt(currentIndex++);
-
-        switch (key) {
-            case ARRAY:
-                return nextTypeName() + "[]";
-
-            case OBJECT:
-                int endClass = signature.indexOf(SIGNATURE_ENDCLASS, currentIndex);
-                String retVal = signature.substring(currentIndex, endClass);
-                retVal = retVal.replace('/', '.');
-                currentIndex = endClass + 1;
-                return retVal;
-
-                // FIXME: generated bytecode with classes named after
-                // primitives will not work in this scheme -- those
-                // classes will be incorrectly treated as primitive
-                // types.
-            case VOID:
-                return "void";
-            case BOOLEAN:
-                return "boolean";
-            case BYTE:
-                return "byte";
-            case CHARACTER:
-                return "char";
-            case SHORT:
-                return "short";
-            case INTEGER:
-                return "int";
-            case LONG:
-                return "long";
-            case FLOAT:
-                return "float";
-            case DOUBLE:
-                return "double";
-
-            case SIGNATURE_ENDFUNC:
-                return null;
-
-            case SIGNATURE_FUNC:
-                return nextTypeName();
-
-            default:
-                throw new IllegalArgumentException(
-                                        "Invalid JNI signature character '" + key + "'");
-        }
-    }
-
-    public Signature(String signature, ClassLoader cl) {
-        this.signature = signature;
-        currentIndex = 0;
-        typeList = new ArrayList<>(10);
-
-        String elem;
-        while (currentIndex < signature.length()) {
-            elem = nextTypeName();
-
-            if (elem == null) {
-                continue;
-            }
-
-            Class<?> primitive = primitiveNameToType(elem);
-            if (primitive != null) {
-                typeList.add(primitive);
-            }
-            else {
-                int dimsize = 0;
-                int n = elem.indexOf('[');
-                if (n != -1) {
-                    String arrayType = elem.substring(0, n);
-                    dimsize++;
-                    n = elem.indexOf('[', n + 1);
-                    while (n != -1) {
-                        dimsize++;
-                        n = elem.indexOf('[', n + 1);
-                    }
-                    int[] dims = new int[dimsize];
-                    primitive = primitiveNameToType(arrayType);
-                    if (primitive != null) {
-                        typeList.add(Array.newInstance(primitive, dims)
-                                                                .getClass());
-                    } else {
-                        typeList.add(Array.newInstance(
-                                                                getClass(arrayType, cl), dims).getClass());
-                    }
-                } else {
-                    typeList.add(getClass(elem, cl));
-                }
-            }
-        }
-        if (signature.length() < 2) {
-            throw new IllegalArgumentException("Invalid JNI signature '"
-                                        + signature + "'");
-        }
-    }
-
-    public static Class<?> getClass(String name, ClassLoader cl) {
-
-        Class<?> c = null;
-
-        try {
-            c = Class.forName(name);
-        } catch (ClassNotFoundException cnfe) {
-
-            PluginDebug.debug("Class ", name, " not found in primordial loader. Looking in ", cl);
-            try {
-                c = cl.loadClass(name);
-            } catch (ClassNotFoundException e) {
-                throw (new RuntimeException(new ClassNotFoundException("Unable to find class " + name)));
-            }
-        }
-
-        return c;
-    }
-
-    public static Class<?> primitiveNameToType(String name) {
-        switch (name) {
-            case "void":
-                return Void.TYPE;
-            case "boolean":
-                return Boolean.TYPE;
-            case "byte":
-                return Byte.TYPE;
-            case "char":
-                return Character.TYPE;
-            case "short":
-                return Short.TYPE;
-            case "int":
-                return Integer.TYPE;
-            case "long":
-                return Long.TYPE;
-            case "float":
-                return Float.TYPE;
-            case "double":
-                return Double.TYPE;
-            default:
-                return null;
-        }
-    }
-
-    public Class<?>[] getClassArray() {
-        return typeList.subList(0, typeList.size()).toArray(new Class<?>[] {});
-    }
-}
-
 public class PluginAppletSecurityContext {
 
     private static Map<ClassLoader, URL> classLoaders = new HashMap<>();
@@ -471,8 +304,7 @@ public class PluginAppletSecurityContext {
                 String[] args = message.split(" ");
                 Integer classID = parseCall(args[1], null, Integer.class);
                 String methodName = parseCall(args[2], null, String.class);
-                Signature signature = parseCall(args[3], ((Class) store.getObject(classID)).getClassLoader(), Signature.class);
-                Object[] a = signature.getClassArray();
+                Class<?>[] parameterTypes = ReflectionCache.getParameterTypes((Class<?>) store.getObject(classID), args[3]);
 
                 Class<?> c;
 
@@ -485,17 +317,8 @@ public class PluginAppletSecurityContext {
                                                 c = store.getObject(classID).getClass();
                                             }
 
-                Method m;
-                Constructor<?> cs;
-                Object o;
-                if (methodName.equals("<init>")
-                                                || methodName.equals("<clinit>")) {
-                    o = cs = c.getConstructor(signature.getClassArray());
-                    store.reference(cs);
-                } else {
-                    o = m = c.getMethod(methodName, signature.getClassArray());
-                    store.reference(m);
-                }
+                Object o = ReflectionCache.getMethodOrConstructor(c, methodName, args[3], parameterTypes);
+                store.reference(o);
                 PluginDebug.debug(o, " has id ", store.getIdentifier(o));
                 write(reference, args[0] + " " + store.getIdentifier(o));
             } else if (message.startsWith("GetStaticFieldID")
@@ -509,8 +332,7 @@ public class PluginAppletSecurityContext {
 
                 PluginDebug.debug("GetStaticFieldID/GetFieldID got class=", c.getName());
 
-                Field f;
-                f = c.getField(fieldName);
+                Field f = ReflectionCache.getField(c, fieldName);
 
                 store.reference(f);
 
@@ -1228,20 +1050,15 @@ public class PluginAppletSecurityContext {
     }
 
     private int prepopulateMethod(int classID, String methodName, String signatureStr) {
-        Signature signature = parseCall(signatureStr, ((Class) store.getObject(classID)).getClassLoader(), Signature.class);
-        Object[] a = signature.getClassArray();
-
         Class<?> c = (Class<?>) store.getObject(classID);
-        Method m = null;
+        Object m = null;
 
         try {
-            if (methodName.equals("<init>")
-                                        || methodName.equals("<clinit>")) {
-                Constructor<?> cs = c.getConstructor(signature.getClassArray());
-                store.reference(cs);
-            } else {
-                m = c.getMethod(methodName, signature.getClassArray());
-                store.reference(m);
+            Object member = ReflectionCache.getMethodOrConstructor(c, methodName, signatureStr,
+                    ReflectionCache.getParameterTypes(c, signatureStr));
+            store.reference(member);
+            if (member instanceof Method) {
+                m = member;
             }
         } catch (NoSuchMethodException e) {
             // should never happen
@@ -1256,7 +1073,7 @@ public class PluginAppletSecurityContext {
         Class<?> c = (Class<?>) store.getObject(classID);
         Field f = null;
         try {
-            f = c.getField(fieldName);
+            f = ReflectionCache.getField(c, fieldName);
         } catch (SecurityException e) {
             // should never happen
             OutputController.getLogger().log(OutputController.Level.ERROR_ALL,e);
@@ -88,9 +88,11 @@ import java.net.URLConnection;
 import java.security.AccessController;
 import java.security.AllPermission;
 import java.security.PrivilegedAction;
+import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Vector;
 import java.util.concurrent.ConcurrentHashMap;
@@ -812,8 +814,6 @@ public class PluginAppletViewer extends XEmbeddedFrame
         }
     }
 
-    final private static Map<URL, AppletImageRef> imageRefs = new HashMap<>();
-
     /**
      * Get an image.
      */
@@ -822,15 +822,12 @@ public class PluginAppletViewer extends XEmbeddedFrame
         return getCachedImage(url);
     }
 
-    private Image getCachedImage(URL url) {
-        return (Image) getCachedImageRef(url).get();
-    }
-
     /**
-     * Get an image ref.
+     * Get an image from the image cache shared by all applets. Does not lock
+     * the viewer, so applets loading images do not wait for each other.
      */
-    private synchronized AppletImageRef getCachedImageRef(URL url) {
-        PluginDebug.debug("getCachedImageRef() searching for ", url);
+    private Image getCachedImage(URL url) {
+        PluginDebug.debug("getCachedImage() searching for ", url);
 
         try {
 
@@ -839,8 +836,8 @@ public class PluginAppletViewer extends XEmbeddedFrame
 
             if (originalURL.startsWith(codeBase)) {
 
-                PluginDebug.debug("getCachedImageRef() got URL = ", url);
-                PluginDebug.debug("getCachedImageRef() plugin codebase = ", codeBase);
+                PluginDebug.debug("getCachedImage() got URL = ", url);
+                PluginDebug.debug("getCachedImage() plugin codebase = ", codeBase);
 
                 String resourceName = originalURL.substring(codeBase.length());
                 if (panel.getAppletClassLoader() instanceof JNLPClassLoader) {
@@ -855,16 +852,9 @@ public class PluginAppletViewer extends XEmbeddedFrame
                 }
             }
 
-            PluginDebug.debug("getCachedImageRef() getting img from URL = ", url);
+            PluginDebug.debug("getCachedImage() getting img from URL = ", url);
 
-            synchronized (imageRefs) {
-                AppletImageRef ref = imageRefs.get(url);
-                if (ref == null) {
-                    ref = new AppletImageRef(url);
-                    imageRefs.put(url, ref);
-                }
-                return ref;
-            }
+            return PluginImageCache.getInstance().getImage(url);
         } catch (Exception e) {
             OutputController.getLogger().log(OutputController.Level.ERROR_ALL, "Error occurred when trying to fetch image:");
             OutputController.getLogger().log(e);
@@ -876,7 +866,7 @@ public class PluginAppletViewer extends XEmbeddedFrame
      * Flush the image cache.
      */
     static void flushImageCache() {
-        imageRefs.clear();
+        PluginImageCache.getInstance().clear();
     }
 
     final private static Vector<NetxPanel> appletPanels = new Vector<>();
@@ -1024,16 +1014,40 @@ public class PluginAppletViewer extends XEmbeddedFrame
         return (Long) request.getObject();
     }
 
-    // FIXME: make private, access via reflection.
-    public static Object getMember(long internal, String name) {
+    /**
+     * Posts all given requests and writes them to the plugin in one go,
+     * without waiting for any reply. Replies are matched back to the requests
+     * by their reference numbers, so callers may wait on each request, e.g.
+     * through {@link PluginCallFuture}, in any order.
+     *
+     * @param requests requests created by the create*Request methods
+     */
+    public static void sendCallRequests(List<PluginCallRequest> requests) {
+        if (requests.isEmpty()) {
+            return;
+        }
+        List<String> messages = new ArrayList<>(requests.size());
+        for (PluginCallRequest request : requests) {
+            streamhandler.postCallRequest(request);
+            messages.add(request.getMessage());
+        }
+        streamhandler.write(messages);
+    }
+
+    public static PluginCallRequest createGetMemberRequest(long internal, String name) {
         AppletSecurityContextManager.getSecurityContext(0).store(name);
         int nameID = AppletSecurityContextManager.getSecurityContext(0).getIdentifier(name);
         Long reference = getRequestIdentifier();
 
         // Prefix with dummy instance for convenience.
-        PluginCallRequest request = requestFactory.getPluginCallRequest("member",
+        return requestFactory.getPluginCallRequest("member",
                 "instance " + 0 + " reference " + reference + " GetMember " +
                         internal + " " + nameID, reference);
+    }
+
+    // FIXME: make private, access via reflection.
+    public static Object getMember(long internal, String name) {
+        PluginCallRequest request = createGetMemberRequest(internal, name);
 
         streamhandler.postCallRequest(request);
         streamhandler.write(request.getMessage());
@@ -1053,7 +1067,7 @@ public class PluginAppletViewer extends XEmbeddedFrame
         return request.getObject();
     }
 
-    public static void setMember(long internal, String name, Object value) {
+    public static PluginCallRequest createSetMemberRequest(long internal, String name, Object value) {
         PluginDebug.debug("Setting to class " + value.getClass() + ":" + value.getClass().isPrimitive());
         PluginAppletSecurityContext securityContext = AppletSecurityContextManager.getSecurityContext(0);
         securityContext.store(name);
@@ -1066,9 +1080,13 @@ public class PluginAppletViewer extends XEmbeddedFrame
                 value.getClass(), true /* unbox primitives */);
 
         // Prefix with dummy instance for convenience.
-        PluginCallRequest request = requestFactory.getPluginCallRequest("void",
+        return requestFactory.getPluginCallRequest("void",
                 "instance " + 0 + " reference " + reference + " SetMember " +
                         internal + " " + nameID + " " + objIDStr, reference);
+    }
+
+    public static void setMember(long internal, String name, Object value) {
+        PluginCallRequest request = createSetMemberRequest(internal, name, value);
 
         streamhandler.postCallRequest(request);
         streamhandler.write(request.getMessage());
@@ -1144,16 +1162,20 @@ public class PluginAppletViewer extends XEmbeddedFrame
         return request.getObject();
     }
 
-    public static Object eval(long internal, String s) {
+    public static PluginCallRequest createEvalRequest(long internal, String s) {
         AppletSecurityContextManager.getSecurityContext(0).store(s);
         int stringID = AppletSecurityContextManager.getSecurityContext(0).getIdentifier(s);
         Long reference = getRequestIdentifier();
 
         // Prefix with dummy instance for convenience.
         // FIXME: rename GetMemberPluginCallRequest ObjectPluginCallRequest.
-        PluginCallRequest request = requestFactory.getPluginCallRequest("member",
+        return requestFactory.getPluginCallRequest("member",
                 "instance " + 0 + " reference " + reference + " Eval " +
                         internal + " " + stringID, reference);
+    }
+
+    public static Object eval(long internal, String s) {
+        PluginCallRequest request = createEvalRequest(internal, s);
         streamhandler.postCallRequest(request);
         streamhandler.write(request.getMessage());
         try {
@@ -1200,7 +1222,7 @@ public class PluginAppletViewer extends XEmbeddedFrame
         PluginDebug.debug(" RemoveMember DONE");
     }
 
-    public static Object call(long internal, String name, Object args[]) {
+    public static PluginCallRequest createCallRequest(long internal, String name, Object args[]) {
         // FIXME: when is this removed from the object store?
         // FIXME: reference should return the ID.
         // FIXME: convenience method for this long line.
@@ -1216,9 +1238,13 @@ public class PluginAppletViewer extends XEmbeddedFrame
         argIDs = argIDs.trim();
 
         // Prefix with dummy instance for convenience.
-        PluginCallRequest request = requestFactory.getPluginCallRequest("member",
+        return requestFactory.getPluginCallRequest("member",
                 "instance " + 0 + " reference " + reference + " Call " +
                         internal + " " + nameID + " " + argIDs, reference);
+    }
+
+    public static Object call(long internal, String name, Object args[]) {
+        PluginCallRequest request = createCallRequest(internal, name, args);
 
         streamhandler.postCallRequest(request);
         streamhandler.write(request.getMessage());
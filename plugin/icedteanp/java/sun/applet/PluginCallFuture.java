@@ -0,0 +1,101 @@
+/* PluginCallFuture -- Future view of a Java-to-JavaScript request
+   Copyright (C) 2026  Red Hat
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2, or (at your option)
+any later version.
+
+IcedTea is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to the
+Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version. */
+
+
+package sun.applet;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Non-blocking handle of a {@link PluginCallRequest} which was sent by
+ * {@link PluginAppletViewer#sendCallRequests}. The result is available once
+ * the browser replied to the request. Requests already sent to the browser
+ * can not be cancelled.
+ */
+public class PluginCallFuture implements Future<Object> {
+
+    private final PluginCallRequest request;
+
+    public PluginCallFuture(PluginCallRequest request) {
+        this.request = request;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return false;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return false;
+    }
+
+    @Override
+    public boolean isDone() {
+        synchronized (request) {
+            return request.isDone();
+        }
+    }
+
+    @Override
+    public Object get() throws InterruptedException, ExecutionException {
+        synchronized (request) {
+            while (!request.isDone()) {
+                request.wait();
+            }
+            return request.getObject();
+        }
+    }
+
+    @Override
+    public Object get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (request) {
+            while (!request.isDone()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new TimeoutException("No reply for " + request.getMessage());
+                }
+                TimeUnit.NANOSECONDS.timedWait(request, remaining);
+            }
+            return request.getObject();
+        }
+    }
+}
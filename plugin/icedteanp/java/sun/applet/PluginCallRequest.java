@@ -75,7 +75,9 @@ public abstract class PluginCallRequest {
      * @return boolean indicating if message is serviceable
      */
     public boolean serviceable(String message) {
-        return message.contains("reference " + reference);
+        // match whole token, so that eg. reference 1 does not service reply to 12
+        String token = "reference " + reference;
+        return message.contains(token + " ") || message.endsWith(token);
     }
 
     public abstract void parseReturn(String message);
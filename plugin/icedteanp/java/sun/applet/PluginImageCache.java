@@ -0,0 +1,256 @@
+/* PluginImageCache -- memory bounded cache of applet images
+   Copyright (C) 2026  Red Hat
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2, or (at your option)
+any later version.
+
+IcedTea is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to the
+Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version. */
+
+
+package sun.applet;
+
+import java.awt.Image;
+import java.awt.image.ImageObserver;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.sourceforge.jnlp.config.DeploymentConfiguration;
+import net.sourceforge.jnlp.runtime.JNLPRuntime;
+import net.sourceforge.jnlp.util.logging.OutputController;
+
+/**
+ * Image cache shared by all applets of the plugin JVM.
+ * <p>
+ * Lookups go through a {@link ConcurrentHashMap} and never block each other.
+ * Every entry is weighted by the decoded size of its image (4 bytes per pixel,
+ * reported to the entry's {@link ImageObserver} once the image dimensions are
+ * loaded) plus a fixed overhead. When the
+ * total weight exceeds the budget, least recently used entries are dropped
+ * until the weight falls below {@link #LOW_WATERMARK} of the budget.
+ * </p>
+ */
+class PluginImageCache {
+
+    /** weight of an entry whose image dimensions are not known yet */
+    static final long ENTRY_OVERHEAD = 512;
+    /** eviction frees the cache down to this fraction of the budget */
+    static final double LOW_WATERMARK = 0.75;
+    /** used when deployment.plugin.imagecache.max.size is not set */
+    static final long DEFAULT_BUDGET = 64L * 1024 * 1024;
+
+    private static class PluginImageCacheHolder {
+
+        private static final PluginImageCache INSTANCE = new PluginImageCache(getConfiguredBudget());
+    }
+
+    static PluginImageCache getInstance() {
+        return PluginImageCacheHolder.INSTANCE;
+    }
+
+    private static long getConfiguredBudget() {
+        try {
+            String value = JNLPRuntime.getConfiguration().getProperty(DeploymentConfiguration.KEY_PLUGIN_IMAGE_CACHE_MAX_SIZE);
+            if (value != null) {
+                long megabytes = Long.parseLong(value.trim());
+                return megabytes < 0 ? -1 : megabytes * 1024 * 1024;
+            }
+        } catch (NumberFormatException ex) {
+            OutputController.getLogger().log(ex);
+        }
+        return DEFAULT_BUDGET;
+    }
+
+    private class Entry implements ImageObserver {
+
+        final AppletImageRef ref;
+        volatile long lastUse;
+        // guarded by this
+        long weight = ENTRY_OVERHEAD;
+        boolean evicted = false;
+
+        Entry(AppletImageRef ref, long lastUse) {
+            this.ref = ref;
+            this.lastUse = lastUse;
+        }
+
+        /**
+         * Images load asynchronously, so the dimensions usually arrive after
+         * {@link #getImage} returned; they are weighed here as soon as known.
+         */
+        @Override
+        public boolean imageUpdate(Image img, int infoflags, int x, int y, int width, int height) {
+            if ((infoflags & (ERROR | ABORT)) != 0) {
+                return false;
+            }
+            if ((infoflags & ALLBITS) != 0) {
+                width = img.getWidth(null);
+                height = img.getHeight(null);
+            } else if ((infoflags & (WIDTH | HEIGHT)) != (WIDTH | HEIGHT)) {
+                return true;
+            }
+            measure(this, width, height);
+            return false;
+        }
+    }
+
+    private final ConcurrentMap<URL, Entry> entries = new ConcurrentHashMap<>();
+    private final long budget;
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong weight = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final Object evictionLock = new Object();
+
+    /**
+     * @param budget maximal summed weight of the cached images in bytes, negative for unlimited
+     */
+    PluginImageCache(long budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * @param url location of the image
+     * @return the image for given url, loaded and cached on first use
+     */
+    Image getImage(URL url) {
+        Entry entry = entries.get(url);
+        if (entry != null) {
+            hits.incrementAndGet();
+            entry.lastUse = clock.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            Entry created = new Entry(new AppletImageRef(url), clock.incrementAndGet());
+            entry = entries.putIfAbsent(url, created);
+            if (entry == null) {
+                entry = created;
+                weight.addAndGet(ENTRY_OVERHEAD);
+            }
+        }
+        Image image = (Image) entry.ref.get();
+        if (image != null) {
+            // registers the entry for the dimensions if they are not loaded yet
+            measure(entry, image.getWidth(entry), image.getHeight(entry));
+        }
+        if (budget >= 0 && weight.get() > budget) {
+            evict();
+        }
+        return image;
+    }
+
+    private void measure(Entry entry, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        long measured = ENTRY_OVERHEAD + 4L * width * height;
+        synchronized (entry) {
+            if (!entry.evicted && entry.weight != measured) {
+                weight.addAndGet(measured - entry.weight);
+                entry.weight = measured;
+            }
+        }
+    }
+
+    private void evict() {
+        synchronized (evictionLock) {
+            if (weight.get() <= budget) {
+                // somebody else already made room
+                return;
+            }
+            List<Map.Entry<URL, Entry>> candidates = new ArrayList<>(entries.entrySet());
+            Collections.sort(candidates, new Comparator<Map.Entry<URL, Entry>>() {
+
+                @Override
+                public int compare(Map.Entry<URL, Entry> o1, Map.Entry<URL, Entry> o2) {
+                    return Long.compare(o1.getValue().lastUse, o2.getValue().lastUse);
+                }
+            });
+            long target = (long) (budget * LOW_WATERMARK);
+            for (Map.Entry<URL, Entry> candidate : candidates) {
+                if (weight.get() <= target) {
+                    break;
+                }
+                Entry entry = candidate.getValue();
+                if (entries.remove(candidate.getKey(), entry)) {
+                    synchronized (entry) {
+                        entry.evicted = true;
+                        weight.addAndGet(-entry.weight);
+                    }
+                    entry.ref.flush();
+                    evictions.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    boolean contains(URL url) {
+        return entries.containsKey(url);
+    }
+
+    long getWeight() {
+        return weight.get();
+    }
+
+    void clear() {
+        synchronized (evictionLock) {
+            for (URL url : new ArrayList<>(entries.keySet())) {
+                Entry entry = entries.remove(url);
+                if (entry != null) {
+                    synchronized (entry) {
+                        entry.evicted = true;
+                        weight.addAndGet(-entry.weight);
+                    }
+                    entry.ref.flush();
+                }
+            }
+        }
+    }
+
+    Map<String, String> getStatistics() {
+        Map<String, String> stats = new LinkedHashMap<>();
+        stats.put("images", String.valueOf(entries.size()));
+        stats.put("bytes", String.valueOf(weight.get()));
+        stats.put("budget", budget < 0 ? "unlimited" : String.valueOf(budget));
+        stats.put("hits", String.valueOf(hits.get()));
+        stats.put("misses", String.valueOf(misses.get()));
+        stats.put("evictions", String.valueOf(evictions.get()));
+        return stats;
+    }
+}
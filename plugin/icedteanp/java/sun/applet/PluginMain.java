@@ -74,6 +74,7 @@ import java.net.ProxySelector;
 import java.net.URL;
 import java.net.URLStreamHandler;
 import java.util.Enumeration;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Properties;
 import javax.swing.JFrame;
@@ -168,6 +169,33 @@ public class PluginMain {
                     return PluginAppletSecurityContext.getLoaderInfo();
                 }
             });
+            JavaConsole.getConsole().addStatisticsProvider(new JavaConsole.StatisticsProvider() {
+
+                @Override
+                public String getName() {
+                    return "LiveConnect object store";
+                }
+
+                @Override
+                public Map<String, String> getStatistics() {
+                    Map<String, String> stats = new LinkedHashMap<String, String>();
+                    stats.put("live objects", String.valueOf(PluginObjectStore.getInstance().getLiveObjectCount()));
+                    stats.put("references", String.valueOf(PluginObjectStore.getInstance().getReferenceCount()));
+                    return stats;
+                }
+            });
+            JavaConsole.getConsole().addStatisticsProvider(new JavaConsole.StatisticsProvider() {
+
+                @Override
+                public String getName() {
+                    return "Applet image cache";
+                }
+
+                @Override
+                public Map<String, String> getStatistics() {
+                    return PluginImageCache.getInstance().getStatistics();
+                }
+            });
 
         } catch (Exception e) {
             OutputController.getLogger().log(e);
@@ -128,6 +128,8 @@ class PluginMessageConsumer {
 
     protected class ConsumerThread extends Thread {
 
+        private volatile boolean stopped = false;
+
         public ConsumerThread() {
             super("PluginMessageConsumer.ConsumerThread");
         }
@@ -143,11 +145,19 @@ class PluginMessageConsumer {
                 // Do not wait indefinitely to avoid the potential of deadlock
                 wait(1000);
             } catch (InterruptedException e) {
-                // Should not typically occur
-               OutputController.getLogger().log(OutputController.Level.ERROR_ALL,e);
+                if (!stopped) {
+                    // Should not typically occur
+                    OutputController.getLogger().log(OutputController.Level.ERROR_ALL,e);
+                }
             }
         }
 
+        // Make this thread end, and its workers once they are done
+        void stopWorking() {
+            stopped = true;
+            notifyHasWork();
+        }
+
         /**
          * Scans the readQueue for priority messages and brings them to the front
          */
@@ -175,7 +185,7 @@ class PluginMessageConsumer {
 
         public void run() {
 
-            while (true) {
+            while (!stopped) {
 
                 String message = null;
 
@@ -213,9 +223,25 @@ class PluginMessageConsumer {
                     waitForWork();
                 }
             }
+
+            // only this thread adds workers
+            for (PluginMessageHandlerWorker worker : workers) {
+                worker.stopWorking();
+            }
         }
     }
 
+    /**
+     * Stops handling messages. Waits for the consumer thread to end, which
+     * stops the workers on its way out.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    void stop() throws InterruptedException {
+        consumerThread.stopWorking();
+        consumerThread.join();
+    }
+
     private PluginMessageHandlerWorker getFreeWorker(boolean prioritized) {
 
         for (PluginMessageHandlerWorker worker : workers) {
@@ -45,6 +45,7 @@ class PluginMessageHandlerWorker extends Thread {
     private final boolean isPriorityWorker;
     private final int id;
     private volatile String message;
+    private volatile boolean stopped = false;
     private PluginStreamHandler streamHandler;
     private PluginMessageConsumer consumer;
 
@@ -57,11 +58,21 @@ class PluginMessageHandlerWorker extends Thread {
             // Do not wait indefinitely to avoid the potential of deadlock
             wait(1000);
         } catch (InterruptedException e) {
-            // Should not typically occur
-           OutputController.getLogger().log(OutputController.Level.ERROR_ALL,e);
+            if (!stopped) {
+                // Should not typically occur
+                OutputController.getLogger().log(OutputController.Level.ERROR_ALL,e);
+            }
         }
     }
 
+    /**
+     * Makes this worker end once the message it handles, if any, is done.
+     */
+    void stopWorking() {
+        stopped = true;
+        notifyHasWork();
+    }
+
     public PluginMessageHandlerWorker(
                 PluginMessageConsumer consumer,
                 PluginStreamHandler streamHandler, int id,
@@ -81,7 +92,7 @@ class PluginMessageHandlerWorker extends Thread {
     }
 
     public void run() {
-        while (true) {
+        while (!stopped) {
 
             if (message != null) {
 
@@ -37,109 +37,353 @@ exception statement from your version. */
 
 package sun.applet;
 
-import java.util.HashMap;
-import java.util.Map;
-
+/**
+ * Identifier-to-object mapping shared by the LiveConnect code.
+ * <p>
+ * Objects are tracked by identity, never by {@code equals}/{@code hashCode},
+ * so mutable applet objects can not be confused with each other. The store is
+ * split into independently locked segments. The segment of an object is
+ * chosen by its identity hash and is also encoded in the low bits of its
+ * identifier, so both lookup directions only ever lock one segment. Each
+ * segment keeps its mappings in primitive open-addressing tables, with the
+ * reference count packed next to the identifier.
+ * </p>
+ */
 // Enums are the best way to implement singletons:
 // Bloch, Joshua. Effective Java, 2nd Edition. Item 3, Chapter 2. ISBN: 0-321-35668-3.
 enum PluginObjectStore {
     INSTANCE;
 
-    private final Map<Integer, Object> objects = new HashMap<Integer, Object>();
-    private final Map<Integer, Integer> counts = new HashMap<Integer, Integer>();
-    private final Map<Object, Integer> identifiers = new HashMap<Object, Integer>();
-    private final Object lock = new Object();
+    private static final int SEGMENT_BITS = 4;
+    private static final int SEGMENT_COUNT = 1 << SEGMENT_BITS;
+    private static final int SEGMENT_MASK = SEGMENT_COUNT - 1;
+
+    private final Segment[] segments;
 
-    private boolean wrapped = false;
-    private int nextUniqueIdentifier = 1;
+    private PluginObjectStore() {
+        segments = new Segment[SEGMENT_COUNT];
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(i);
+        }
+    }
 
     public static PluginObjectStore getInstance() {
         return INSTANCE;
     }
 
     public Object getObject(Integer identifier) {
-        synchronized(lock) {
-            return objects.get(identifier);
+        if (identifier == null || identifier <= 0) {
+            return null;
         }
+        int id = identifier;
+        return segmentFor(id).get(id);
     }
 
     public Integer getIdentifier(Object object) {
         if (object == null)
             return 0;
 
-        synchronized(lock) {
-            return identifiers.get(object);
-        }
+        int identifier = segmentFor(object).identifierOf(object);
+        return identifier == 0 ? null : identifier;
     }
 
     public boolean contains(Object object) {
         if (object != null) {
-            synchronized(lock) {
-                return identifiers.containsKey(object);
-            }
+            return segmentFor(object).identifierOf(object) != 0;
         }
         return false;
 
     }
 
     public boolean contains(int identifier) {
-        synchronized(lock) {
-            return objects.containsKey(identifier);
+        if (identifier <= 0) {
+            return false;
         }
+        return segmentFor(identifier).get(identifier) != null;
     }
 
-    private boolean checkNeg() {
-        if (nextUniqueIdentifier < 1) {
-            wrapped = true;
-            nextUniqueIdentifier = 1;
+    public void reference(Object object) {
+        if (object == null) {
+            return;
         }
-        return wrapped;
+        segmentFor(object).reference(object);
     }
 
-    private int getNextID() {
-        while (checkNeg() && objects.containsKey(nextUniqueIdentifier))
-            nextUniqueIdentifier++;
-        return nextUniqueIdentifier++;
+    public void unreference(int identifier) {
+        if (identifier <= 0) {
+            return;
+        }
+        segmentFor(identifier).unreference(identifier);
     }
 
-    public void reference(Object object) {
-        synchronized(lock) {
-            Integer identifier = identifiers.get(object);
-            if (identifier == null) {
-                int next = getNextID();
-                objects.put(next, object);
-                counts.put(next, 1);
-                identifiers.put(object, next);
-            } else {
-                counts.put(identifier, counts.get(identifier) + 1);
+    /**
+     * @return number of distinct objects currently held by the store. Scripts
+     * which never release their references make this number grow.
+     */
+    public int getLiveObjectCount() {
+        int count = 0;
+        for (Segment segment : segments) {
+            count += segment.size();
+        }
+        return count;
+    }
+
+    /**
+     * @return sum of the reference counts of all stored objects
+     */
+    public long getReferenceCount() {
+        long count = 0;
+        for (Segment segment : segments) {
+            count += segment.references();
+        }
+        return count;
+    }
+
+    public void dump() {
+        if (PluginDebug.DEBUG) {
+            for (Segment segment : segments) {
+                segment.dump();
             }
+            PluginDebug.debug("Object store holds ", getLiveObjectCount(),
+                    " live objects with ", getReferenceCount(), " references");
         }
     }
 
-    public void unreference(int identifier) {
-        synchronized(lock) {
-            Integer currentCount = counts.get(identifier);
-            if (currentCount == null) {
+    private Segment segmentFor(int identifier) {
+        return segments[identifier & SEGMENT_MASK];
+    }
+
+    private Segment segmentFor(Object object) {
+        return segments[identityHash(object) & SEGMENT_MASK];
+    }
+
+    private static int identityHash(Object object) {
+        return mix(System.identityHashCode(object));
+    }
+
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * One lock stripe of the store. The identifiers it hands out all carry
+     * its index in their lowest {@link PluginObjectStore#SEGMENT_BITS} bits.
+     * <p>
+     * Two linear-probing tables of equal capacity are kept:
+     * {@code entries}/{@code values} are keyed by identifier, each entry packing
+     * {@code identifier << 32 | count}; {@code identityIds}/{@code identityHashes}
+     * are keyed by the identity hash of the stored object. Zero marks a free
+     * slot in both, as zero is never a valid identifier.
+     * </p>
+     */
+    private static final class Segment {
+
+        private static final int INITIAL_CAPACITY = 16;
+        private static final int MAX_SEQUENCE = Integer.MAX_VALUE >>> SEGMENT_BITS;
+
+        private final int index;
+
+        private long[] entries = new long[INITIAL_CAPACITY];
+        private Object[] values = new Object[INITIAL_CAPACITY];
+        private int[] identityIds = new int[INITIAL_CAPACITY];
+        private int[] identityHashes = new int[INITIAL_CAPACITY];
+
+        private int size = 0;
+        private long references = 0;
+        private int nextSequence = 1;
+        private boolean wrapped = false;
+
+        Segment(int index) {
+            this.index = index;
+        }
+
+        synchronized Object get(int identifier) {
+            int slot = slotOf(identifier);
+            return slot < 0 ? null : values[slot];
+        }
+
+        synchronized int identifierOf(Object object) {
+            int slot = identitySlotOf(object, identityHash(object));
+            return slot < 0 ? 0 : identityIds[slot];
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized long references() {
+            return references;
+        }
+
+        synchronized void reference(Object object) {
+            int hash = identityHash(object);
+            int identitySlot = identitySlotOf(object, hash);
+            if (identitySlot >= 0) {
+                int slot = slotOf(identityIds[identitySlot]);
+                if (countOf(entries[slot]) < Integer.MAX_VALUE) {
+                    entries[slot]++;
+                    references++;
+                }
                 return;
             }
-            if (currentCount == 1) {
-                Object object = objects.get(identifier);
-                objects.remove(identifier);
-                counts.remove(identifier);
-                identifiers.remove(object);
-            } else {
-                counts.put(identifier, currentCount - 1);
+            if ((size + 1) * 2 > entries.length) {
+                resize(entries.length * 2);
             }
+            int identifier = nextIdentifier();
+            insert(identifier, 1, object);
+            insertIdentity(identifier, hash);
+            size++;
+            references++;
         }
-    }
 
-    public void dump() {
-        synchronized(lock) {
-            if (PluginDebug.DEBUG) {
-                for (Map.Entry<Integer, Object> e : objects.entrySet()) {
-                    PluginDebug.debug(e.getKey(), "::", e.getValue());
+        synchronized void unreference(int identifier) {
+            int slot = slotOf(identifier);
+            if (slot < 0) {
+                return;
+            }
+            references--;
+            if (countOf(entries[slot]) > 1) {
+                entries[slot]--;
+                return;
+            }
+            Object object = values[slot];
+            deleteIdentity(identitySlotOf(object, identityHash(object)));
+            delete(slot);
+            size--;
+        }
+
+        synchronized void dump() {
+            for (int i = 0; i < entries.length; i++) {
+                if (entries[i] != 0) {
+                    PluginDebug.debug(identifierOf(entries[i]), "::", values[i]);
+                }
+            }
+        }
+
+        private int nextIdentifier() {
+            while (true) {
+                if (nextSequence > MAX_SEQUENCE) {
+                    wrapped = true;
+                    nextSequence = 1;
+                }
+                int identifier = (nextSequence++ << SEGMENT_BITS) | index;
+                if (!wrapped || slotOf(identifier) < 0) {
+                    return identifier;
                 }
             }
         }
+
+        private int slotOf(int identifier) {
+            int mask = entries.length - 1;
+            for (int i = mix(identifier) & mask;; i = (i + 1) & mask) {
+                long entry = entries[i];
+                if (entry == 0) {
+                    return -1;
+                }
+                if (identifierOf(entry) == identifier) {
+                    return i;
+                }
+            }
+        }
+
+        private int identitySlotOf(Object object, int hash) {
+            int mask = identityIds.length - 1;
+            for (int i = mix(hash) & mask;; i = (i + 1) & mask) {
+                int identifier = identityIds[i];
+                if (identifier == 0) {
+                    return -1;
+                }
+                if (identityHashes[i] == hash && values[slotOf(identifier)] == object) {
+                    return i;
+                }
+            }
+        }
+
+        private void insert(int identifier, int count, Object object) {
+            int mask = entries.length - 1;
+            int i = mix(identifier) & mask;
+            while (entries[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            entries[i] = ((long) identifier << 32) | count;
+            values[i] = object;
+        }
+
+        private void insertIdentity(int identifier, int hash) {
+            int mask = identityIds.length - 1;
+            int i = mix(hash) & mask;
+            while (identityIds[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            identityIds[i] = identifier;
+            identityHashes[i] = hash;
+        }
+
+        /* Backward-shift deletion, keeps probe sequences intact without tombstones */
+        private void delete(int slot) {
+            int mask = entries.length - 1;
+            int free = slot;
+            for (int i = (free + 1) & mask; entries[i] != 0; i = (i + 1) & mask) {
+                int home = mix(identifierOf(entries[i])) & mask;
+                if (shouldShift(home, free, i)) {
+                    entries[free] = entries[i];
+                    values[free] = values[i];
+                    free = i;
+                }
+            }
+            entries[free] = 0;
+            values[free] = null;
+        }
+
+        private void deleteIdentity(int slot) {
+            int mask = identityIds.length - 1;
+            int free = slot;
+            for (int i = (free + 1) & mask; identityIds[i] != 0; i = (i + 1) & mask) {
+                int home = mix(identityHashes[i]) & mask;
+                if (shouldShift(home, free, i)) {
+                    identityIds[free] = identityIds[i];
+                    identityHashes[free] = identityHashes[i];
+                    free = i;
+                }
+            }
+            identityIds[free] = 0;
+            identityHashes[free] = 0;
+        }
+
+        /* true if an entry living at current with the given home slot may move to free */
+        private static boolean shouldShift(int home, int free, int current) {
+            if (free <= current) {
+                return home <= free || home > current;
+            }
+            return home <= free && home > current;
+        }
+
+        private void resize(int capacity) {
+            long[] oldEntries = entries;
+            Object[] oldValues = values;
+            int[] oldIdentityIds = identityIds;
+            int[] oldIdentityHashes = identityHashes;
+            entries = new long[capacity];
+            values = new Object[capacity];
+            identityIds = new int[capacity];
+            identityHashes = new int[capacity];
+            for (int i = 0; i < oldEntries.length; i++) {
+                if (oldEntries[i] != 0) {
+                    insert(identifierOf(oldEntries[i]), countOf(oldEntries[i]), oldValues[i]);
+                }
+                if (oldIdentityIds[i] != 0) {
+                    insertIdentity(oldIdentityIds[i], oldIdentityHashes[i]);
+                }
+            }
+        }
+
+        private static int identifierOf(long entry) {
+            return (int) (entry >>> 32);
+        }
+
+        private static int countOf(long entry) {
+            return (int) entry;
+        }
     }
 }
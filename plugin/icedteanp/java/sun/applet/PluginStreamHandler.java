@@ -45,6 +45,8 @@ import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.List;
 
 import net.sourceforge.jnlp.runtime.JNLPRuntime;
 import net.sourceforge.jnlp.runtime.Translator;
@@ -94,6 +96,17 @@ public class PluginStreamHandler {
                         (outputstream, Charset.forName("UTF-8")));
     }
 
+    /**
+     * Stops handling messages, without exiting. The listener thread is not
+     * stopped; it exits the runtime when the plugin pipe is closed.
+     *
+     * @throws InterruptedException if interrupted while waiting for the
+     * consumer thread to end
+     */
+    void stopProcessing() throws InterruptedException {
+        consumer.stop();
+    }
+
     public void startProcessing() {
 
         Thread listenerThread = new Thread("PluginStreamHandlerListenerThread") {
@@ -374,12 +387,24 @@ public class PluginStreamHandler {
      * @param message the message to write
      */
     public void write(String message) {
+        write(Collections.singletonList(message));
+    }
+
+    /**
+     * Write several strings to plugin with a single flush, so they reach the
+     * other side of the pipe together.
+     *
+     * @param messages the messages to write, in order
+     */
+    public void write(List<String> messages) {
 
-        PluginDebug.debug("  PIPE: appletviewer wrote: ", message);
         synchronized (pluginOutputWriter) {
             try {
-                pluginOutputWriter.write(message + "\n", 0, message.length());
-                pluginOutputWriter.write(0);
+                for (String message : messages) {
+                    PluginDebug.debug("  PIPE: appletviewer wrote: ", message);
+                    pluginOutputWriter.write(message, 0, message.length());
+                    pluginOutputWriter.write(0);
+                }
                 pluginOutputWriter.flush();
             } catch (IOException e) {
                 // if we are shutting down, ignore write failures as 
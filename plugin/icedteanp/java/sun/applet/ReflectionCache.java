@@ -0,0 +1,214 @@
+/* ReflectionCache -- cached JNI signatures and reflection handles for LiveConnect
+   Copyright (C) 2026  Red Hat
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2, or (at your option)
+any later version.
+
+IcedTea is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to the
+Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version. */
+
+package sun.applet;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Caches what {@link PluginAppletSecurityContext} resolves over and over for
+ * scripts calling the same members: parsed JNI signatures, {@link Method},
+ * {@link Constructor} and {@link Field} handles and overload candidates.
+ * <p>
+ * Entries hang off the class they were resolved against (via {@link ClassValue}),
+ * so they go away together with the class and its loader. Returning the very
+ * same handle also lets {@link PluginObjectStore} hand out the same identifier
+ * for repeated GetMethodID/GetFieldID requests, instead of storing a fresh copy
+ * of the handle each time.
+ * </p>
+ * Lookup failures are not cached, they keep throwing as before.
+ */
+final class ReflectionCache {
+
+    private static final Method[] NO_METHODS = new Method[0];
+    private static final Constructor<?>[] NO_CONSTRUCTORS = new Constructor<?>[0];
+
+    private static final ClassValue<ClassEntry> ENTRIES = new ClassValue<ClassEntry>() {
+        @Override
+        protected ClassEntry computeValue(Class<?> type) {
+            return new ClassEntry();
+        }
+    };
+
+    private static class ClassEntry {
+
+        /* JNI signature -> parameter types, resolved with this class' loader */
+        final ConcurrentMap<String, Class<?>[]> signatures = new ConcurrentHashMap<>();
+        /* name + signature -> method or constructor */
+        final ConcurrentMap<String, Member> members = new ConcurrentHashMap<>();
+        final ConcurrentMap<String, Field> fields = new ConcurrentHashMap<>();
+        /* name + parameter count -> public methods */
+        final ConcurrentMap<String, Method[]> candidates = new ConcurrentHashMap<>();
+        /* parameter count -> public constructors */
+        final ConcurrentMap<Integer, Constructor<?>[]> constructorCandidates = new ConcurrentHashMap<>();
+    }
+
+    private static class Member {
+
+        /* usually the very array cached for the signature */
+        final Class<?>[] types;
+        final Object member;
+
+        Member(Class<?>[] types, Object member) {
+            this.types = types;
+            this.member = member;
+        }
+
+        boolean matches(Class<?>[] otherTypes) {
+            return types == otherTypes || Arrays.equals(types, otherTypes);
+        }
+    }
+
+    private ReflectionCache() {
+    }
+
+    private static <K, V> V putIfAbsent(ConcurrentMap<K, V> map, K key, V value) {
+        V previous = map.putIfAbsent(key, value);
+        return previous != null ? previous : value;
+    }
+
+    /**
+     * @param owner class whose loader resolves the types of the signature
+     * @param signature JNI signature, eg. (ILjava/lang/String;)
+     * @return parameter types; shared, must not be modified
+     */
+    static Class<?>[] getParameterTypes(Class<?> owner, String signature) {
+        ConcurrentMap<String, Class<?>[]> signatures = ENTRIES.get(owner).signatures;
+        Class<?>[] types = signatures.get(signature);
+        if (types == null) {
+            types = putIfAbsent(signatures, signature, new Signature(signature, owner.getClassLoader()).getClassArray());
+        }
+        return types;
+    }
+
+    /**
+     * Same as {@link Class#getMethod(String, Class...)} or, for
+     * &lt;init&gt; and &lt;clinit&gt;, {@link Class#getConstructor(Class...)}.
+     *
+     * @param c class to look the member up in
+     * @param name method name
+     * @param signature JNI signature the types were parsed from, part of the key
+     * @param types parameter types
+     * @return method or constructor
+     * @throws NoSuchMethodException if there is no such public member
+     */
+    static Object getMethodOrConstructor(Class<?> c, String name, String signature, Class<?>[] types)
+            throws NoSuchMethodException {
+        ConcurrentMap<String, Member> members = ENTRIES.get(c).members;
+        String key = name + signature;
+        Member member = members.get(key);
+        /* the same signature may resolve to other classes from another loader */
+        if (member == null || !member.matches(types)) {
+            if (name.equals("<init>") || name.equals("<clinit>")) {
+                member = new Member(types, c.getConstructor(types));
+            } else {
+                member = new Member(types, c.getMethod(name, types));
+            }
+            Member previous = members.putIfAbsent(key, member);
+            if (previous != null && previous.matches(types)) {
+                member = previous;
+            }
+        }
+        return member.member;
+    }
+
+    /**
+     * Same as {@link Class#getField(String)}.
+     *
+     * @param c class to look the field up in
+     * @param name field name
+     * @return the public field
+     * @throws NoSuchFieldException if there is no such public field
+     */
+    static Field getField(Class<?> c, String name) throws NoSuchFieldException {
+        ConcurrentMap<String, Field> fields = ENTRIES.get(c).fields;
+        Field f = fields.get(name);
+        if (f == null) {
+            f = putIfAbsent(fields, name, c.getField(name));
+        }
+        return f;
+    }
+
+    /**
+     * @param c class
+     * @param name method name
+     * @param paramCount number of parameters
+     * @return public methods of given name and arity; shared, must not be modified
+     */
+    static Method[] getMethods(Class<?> c, String name, int paramCount) {
+        ConcurrentMap<String, Method[]> candidates = ENTRIES.get(c).candidates;
+        String key = name + '/' + paramCount;
+        Method[] methods = candidates.get(key);
+        if (methods == null) {
+            List<Method> matching = new ArrayList<>();
+            for (Method m : c.getMethods()) {
+                if (m.getName().equals(name) && m.getParameterTypes().length == paramCount) {
+                    matching.add(m);
+                }
+            }
+            methods = putIfAbsent(candidates, key, matching.toArray(NO_METHODS));
+        }
+        return methods;
+    }
+
+    /**
+     * @param c class
+     * @param paramCount number of parameters
+     * @return public constructors of given arity; shared, must not be modified
+     */
+    static Constructor<?>[] getConstructors(Class<?> c, int paramCount) {
+        ConcurrentMap<Integer, Constructor<?>[]> candidates = ENTRIES.get(c).constructorCandidates;
+        Constructor<?>[] constructors = candidates.get(paramCount);
+        if (constructors == null) {
+            List<Constructor<?>> matching = new ArrayList<>();
+            for (Constructor<?> cs : c.getConstructors()) {
+                if (cs.getParameterTypes().length == paramCount) {
+                    matching.add(cs);
+                }
+            }
+            constructors = putIfAbsent(candidates, paramCount, matching.toArray(NO_CONSTRUCTORS));
+        }
+        return constructors;
+    }
+}
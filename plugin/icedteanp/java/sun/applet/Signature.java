@@ -0,0 +1,207 @@
+/* Signature -- parameter types of a JNI method signature
+   Copyright (C) 2008, 2010  Red Hat
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2, or (at your option)
+any later version.
+
+IcedTea is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to the
+Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version. */
+
+package sun.applet;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.List;
+
+class Signature {
+    private String signature;
+    private int currentIndex;
+    private List<Class<?>> typeList;
+    private static final char ARRAY = '[';
+    private static final char OBJECT = 'L';
+    private static final char SIGNATURE_ENDCLASS = ';';
+    private static final char SIGNATURE_FUNC = '(';
+    private static final char SIGNATURE_ENDFUNC = ')';
+    private static final char VOID = 'V';
+    private static final char BOOLEAN = 'Z';
+    private static final char BYTE = 'B';
+    private static final char CHARACTER = 'C';
+    private static final char SHORT = 'S';
+    private static final char INTEGER = 'I';
+    private static final char LONG = 'J';
+    private static final char FLOAT = 'F';
+    private static final char DOUBLE = 'D';
+
+    private String nextTypeName() {
+        char key = signature.charAt(currentIndex++);
+
+        switch (key) {
+            case ARRAY:
+                return nextTypeName() + "[]";
+
+            case OBJECT:
+                int endClass = signature.indexOf(SIGNATURE_ENDCLASS, currentIndex);
+                String retVal = signature.substring(currentIndex, endClass);
+                retVal = retVal.replace('/', '.');
+                currentIndex = endClass + 1;
+                return retVal;
+
+                // FIXME: generated bytecode with classes named after
+                // primitives will not work in this scheme -- those
+                // classes will be incorrectly treated as primitive
+                // types.
+            case VOID:
+                return "void";
+            case BOOLEAN:
+                return "boolean";
+            case BYTE:
+                return "byte";
+            case CHARACTER:
+                return "char";
+            case SHORT:
+                return "short";
+            case INTEGER:
+                return "int";
+            case LONG:
+                return "long";
+            case FLOAT:
+                return "float";
+            case DOUBLE:
+                return "double";
+
+            case SIGNATURE_ENDFUNC:
+                return null;
+
+            case SIGNATURE_FUNC:
+                return nextTypeName();
+
+            default:
+                throw new IllegalArgumentException(
+                                        "Invalid JNI signature character '" + key + "'");
+        }
+    }
+
+    public Signature(String signature, ClassLoader cl) {
+        this.signature = signature;
+        currentIndex = 0;
+        typeList = new ArrayList<>(10);
+
+        String elem;
+        while (currentIndex < signature.length()) {
+            elem = nextTypeName();
+
+            if (elem == null) {
+                continue;
+            }
+
+            Class<?> primitive = primitiveNameToType(elem);
+            if (primitive != null) {
+                typeList.add(primitive);
+            }
+            else {
+                int dimsize = 0;
+                int n = elem.indexOf('[');
+                if (n != -1) {
+                    String arrayType = elem.substring(0, n);
+                    dimsize++;
+                    n = elem.indexOf('[', n + 1);
+                    while (n != -1) {
+                        dimsize++;
+                        n = elem.indexOf('[', n + 1);
+                    }
+                    int[] dims = new int[dimsize];
+                    primitive = primitiveNameToType(arrayType);
+                    if (primitive != null) {
+                        typeList.add(Array.newInstance(primitive, dims)
+                                                                .getClass());
+                    } else {
+                        typeList.add(Array.newInstance(
+                                                                getClass(arrayType, cl), dims).getClass());
+                    }
+                } else {
+                    typeList.add(getClass(elem, cl));
+                }
+            }
+        }
+        if (signature.length() < 2) {
+            throw new IllegalArgumentException("Invalid JNI signature '"
+                                        + signature + "'");
+        }
+    }
+
+    public static Class<?> getClass(String name, ClassLoader cl) {
+
+        Class<?> c = null;
+
+        try {
+            c = Class.forName(name);
+        } catch (ClassNotFoundException cnfe) {
+
+            PluginDebug.debug("Class ", name, " not found in primordial loader. Looking in ", cl);
+            try {
+                c = cl.loadClass(name);
+            } catch (ClassNotFoundException e) {
+                throw (new RuntimeException(new ClassNotFoundException("Unable to find class " + name)));
+            }
+        }
+
+        return c;
+    }
+
+    public static Class<?> primitiveNameToType(String name) {
+        switch (name) {
+            case "void":
+                return Void.TYPE;
+            case "boolean":
+                return Boolean.TYPE;
+            case "byte":
+                return Byte.TYPE;
+            case "char":
+                return Character.TYPE;
+            case "short":
+                return Short.TYPE;
+            case "int":
+                return Integer.TYPE;
+            case "long":
+                return Long.TYPE;
+            case "float":
+                return Float.TYPE;
+            case "double":
+                return Double.TYPE;
+            default:
+                return null;
+        }
+    }
+
+    public Class<?>[] getClassArray() {
+        return typeList.subList(0, typeList.size()).toArray(new Class<?>[] {});
+    }
+}
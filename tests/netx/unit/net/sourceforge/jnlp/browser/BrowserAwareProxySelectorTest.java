@@ -87,6 +87,23 @@ public class BrowserAwareProxySelectorTest {
         browserPrefs = new HashMap<String, String>();
     }
 
+    @Test
+    public void testBrowserPreferencesAreReadOnFirstUse() throws URISyntaxException {
+        browserPrefs.put("network.proxy.type", "1" /* manual */);
+        browserPrefs.put("network.proxy.http", PROXY_HOST);
+        browserPrefs.put("network.proxy.http_port", String.valueOf(PROXY_PORT));
+
+        BrowserAwareProxySelector selector = new TestBrowserAwareProxySelector(config, browserPrefs);
+        List<Proxy> result = selector.getFromBrowser(new URI("http://example.org"));
+
+        assertEquals(1, result.size());
+        assertEquals(new Proxy(Type.HTTP, PROXY_ADDRESS), result.get(0));
+
+        browserPrefs.put("network.proxy.type", "0" /* none */);
+        selector.initialize();
+        assertEquals(new Proxy(Type.HTTP, PROXY_ADDRESS), selector.getFromBrowser(new URI("http://example.org")).get(0));
+    }
+
     @Test
     public void testNoBrowserProxy() throws URISyntaxException {
         browserPrefs.put("network.proxy.type", "0" /* none */);
@@ -0,0 +1,204 @@
+/*
+Copyright (C) 2026 Red Hat, Inc.
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License as published by
+the Free Software Foundation, version 2.
+
+IcedTea is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to
+the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version.
+ */
+
+package net.sourceforge.jnlp.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import net.sourceforge.jnlp.ServerAccess;
+import net.sourceforge.jnlp.ServerLauncher;
+import net.sourceforge.jnlp.config.PathsAndFiles;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class BackgroundUpdaterTest {
+
+    private static ServerLauncher server;
+    private static File serverDir;
+    private static String cacheDir;
+
+    @BeforeClass
+    public static void setUp() throws IOException {
+        serverDir = Files.createTempDirectory("itw-bgupdate").toFile();
+        server = ServerAccess.getIndependentInstance(serverDir.getAbsolutePath(), ServerAccess.findFreePort());
+        cacheDir = PathsAndFiles.CACHE_DIR.getFullPath();
+        PathsAndFiles.CACHE_DIR.setValue(Files.createTempDirectory("itw-bgupdate-cache").toString());
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        server.stop();
+        CacheUtil.clearCache();
+        PathsAndFiles.CACHE_DIR.setValue(cacheDir);
+    }
+
+    private static URL serve(String name, String content) throws IOException {
+        Files.write(new File(serverDir, name).toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return server.getUrl(name);
+    }
+
+    private static LaunchManifest.Entry cache(URL url, String content, long lastModified) throws IOException {
+        File file = CacheUtil.makeNewCacheFile(url, null);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        CacheEntry entry = new CacheEntry(url, null);
+        entry.lock();
+        try {
+            entry.setRemoteContentLength(file.length());
+            entry.setLastModified(lastModified);
+            entry.store();
+        } finally {
+            entry.unlock();
+        }
+        return LaunchManifest.Entry.of(url, null, file);
+    }
+
+    private static String cachedContent(URL url) throws IOException {
+        return new String(Files.readAllBytes(CacheUtil.getCacheFile(url, null).toPath()), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testChangedResourceIsStagedAndAppliedOnNextLaunch() throws Exception {
+        URL jnlp = new URL("http://example.com/staged.jnlp");
+        URL jar = serve("staged.jar", "new jar");
+        List<LaunchManifest.Entry> entries = Arrays.asList(cache(jar, "old", 1000));
+
+        BackgroundUpdater updater = BackgroundUpdater.getInstance(jnlp);
+        assertTrue(updater.start(entries));
+        assertEquals(BackgroundUpdater.State.STAGED, updater.await(30000));
+        assertTrue(updater.isStaged());
+        assertEquals(Arrays.asList(jar), updater.getAvailableUpdates());
+        // the running application keeps using the cached copy
+        assertEquals("old", cachedContent(jar));
+
+        assertTrue(BackgroundUpdater.applyStaged(jnlp));
+        assertEquals("new jar", cachedContent(jar));
+        assertFalse(updater.isStaged());
+        assertFalse(BackgroundUpdater.applyStaged(jnlp));
+
+        // the new copy is current
+        assertTrue(updater.restart());
+        assertEquals(BackgroundUpdater.State.UP_TO_DATE, updater.await(30000));
+        assertFalse(updater.isStaged());
+    }
+
+    @Test
+    public void testCurrentResourceIsNotStaged() throws Exception {
+        URL jnlp = new URL("http://example.com/current.jnlp");
+        URL jar = serve("current.jar", "jar");
+        List<LaunchManifest.Entry> entries = Arrays.asList(cache(jar, "jar", Long.MAX_VALUE));
+
+        BackgroundUpdater updater = BackgroundUpdater.getInstance(jnlp);
+        assertTrue(updater.start(entries));
+        assertEquals(BackgroundUpdater.State.UP_TO_DATE, updater.await(30000));
+        assertTrue(updater.getAvailableUpdates().isEmpty());
+        assertFalse(BackgroundUpdater.applyStaged(jnlp));
+    }
+
+    @Test
+    public void testMissingResourceFailsWithoutStaging() throws Exception {
+        URL jnlp = new URL("http://example.com/missing.jnlp");
+        URL jar = serve("missing.jar", "jar");
+        List<LaunchManifest.Entry> entries = Arrays.asList(cache(jar, "old", 1000));
+        new File(serverDir, "missing.jar").delete();
+
+        BackgroundUpdater updater = BackgroundUpdater.getInstance(jnlp);
+        updater.start(entries);
+        assertEquals(BackgroundUpdater.State.FAILED, updater.await(30000));
+        assertFalse(updater.isStaged());
+        assertEquals("old", cachedContent(jar));
+    }
+
+    @Test
+    public void testFailedApplyKeepsTheCacheAndTheStagedSet() throws Exception {
+        URL jnlp = new URL("http://example.com/partial.jnlp");
+        URL jar = new URL("http://example.com/partial.jar");
+        cache(jar, "old", 1000);
+        File dir = BackgroundUpdater.getStagingDir(jnlp);
+        dir.mkdirs();
+        File first = new File(dir, "0-partial.jar");
+        Files.write(first.toPath(), "new".getBytes(StandardCharsets.UTF_8));
+        Files.write(new File(dir, "1-local.jar").toPath(), "new".getBytes(StandardCharsets.UTF_8));
+        Properties staged = new Properties();
+        staged.setProperty("format", LaunchManifest.FORMAT_VERSION);
+        staged.setProperty("resources", "2");
+        staged.setProperty("resource.0.location", jar.toExternalForm());
+        staged.setProperty("resource.0.file", first.getName());
+        staged.setProperty("resource.0.modified", "2000");
+        // can not be cached, so it fails after the first file was moved
+        staged.setProperty("resource.1.location", "file:/local.jar");
+        staged.setProperty("resource.1.file", "1-local.jar");
+        staged.setProperty("resource.1.modified", "2000");
+        File stagedFile = new File(dir, "staged.properties");
+        try (OutputStream out = new FileOutputStream(stagedFile)) {
+            staged.store(out, null);
+        }
+
+        assertFalse(BackgroundUpdater.applyStaged(jnlp));
+        assertEquals("old", cachedContent(jar));
+        assertTrue(stagedFile.isFile());
+        assertTrue(first.isFile());
+
+        assertTrue(stagedFile.delete());
+        assertFalse(BackgroundUpdater.applyStaged(jnlp));
+    }
+
+    @Test
+    public void testUpdaterIsSharedPerLocation() throws Exception {
+        URL jnlp = new URL("http://example.com/shared.jnlp");
+        assertNull(BackgroundUpdater.get(new URL("http://example.com/unknown.jnlp")));
+        BackgroundUpdater updater = BackgroundUpdater.getInstance(jnlp);
+        assertTrue(updater == BackgroundUpdater.getInstance(jnlp));
+        assertTrue(updater == BackgroundUpdater.get(jnlp));
+        assertEquals(BackgroundUpdater.State.IDLE, updater.getState());
+    }
+}
@@ -0,0 +1,176 @@
+/*
+Copyright (C) 2026 Red Hat, Inc.
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License as published by
+the Free Software Foundation, version 2.
+
+IcedTea is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to
+the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version.
+ */
+
+package net.sourceforge.jnlp.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import net.sourceforge.jnlp.config.PathsAndFiles;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CacheEvictorTest {
+
+    private String cacheDir;
+    private String mainLock;
+
+    @Before
+    public void setUp() throws IOException {
+        cacheDir = PathsAndFiles.CACHE_DIR.getFullPath();
+        mainLock = PathsAndFiles.MAIN_LOCK.getFullPath();
+        File dir = Files.createTempDirectory("itw-evict-cache").toFile();
+        PathsAndFiles.CACHE_DIR.setValue(dir.getPath());
+        PathsAndFiles.MAIN_LOCK.setValue(new File(dir.getParentFile(), dir.getName() + ".lock").getPath());
+    }
+
+    @After
+    public void tearDown() {
+        CacheUtil.clearCache();
+        PathsAndFiles.MAIN_LOCK.getFile().delete();
+        PathsAndFiles.CACHE_DIR.setValue(cacheDir);
+        PathsAndFiles.MAIN_LOCK.setValue(mainLock);
+    }
+
+    private static File put(String name, int size) throws IOException, InterruptedException {
+        File f = CacheUtil.makeNewCacheFile(new URL("http://localhost/" + name), null);
+        Files.write(f.toPath(), new byte[size]);
+        CacheUtil.recordCacheFile(f, new URL("http://localhost/app.jnlp"));
+        Thread.sleep(5); // distinct time of use
+        return f;
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedDownToLowWatermark() throws Exception {
+        File a = put("a.jar", 100);
+        File b = put("b.jar", 100);
+        File c = put("c.jar", 100);
+        File d = put("d.jar", 100);
+        File e = put("e.jar", 100);
+        assertEquals(500, CacheLRUWrapper.getInstance().getTotalSize());
+
+        assertEquals(3, CacheEvictor.evict(450, 250, Long.MAX_VALUE));
+
+        assertFalse(a.exists());
+        assertFalse(b.exists());
+        assertFalse(c.exists());
+        assertTrue(d.exists());
+        assertTrue(e.exists());
+        assertEquals(2, CacheUtil.getIndexedEntries().size());
+        assertEquals(200, CacheLRUWrapper.getInstance().getTotalSize());
+    }
+
+    @Test
+    public void testNothingEvictedBelowHighWatermark() throws Exception {
+        File a = put("a.jar", 100);
+        put("b.jar", 100);
+
+        assertEquals(0, CacheEvictor.evict(200, 0, Long.MAX_VALUE));
+        assertTrue(a.exists());
+        assertEquals(2, CacheUtil.getIndexedEntries().size());
+    }
+
+    @Test
+    public void testPinnedAndRecentlyUsedItemsAreKept() throws Exception {
+        final File a = put("a.jar", 100);
+        long betweenUses = System.currentTimeMillis();
+        Thread.sleep(5);
+        File b = put("b.jar", 100);
+        File c = put("c.jar", 100);
+        ResourceTracker tracker = new ResourceTracker() {
+            @Override
+            List<File> getLocalFiles() {
+                return Arrays.asList(a);
+            }
+        };
+        CacheEvictor.pin(tracker);
+        try {
+            // a is pinned, b and c were used after betweenUses
+            assertEquals(0, CacheEvictor.evict(0, 0, betweenUses));
+            assertTrue(a.exists());
+            assertTrue(b.exists());
+            assertTrue(c.exists());
+
+            assertEquals(2, CacheEvictor.evict(0, 0, Long.MAX_VALUE));
+            assertTrue(a.exists());
+            assertFalse(b.exists());
+            assertFalse(c.exists());
+        } finally {
+            CacheEvictor.unpin(tracker);
+        }
+    }
+
+    @Test
+    public void testNothingEvictedWhileOtherInstancesRun() throws Exception {
+        File a = put("a.jar", 100);
+        File lock = PathsAndFiles.MAIN_LOCK.getFile();
+        Files.write(lock.toPath(), new byte[1]);
+        // the shared lock every running instance holds
+        try (FileInputStream in = new FileInputStream(lock)) {
+            FileLock running = in.getChannel().lock(0, 1, true);
+            assertEquals(0, CacheEvictor.evict(0, 0, Long.MAX_VALUE));
+            assertTrue(a.exists());
+            assertEquals(1, CacheUtil.getIndexedEntries().size());
+            running.release();
+        }
+        assertEquals(1, CacheEvictor.evict(0, 0, Long.MAX_VALUE));
+        assertFalse(a.exists());
+    }
+
+    @Test
+    public void testSupersededItemsGoFirst() throws Exception {
+        File a = put("a.jar", 100);
+        File b = put("b.jar", 100);
+        CacheUtil.recordMarkedForDelete(b);
+
+        assertEquals(1, CacheEvictor.evict(150, 150, Long.MAX_VALUE));
+        assertTrue(a.exists());
+        assertFalse(b.exists());
+    }
+}
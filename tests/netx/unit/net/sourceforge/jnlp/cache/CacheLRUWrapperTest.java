@@ -37,6 +37,7 @@ exception statement from your version.
 
 package net.sourceforge.jnlp.cache;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -44,6 +45,8 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 
 import org.junit.Before;
@@ -237,6 +240,72 @@ public class CacheLRUWrapperTest {
         assertFalse(clw.containsKey(key) && clw.containsValue(value));
     }
 
+    @Test
+    public void testIndexedEntriesCarryRecordedInfo() throws IOException {
+        File cacheIndexFile = clw.getRecentlyUsedFile().getFile();
+        File item = new File(tmpCache, "7" + File.separator + "http" + File.separator + "localhost" + File.separator + "a.jar");
+        try {
+            clw.lock();
+            clearCacheIndexFile();
+            String key = clw.generateKey(item.getPath());
+            clw.addEntry(key, item.getPath());
+            assertTrue(clw.setEntryInfo(item.getPath(), 1234, 42, "http://localhost/app.jnlp"));
+            assertTrue(clw.markEntryForDelete(item.getPath()));
+            assertFalse(clw.setEntryInfo(tmpCache.getPath(), 1, 1, null));
+
+            List<CacheIndexEntry> entries = clw.getIndexedEntries();
+            assertEquals(1, entries.size());
+            CacheIndexEntry entry = entries.get(0);
+            assertEquals(key, entry.getKey());
+            assertEquals(item, entry.getFile());
+            assertEquals(new File(tmpCache, "7"), entry.getFolder());
+            assertEquals(1234, entry.getSize());
+            assertEquals(42, entry.getLastWritten());
+            assertEquals("http://localhost/app.jnlp", entry.getOwner());
+            assertTrue(entry.isMarkedForDelete());
+            assertEquals(1234, clw.getTotalSize());
+
+            clw.setEntryInfo(item.getPath(), 1000, 43, null);
+            assertEquals(1000, clw.getTotalSize());
+            assertEquals("http://localhost/app.jnlp", clw.getIndexedEntries().get(0).getOwner());
+
+            clw.removeEntry(key);
+            assertEquals(0, clw.getTotalSize());
+            assertEquals(null, clw.getEntryInfoPropertiesFile().getProperty("7.size"));
+        } finally {
+            clw.unlock();
+            cacheIndexFile.delete();
+            clw.getEntryInfoPropertiesFile().getStoreFile().delete();
+        }
+    }
+
+    @Test
+    public void testUnrecordedEntriesAreMeasuredOnce() throws IOException {
+        File cacheIndexFile = clw.getRecentlyUsedFile().getFile();
+        File item = new File(tmpCache, "8" + File.separator + "http" + File.separator + "localhost" + File.separator + "b.jar");
+        try {
+            item.getParentFile().mkdirs();
+            Files.write(item.toPath(), new byte[100]);
+            clw.lock();
+            clearCacheIndexFile();
+            clw.addEntry(clw.generateKey(item.getPath()), item.getPath());
+
+            CacheIndexEntry entry = clw.getIndexedEntries().get(0);
+            assertEquals(100, entry.getSize());
+            assertEquals(null, entry.getOwner());
+            assertFalse(entry.isMarkedForDelete());
+
+            // served from the index from now on
+            Files.write(item.toPath(), new byte[10]);
+            assertEquals(100, clw.getIndexedEntries().get(0).getSize());
+        } finally {
+            clw.unlock();
+            cacheIndexFile.delete();
+            clw.getEntryInfoPropertiesFile().getStoreFile().delete();
+            item.delete();
+        }
+    }
+
     @Test(timeout = 2000l)
     public void testLock() throws IOException {
         try {
@@ -38,6 +38,19 @@ package net.sourceforge.jnlp.cache;
 
 import java.io.File;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.jnlp.DownloadServiceListener;
+
+import net.sourceforge.jnlp.ServerAccess;
+import net.sourceforge.jnlp.ServerLauncher;
+import net.sourceforge.jnlp.Version;
+import net.sourceforge.jnlp.config.PathsAndFiles;
 import net.sourceforge.jnlp.util.UrlUtils;
 
 import org.junit.Assert;
@@ -78,4 +91,98 @@ public class CacheUtilTest {
         final File expected = new File("/tmp/https/example.com/applet/applet.php");
         Assert.assertEquals(expected, CacheUtil.urlToPath(u, "/tmp"));
     }
+
+    @Test
+    public void testGetCachedResourcesFromIndex() throws Exception {
+        String cacheDir = PathsAndFiles.CACHE_DIR.getFullPath();
+        PathsAndFiles.CACHE_DIR.setValue(Files.createTempDirectory("itw-cacheutil").toString());
+        try {
+            URL cached = new URL("http://example.com/part/cached.jar");
+            URL pending = new URL("http://example.com/part/pending.jar");
+            URL deleted = new URL("http://example.com/part/deleted.jar");
+            URL unknown = new URL("http://example.com/part/unknown.jar");
+            URL local = new URL("file:///tmp/local.jar");
+
+            File file = CacheUtil.makeNewCacheFile(cached, null);
+            Files.write(file.toPath(), "jar".getBytes(StandardCharsets.UTF_8));
+            CacheUtil.recordCacheFile(file, null);
+            // folder made, download not finished
+            CacheUtil.makeNewCacheFile(pending, null);
+            file = CacheUtil.makeNewCacheFile(deleted, null);
+            Files.write(file.toPath(), "jar".getBytes(StandardCharsets.UTF_8));
+            CacheUtil.recordCacheFile(file, null);
+            CacheUtil.recordMarkedForDelete(file);
+
+            File index = CacheLRUWrapper.getInstance().getRecentlyUsedFile().getFile();
+            File entryInfo = new File(index.getPath() + CacheLRUWrapper.ENTRY_INFO_SUFFIX);
+            byte[] indexBefore = Files.readAllBytes(index.toPath());
+            byte[] entryInfoBefore = Files.readAllBytes(entryInfo.toPath());
+
+            Assert.assertEquals(Collections.singleton(cached),
+                    CacheUtil.getCachedResources(Arrays.asList(cached, pending, deleted, unknown, local)));
+            // the pending item has no recorded size, it is measured without writing the index
+            Assert.assertArrayEquals(indexBefore, Files.readAllBytes(index.toPath()));
+            Assert.assertArrayEquals(entryInfoBefore, Files.readAllBytes(entryInfo.toPath()));
+        } finally {
+            CacheUtil.clearCache();
+            PathsAndFiles.CACHE_DIR.setValue(cacheDir);
+        }
+    }
+
+    private static class RecordingListener implements DownloadServiceListener {
+
+        final List<URL> progressed = Collections.synchronizedList(new ArrayList<URL>());
+        final List<URL> failed = Collections.synchronizedList(new ArrayList<URL>());
+        volatile int lastPercent = -1;
+
+        @Override
+        public void progress(URL url, String version, long readSoFar, long total, int overallPercent) {
+            progressed.add(url);
+            lastPercent = overallPercent;
+        }
+
+        @Override
+        public void validating(URL url, String version, long entry, long total, int overallPercent) {
+        }
+
+        @Override
+        public void upgradingArchive(URL url, String version, int patchPercent, int overallPercent) {
+        }
+
+        @Override
+        public void downloadFailed(URL url, String version) {
+            failed.add(url);
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testWaitForResourcesReportsProgress() throws Exception {
+        String cacheDir = PathsAndFiles.CACHE_DIR.getFullPath();
+        PathsAndFiles.CACHE_DIR.setValue(Files.createTempDirectory("itw-cacheutil").toString());
+        File serverDir = Files.createTempDirectory("itw-cacheutil-server").toFile();
+        ServerLauncher server = ServerAccess.getIndependentInstance(serverDir.getAbsolutePath(), ServerAccess.findFreePort());
+        try {
+            Files.write(new File(serverDir, "one.jar").toPath(), new byte[4096]);
+            Files.write(new File(serverDir, "two.jar").toPath(), new byte[8192]);
+            URL[] urls = { server.getUrl("one.jar"), server.getUrl("two.jar"), server.getUrl("missing.jar") };
+
+            ResourceTracker tracker = new ResourceTracker(true);
+            for (URL url : urls) {
+                tracker.addResource(url, null, null, UpdatePolicy.FORCE);
+            }
+            RecordingListener listener = new RecordingListener();
+            List<URL> failed = CacheUtil.waitForResources(tracker, urls, new Version[urls.length], listener);
+
+            Assert.assertEquals(Arrays.asList(urls[2]), failed);
+            Assert.assertEquals(Arrays.asList(urls[2]), listener.failed);
+            Assert.assertTrue(listener.progressed.contains(urls[0]));
+            Assert.assertTrue(listener.progressed.contains(urls[1]));
+            Assert.assertEquals(100, listener.lastPercent);
+            Assert.assertEquals(8192, tracker.getCacheFile(urls[1]).length());
+        } finally {
+            server.stop();
+            CacheUtil.clearCache();
+            PathsAndFiles.CACHE_DIR.setValue(cacheDir);
+        }
+    }
 }
@@ -0,0 +1,173 @@
+/*
+Copyright (C) 2026 Red Hat, Inc.
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License as published by
+the Free Software Foundation, version 2.
+
+IcedTea is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to
+the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version.
+ */
+
+package net.sourceforge.jnlp.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import net.sourceforge.jnlp.UpdateDesc;
+import net.sourceforge.jnlp.Version;
+import net.sourceforge.jnlp.runtime.JNLPRuntime;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LaunchManifestTest {
+
+    private File dir;
+    private File jar;
+    private File manifestFile;
+    private URL location;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("launchmanifest").toFile();
+        jar = new File(dir, "app.jar");
+        Files.write(jar.toPath(), "jar content".getBytes(StandardCharsets.UTF_8));
+        manifestFile = new File(new File(dir, "launch"), "app.properties");
+        location = new URL("http://example.com/app.jnlp");
+    }
+
+    @After
+    public void tearDown() {
+        JNLPRuntime.setOfflineForced(false);
+        manifestFile.delete();
+        manifestFile.getParentFile().delete();
+        jar.delete();
+        dir.delete();
+    }
+
+    private LaunchManifest createManifest(UpdateDesc.Check check) throws IOException {
+        LaunchManifest.Entry entry = LaunchManifest.Entry.of(new URL("http://example.com/app.jar"), new Version("1.0"), jar);
+        return new LaunchManifest(manifestFile, location, "org.example.Main", check, "FULL",
+                Arrays.asList(entry), 10, 20);
+    }
+
+    @Test
+    public void testStoreAndLoad() throws IOException {
+        createManifest(UpdateDesc.Check.BACKGROUND).store();
+
+        LaunchManifest loaded = LaunchManifest.load(manifestFile);
+        assertNotNull(loaded);
+        assertEquals(location, loaded.getLocation());
+        assertEquals("org.example.Main", loaded.getMainClass());
+        assertEquals(UpdateDesc.Check.BACKGROUND, loaded.getUpdateCheck());
+        assertEquals("FULL", loaded.getSigning());
+        assertEquals(10, loaded.getRecorded());
+        assertEquals(20, loaded.getValidated());
+        assertEquals(1, loaded.getEntries().size());
+        LaunchManifest.Entry entry = loaded.getEntries().get(0);
+        assertEquals(new URL("http://example.com/app.jar"), entry.getLocation());
+        assertEquals("1.0", entry.getVersion().toString());
+        assertEquals(jar, entry.getFile());
+        assertTrue(loaded.isIntact());
+    }
+
+    @Test
+    public void testChangedFileIsDetected() throws IOException {
+        LaunchManifest manifest = createManifest(UpdateDesc.Check.BACKGROUND);
+        assertTrue(manifest.isIntact());
+        Files.write(jar.toPath(), "other, longer jar content".getBytes(StandardCharsets.UTF_8));
+        assertFalse(manifest.isIntact());
+        assertFalse(manifest.isLaunchableFromCache());
+    }
+
+    @Test
+    public void testRemovedFileIsDetected() throws IOException {
+        LaunchManifest manifest = createManifest(UpdateDesc.Check.BACKGROUND);
+        jar.delete();
+        assertFalse(manifest.isIntact());
+    }
+
+    @Test
+    public void testEmptyManifestIsNotIntact() {
+        LaunchManifest manifest = new LaunchManifest(manifestFile, location, null, UpdateDesc.Check.TIMEOUT, null,
+                Collections.<LaunchManifest.Entry>emptyList(), 0, 0);
+        assertFalse(manifest.isIntact());
+    }
+
+    @Test
+    public void testLaunchableFromCacheWhenOfflineOrBackground() throws IOException {
+        assertTrue(createManifest(UpdateDesc.Check.BACKGROUND).isLaunchableFromCache());
+        assertFalse(createManifest(UpdateDesc.Check.TIMEOUT).isLaunchableFromCache());
+        JNLPRuntime.setOfflineForced(true);
+        assertTrue(createManifest(UpdateDesc.Check.TIMEOUT).isLaunchableFromCache());
+    }
+
+    @Test
+    public void testRevalidateOfflineKeepsManifest() throws IOException {
+        LaunchManifest manifest = createManifest(UpdateDesc.Check.BACKGROUND);
+        manifest.store();
+        JNLPRuntime.setOfflineForced(true);
+        assertTrue(manifest.revalidate());
+        assertTrue(manifestFile.exists());
+        manifest.discard();
+        assertFalse(manifestFile.exists());
+    }
+
+    @Test
+    public void testDamagedOrForeignManifestIsIgnored() throws IOException {
+        assertNull(LaunchManifest.load(manifestFile));
+        manifestFile.getParentFile().mkdirs();
+        Files.write(manifestFile.toPath(), "format=0\n".getBytes(StandardCharsets.UTF_8));
+        assertNull(LaunchManifest.load(manifestFile));
+        Files.write(manifestFile.toPath(), ("format=" + LaunchManifest.FORMAT_VERSION + "\njnlp.location=http://example.com/app.jnlp\nresources=1\n").getBytes(StandardCharsets.UTF_8));
+        assertNull(LaunchManifest.load(manifestFile));
+    }
+
+    @Test
+    public void testManifestFileDependsOnLocation() throws IOException {
+        File a = LaunchManifest.getManifestFile(new URL("http://example.com/a.jnlp"));
+        File b = LaunchManifest.getManifestFile(new URL("http://example.com/b.jnlp"));
+        assertFalse(a.equals(b));
+        assertEquals(a, LaunchManifest.getManifestFile(new URL("http://example.com/a.jnlp")));
+        assertEquals("launch", a.getParentFile().getName());
+    }
+}
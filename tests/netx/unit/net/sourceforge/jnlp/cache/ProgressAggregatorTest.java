@@ -0,0 +1,85 @@
+/*
+Copyright (C) 2026 Red Hat, Inc.
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License as published by
+the Free Software Foundation, version 2.
+
+IcedTea is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to
+the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version.
+ */
+
+package net.sourceforge.jnlp.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URL;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ProgressAggregatorTest {
+
+    @Test
+    public void testOnlyLatestProgressOfEachUrlIsKept() throws Exception {
+        URL a = new URL("http://example.com/a.jar");
+        URL b = new URL("http://example.com/b.jar");
+        ProgressAggregator aggregator = new ProgressAggregator();
+
+        for (int i = 1; i <= 1000; i++) {
+            aggregator.update(a, null, i * 1024, 1024000, i / 20);
+            aggregator.update(b, "1.0", i, 1000, i / 20);
+        }
+
+        List<ProgressAggregator.Progress> updates = aggregator.takeUpdates();
+        assertEquals(2, updates.size());
+        assertEquals(a, updates.get(0).getUrl());
+        assertEquals(1024000, updates.get(0).getReadSoFar());
+        assertEquals(b, updates.get(1).getUrl());
+        assertEquals("1.0", updates.get(1).getVersion());
+        assertEquals(1000, updates.get(1).getTotal());
+        assertEquals(50, aggregator.getOverallPercent());
+
+        assertTrue(aggregator.takeUpdates().isEmpty());
+    }
+
+    @Test
+    public void testFailureKeepsOverallPercent() throws Exception {
+        URL a = new URL("http://example.com/a.jar");
+        ProgressAggregator aggregator = new ProgressAggregator();
+        aggregator.update(a, null, 10, 100, 10);
+        aggregator.update(a, null, -1, -1, -1);
+
+        List<ProgressAggregator.Progress> updates = aggregator.takeUpdates();
+        assertEquals(1, updates.size());
+        assertEquals(-1, updates.get(0).getReadSoFar());
+        assertEquals(10, aggregator.getOverallPercent());
+    }
+}
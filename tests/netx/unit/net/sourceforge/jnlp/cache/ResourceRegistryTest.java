@@ -0,0 +1,92 @@
+/*
+Copyright (C) 2026 Red Hat, Inc.
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License as published by
+the Free Software Foundation, version 2.
+
+IcedTea is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to
+the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version.
+ */
+
+package net.sourceforge.jnlp.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.net.URL;
+
+import net.sourceforge.jnlp.Version;
+
+import org.junit.Test;
+
+public class ResourceRegistryTest {
+
+    @Test
+    public void testSameLocationIsShared() throws Exception {
+        Resource first = Resource.getResource(new URL("http://example.com/registry/a.jar"), new Version("1.0"), UpdatePolicy.ALWAYS);
+        Resource second = Resource.getResource(new URL("http://example.com/registry/a.jar"), null, UpdatePolicy.NEVER);
+        assertSame(first, second);
+        assertEquals(new Version("1.0").toString(), second.getRequestVersion().toString());
+    }
+
+    @Test
+    public void testLocationsAreComparedLikeUrlEquals() throws Exception {
+        Resource plain = Resource.getResource(new URL("http://example.com/registry/b c.jar"), null, UpdatePolicy.ALWAYS);
+        Resource encoded = Resource.getResource(new URL("HTTP://Example.COM:8080/registry/b%20c.jar"), null, UpdatePolicy.ALWAYS);
+        assertSame(plain, encoded);
+        assertEquals(new ResourceRegistry.Key(plain.getLocation()), new ResourceRegistry.Key(encoded.getLocation()));
+    }
+
+    @Test
+    public void testDifferentLocationsAreDistinct() throws Exception {
+        Resource a = Resource.getResource(new URL("http://example.com/registry/c.jar"), null, UpdatePolicy.ALWAYS);
+        Resource b = Resource.getResource(new URL("http://example.com/registry/c.jar?x=1"), null, UpdatePolicy.ALWAYS);
+        Resource c = Resource.getResource(new URL("http://example.com/Registry/c.jar"), null, UpdatePolicy.ALWAYS);
+        assertNotSame(a, b);
+        assertNotSame(a, c);
+    }
+
+    @Test
+    public void testCollectedResourcesAreRemoved() throws Exception {
+        ResourceRegistry registry = new ResourceRegistry();
+        for (int i = 0; i < 100; i++) {
+            registry.intern(Resource.getResource(new URL("http://example.com/registry/collected" + i + ".jar"), null, UpdatePolicy.ALWAYS));
+        }
+        for (int i = 0; i < 50 && registry.size() > 0; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertEquals(0, registry.size());
+        URL location = new URL("http://example.com/registry/collected0.jar");
+        Resource fresh = registry.intern(Resource.getResource(location, null, UpdatePolicy.ALWAYS));
+        assertSame(fresh, registry.intern(Resource.getResource(location, null, UpdatePolicy.ALWAYS)));
+    }
+}
@@ -43,6 +43,7 @@ import static net.sourceforge.jnlp.cache.Resource.Status.CONNECTING;
 import static net.sourceforge.jnlp.cache.Resource.Status.PREDOWNLOAD;
 import static net.sourceforge.jnlp.cache.Resource.Status.DOWNLOADED;
 import static net.sourceforge.jnlp.cache.Resource.Status.DOWNLOADING;
+import static net.sourceforge.jnlp.cache.Resource.Status.ERROR;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -53,6 +54,8 @@ import java.net.URL;
 import java.util.Collection;
 import java.util.EnumSet;
 import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import net.sourceforge.jnlp.Version;
 
@@ -177,6 +180,29 @@ public class ResourceTest {
         assertFalse("Resource should not have had PRECONNECT set", hasFlag(res, PRECONNECT));
     }
 
+    @Test
+    public void testCompletionFollowsStatus() throws Exception {
+        Resource res = createResource("Completion");
+        Future<Resource> completion = res.getCompletion();
+        assertFalse(completion.isDone());
+
+        changeStatus(res, null, EnumSet.of(CONNECTING, DOWNLOADING));
+        assertFalse(completion.isDone());
+
+        changeStatus(res, EnumSet.of(DOWNLOADING), EnumSet.of(DOWNLOADED));
+        assertTrue(completion.isDone());
+        assertTrue(res == completion.get(1, TimeUnit.SECONDS));
+        assertTrue(completion == res.getCompletion());
+
+        res.resetStatus();
+        Future<Resource> next = res.getCompletion();
+        assertTrue(completion.isDone());
+        assertFalse(next.isDone());
+
+        setStatus(res, EnumSet.of(ERROR));
+        assertTrue(next.isDone());
+    }
+
     private static Resource createResource(String testName) throws MalformedURLException {
         URL dummyUrl = new URL("http://example.com/applet" + testName + ".jar");
         return Resource.getResource(dummyUrl, new Version("1.0"), UpdatePolicy.ALWAYS);
@@ -40,6 +40,7 @@ import static net.sourceforge.jnlp.cache.Resource.Status.CONNECTED;
 import static net.sourceforge.jnlp.cache.Resource.Status.DOWNLOADING;
 import static net.sourceforge.jnlp.cache.Resource.Status.ERROR;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.io.ByteArrayOutputStream;
@@ -54,6 +55,8 @@ import java.nio.file.Files;
 import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
 
 import org.junit.AfterClass;
 import org.junit.Assert;
@@ -282,4 +285,57 @@ public class ResourceTrackerTest extends NoStdOutErrTest{
         String output = new String(Files.readAllBytes(downloadFile.toPath()));
         assertEquals(s, output);
     }
+
+    @Test
+    public void testWaitForResourcesTimesOutAndWakesOnCompletion() throws Exception {
+        // a tracker that never downloads, the test completes the resource itself
+        ResourceTracker rt = new ResourceTracker() {
+            @Override
+            protected void startDownloadThread(Resource resource) {
+            }
+        };
+        final URL url = new URL("http://example.com/never-downloaded.jar");
+        rt.addResource(url, null, null, UpdatePolicy.FORCE);
+
+        assertFalse(rt.waitForResources(new URL[]{url}, 50));
+
+        final Resource resource = Resource.getResource(url, null, UpdatePolicy.FORCE);
+        Thread completer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                resource.changeStatus(null, EnumSet.of(Resource.Status.DOWNLOADED));
+            }
+        };
+        completer.start();
+        assertTrue(rt.waitForResources(new URL[]{url}, 10000));
+        completer.join();
+    }
+
+    @Test(timeout = 10000)
+    public void testAwaitAllWaitsForTheRestAfterAFailure() throws Exception {
+        FutureTask<Void> failed = new FutureTask<>(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                Thread.sleep(50);
+                throw new IOException("failed");
+            }
+        });
+        final FutureTask<Void> pending = new FutureTask<>(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                Thread.sleep(300);
+                return null;
+            }
+        });
+        new Thread(failed).start();
+        new Thread(pending).start();
+        List<FutureTask<Void>> futures = Arrays.asList(failed, pending);
+        assertTrue(ResourceCompletion.awaitAll(futures, 0));
+        assertTrue(pending.isDone());
+    }
 }
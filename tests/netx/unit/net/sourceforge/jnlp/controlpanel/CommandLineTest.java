@@ -219,4 +219,25 @@ public class CommandLineTest extends NoStdOutErrTest{
 
         clearDeployFile();
     }
+
+    @Test
+    public void testCacheStatsOnEmptyCache() throws IOException {
+        String cacheDir = PathsAndFiles.CACHE_DIR.getFullPath();
+        PathsAndFiles.CACHE_DIR.setValue(Files.createTempDirectory("itw-cachestats").toString());
+        try {
+            ByteArrayOutputStream outStream = getOutputControllerStream();
+
+            String[] args = {
+                    "cachestats"
+            };
+            OptionParser optionParser = new OptionParser(args, OptionsDefinitions.getItwsettingsCommands());
+            CommandLine commandLine = new CommandLine(optionParser);
+            int status = commandLine.handle();
+
+            assertEquals("entries\t0\nbytes\t0\nsuperseded\t0\n", outStream.toString());
+            assertEquals(SUCCESS, status);
+        } finally {
+            PathsAndFiles.CACHE_DIR.setValue(cacheDir);
+        }
+    }
 }
@@ -0,0 +1,141 @@
+/*
+Copyright (C) 2026 Red Hat, Inc.
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License as published by
+the Free Software Foundation, version 2.
+
+IcedTea is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to
+the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version.
+ */
+
+package net.sourceforge.jnlp.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+import net.sourceforge.jnlp.runtime.CachingPacEvaluator.CacheKey;
+
+import org.junit.Test;
+
+public class CachingPacEvaluatorTest {
+
+    private static class CountingPacEvaluator extends CachingPacEvaluator {
+
+        int evaluations = 0;
+
+        CountingPacEvaluator(CacheKey key, int size, long timeout) {
+            super(key, size, timeout);
+        }
+
+        @Override
+        protected String getProxiesWithoutCaching(URL url) {
+            evaluations++;
+            return "PROXY " + url.getHost() + ":" + evaluations;
+        }
+    }
+
+    @Test
+    public void testCacheKeys() throws Exception {
+        URL url = new URL("http://Example.org/a/b?c");
+        assertEquals("http://example.org", CacheKey.HOST.toKey(url));
+        assertEquals("http://example.org:80", CacheKey.PORT.toKey(url));
+        assertEquals("http://example.org:8080", CacheKey.PORT.toKey(new URL("http://example.org:8080/")));
+        assertEquals("http://Example.org/a/b?c", CacheKey.PATH.toKey(url));
+    }
+
+    @Test
+    public void testCacheKeyFromConfiguration() {
+        assertEquals(CacheKey.HOST, CacheKey.fromString(null));
+        assertEquals(CacheKey.HOST, CacheKey.fromString("nonsense"));
+        assertEquals(CacheKey.PORT, CacheKey.fromString("port"));
+        assertEquals(CacheKey.PATH, CacheKey.fromString(" PATH "));
+    }
+
+    @Test
+    public void testHostKey() throws Exception {
+        CountingPacEvaluator pac = new CountingPacEvaluator(CacheKey.HOST, 10, TimeUnit.MINUTES.toNanos(1));
+        String result = pac.getProxies(new URL("http://example.org/"));
+        assertEquals(result, pac.getProxies(new URL("http://example.org:8080/other")));
+        assertEquals(1, pac.evaluations);
+        pac.getProxies(new URL("ftp://example.org/"));
+        assertEquals(2, pac.evaluations);
+        assertEquals(1, pac.getHits());
+        assertEquals(2, pac.getMisses());
+        assertEquals(1d / 3, pac.getHitRate(), 0.0001);
+    }
+
+    @Test
+    public void testPortAndPathKeys() throws Exception {
+        CountingPacEvaluator pac = new CountingPacEvaluator(CacheKey.PORT, 10, TimeUnit.MINUTES.toNanos(1));
+        pac.getProxies(new URL("http://example.org/"));
+        pac.getProxies(new URL("http://example.org:80/other"));
+        pac.getProxies(new URL("http://example.org:8080/"));
+        assertEquals(2, pac.evaluations);
+
+        pac = new CountingPacEvaluator(CacheKey.PATH, 10, TimeUnit.MINUTES.toNanos(1));
+        pac.getProxies(new URL("http://example.org/a"));
+        pac.getProxies(new URL("http://example.org/a"));
+        pac.getProxies(new URL("http://example.org/b"));
+        assertEquals(2, pac.evaluations);
+    }
+
+    @Test
+    public void testSizeIsBounded() throws Exception {
+        CountingPacEvaluator pac = new CountingPacEvaluator(CacheKey.HOST, 8, TimeUnit.MINUTES.toNanos(1));
+        for (int i = 0; i < 100; i++) {
+            pac.getProxies(new URL("http://host" + i + ".example.org/"));
+            assertTrue(pac.getCacheSize() <= 8);
+        }
+        /* most recent results survive */
+        pac.getProxies(new URL("http://host99.example.org/"));
+        assertEquals(100, pac.evaluations);
+    }
+
+    @Test
+    public void testExpiry() throws Exception {
+        CountingPacEvaluator pac = new CountingPacEvaluator(CacheKey.HOST, 8, 0);
+        pac.getProxies(new URL("http://example.org/"));
+        Thread.sleep(1);
+        pac.getProxies(new URL("http://example.org/"));
+        assertEquals(2, pac.evaluations);
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        CountingPacEvaluator pac = new CountingPacEvaluator(CacheKey.HOST, 0, TimeUnit.MINUTES.toNanos(1));
+        pac.getProxies(new URL("http://example.org/"));
+        pac.getProxies(new URL("http://example.org/"));
+        assertEquals(2, pac.evaluations);
+        assertEquals(0, pac.getCacheSize());
+    }
+}
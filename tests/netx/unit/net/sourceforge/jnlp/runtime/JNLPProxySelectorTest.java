@@ -39,7 +39,7 @@ package net.sourceforge.jnlp.runtime;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
-import static org.junit.Assert.fail;
+import static org.junit.Assert.assertTrue;
 
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
@@ -47,13 +47,14 @@ import java.net.Proxy;
 import java.net.Proxy.Type;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.net.URL;
 import java.net.UnknownHostException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import net.sourceforge.jnlp.config.DeploymentConfiguration;
 
-import org.junit.Ignore;
 import org.junit.Test;
 
 public class JNLPProxySelectorTest {
@@ -84,8 +85,9 @@ public class JNLPProxySelectorTest {
     }
 
     @Test
-    public void testProxyBypassLocal() throws URISyntaxException, UnknownHostException {
+    public void testProxyBypassLocal() throws URISyntaxException, UnknownHostException, InterruptedException {
         final String LOCALHOST = InetAddress.getLocalHost().getHostName();
+        assertTrue(ProxyBypassMatcher.awaitLocalAddresses(10, TimeUnit.SECONDS));
 
         DeploymentConfiguration config = new DeploymentConfiguration();
         config.setProperty(DeploymentConfiguration.KEY_PROXY_TYPE, String.valueOf(JNLPProxySelector.PROXY_TYPE_MANUAL));
@@ -115,11 +117,19 @@ public class JNLPProxySelectorTest {
         assertEquals(Proxy.NO_PROXY, result.get(0));
     }
 
-    // TODO implement this
-    @Ignore("Implement this")
     @Test
-    public void testLocalProxyBypassListIsIgnoredForNonLocal() {
-        fail();
+    public void testLocalProxyBypassListIsIgnoredForNonLocal() throws URISyntaxException {
+        DeploymentConfiguration config = new DeploymentConfiguration();
+        config.setProperty(DeploymentConfiguration.KEY_PROXY_TYPE, String.valueOf(JNLPProxySelector.PROXY_TYPE_MANUAL));
+        config.setProperty(DeploymentConfiguration.KEY_PROXY_BYPASS_LOCAL, String.valueOf(true));
+        config.setProperty(DeploymentConfiguration.KEY_PROXY_HTTP_HOST, "proxy.example.org");
+        config.setProperty(DeploymentConfiguration.KEY_PROXY_HTTP_PORT, "42");
+
+        JNLPProxySelector selector = new TestProxySelector(config);
+        List<Proxy> result = selector.select(new URI("http://example.org/"));
+
+        assertEquals(1, result.size());
+        assertEquals(new Proxy(Type.HTTP, new InetSocketAddress("proxy.example.org", 42)), result.get(0));
     }
 
     @Test
@@ -142,6 +152,21 @@ public class JNLPProxySelectorTest {
         assertEquals(Proxy.NO_PROXY, result.get(0));
     }
 
+    @Test
+    public void testProxyBypassListRules() throws URISyntaxException {
+        DeploymentConfiguration config = new DeploymentConfiguration();
+        config.setProperty(DeploymentConfiguration.KEY_PROXY_TYPE, String.valueOf(JNLPProxySelector.PROXY_TYPE_MANUAL));
+        config.setProperty(DeploymentConfiguration.KEY_PROXY_HTTP_HOST, "proxy.example.org");
+        config.setProperty(DeploymentConfiguration.KEY_PROXY_BYPASS_LIST, "*.intranet.example.org,10.0.0.0/8");
+
+        JNLPProxySelector selector = new TestProxySelector(config);
+
+        assertEquals(Arrays.asList(Proxy.NO_PROXY), selector.select(new URI("http://wiki.intranet.example.org/")));
+        assertEquals(Arrays.asList(Proxy.NO_PROXY), selector.select(new URI("https://10.1.2.3/")));
+        assertEquals(Type.HTTP, selector.select(new URI("http://example.org/")).get(0).type());
+        assertEquals(Type.HTTP, selector.select(new URI("http://11.1.2.3/")).get(0).type());
+    }
+
     @Test
     public void testManualHttpProxy() throws URISyntaxException {
         String HTTP_HOST = "example.org";
@@ -283,18 +308,59 @@ public class JNLPProxySelectorTest {
         assertEquals(Proxy.NO_PROXY, result.get(0));
     }
 
-    // TODO
-    @Ignore("Need to find a way to inject a custom proxy autoconfig file first")
+    private static class CountingPacEvaluator extends CachingPacEvaluator {
+
+        int evaluations = 0;
+
+        CountingPacEvaluator() {
+            super(CacheKey.HOST, 16, TimeUnit.MINUTES.toNanos(1));
+        }
+
+        @Override
+        protected String getProxiesWithoutCaching(URL url) {
+            evaluations++;
+            return "PROXY proxy.example.org:3128;DIRECT";
+        }
+    }
+
     @Test
     public void testProxyAutoConfig() throws URISyntaxException {
         DeploymentConfiguration config = new DeploymentConfiguration();
         config.setProperty(DeploymentConfiguration.KEY_PROXY_TYPE, String.valueOf(JNLPProxySelector.PROXY_TYPE_AUTO));
-        config.setProperty(DeploymentConfiguration.KEY_PROXY_AUTO_CONFIG_URL, "foobar");
+        config.setProperty(DeploymentConfiguration.KEY_PROXY_AUTO_CONFIG_URL, "http://pac.example.org/proxy.pac");
 
         JNLPProxySelector selector = new TestProxySelector(config);
+        CountingPacEvaluator pacEvaluator = new CountingPacEvaluator();
+        selector.setPacEvaluator(pacEvaluator);
+
         List<Proxy> result = selector.select(new URI("http://example.org/"));
 
-        assertEquals(1, result.size());
+        assertEquals(2, result.size());
+        assertEquals(Type.HTTP, result.get(0).type());
+        assertEquals(Proxy.NO_PROXY, result.get(1));
+        assertEquals(1, pacEvaluator.evaluations);
+    }
+
+    @Test
+    public void testProxyAutoConfigIsEvaluatedOncePerHost() throws URISyntaxException {
+        DeploymentConfiguration config = new DeploymentConfiguration();
+        config.setProperty(DeploymentConfiguration.KEY_PROXY_TYPE, String.valueOf(JNLPProxySelector.PROXY_TYPE_AUTO));
+        config.setProperty(DeploymentConfiguration.KEY_PROXY_AUTO_CONFIG_URL, "http://pac.example.org/proxy.pac");
+
+        JNLPProxySelector selector = new TestProxySelector(config);
+        CountingPacEvaluator pacEvaluator = new CountingPacEvaluator();
+        selector.setPacEvaluator(pacEvaluator);
+
+        List<Proxy> first = selector.select(new URI("http://example.org/"));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(first, selector.select(new URI("http://example.org/path" + i + "?q=" + i)));
+        }
+        assertEquals(1, pacEvaluator.evaluations);
+        assertEquals(10, pacEvaluator.getHits());
+
+        selector.select(new URI("https://example.org/"));
+        selector.select(new URI("http://other.example.org/"));
+        assertEquals(3, pacEvaluator.evaluations);
     }
 
     // TODO this JNLPProxySelect#getProxiesFromPacResult should be moved into a different class
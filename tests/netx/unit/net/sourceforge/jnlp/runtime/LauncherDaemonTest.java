@@ -0,0 +1,205 @@
+/*
+Copyright (C) 2026 Red Hat, Inc.
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License as published by
+the Free Software Foundation, version 2.
+
+IcedTea is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to
+the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version.
+ */
+
+package net.sourceforge.jnlp.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import net.sourceforge.jnlp.JNLPFile;
+import net.sourceforge.jnlp.OptionsDefinitions;
+import net.sourceforge.jnlp.ParserSettings;
+import net.sourceforge.jnlp.util.optionparser.OptionParser;
+
+import org.junit.Test;
+
+public class LauncherDaemonTest {
+
+    private static boolean isDelegatable(String... args) throws Exception {
+        return LauncherDaemon.isDelegatable(new OptionParser(args, OptionsDefinitions.getJavaWsOptions()));
+    }
+
+    @Test
+    public void testOnlyPlainLaunchesAreDelegated() throws Exception {
+        assertTrue(isDelegatable("app.jnlp"));
+        assertTrue(isDelegatable("-jnlp", "app.jnlp"));
+        assertTrue(isDelegatable("app.jnlp", "-arg", "a", "b"));
+        assertTrue(isDelegatable("-jnlp", "app.jnlp", "-param", "a=b"));
+
+        assertFalse(isDelegatable());
+        assertFalse(isDelegatable("-Xnofork", "app.jnlp"));
+        assertFalse(isDelegatable("-nosecurity", "app.jnlp"));
+        assertFalse(isDelegatable("-Xclearcache"));
+        assertFalse(isDelegatable("-Xdaemon"));
+        assertFalse(isDelegatable("-html", "page.html"));
+    }
+
+    /**
+     * Serves one request of the given daemon on a fresh loopback port and
+     * returns the reply.
+     */
+    private static int request(final LauncherDaemon daemon, String secret, String... args) throws Exception {
+        try (ServerSocket server = serveOne(daemon)) {
+            return LauncherDaemon.send(server.getLocalPort(), secret, new File(System.getProperty("user.dir")), args);
+        }
+    }
+
+    /**
+     * Sends raw bytes to a daemon serving one request and returns the
+     * reply.
+     */
+    private static int requestRaw(final LauncherDaemon daemon, byte[] request) throws Exception {
+        try (ServerSocket server = serveOne(daemon);
+                Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getLocalPort())) {
+            socket.getOutputStream().write(request);
+            socket.getOutputStream().flush();
+            return socket.getInputStream().read();
+        }
+    }
+
+    private static ServerSocket serveOne(final LauncherDaemon daemon) throws Exception {
+        final ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        Thread t = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    Socket s = server.accept();
+                    daemon.handle(s);
+                } catch (Exception ex) {
+                    throw new RuntimeException(ex);
+                }
+            }
+        };
+        t.start();
+        return server;
+    }
+
+    @Test(timeout = 10000)
+    public void testRequestWithoutSecretIsRejected() throws Exception {
+        LauncherDaemon daemon = new LauncherDaemon(new File("unused"));
+        String secret = daemon.getSecret();
+        String guessed = secret.substring(0, secret.length() - 1) + (secret.endsWith("0") ? "1" : "0");
+        assertEquals(LauncherDaemon.REJECTED, request(daemon, guessed, "app.jnlp"));
+    }
+
+    @Test(timeout = 10000)
+    public void testSerializedObjectsAreNotRead() throws Exception {
+        LauncherDaemon daemon = new LauncherDaemon(new File("unused"));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(daemon.getSecret());
+            out.writeObject(new String[]{"app.jnlp"});
+        }
+        assertEquals(LauncherDaemon.REJECTED, requestRaw(daemon, bytes.toByteArray()));
+    }
+
+    @Test(timeout = 10000)
+    public void testTooManyArgumentsAreRejected() throws Exception {
+        LauncherDaemon daemon = new LauncherDaemon(new File("unused"));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.write(daemon.getSecret().getBytes(StandardCharsets.US_ASCII));
+            out.writeUTF("/");
+            out.writeInt(LauncherDaemon.MAX_ARGUMENTS + 1);
+        }
+        assertEquals(LauncherDaemon.REJECTED, requestRaw(daemon, bytes.toByteArray()));
+    }
+
+    @Test(timeout = 10000)
+    public void testOptionsChangingTheJvmAreRejected() throws Exception {
+        LauncherDaemon daemon = new LauncherDaemon(new File("unused"));
+        assertEquals(LauncherDaemon.REJECTED, request(daemon, daemon.getSecret(), "-Xtrustall", "app.jnlp"));
+    }
+
+    @Test
+    public void testOnlyTheLocationIsResolvedAgainstTheCaller() throws Exception {
+        File dir = Files.createTempDirectory("itw-daemon").toFile();
+        File jnlp = new File(dir, "app.jnlp");
+        try {
+            Files.write(jnlp.toPath(), new byte[0]);
+            OptionParser parser = new OptionParser(new String[]{"app.jnlp", "-arg", "app.jnlp"}, OptionsDefinitions.getJavaWsOptions());
+            assertEquals(jnlp.toURI().toURL(), LauncherDaemon.getLocation(parser, dir));
+            assertEquals(Arrays.asList("app.jnlp"), parser.getParams(OptionsDefinitions.OPTIONS.ARG));
+        } finally {
+            jnlp.delete();
+            dir.delete();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testApplicationsSettingPropertiesAreRejected() throws Exception {
+        File dir = Files.createTempDirectory("itw-daemon").toFile();
+        File jnlp = new File(dir, "app.jnlp");
+        try {
+            String contents = "<?xml version=\"1.0\"?>\n"
+                    + "<jnlp spec=\"1.0\" codebase=\"" + dir.toURI() + "\">\n"
+                    + "  <information><title>t</title><vendor>v</vendor></information>\n"
+                    + "  <resources><jar href=\"app.jar\"/><property name=\"shared\" value=\"x\"/></resources>\n"
+                    + "  <application-desc main-class=\"Main\"/>\n"
+                    + "</jnlp>\n";
+            Files.write(jnlp.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+            JNLPFile file = new JNLPFile(jnlp.toURI().toURL(), new ParserSettings());
+            assertTrue(LauncherDaemon.declaresProperties(file));
+
+            LauncherDaemon daemon = new LauncherDaemon(new File("unused"));
+            assertEquals(LauncherDaemon.REJECTED, request(daemon, daemon.getSecret(), jnlp.getPath()));
+            assertEquals(null, System.getProperty("shared"));
+        } finally {
+            jnlp.delete();
+            dir.delete();
+        }
+    }
+
+    @Test
+    public void testSecretsDiffer() {
+        String secret = new LauncherDaemon(new File("unused")).getSecret();
+        assertEquals(LauncherDaemon.SECRET_LENGTH, secret.length());
+        assertFalse(secret.equals(new LauncherDaemon(new File("unused")).getSecret()));
+    }
+}
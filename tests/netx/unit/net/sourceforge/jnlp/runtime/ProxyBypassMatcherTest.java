@@ -0,0 +1,134 @@
+/*
+Copyright (C) 2026 Red Hat, Inc.
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License as published by
+the Free Software Foundation, version 2.
+
+IcedTea is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to
+the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version.
+ */
+
+package net.sourceforge.jnlp.runtime;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class ProxyBypassMatcherTest {
+
+    private static ProxyBypassMatcher matcher(String... rules) {
+        return new ProxyBypassMatcher(Arrays.asList(rules), false);
+    }
+
+    @Test
+    public void testExactHost() {
+        ProxyBypassMatcher m = matcher("example.org", " Other.Example.org ");
+        assertTrue(m.matches("example.org"));
+        assertTrue(m.matches("EXAMPLE.org"));
+        assertTrue(m.matches("other.example.org"));
+        assertFalse(m.matches("www.example.org"));
+        assertFalse(m.matches("example.org.evil.com"));
+        assertFalse(m.matches(null));
+        assertFalse(m.matches(""));
+    }
+
+    @Test
+    public void testSuffix() {
+        ProxyBypassMatcher m = matcher(".example.org", "*.example.com");
+        assertTrue(m.matches("www.example.org"));
+        assertTrue(m.matches("a.b.example.com"));
+        assertFalse(m.matches("example.org"));
+        assertFalse(m.matches("notexample.org"));
+        assertFalse(m.matches("example.com"));
+    }
+
+    @Test
+    public void testWildcard() {
+        ProxyBypassMatcher m = matcher("build-*.example.org", "192.168.*");
+        assertTrue(m.matches("build-42.example.org"));
+        assertTrue(m.matches("192.168.1.1"));
+        assertFalse(m.matches("build.example.org"));
+        assertFalse(m.matches("192.169.1.1"));
+    }
+
+    @Test
+    public void testCidr() {
+        ProxyBypassMatcher m = matcher("10.0.0.0/8", "172.16.0.0/12", "fe80::/10", "0.0.0.0/99", "bad/8");
+        assertTrue(m.matches("10.20.30.40"));
+        assertTrue(m.matches("172.31.255.255"));
+        assertFalse(m.matches("172.32.0.1"));
+        assertTrue(m.matches("[fe80::1]"));
+        assertTrue(m.matches("fe80::abcd:1"));
+        assertFalse(m.matches("fec0::1"));
+        /* host names are not resolved */
+        assertFalse(m.matches("ten.example.org"));
+    }
+
+    @Test
+    public void testPlainHostNames() {
+        ProxyBypassMatcher m = matcher("<local>");
+        assertTrue(m.matches("intranet"));
+        assertFalse(m.matches("intranet.example.org"));
+        assertFalse(matcher().matches("intranet"));
+    }
+
+    @Test
+    public void testLocal() throws Exception {
+        ProxyBypassMatcher m = new ProxyBypassMatcher(Collections.<String>emptyList(), true);
+        assertTrue(ProxyBypassMatcher.awaitLocalAddresses(10, TimeUnit.SECONDS));
+        assertTrue(m.matches("localhost"));
+        assertTrue(m.matches("127.0.0.1"));
+        assertTrue(m.matches("127.1.2.3"));
+        assertTrue(m.matches("[::1]"));
+        assertTrue(m.matches(InetAddress.getLocalHost().getHostName()));
+        assertFalse(m.matches("example.org"));
+        assertFalse(m.matches("8.8.8.8"));
+
+        assertFalse(matcher().matches("localhost"));
+    }
+
+    @Test
+    public void testParseAddress() {
+        assertArrayEquals(new byte[]{10, 0, 0, 1}, ProxyBypassMatcher.parseAddress("10.0.0.1"));
+        assertNull(ProxyBypassMatcher.parseAddress("10.0.0.256"));
+        assertNull(ProxyBypassMatcher.parseAddress("10.0.0"));
+        assertNull(ProxyBypassMatcher.parseAddress("example.org"));
+        assertNull(ProxyBypassMatcher.parseAddress("deadbeef"));
+        assertArrayEquals(new byte[]{0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 1}, ProxyBypassMatcher.parseAddress("::1"));
+    }
+}
@@ -0,0 +1,118 @@
+/*
+Copyright (C) 2026 Red Hat, Inc.
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License as published by
+the Free Software Foundation, version 2.
+
+IcedTea is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to
+the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version.
+ */
+
+package net.sourceforge.jnlp.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringWriter;
+import java.net.URL;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StartupTimelineTest {
+
+    private boolean wasEnabled;
+
+    @Before
+    public void enable() {
+        wasEnabled = StartupTimeline.isEnabled();
+        StartupTimeline.setEnabled(true);
+    }
+
+    @After
+    public void restore() {
+        StartupTimeline.setEnabled(wasEnabled);
+    }
+
+    @Test
+    public void testNothingIsRecordedWhenDisabled() {
+        StartupTimeline.setEnabled(false);
+        StartupTimeline.Phase phase = StartupTimeline.start("testNothingIsRecordedWhenDisabled", new Object() {
+            @Override
+            public String toString() {
+                throw new AssertionError("detail must not be evaluated");
+            }
+        });
+        phase.end();
+        assertFalse(StartupTimeline.getPhases().contains(phase));
+        assertSame(phase, StartupTimeline.start("other"));
+    }
+
+    @Test
+    public void testTraceFormat() throws Exception {
+        StartupTimeline.Phase done = StartupTimeline.start("trace \"done\"", new URL("http://example.org/a.jar"));
+        done.end();
+        StartupTimeline.Phase running = StartupTimeline.start("trace running");
+        StringWriter w = new StringWriter();
+        StartupTimeline.writeTrace(w);
+        running.end();
+        String trace = w.toString();
+        assertTrue(trace, trace.startsWith("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[\n"));
+        assertTrue(trace, trace.endsWith("\n]}\n"));
+        assertTrue(trace, trace.contains("{\"name\":\"trace \\\"done\\\"\",\"cat\":\"itw\",\"ph\":\"X\",\"pid\":1,\"tid\":" + Thread.currentThread().getId() + ",\"ts\":"));
+        assertTrue(trace, trace.contains(",\"args\":{\"url\":\"http://example.org/a.jar\"}}"));
+        assertTrue(trace, trace.contains(",\"args\":{\"unfinished\":true}}"));
+        assertTrue(trace, trace.contains("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":" + Thread.currentThread().getId() + ",\"args\":{\"name\":"));
+    }
+
+    @Test
+    public void testPhasesAreRecorded() throws Exception {
+        StartupTimeline.Phase phase = StartupTimeline.start("testPhasesAreRecorded");
+        assertEquals(-1, phase.getDuration());
+        assertTrue(StartupTimeline.report().contains("running  testPhasesAreRecorded"));
+        Thread.sleep(5);
+        phase.end();
+        long duration = phase.getDuration();
+        assertTrue(duration >= 5000000);
+        phase.end();
+        assertEquals(duration, phase.getDuration());
+        assertEquals(Thread.currentThread().getName(), phase.getThreadName());
+
+        List<StartupTimeline.Phase> phases = StartupTimeline.getPhases();
+        assertTrue(phases.contains(phase));
+        String report = StartupTimeline.report();
+        assertTrue(report, report.contains("testPhasesAreRecorded [" + Thread.currentThread().getName() + "]"));
+        assertTrue(report, !report.contains("running  testPhasesAreRecorded"));
+    }
+}
@@ -36,9 +36,14 @@
  */
 package net.sourceforge.jnlp.security;
 
+import java.io.File;
+import java.security.KeyStore;
 import java.security.Permission;
+import java.security.cert.X509Certificate;
+import java.util.Date;
 import net.sourceforge.jnlp.config.InfrastructureFileDescriptor;
 import net.sourceforge.jnlp.config.PathsAndFiles;
+import net.sourceforge.jnlp.tools.CodeSignerCreator;
 import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.Test;
@@ -128,4 +133,72 @@ public class KeyStoresTest {
         Assert.assertEquals(true, dm.called);
     } 
 
+    @Test
+    public void sharedKeyStoresAreReusedAndIndexed() {
+        System.setSecurityManager(null);
+        KeyStore[] first = KeyStores.getCAKeyStores();
+        KeyStore[] second = KeyStores.getCAKeyStores();
+        Assert.assertEquals(first.length, second.length);
+        for (int i = 0; i < first.length; i++) {
+            if (KeyStores.getIndex(first[i]) != null) {
+                Assert.assertSame(first[i], second[i]);
+            }
+        }
+        // user level store is created if missing, so it is always shared
+        Assert.assertNotNull(KeyStores.getIndex(first[first.length - 1]));
+        Assert.assertNull(KeyStores.getIndex(KeyStores.getKeyStore(KeyStores.Level.USER, KeyStores.Type.CA_CERTS)));
+    }
+
+    @Test
+    public void sharedKeyStoreIsReloadedAfterChange() throws Exception {
+        System.setSecurityManager(null);
+        File file = PathsAndFiles.USER_CACERTS.getFile();
+        X509Certificate cert = CodeSignerCreator.createCert("CN=KeyStoresTest", new Date(), 10);
+        KeyStore[] before = KeyStores.getCAKeyStores();
+        Assert.assertFalse(CertificateUtils.inKeyStores(cert, before));
+
+        KeyStore ks = KeyStores.getKeyStore(KeyStores.Level.USER, KeyStores.Type.CA_CERTS);
+        long generation = KeyStores.getGeneration();
+        ks.setCertificateEntry("keystorestest", cert);
+        SecurityUtil.storeKeyStore(ks, file);
+        try {
+            Assert.assertTrue(KeyStores.getGeneration() != generation);
+            KeyStore[] after = KeyStores.getCAKeyStores();
+            Assert.assertTrue(CertificateUtils.inKeyStores(cert, after));
+            Assert.assertNotSame(before[before.length - 1], after[after.length - 1]);
+        } finally {
+            ks.deleteEntry("keystorestest");
+            SecurityUtil.storeKeyStore(ks, file);
+        }
+        Assert.assertFalse(CertificateUtils.inKeyStores(cert, KeyStores.getCAKeyStores()));
+    }
+
+    @Test
+    public void externalChangeIsDetected() throws Exception {
+        System.setSecurityManager(null);
+        File file = PathsAndFiles.USER_CACERTS.getFile();
+        KeyStore[] before = KeyStores.getCAKeyStores();
+        long modified = file.lastModified();
+        long generation = KeyStores.getGeneration();
+        Assert.assertTrue(file.setLastModified(modified - 10000));
+        try {
+            Assert.assertTrue(KeyStores.checkSnapshots());
+            Assert.assertTrue(KeyStores.getGeneration() != generation);
+            KeyStore[] after = KeyStores.getCAKeyStores();
+            Assert.assertNotSame(before[before.length - 1], after[after.length - 1]);
+            Assert.assertFalse(KeyStores.checkSnapshots());
+        } finally {
+            file.setLastModified(modified);
+        }
+    }
+
+    @Test
+    public void fingerprintTest() throws Exception {
+        X509Certificate a = CodeSignerCreator.createCert("CN=a", new Date(), 10);
+        X509Certificate b = CodeSignerCreator.createCert("CN=b", new Date(), 10);
+        Assert.assertEquals(64, CertificateUtils.getFingerprint(a).length());
+        Assert.assertEquals(CertificateUtils.getFingerprint(a), CertificateUtils.getFingerprint(a));
+        Assert.assertFalse(CertificateUtils.getFingerprint(a).equals(CertificateUtils.getFingerprint(b)));
+    }
+
 }
@@ -0,0 +1,136 @@
+/*
+Copyright (C) 2026 Red Hat, Inc.
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License as published by
+the Free Software Foundation, version 2.
+
+IcedTea is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to
+the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version.
+ */
+
+package net.sourceforge.jnlp.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FilePermission;
+import java.security.AccessControlContext;
+import java.security.AccessController;
+import java.security.KeyStore;
+import java.security.Permission;
+import java.security.Permissions;
+import java.security.PrivilegedExceptionAction;
+import java.security.ProtectionDomain;
+import java.security.cert.X509Certificate;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import net.sourceforge.jnlp.config.PathsAndFiles;
+import net.sourceforge.jnlp.tools.CodeSignerCreator;
+
+import org.junit.Test;
+
+public class VariableX509TrustManagerTest {
+
+    @Test
+    public void testValidatedKey() throws Exception {
+        X509Certificate a = CodeSignerCreator.createCert("CN=a.example.org", new Date(), 10);
+        X509Certificate b = CodeSignerCreator.createCert("CN=b.example.org", new Date(), 10);
+
+        String key = VariableX509TrustManager.getValidatedKey(new X509Certificate[]{a, b}, "RSA", "a.example.org");
+        assertEquals(key, VariableX509TrustManager.getValidatedKey(new X509Certificate[]{a, b}, "RSA", "a.example.org"));
+        assertFalse(key.equals(VariableX509TrustManager.getValidatedKey(new X509Certificate[]{a, b}, "RSA", "b.example.org")));
+        assertFalse(key.equals(VariableX509TrustManager.getValidatedKey(new X509Certificate[]{a, b}, "DHE_RSA", "a.example.org")));
+        assertFalse(key.equals(VariableX509TrustManager.getValidatedKey(new X509Certificate[]{b, a}, "RSA", "a.example.org")));
+        assertFalse(key.equals(VariableX509TrustManager.getValidatedKey(new X509Certificate[]{a}, "RSA", "a.example.org")));
+    }
+
+    @Test
+    public void testStoringKeyStoreChangesGeneration() throws Exception {
+        File f = File.createTempFile("itw", ".jks");
+        f.deleteOnExit();
+        KeyStore ks = KeyStore.getInstance("JKS");
+        ks.load(null, null);
+
+        long generation = KeyStores.getGeneration();
+        SecurityUtil.storeKeyStore(ks, f);
+        assertTrue(KeyStores.getGeneration() != generation);
+    }
+
+    @Test
+    public void testSandboxedHandshakeChecksKeyStoresWithRuntimePermissions() throws Exception {
+        X509Certificate cert = CodeSignerCreator.createCert("CN=sandboxed.example.org", new Date(), 10);
+        final X509Certificate[] chain = new X509Certificate[]{cert};
+        File f = File.createTempFile("itw", ".jks");
+        f.deleteOnExit();
+        KeyStore ks = KeyStore.getInstance("JKS");
+        ks.load(null, null);
+        ks.setCertificateEntry("sandboxed", cert);
+        SecurityUtil.storeKeyStore(ks, f);
+
+        String userCerts = PathsAndFiles.USER_CERTS.getFullPath();
+        PathsAndFiles.USER_CERTS.setValue(f.getPath());
+        try {
+            KeyStores.keyStoreChanged();
+            final VariableX509TrustManagerJDK7 tm = new VariableX509TrustManagerJDK7();
+            // explicitly trusted, loads the keystore files and remembers the chain
+            tm.checkServerTrusted(chain, "RSA");
+            // next handshake looks at the keystore files again
+            Thread.sleep(TimeUnit.NANOSECONDS.toMillis(KeyStores.CHECK_INTERVAL) + 100);
+
+            AccessControlContext sandbox = new AccessControlContext(new ProtectionDomain[]{
+                new ProtectionDomain(null, new Permissions())});
+            System.setSecurityManager(new SecurityManager() {
+                @Override
+                public void checkPermission(Permission perm) {
+                    if (perm instanceof FilePermission) {
+                        super.checkPermission(perm);
+                    }
+                }
+            });
+            try {
+                AccessController.doPrivileged(new PrivilegedExceptionAction<Void>() {
+                    @Override
+                    public Void run() throws Exception {
+                        tm.checkServerTrusted(chain, "RSA");
+                        return null;
+                    }
+                }, sandbox);
+            } finally {
+                System.setSecurityManager(null);
+            }
+        } finally {
+            PathsAndFiles.USER_CERTS.setValue(userCerts);
+            KeyStores.keyStoreChanged();
+        }
+    }
+}
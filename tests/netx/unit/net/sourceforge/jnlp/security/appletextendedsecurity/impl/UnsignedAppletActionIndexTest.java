@@ -0,0 +1,127 @@
+/*   Copyright (C) 2026 Red Hat, Inc.
+
+ This file is part of IcedTea.
+
+ IcedTea is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, version 2.
+
+ IcedTea is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with IcedTea; see the file COPYING.  If not, write to
+ the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ 02110-1301 USA.
+
+ Linking this library statically or dynamically with other modules is
+ making a combined work based on this library.  Thus, the terms and
+ conditions of the GNU General Public License cover the whole
+ combination.
+
+ As a special exception, the copyright holders of this library give you
+ permission to link this library with independent modules to produce an
+ executable, regardless of the license terms of these independent
+ modules, and to copy and distribute the resulting executable under
+ terms of your choice, provided that you also meet, for each linked
+ independent module, the terms and conditions of the license of that
+ module.  An independent module is a module which is not derived from
+ or based on this library.  If you modify this library, you may extend
+ this exception to your version of the library, but you are not
+ obligated to do so.  If you do not wish to do so, delete this
+ exception statement from your version.
+ */
+package net.sourceforge.jnlp.security.appletextendedsecurity.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import net.sourceforge.jnlp.ServerAccess;
+import net.sourceforge.jnlp.security.appletextendedsecurity.UnsignedAppletActionEntry;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class UnsignedAppletActionIndexTest {
+
+    private static final String versionLine = UnsignedAppletActionStorageImpl.versionPreffix + UnsignedAppletActionStorageImpl.currentVersion + "\n";
+
+    @Test
+    public void literalPrefixTest() {
+        Assert.assertEquals("http://a.b/c", UnsignedAppletActionIndex.getLiteralPrefix("\\Qhttp://a.b/c\\E"));
+        Assert.assertEquals("http://a.b/c", UnsignedAppletActionIndex.getLiteralPrefix("\\Qhttp://a.b/c\\E.*"));
+        Assert.assertEquals("http://a.b/", UnsignedAppletActionIndex.getLiteralPrefix("\\Qhttp://a.b/c\\E?"));
+        Assert.assertEquals("http://a.b/c", UnsignedAppletActionIndex.getLiteralPrefix("\\Qhttp://a.b/c"));
+        Assert.assertEquals("http://a", UnsignedAppletActionIndex.getLiteralPrefix("http://a.b/c"));
+        Assert.assertEquals("http://a.b/c", UnsignedAppletActionIndex.getLiteralPrefix("http://a\\.b/c"));
+        Assert.assertEquals("http://a.b/", UnsignedAppletActionIndex.getLiteralPrefix("\\Qhttp://a.\\Eb/c*"));
+        Assert.assertEquals("", UnsignedAppletActionIndex.getLiteralPrefix(".*"));
+        Assert.assertEquals("", UnsignedAppletActionIndex.getLiteralPrefix("\\Qhttp://a\\E|\\Qhttp://b\\E"));
+        Assert.assertEquals("", UnsignedAppletActionIndex.getLiteralPrefix("(?i)http://a"));
+        Assert.assertEquals("", UnsignedAppletActionIndex.getLiteralPrefix("[h]ttp://a"));
+        Assert.assertEquals("", UnsignedAppletActionIndex.getLiteralPrefix("h?ttp://a"));
+    }
+
+    @Test
+    public void prefixIsConsistentWithRegex() {
+        String[] regexes = new String[]{"\\Qhttp://a.b/c\\E.*", "http://a\\.b/c+", "http://a\\.b/(c|d)", "ab{2}c", "\\Qab\\E+c"};
+        String[] inputs = new String[]{"http://a.b/c", "http://a.b/ccc", "http://a.b/d", "abbc", "abbbc", "ac"};
+        for (String regex : regexes) {
+            String prefix = UnsignedAppletActionIndex.getLiteralPrefix(regex);
+            for (String input : inputs) {
+                if (input.matches(regex)) {
+                    Assert.assertTrue(regex + " " + input, input.startsWith(prefix));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void matchingKeepsFileOrder() {
+        List<UnsignedAppletActionEntry> items = Arrays.asList(
+                UnsignedAppletActionEntry.createFromString("c1:A{YES}; 1 .* \\Qhttp://b/\\E"),
+                UnsignedAppletActionEntry.createFromString("c1:A{YES}; 2 \\Qhttp://a/x\\E \\Qhttp://b/\\E"),
+                UnsignedAppletActionEntry.createFromString("c1:A{YES}; 3 \\Qhttp://a/\\E.* \\Qhttp://b/\\E"),
+                UnsignedAppletActionEntry.createFromString("c1:A{YES}; 4 \\Qhttp://c/\\E.* \\Qhttp://b/\\E"),
+                UnsignedAppletActionEntry.createFromString("c1:A{YES}; 5 [ \\Qhttp://b/\\E"),
+                UnsignedAppletActionEntry.createFromString("c1:A{YES}; 6 http://a/.* \\Qhttp://b/\\E"));
+        UnsignedAppletActionIndex index = new UnsignedAppletActionIndex(items, null);
+        List<UnsignedAppletActionEntry> r = index.getMatchingItems("http://a/x", null, null);
+        Assert.assertEquals(Arrays.asList(items.get(0), items.get(1), items.get(2), items.get(5)), r);
+        r = index.getMatchingItems("http://c/x", null, null);
+        Assert.assertEquals(Arrays.asList(items.get(0), items.get(3)), r);
+        r = index.getMatchingItems(null, "http://b/", null);
+        Assert.assertEquals(items, r);
+        r = index.getMatchingItems(null, "http://c/", null);
+        Assert.assertTrue(r.isEmpty());
+        r = index.getMatchingItems(null, null, null);
+        Assert.assertEquals(items, r);
+    }
+
+    @Test
+    public void storageIsReloadedOnlyAfterChange() throws IOException {
+        File f = File.createTempFile("itwMatching", "index");
+        try {
+            ServerAccess.saveFile(versionLine + "c1:A{YES}; 1 \\Qhttp://a/\\E.* \\Qhttp://b/\\E", f);
+            UnsignedAppletActionStorageImpl storage = new UnsignedAppletActionStorageImpl(f);
+            UnsignedAppletActionEntry e1 = storage.getMatchingItems("http://a/x", null, null).get(0);
+            Assert.assertSame(e1, storage.getMatchingItems("http://a/y", null, null).get(0));
+            Assert.assertTrue(storage.getMatchingItems("http://c/x", null, null).isEmpty());
+
+            ServerAccess.saveFile(versionLine + "c1:A{YES}; 1 \\Qhttp://c/\\E.* \\Qhttp://b/\\E\n"
+                    + "c1:A{YES}; 1 \\Qhttp://a/\\E.* \\Qhttp://b/\\E", f);
+            Assert.assertEquals(1, storage.getMatchingItems("http://c/x", null, null).size());
+            UnsignedAppletActionEntry e2 = storage.getMatchingItems("http://a/x", null, null).get(0);
+            Assert.assertNotSame(e1, e2);
+
+            UnsignedAppletActionEntry added = UnsignedAppletActionEntry.createFromString("c1:A{YES}; 1 \\Qhttp://d/\\E.* \\Qhttp://b/\\E");
+            storage.add(added);
+            Assert.assertSame(added, storage.getMatchingItems("http://d/x", null, null).get(0));
+            Assert.assertSame(e2, storage.getMatchingItems("http://a/x", null, null).get(0));
+        } finally {
+            f.delete();
+        }
+    }
+}
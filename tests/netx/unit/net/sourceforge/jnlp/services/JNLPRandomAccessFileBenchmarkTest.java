@@ -0,0 +1,87 @@
+/*
+Copyright (C) 2026 Red Hat, Inc.
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License as published by
+the Free Software Foundation, version 2.
+
+IcedTea is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to
+the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version.
+ */
+
+package net.sourceforge.jnlp.services;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+
+import javax.jnlp.FileContents;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class JNLPRandomAccessFileBenchmarkTest {
+
+    private static JNLPRandomAccessFileBenchmark benchmark;
+
+    @BeforeClass
+    public static void setup() throws Exception {
+        benchmark = new JNLPRandomAccessFileBenchmark();
+    }
+
+    @AfterClass
+    public static void tearDown() throws IOException {
+        benchmark.close();
+    }
+
+    @Test
+    public void testBothRandomAccessFilesReadBackWhatWasWritten() throws Exception {
+        FileContents file = benchmark.openFile("file");
+        FileContents muffin = benchmark.openMuffin("muffin", 4096);
+        // throws if the ints read back differ from the written ones
+        JNLPRandomAccessFileBenchmark.measureRandomAccess(file, 4096);
+        JNLPRandomAccessFileBenchmark.measureRandomAccess(muffin, 4096);
+        assertEquals(4096, file.getLength());
+        assertEquals(4096, muffin.getLength());
+    }
+
+    @Test
+    public void testReflectiveProxyCallsTheContents() throws Exception {
+        FileContents file = benchmark.openFile("calls");
+        assertEquals(file.getName(), JNLPRandomAccessFileBenchmark.reflectiveProxy(file).getName());
+    }
+
+    @Test(expected = FileNotFoundException.class)
+    public void testWrapperThrowsUnwrappedExceptions() throws Exception {
+        PrivilegedServices.wrap(new XFileContents(new File("/nonexistent-dir/file"))).getInputStream();
+    }
+}
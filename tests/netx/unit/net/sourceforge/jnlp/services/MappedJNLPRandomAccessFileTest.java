@@ -0,0 +1,280 @@
+/*
+Copyright (C) 2026 Red Hat, Inc.
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License as published by
+the Free Software Foundation, version 2.
+
+IcedTea is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to
+the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version.
+ */
+
+package net.sourceforge.jnlp.services;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+
+import javax.jnlp.JNLPRandomAccessFile;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MappedJNLPRandomAccessFileTest {
+
+    private File file;
+    private File lengthFile;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("itw-mapped", ".dat");
+        lengthFile = new File(file.getPath() + ".length");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+        lengthFile.delete();
+    }
+
+    @Test
+    public void testWritesMatchRandomAccessFile() throws Exception {
+        JNLPRandomAccessFile mapped = new MappedJNLPRandomAccessFile(file, "rw", 1 << 20);
+        try {
+            mapped.writeInt(42);
+            mapped.writeLong(-3L);
+            mapped.writeDouble(1.5);
+            mapped.writeUTF("muffin é");
+            mapped.writeChars("ab");
+            mapped.writeBytes("line\r\nnext");
+            mapped.writeBoolean(true);
+            // grow past the initial mapping
+            mapped.write(new byte[10000]);
+            mapped.writeShort(-2);
+        } finally {
+            mapped.close();
+        }
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            assertEquals(42, raf.readInt());
+            assertEquals(-3L, raf.readLong());
+            assertEquals(1.5, raf.readDouble(), 0);
+            assertEquals("muffin é", raf.readUTF());
+            assertEquals('a', raf.readChar());
+            assertEquals('b', raf.readChar());
+            assertEquals("line", raf.readLine());
+            byte[] next = new byte[4];
+            raf.readFully(next);
+            assertArrayEquals("next".getBytes("US-ASCII"), next);
+            assertEquals(true, raf.readBoolean());
+            raf.skipBytes(10000);
+            assertEquals(-2, raf.readShort());
+            // the file was cut to what was written
+            assertEquals(raf.getFilePointer(), raf.length());
+        }
+    }
+
+    @Test
+    public void testReadsMatchRandomAccessFile() throws Exception {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.writeInt(7);
+            raf.writeUTF("text");
+            raf.writeBytes("one\ntwo");
+        }
+
+        JNLPRandomAccessFile mapped = new MappedJNLPRandomAccessFile(file, "r", 0);
+        try {
+            assertEquals(file.length(), mapped.length());
+            assertEquals(7, mapped.readInt());
+            assertEquals("text", mapped.readUTF());
+            assertEquals("one", mapped.readLine());
+            assertEquals("two", mapped.readLine());
+            assertNull(mapped.readLine());
+            assertEquals(-1, mapped.read());
+            try {
+                mapped.readInt();
+                fail("end of file");
+            } catch (EOFException ex) {
+                // expected
+            }
+            try {
+                mapped.write(1);
+                fail("read only");
+            } catch (IOException ex) {
+                // expected
+            }
+            mapped.seek(0);
+            assertEquals(7, mapped.readInt());
+        } finally {
+            mapped.close();
+        }
+    }
+
+    @Test
+    public void testSetLength() throws Exception {
+        JNLPRandomAccessFile mapped = new MappedJNLPRandomAccessFile(file, "rw", 100);
+        try {
+            mapped.writeLong(-1L);
+            mapped.setLength(4);
+            assertEquals(4, mapped.getFilePointer());
+            mapped.setLength(8);
+            mapped.seek(4);
+            // truncated bytes read as zero again
+            assertEquals(0, mapped.readInt());
+            try {
+                mapped.setLength(101);
+                fail("maximum length exceeded");
+            } catch (IOException ex) {
+                // expected
+            }
+            assertEquals(8, mapped.length());
+        } finally {
+            mapped.close();
+        }
+        assertEquals(8, file.length());
+    }
+
+    @Test
+    public void testOpenHandleKeepsLength() throws Exception {
+        JNLPRandomAccessFile mapped = new MappedJNLPRandomAccessFile(file, "rw", 1 << 20, lengthFile);
+        try {
+            mapped.write(new byte[10]);
+            // the mapping padded the file on disk
+            assertTrue(file.length() > 10);
+            assertEquals(10, MappedJNLPRandomAccessFile.length(file, lengthFile));
+
+            JNLPRandomAccessFile reader = new MappedJNLPRandomAccessFile(file, "r", 0, lengthFile);
+            assertEquals(10, reader.length());
+            reader.close();
+
+            try {
+                new MappedJNLPRandomAccessFile(file, "rw", 1 << 20, lengthFile);
+                fail("a second handle for writing should be refused");
+            } catch (IOException ex) {
+                // expected
+            }
+            try {
+                MappedJNLPRandomAccessFile.prepareStream(file, lengthFile, false);
+                fail("a stream should be refused while a handle writes");
+            } catch (IOException ex) {
+                // expected
+            }
+            assertTrue(file.length() > 10);
+        } finally {
+            mapped.close();
+        }
+        assertEquals(10, file.length());
+        assertEquals(10, MappedJNLPRandomAccessFile.length(file, lengthFile));
+    }
+
+    @Test
+    public void testAbandonedHandleIsCutOnReopen() throws Exception {
+        // what a handle of a JVM that died leaves behind: a padded file and
+        // an unlocked length record
+        Files.write(file.toPath(), new byte[4096]);
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(lengthFile))) {
+            out.writeLong(10);
+        }
+        assertEquals(10, MappedJNLPRandomAccessFile.length(file, lengthFile));
+
+        JNLPRandomAccessFile mapped = new MappedJNLPRandomAccessFile(file, "rw", 1 << 20, lengthFile);
+        try {
+            assertEquals(10, mapped.length());
+            assertEquals(10, file.length());
+        } finally {
+            mapped.close();
+        }
+        assertEquals(10, file.length());
+        assertEquals(10, MappedJNLPRandomAccessFile.length(file, lengthFile));
+    }
+
+    @Test
+    public void testAbandonedHandleIsCutBeforeAppending() throws Exception {
+        Files.write(file.toPath(), new byte[4096]);
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(lengthFile))) {
+            out.writeLong(10);
+        }
+        MappedJNLPRandomAccessFile.prepareStream(file, lengthFile, false);
+        assertEquals(10, file.length());
+        assertEquals(10, MappedJNLPRandomAccessFile.length(file, lengthFile));
+    }
+
+    @Test
+    public void testMappedFileIsNotCut() throws Exception {
+        JNLPRandomAccessFile writer = new MappedJNLPRandomAccessFile(file, "rw", 1 << 20, lengthFile);
+        JNLPRandomAccessFile reader = null;
+        try {
+            writer.write(new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10});
+            reader = new MappedJNLPRandomAccessFile(file, "r", 0, lengthFile);
+            writer.setLength(4);
+            writer.close();
+            // the reader still maps ten bytes
+            assertTrue(file.length() >= 10);
+            assertEquals(4, MappedJNLPRandomAccessFile.length(file, lengthFile));
+            // what the writer cut off reads as zero, rather than faulting
+            reader.seek(9);
+            assertEquals(0, reader.read());
+        } finally {
+            writer.close();
+            if (reader != null) {
+                reader.close();
+            }
+        }
+        MappedJNLPRandomAccessFile.prepareStream(file, lengthFile, false);
+        assertEquals(4, file.length());
+    }
+
+    @Test
+    public void testStreamIsRefusedWhileMapped() throws Exception {
+        Files.write(file.toPath(), new byte[10]);
+        JNLPRandomAccessFile reader = new MappedJNLPRandomAccessFile(file, "r", 0, lengthFile);
+        try {
+            MappedJNLPRandomAccessFile.prepareStream(file, lengthFile, true);
+            fail("the file should not be cut while it is mapped");
+        } catch (IOException ex) {
+            // expected
+        } finally {
+            reader.close();
+        }
+        assertEquals(10, file.length());
+        MappedJNLPRandomAccessFile.prepareStream(file, lengthFile, true);
+        assertEquals(0, file.length());
+    }
+}
@@ -0,0 +1,175 @@
+/*
+Copyright (C) 2026 Red Hat, Inc.
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License as published by
+the Free Software Foundation, version 2.
+
+IcedTea is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to
+the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version.
+ */
+
+package net.sourceforge.jnlp.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.file.Files;
+
+import javax.jnlp.JNLPRandomAccessFile;
+import javax.jnlp.PersistenceService;
+
+import net.sourceforge.jnlp.util.FileUtils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MuffinStoreTest {
+
+    private File root;
+    private MuffinStore store;
+
+    @Before
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("itw-muffins").toFile();
+        store = new MuffinStore(root, 1000);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.recursiveDelete(root, root);
+    }
+
+    @Test
+    public void testQuotaIsSharedByHost() throws Exception {
+        assertEquals(600, store.create(new URL("http://example.com/app/a"), 600));
+        assertEquals(400, store.create(new URL("http://example.com/app/b"), 600));
+        try {
+            store.create(new URL("http://example.com/app/c"), 1);
+            fail("quota of the host is used up");
+        } catch (IOException ex) {
+            // expected
+        }
+        // other hosts have their own quota
+        assertEquals(1000, store.create(new URL("http://example.org/app/a"), 1000));
+
+        store.delete(new URL("http://example.com/app/a"));
+        assertEquals(100, store.setMaxSize(new URL("http://example.com/app/b"), 100));
+        assertEquals(900, store.create(new URL("http://example.com/app/c"), 1000));
+    }
+
+    @Test
+    public void testTemporaryMuffinsMakeRoom() throws Exception {
+        URL temporary = new URL("http://example.com/app/temporary");
+        assertEquals(800, store.create(temporary, 800));
+        store.setTag(temporary, PersistenceService.TEMPORARY);
+
+        assertEquals(500, store.create(new URL("http://example.com/app/kept"), 500));
+        assertFalse(store.toFile(temporary).exists());
+    }
+
+    @Test
+    public void testTags() throws Exception {
+        URL muffin = new URL("http://example.com/app/tagged");
+        store.create(muffin, 100);
+        assertEquals(PersistenceService.DIRTY, store.getTag(muffin));
+
+        store.setTag(muffin, PersistenceService.CACHED);
+        assertEquals(PersistenceService.CACHED, store.getTag(muffin));
+        store.markChanged(muffin);
+        assertEquals(PersistenceService.DIRTY, store.getTag(muffin));
+
+        store.setTag(muffin, PersistenceService.TEMPORARY);
+        store.markChanged(muffin);
+        assertEquals(PersistenceService.TEMPORARY, store.getTag(muffin));
+
+        try {
+            store.setTag(muffin, 42);
+            fail("unknown tag");
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testMuffinWithoutRecordedSizeGetsRemainingQuota() throws Exception {
+        URL muffin = new URL("http://example.com/app/old");
+        File file = store.toFile(muffin);
+        assertTrue(file.getParentFile().mkdirs());
+        Files.write(file.toPath(), new byte[10]);
+        store.create(new URL("http://example.com/app/new"), 300);
+
+        assertEquals(700, store.getMaxSize(muffin));
+    }
+
+    @Test
+    public void testContentsAreLimitedToMaxLength() throws Exception {
+        URL muffin = new URL("http://example.com/app/limited");
+        store.create(muffin, 8);
+        store.setTag(muffin, PersistenceService.CACHED);
+        MuffinContents contents = new MuffinContents(store, muffin);
+
+        try (OutputStream out = contents.getOutputStream(true)) {
+            out.write(new byte[6]);
+            try {
+                out.write(new byte[3]);
+                fail("maximum length exceeded");
+            } catch (IOException ex) {
+                // expected
+            }
+        }
+        assertEquals(6, contents.getLength());
+        assertEquals(PersistenceService.DIRTY, store.getTag(muffin));
+
+        JNLPRandomAccessFile raf = contents.getRandomAccessFile("rw");
+        try {
+            raf.seek(6);
+            raf.writeShort(7);
+            try {
+                raf.write(1);
+                fail("maximum length exceeded");
+            } catch (IOException ex) {
+                // expected
+            }
+        } finally {
+            raf.close();
+        }
+        assertEquals(8, contents.getLength());
+
+        assertEquals(16, contents.setMaxLength(16));
+        assertEquals(16, contents.getMaxLength());
+    }
+}
@@ -0,0 +1,76 @@
+/*
+Copyright (C) 2026 Red Hat, Inc.
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License as published by
+the Free Software Foundation, version 2.
+
+IcedTea is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to
+the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version.
+ */
+
+package net.sourceforge.jnlp.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class StreamCopyBenchmarkTest {
+
+    private static final int SIZE = 3 * 1024 * 1024 + 7;
+
+    private static StreamCopyBenchmark benchmark;
+
+    @BeforeClass
+    public static void setup() throws IOException {
+        benchmark = new StreamCopyBenchmark(SIZE);
+    }
+
+    @AfterClass
+    public static void tearDown() throws IOException {
+        benchmark.close();
+    }
+
+    @Test
+    public void testAllModesCopyTheWholeFile() throws IOException {
+        for (String mode : new String[] { "legacy", "stream", "channel", "atomic", "sync" }) {
+            assertEquals(mode, SIZE, benchmark.copy(mode));
+            assertEquals(mode, SIZE, benchmark.getTarget().length());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownMode() throws IOException {
+        benchmark.copy("none");
+    }
+}
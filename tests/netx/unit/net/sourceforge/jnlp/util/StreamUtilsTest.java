@@ -0,0 +1,166 @@
+/*
+Copyright (C) 2026 Red Hat, Inc.
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License as published by
+the Free Software Foundation, version 2.
+
+IcedTea is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to
+the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version.
+ */
+
+package net.sourceforge.jnlp.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+import net.sourceforge.jnlp.util.StreamUtils.TransferListener;
+import net.sourceforge.jnlp.util.StreamUtils.WriteOption;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StreamUtilsTest {
+
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("itw-streamutils").toFile();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.recursiveDelete(dir, dir);
+    }
+
+    private static byte[] data(int size) {
+        byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        return data;
+    }
+
+    private static class CountingListener implements TransferListener {
+        long total;
+        int calls;
+
+        @Override
+        public void transferred(int count) throws IOException {
+            total += count;
+            calls++;
+        }
+    }
+
+    @Test
+    public void testCopyStreamReportsEveryChunk() throws IOException {
+        byte[] data = data(3 * StreamUtils.BUFFER_SIZE + 17);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CountingListener listener = new CountingListener();
+        assertEquals(data.length, StreamUtils.copyStream(new ByteArrayInputStream(data), out, listener));
+        assertArrayEquals(data, out.toByteArray());
+        assertEquals(data.length, listener.total);
+        assertEquals(4, listener.calls);
+    }
+
+    @Test
+    public void testCopyStreamBetweenFilesKeepsPositions() throws IOException {
+        byte[] data = data(100000);
+        File source = new File(dir, "source");
+        File target = new File(dir, "target");
+        Files.write(source.toPath(), data);
+        Files.write(target.toPath(), new byte[] { 1, 2, 3 });
+        CountingListener listener = new CountingListener();
+        try (FileInputStream in = new FileInputStream(source);
+                FileOutputStream out = new FileOutputStream(target, true)) {
+            assertEquals(10, in.skip(10));
+            assertEquals(data.length - 10, StreamUtils.copyStream(in, out, listener));
+            assertEquals(-1, in.read());
+        }
+        byte[] copied = Files.readAllBytes(target.toPath());
+        assertEquals(3 + data.length - 10, copied.length);
+        assertEquals(3, copied[2]);
+        assertEquals(data[10], copied[3]);
+        assertEquals(data[data.length - 1], copied[copied.length - 1]);
+        assertEquals(data.length - 10, listener.total);
+    }
+
+    @Test
+    public void testCopyToFileAtomicReplacesTarget() throws IOException {
+        byte[] data = data(70000);
+        File target = new File(dir, "target");
+        Files.write(target.toPath(), new byte[] { 1, 2, 3 });
+        assertEquals(data.length, StreamUtils.copyToFile(new ByteArrayInputStream(data), target, null,
+                WriteOption.ATOMIC, WriteOption.SYNC));
+        assertArrayEquals(data, Files.readAllBytes(target.toPath()));
+        assertEquals(1, dir.list().length);
+    }
+
+    @Test
+    public void testFailedAtomicCopyLeavesTarget() throws IOException {
+        File target = new File(dir, "target");
+        Files.write(target.toPath(), new byte[] { 1, 2, 3 });
+        try {
+            StreamUtils.copyToFile(new ByteArrayInputStream(data(70000)), target, new TransferListener() {
+                @Override
+                public void transferred(int count) throws IOException {
+                    throw new InterruptedIOException("cancelled");
+                }
+            }, WriteOption.ATOMIC);
+            fail("copy should have been cancelled");
+        } catch (InterruptedIOException ex) {
+            // expected
+        }
+        assertArrayEquals(new byte[] { 1, 2, 3 }, Files.readAllBytes(target.toPath()));
+        assertEquals(1, dir.list().length);
+    }
+
+    @Test
+    public void testCopyFile() throws IOException {
+        byte[] data = data(2 * 1024 * 1024 + 5);
+        File source = new File(dir, "source");
+        File target = new File(dir, "target");
+        Files.write(source.toPath(), data);
+        assertEquals(data.length, StreamUtils.copyFile(source, target));
+        assertArrayEquals(data, Files.readAllBytes(target.toPath()));
+        assertTrue(source.isFile());
+    }
+}
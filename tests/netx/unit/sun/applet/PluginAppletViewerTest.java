@@ -38,11 +38,17 @@ exception statement from your version.
 package sun.applet;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import static sun.applet.PluginPipeMockUtil.getPluginStoreId;
 import static sun.applet.PluginPipeMockUtil.getPluginStoreObject;
 
+import java.util.Arrays;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import net.sourceforge.jnlp.AsyncCall;
 import net.sourceforge.jnlp.ServerAccess;
@@ -156,6 +162,47 @@ public class PluginAppletViewerTest {
         assertEquals(expectedReturn, call.join());
     }
 
+    @Test
+    public void testBatchedRequestsAreSentTogether() throws Exception {
+        final int jsObjectID = 0;
+        PluginCallRequest eval = PluginAppletViewer.createEvalRequest(jsObjectID, "1+1");
+        PluginCallRequest call = PluginAppletViewer.createCallRequest(jsObjectID, "testfunction", new Object[] {"testargument"});
+        PluginCallRequest set = PluginAppletViewer.createSetMemberRequest(jsObjectID, "testmember", "testvalue");
+        Future<Object> evalFuture = new PluginCallFuture(eval);
+        Future<Object> callFuture = new PluginCallFuture(call);
+        Future<Object> setFuture = new PluginCallFuture(set);
+
+        // nothing waits for the browser here
+        PluginAppletViewer.sendCallRequests(Arrays.asList(eval, call, set));
+        assertFalse(evalFuture.isDone());
+
+        int evalReference = parseAndCheckJSEval(pipeMock.getNextRequest(), jsObjectID, "1+1");
+        int callReference = parseAndCheckJSCall(pipeMock.getNextRequest(), jsObjectID, "testfunction", new Object[] {"testargument"});
+        String setMessage = pipeMock.getNextRequest();
+        assertTrue(setMessage.contains(" SetMember "));
+        int setReference = Integer.parseInt(setMessage.split(" ")[3]);
+
+        // replies may come in any order
+        Object evalReturn = new Object();
+        Object callReturn = new Object();
+        pipeMock.sendResponse("context 0 reference " + setReference + " JavaScriptSetMember");
+        pipeMock.sendResponse("context 0 reference " + callReference + " JavaScriptCall " + getPluginStoreId(callReturn));
+        pipeMock.sendResponse("context 0 reference " + evalReference + " JavaScriptEval " + getPluginStoreId(evalReturn));
+
+        assertEquals(evalReturn, evalFuture.get(10, TimeUnit.SECONDS));
+        assertEquals(callReturn, callFuture.get(10, TimeUnit.SECONDS));
+        assertNull(setFuture.get(10, TimeUnit.SECONDS));
+        assertTrue(setFuture.isDone());
+    }
+
+    @Test
+    public void testReferenceIsMatchedAsWholeToken() {
+        PluginCallRequest request = new VoidPluginCallRequest("", 1L);
+        assertTrue(request.serviceable("reference 1 JavaScriptCall 5"));
+        assertTrue(request.serviceable("plugin PluginProxyInfo reference 1"));
+        assertFalse(request.serviceable("reference 12 JavaScriptCall 5"));
+    }
+
    /**************************************************************************
     *                          Test utilities                                *
     **************************************************************************/
@@ -0,0 +1,107 @@
+/*
+Copyright (C) 2026 Red Hat, Inc.
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License as published by
+the Free Software Foundation, version 2.
+
+IcedTea is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to
+the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version.
+ */
+
+package sun.applet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.net.URL;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Test;
+
+public class PluginImageCacheTest {
+
+    private static URL url(String name) throws Exception {
+        return new URL("http://localhost/images/" + name + ".png");
+    }
+
+    @Test
+    public void hitsAndMissesAreCounted() throws Exception {
+        PluginImageCache cache = new PluginImageCache(-1);
+        cache.getImage(url("a"));
+        cache.getImage(url("a"));
+        cache.getImage(url("b"));
+        Map<String, String> stats = cache.getStatistics();
+        assertEquals("2", stats.get("images"));
+        assertEquals("1", stats.get("hits"));
+        assertEquals("2", stats.get("misses"));
+        assertEquals("0", stats.get("evictions"));
+        assertEquals("unlimited", stats.get("budget"));
+    }
+
+    @Test
+    public void leastRecentlyUsedIsEvicted() throws Exception {
+        PluginImageCache cache = new PluginImageCache(3 * PluginImageCache.ENTRY_OVERHEAD);
+        cache.getImage(url("a"));
+        cache.getImage(url("b"));
+        cache.getImage(url("c"));
+        cache.getImage(url("a"));
+        cache.getImage(url("d"));
+        assertTrue(cache.contains(url("a")));
+        assertTrue(cache.contains(url("d")));
+        assertFalse(cache.contains(url("b")));
+        assertFalse(cache.contains(url("c")));
+        assertEquals("2", cache.getStatistics().get("evictions"));
+        assertTrue(cache.getWeight() <= 3 * PluginImageCache.ENTRY_OVERHEAD);
+    }
+
+    @Test
+    public void loadedImageIsWeightedBySize() throws Exception {
+        File f = File.createTempFile("itw", ".png");
+        f.deleteOnExit();
+        ImageIO.write(new BufferedImage(20, 10, BufferedImage.TYPE_INT_ARGB), "png", f);
+        PluginImageCache cache = new PluginImageCache(-1);
+        URL u = f.toURI().toURL();
+        long expected = PluginImageCache.ENTRY_OVERHEAD + 4 * 20 * 10;
+        cache.getImage(u);
+        // the dimensions are reported to the cache while the image loads
+        for (int i = 0; i < 100 && cache.getWeight() != expected; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(expected, cache.getWeight());
+        cache.clear();
+        assertEquals(0, cache.getWeight());
+        assertFalse(cache.contains(u));
+    }
+}
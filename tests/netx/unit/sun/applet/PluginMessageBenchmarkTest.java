@@ -0,0 +1,96 @@
+/*
+Copyright (C) 2026 Red Hat, Inc.
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License as published by
+the Free Software Foundation, version 2.
+
+IcedTea is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to
+the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version.
+ */
+
+package sun.applet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class PluginMessageBenchmarkTest {
+
+    private static PluginMessageBenchmark benchmark;
+
+    @BeforeClass
+    public static void setup() throws Exception {
+        benchmark = new PluginMessageBenchmark();
+    }
+
+    @AfterClass
+    public static void tearDown() throws InterruptedException {
+        benchmark.close();
+    }
+
+    private static void assertWorkload(String name, int window) throws Exception {
+        List<String> messages = benchmark.prepare(PluginMessageBenchmark.WORKLOADS.get(name));
+        PluginMessageBenchmark.Result result = benchmark.run(messages, 50, window);
+        assertEquals(name, 50, result.getMessages());
+        assertEquals(name + ": " + result, 0, result.getErrors());
+        assertTrue(result.getLatency(50) <= result.getLatency(99));
+        assertTrue(result.getMessagesPerSecond() > 0);
+    }
+
+    @Test
+    public void testBuiltInWorkloadsReplyWithoutErrors() throws Exception {
+        for (String name : PluginMessageBenchmark.WORKLOADS.keySet()) {
+            assertWorkload(name, 1);
+        }
+    }
+
+    @Test
+    public void testWindowedReplay() throws Exception {
+        assertWorkload("mixed", 8);
+    }
+
+    @Test
+    public void testErrorsAreCounted() throws Exception {
+        List<String> messages = benchmark.prepare("define text string liveconnect\n"
+                + "CallMethod {text} noSuchMethod\n");
+        PluginMessageBenchmark.Result result = benchmark.run(messages, 5, 1);
+        assertEquals(5, result.getErrors());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUndefinedSymbol() throws Exception {
+        benchmark.prepare("GetField {point} {x}\n");
+    }
+}
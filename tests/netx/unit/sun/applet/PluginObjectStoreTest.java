@@ -0,0 +1,181 @@
+/*
+Copyright (C) 2016 Red Hat, Inc.
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License as published by
+the Free Software Foundation, version 2.
+
+IcedTea is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to
+the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version.
+ */
+
+package sun.applet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class PluginObjectStoreTest {
+
+    private final PluginObjectStore store = PluginObjectStore.getInstance();
+
+    @Test
+    public void nullHasIdentifierZero() {
+        assertEquals(Integer.valueOf(0), store.getIdentifier(null));
+        assertFalse(store.contains(null));
+        assertNull(store.getObject(0));
+        assertNull(store.getObject((Integer) null));
+    }
+
+    @Test
+    public void referenceAndUnreference() {
+        Object o = new Object();
+        assertNull(store.getIdentifier(o));
+        store.reference(o);
+        int id = store.getIdentifier(o);
+        assertTrue(id > 0);
+        assertTrue(store.contains(o));
+        assertTrue(store.contains(id));
+        assertSame(o, store.getObject(id));
+
+        store.reference(o);
+        assertEquals(Integer.valueOf(id), store.getIdentifier(o));
+        store.unreference(id);
+        assertSame(o, store.getObject(id));
+        store.unreference(id);
+        assertNull(store.getObject(id));
+        assertFalse(store.contains(o));
+        assertFalse(store.contains(id));
+        //no-op for unknown id
+        store.unreference(id);
+    }
+
+    @Test
+    public void equalObjectsAreDistinguished() {
+        String a = new String("same");
+        String b = new String("same");
+        store.reference(a);
+        store.reference(b);
+        int idA = store.getIdentifier(a);
+        int idB = store.getIdentifier(b);
+        assertTrue(idA != idB);
+        assertSame(a, store.getObject(idA));
+        assertSame(b, store.getObject(idB));
+        store.unreference(idA);
+        store.unreference(idB);
+    }
+
+    @Test
+    public void mutatedObjectIsStillFound() {
+        List<String> list = new ArrayList<String>();
+        store.reference(list);
+        int id = store.getIdentifier(list);
+        list.add("changes hashCode");
+        assertEquals(Integer.valueOf(id), store.getIdentifier(list));
+        store.unreference(id);
+        assertFalse(store.contains(list));
+    }
+
+    @Test
+    public void liveObjectCountsFollowReferences() {
+        int objects = store.getLiveObjectCount();
+        long references = store.getReferenceCount();
+        Object[] stored = new Object[1000];
+        for (int i = 0; i < stored.length; i++) {
+            stored[i] = new Object();
+            store.reference(stored[i]);
+            store.reference(stored[i]);
+        }
+        assertEquals(objects + stored.length, store.getLiveObjectCount());
+        assertEquals(references + 2 * stored.length, store.getReferenceCount());
+        for (Object o : stored) {
+            int id = store.getIdentifier(o);
+            assertSame(o, store.getObject(id));
+            store.unreference(id);
+            store.unreference(id);
+        }
+        assertEquals(objects, store.getLiveObjectCount());
+        assertEquals(references, store.getReferenceCount());
+    }
+
+    @Test
+    public void concurrentReferencing() throws Exception {
+        final int threadCount = 8;
+        final int perThread = 2000;
+        final Object[][] stored = new Object[threadCount][perThread];
+        final Throwable[] failure = new Throwable[1];
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            final Object[] mine = stored[t];
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = 0; i < perThread; i++) {
+                            mine[i] = new Object();
+                            store.reference(mine[i]);
+                        }
+                        for (int i = 0; i < perThread; i += 2) {
+                            store.unreference(store.getIdentifier(mine[i]));
+                        }
+                    } catch (Throwable ex) {
+                        failure[0] = ex;
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(failure[0]);
+        for (Object[] mine : stored) {
+            for (int i = 0; i < perThread; i++) {
+                if (i % 2 == 0) {
+                    assertFalse(store.contains(mine[i]));
+                } else {
+                    Integer id = store.getIdentifier(mine[i]);
+                    assertNotNull(id);
+                    assertSame(mine[i], store.getObject(id));
+                    store.unreference(id);
+                }
+            }
+        }
+        assertNotSame(stored[0][1], stored[1][1]);
+    }
+}
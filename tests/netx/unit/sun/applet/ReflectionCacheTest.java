@@ -0,0 +1,104 @@
+/*
+Copyright (C) 2026 Red Hat, Inc.
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License as published by
+the Free Software Foundation, version 2.
+
+IcedTea is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to
+the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version.
+ */
+
+package sun.applet;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.awt.Point;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+
+import org.junit.Test;
+
+public class ReflectionCacheTest {
+
+    @Test
+    public void testSignatureIsParsedOnce() {
+        Class<?>[] types = ReflectionCache.getParameterTypes(String.class, "(I[Ljava/lang/String;[[D)");
+        assertArrayEquals(new Class<?>[]{int.class, String[].class, double[][].class}, types);
+        assertSame(types, ReflectionCache.getParameterTypes(String.class, "(I[Ljava/lang/String;[[D)"));
+    }
+
+    @Test
+    public void testMethodHandleIsReused() throws Exception {
+        Class<?>[] types = ReflectionCache.getParameterTypes(Integer.class, "(I)");
+        Object m = ReflectionCache.getMethodOrConstructor(Integer.class, "valueOf", "(I)", types);
+        assertEquals(Integer.class.getMethod("valueOf", int.class), m);
+        assertSame(m, ReflectionCache.getMethodOrConstructor(Integer.class, "valueOf", "(I)", types));
+        /* equal, but not the cached array */
+        assertSame(m, ReflectionCache.getMethodOrConstructor(Integer.class, "valueOf", "(I)", new Class<?>[]{int.class}));
+    }
+
+    @Test
+    public void testConstructor() throws Exception {
+        Class<?>[] types = ReflectionCache.getParameterTypes(Point.class, "(II)");
+        Object cs = ReflectionCache.getMethodOrConstructor(Point.class, "<init>", "(II)", types);
+        assertEquals(Point.class.getConstructor(int.class, int.class), cs);
+        assertSame(cs, ReflectionCache.getMethodOrConstructor(Point.class, "<init>", "(II)", types));
+    }
+
+    @Test(expected = NoSuchMethodException.class)
+    public void testMissingMethod() throws Exception {
+        ReflectionCache.getMethodOrConstructor(Integer.class, "noSuchMethod", "()", new Class<?>[0]);
+    }
+
+    @Test
+    public void testFieldIsReused() throws Exception {
+        assertSame(ReflectionCache.getField(Point.class, "x"), ReflectionCache.getField(Point.class, "x"));
+        assertEquals(Point.class.getField("y"), ReflectionCache.getField(Point.class, "y"));
+    }
+
+    @Test(expected = NoSuchFieldException.class)
+    public void testMissingField() throws Exception {
+        ReflectionCache.getField(Point.class, "z");
+    }
+
+    @Test
+    public void testOverloadCandidates() throws Exception {
+        Method[] methods = ReflectionCache.getMethods(String.class, "indexOf", 1);
+        assertEquals(2, methods.length); // indexOf(int), indexOf(String)
+        assertSame(methods, ReflectionCache.getMethods(String.class, "indexOf", 1));
+        assertEquals(0, ReflectionCache.getMethods(String.class, "indexOf", 5).length);
+
+        Constructor<?>[] constructors = ReflectionCache.getConstructors(Point.class, 2);
+        assertEquals(1, constructors.length);
+        assertSame(constructors, ReflectionCache.getConstructors(Point.class, 2));
+    }
+}
@@ -0,0 +1,156 @@
+/*   Copyright (C) 2026 Red Hat
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2, or (at your option)
+any later version.
+
+IcedTea is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to the
+Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version. */
+
+
+/* Must be in net.sourceforge.jnlp.cache to reach the package private registry */
+package net.sourceforge.jnlp.cache;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+ * Measures Resource.getResource when many threads register resources at once,
+ * as the download threads and class loaders of an application do:
+ * every thread registers the same set of locations, each starting at a
+ * different one, and all of them must get the same Resource objects back.
+ *
+ * Usage: ResourceRegistryBenchmark [-threads N] [-resources N] [-rounds N]
+ */
+public class ResourceRegistryBenchmark {
+
+    /**
+     * @return the locations of one round, distinct from those of other rounds
+     */
+    public static URL[] locations(int round, int count) throws MalformedURLException {
+        URL[] urls = new URL[count];
+        for (int i = 0; i < count; i++) {
+            urls[i] = new URL("http://localhost/benchmark/round" + round + "/resource" + i + ".jar");
+        }
+        return urls;
+    }
+
+    /**
+     * Registers all locations from each of the threads.
+     *
+     * @return the resources each thread got, indexed like the locations
+     */
+    public static Resource[][] register(final URL[] locations, int threads) throws Exception {
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Resource[]>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final int offset = t * locations.length / threads;
+                results.add(executor.submit(new Callable<Resource[]>() {
+                    @Override
+                    public Resource[] call() throws Exception {
+                        Resource[] resources = new Resource[locations.length];
+                        start.await();
+                        for (int i = 0; i < locations.length; i++) {
+                            int index = (offset + i) % locations.length;
+                            resources[index] = Resource.getResource(locations[index], null, UpdatePolicy.ALWAYS);
+                        }
+                        return resources;
+                    }
+                }));
+            }
+            start.countDown();
+            Resource[][] registered = new Resource[threads][];
+            for (int t = 0; t < threads; t++) {
+                registered[t] = results.get(t).get();
+            }
+            return registered;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * @return registrations per second, over all threads
+     * @throws IllegalStateException if two threads got different resources
+     * for one location
+     */
+    public static double measure(URL[] locations, int threads) throws Exception {
+        long begin = System.nanoTime();
+        Resource[][] registered = register(locations, threads);
+        long elapsed = Math.max(1, System.nanoTime() - begin);
+        for (int i = 0; i < locations.length; i++) {
+            for (int t = 1; t < threads; t++) {
+                if (registered[t][i] != registered[0][i]) {
+                    throw new IllegalStateException("Two resources registered for " + locations[i]);
+                }
+            }
+        }
+        return (double) threads * locations.length * 1e9 / elapsed;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int resources = 10000;
+        int rounds = 5;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "-resources":
+                    resources = Integer.parseInt(args[++i]);
+                    break;
+                case "-rounds":
+                    rounds = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    System.err.println("Unknown argument " + args[i]);
+                    System.exit(1);
+            }
+        }
+        // the first round warms up
+        for (int round = 0; round <= rounds; round++) {
+            double rate = measure(locations(round, resources), threads);
+            if (round > 0) {
+                System.out.printf("%d threads x %d resources: %.0f registrations/s%n", threads, resources, rate);
+            }
+        }
+        System.exit(0);
+    }
+}
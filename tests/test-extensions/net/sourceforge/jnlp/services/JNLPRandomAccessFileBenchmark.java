@@ -0,0 +1,213 @@
+/*   Copyright (C) 2026 Red Hat
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2, or (at your option)
+any later version.
+
+IcedTea is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to the
+Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version. */
+
+/* Must be in net.sourceforge.jnlp.services to reach the package private services */
+package net.sourceforge.jnlp.services;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.nio.file.Files;
+import java.security.AccessController;
+import java.security.PrivilegedActionException;
+import java.security.PrivilegedExceptionAction;
+
+import javax.jnlp.FileContents;
+import javax.jnlp.JNLPRandomAccessFile;
+
+import net.sourceforge.jnlp.util.FileUtils;
+
+/*
+ * Measures what applications get through the PersistenceService and the file
+ * services:
+ *   calls   - FileContents calls per second through the privileged wrapper, and
+ *             through a reflective Proxy as the services were wrapped before
+ *   random  - MB/s of writeInt then readInt over a file, with the
+ *             RandomAccessFile based JNLPRandomAccessFile of opened files and the
+ *             memory mapped one of muffins
+ *
+ * Usage: JNLPRandomAccessFileBenchmark [-calls N] [-size BYTES] [-rounds N]
+ */
+public class JNLPRandomAccessFileBenchmark {
+
+    private final File dir;
+    private final MuffinStore store;
+
+    public JNLPRandomAccessFileBenchmark() throws IOException {
+        dir = Files.createTempDirectory("itw-raf-benchmark").toFile();
+        store = new MuffinStore(dir, Long.MAX_VALUE);
+    }
+
+    public void close() throws IOException {
+        FileUtils.recursiveDelete(dir, dir);
+    }
+
+    /**
+     * @return contents of a plain file, as the open and save services return them
+     */
+    public FileContents openFile(String name) throws IOException {
+        File file = new File(dir, name);
+        file.createNewFile();
+        return PrivilegedServices.wrap(new XFileContents(file));
+    }
+
+    /**
+     * @return contents of a muffin, as the PersistenceService returns them
+     */
+    public FileContents openMuffin(String name, long maxsize) throws IOException {
+        URL location = new URL("http://localhost/benchmark/" + name);
+        store.create(location, maxsize);
+        return PrivilegedServices.wrap(new MuffinContents(store, location));
+    }
+
+    /**
+     * @return the contents behind a reflective Proxy making every call in
+     * doPrivileged, the way all services were wrapped before
+     */
+    public static FileContents reflectiveProxy(final FileContents receiver) {
+        return (FileContents) Proxy.newProxyInstance(JNLPRandomAccessFileBenchmark.class.getClassLoader(),
+                new Class<?>[] { FileContents.class },
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, final Method method, final Object[] args) throws Throwable {
+                        try {
+                            return AccessController.doPrivileged(new PrivilegedExceptionAction<Object>() {
+                                @Override
+                                public Object run() throws Exception {
+                                    return method.invoke(receiver, args);
+                                }
+                            });
+                        } catch (PrivilegedActionException e) {
+                            if (e.getCause() instanceof InvocationTargetException) {
+                                throw e.getCause().getCause();
+                            }
+                            throw e.getCause();
+                        }
+                    }
+                });
+    }
+
+    /**
+     * @return calls of {@link FileContents#getName()} per second
+     */
+    public static double measureCalls(FileContents contents, int calls) throws IOException {
+        int length = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            length += contents.getName().length();
+        }
+        long elapsed = Math.max(1, System.nanoTime() - start);
+        if (length < 0) {
+            throw new AssertionError();
+        }
+        return calls * 1e9 / elapsed;
+    }
+
+    /**
+     * Writes size bytes as ints and reads them back.
+     *
+     * @return MB per second, counting both directions
+     */
+    public static double measureRandomAccess(FileContents contents, int size) throws IOException {
+        int ints = size / 4;
+        long sum = 0;
+        long start = System.nanoTime();
+        JNLPRandomAccessFile raf = contents.getRandomAccessFile("rw");
+        try {
+            raf.seek(0);
+            for (int i = 0; i < ints; i++) {
+                raf.writeInt(i);
+            }
+            raf.seek(0);
+            for (int i = 0; i < ints; i++) {
+                sum += raf.readInt();
+            }
+        } finally {
+            raf.close();
+        }
+        long elapsed = Math.max(1, System.nanoTime() - start);
+        if (sum != (long) ints * (ints - 1) / 2) {
+            throw new IOException("Read back " + sum + " instead of what was written");
+        }
+        return 2.0 * ints * 4 / (1 << 20) * 1e9 / elapsed;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int calls = 1000000;
+        int size = 4 << 20;
+        int rounds = 5;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-calls":
+                    calls = Integer.parseInt(args[++i]);
+                    break;
+                case "-size":
+                    size = Integer.parseInt(args[++i]);
+                    break;
+                case "-rounds":
+                    rounds = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    System.err.println("Unknown argument " + args[i]);
+                    System.exit(1);
+            }
+        }
+        JNLPRandomAccessFileBenchmark benchmark = new JNLPRandomAccessFileBenchmark();
+        try {
+            FileContents file = benchmark.openFile("file");
+            FileContents proxied = reflectiveProxy(new XFileContents(new File(benchmark.dir, "file")));
+            FileContents muffin = benchmark.openMuffin("muffin", size);
+            // the first round warms up
+            for (int round = 0; round <= rounds; round++) {
+                double wrapperCalls = measureCalls(file, calls);
+                double proxyCalls = measureCalls(proxied, calls);
+                double plain = measureRandomAccess(file, size);
+                double mapped = measureRandomAccess(muffin, size);
+                if (round > 0) {
+                    System.out.printf("calls/s wrapper %.0f proxy %.0f   MB/s file %.1f muffin %.1f%n",
+                            wrapperCalls, proxyCalls, plain, mapped);
+                }
+            }
+        } finally {
+            benchmark.close();
+        }
+        System.exit(0);
+    }
+}
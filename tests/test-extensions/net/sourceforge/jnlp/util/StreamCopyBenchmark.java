@@ -0,0 +1,194 @@
+/*   Copyright (C) 2026 Red Hat
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2, or (at your option)
+any later version.
+
+IcedTea is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to the
+Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version. */
+
+
+package net.sourceforge.jnlp.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Random;
+
+import net.sourceforge.jnlp.util.StreamUtils.TransferListener;
+import net.sourceforge.jnlp.util.StreamUtils.WriteOption;
+
+/*
+ * Measures copying a large file into the cache, in MB/s:
+ *   legacy  - 1 KB buffer between buffered streams, as the cache copied before
+ *   stream  - StreamUtils.copyToFile from a stream that is not a file, as a
+ *             download from the network is copied
+ *   channel - StreamUtils.copyToFile from a file, copied by the channels
+ *   atomic  - channel, written to a temporary file and renamed over the target
+ *   sync    - atomic, also forced to the device
+ *
+ * Usage: StreamCopyBenchmark [-size MB] [-rounds N]
+ */
+public class StreamCopyBenchmark {
+
+    private final File dir;
+    private final File source;
+    private final File target;
+
+    public StreamCopyBenchmark(int size) throws IOException {
+        dir = Files.createTempDirectory("itw-copy-benchmark").toFile();
+        source = new File(dir, "source");
+        target = new File(dir, "target");
+        byte[] chunk = new byte[1024 * 1024];
+        new Random(size).nextBytes(chunk);
+        try (OutputStream out = new FileOutputStream(source)) {
+            for (long written = 0; written < size; written += chunk.length) {
+                out.write(chunk, 0, (int) Math.min(chunk.length, size - written));
+            }
+        }
+    }
+
+    public void close() throws IOException {
+        FileUtils.recursiveDelete(dir, dir);
+    }
+
+    public File getTarget() {
+        return target;
+    }
+
+    /**
+     * @return the bytes copied, checked against the size of the source
+     */
+    public long copy(String mode) throws IOException {
+        long copied;
+        CountingListener listener = new CountingListener();
+        try (InputStream in = new FileInputStream(source)) {
+            switch (mode) {
+                case "legacy":
+                    copied = legacyCopy(in, target);
+                    listener.total = copied;
+                    break;
+                case "stream":
+                    copied = StreamUtils.copyToFile(new FilterInputStream(in) { }, target, listener);
+                    break;
+                case "channel":
+                    copied = StreamUtils.copyToFile(in, target, listener);
+                    break;
+                case "atomic":
+                    copied = StreamUtils.copyToFile(in, target, listener, WriteOption.ATOMIC);
+                    break;
+                case "sync":
+                    copied = StreamUtils.copyToFile(in, target, listener, WriteOption.ATOMIC, WriteOption.SYNC);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown mode " + mode);
+            }
+        }
+        if (copied != source.length() || listener.total != copied || target.length() != copied) {
+            throw new IOException(mode + " copied " + copied + " of " + source.length() + " bytes");
+        }
+        return copied;
+    }
+
+    /**
+     * @return MB per second copying the source to the target
+     */
+    public double measure(String mode) throws IOException {
+        long start = System.nanoTime();
+        long copied = copy(mode);
+        long elapsed = Math.max(1, System.nanoTime() - start);
+        return copied / (double) (1 << 20) * 1e9 / elapsed;
+    }
+
+    private static long legacyCopy(InputStream in, File target) throws IOException {
+        long total = 0;
+        byte buf[] = new byte[1024];
+        int rlen;
+        try (InputStream input = new BufferedInputStream(in);
+                OutputStream out = new BufferedOutputStream(new FileOutputStream(target))) {
+            while (-1 != (rlen = input.read(buf))) {
+                total += rlen;
+                out.write(buf, 0, rlen);
+            }
+        }
+        return total;
+    }
+
+    private static class CountingListener implements TransferListener {
+        long total;
+
+        @Override
+        public void transferred(int count) {
+            total += count;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int size = 256;
+        int rounds = 5;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-size":
+                    size = Integer.parseInt(args[++i]);
+                    break;
+                case "-rounds":
+                    rounds = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    System.err.println("Unknown argument " + args[i]);
+                    System.exit(1);
+            }
+        }
+        String[] modes = { "legacy", "stream", "channel", "atomic", "sync" };
+        StreamCopyBenchmark benchmark = new StreamCopyBenchmark(size << 20);
+        try {
+            // the first round warms up
+            for (int round = 0; round <= rounds; round++) {
+                StringBuilder line = new StringBuilder("MB/s");
+                for (String mode : modes) {
+                    line.append(String.format("   %s %.1f", mode, benchmark.measure(mode)));
+                }
+                if (round > 0) {
+                    System.out.println(line);
+                }
+            }
+        } finally {
+            benchmark.close();
+        }
+        System.exit(0);
+    }
+}
@@ -0,0 +1,481 @@
+/*   Copyright (C) 2026 Red Hat
+
+This file is part of IcedTea.
+
+IcedTea is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2, or (at your option)
+any later version.
+
+IcedTea is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with IcedTea; see the file COPYING.  If not, write to the
+Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+02110-1301 USA.
+
+Linking this library statically or dynamically with other modules is
+making a combined work based on this library.  Thus, the terms and
+conditions of the GNU General Public License cover the whole
+combination.
+
+As a special exception, the copyright holders of this library give you
+permission to link this library with independent modules to produce an
+executable, regardless of the license terms of these independent
+modules, and to copy and distribute the resulting executable under
+terms of your choice, provided that you also meet, for each linked
+independent module, the terms and conditions of the license of that
+module.  An independent module is a module which is not derived from
+or based on this library.  If you modify this library, you may extend
+this exception to your version of the library, but you are not
+obligated to do so.  If you do not wish to do so, delete this
+exception statement from your version. */
+
+/* Must be in sun.applet to access PluginAppletSecurityContext's constructor and PluginObjectStore */
+package sun.applet;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.lang.reflect.Field;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ * Drives the Java side of LiveConnect (PluginStreamHandler, PluginMessageConsumer,
+ * PluginAppletSecurityContext) over in-process pipes, without any browser.
+ *
+ * Messages come from a trace. A trace is a list of lines:
+ *   # comment
+ *   define NAME class java.lang.Integer        - stores the class, NAME becomes its id
+ *   define NAME string text                    - stores the string
+ *   define NAME new java.awt.Point             - stores new instance (no-arg constructor)
+ *   define NAME field java.awt.Point x         - stores the public field
+ *   define NAME int 42                         - stores the Integer
+ *   CallMethod {obj} indexOf {arg}             - message, {NAME} replaced by stored id
+ * Messages are replayed in a loop and each is prefixed by "context 0 reference N ",
+ * as the C++ side of the plugin does. Recorded traces can be taken from the plugin
+ * debug output, with object ids replaced by defined names.
+ *
+ * Usage: PluginMessageBenchmark [-workload findclass|getmethodid|callmethod|getfield|mixed]
+ *        [-trace file] [-messages N] [-warmup N] [-window N]
+ * Window is the number of messages in flight; the browser usually waits for each reply,
+ * so it defaults to 1.
+ */
+public class PluginMessageBenchmark {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final Pattern REFERENCE = Pattern.compile("^context \\d+ reference (\\d+) ");
+    private static final Pattern SYMBOL = Pattern.compile("\\{(\\w+)\\}");
+
+    public static final Map<String, String> WORKLOADS = new HashMap<>();
+
+    static {
+        WORKLOADS.put("findclass",
+                "FindClass 0 java/lang/String\n"
+                + "FindClass 0 java/util/ArrayList\n"
+                + "FindClass 0 java/awt/Point\n");
+        WORKLOADS.put("getmethodid",
+                "define integer class java.lang.Integer\n"
+                + "define string class java.lang.String\n"
+                + "GetStaticMethodID {integer} valueOf (I)\n"
+                + "GetStaticMethodID {integer} parseInt (Ljava/lang/String;)\n"
+                + "GetStaticMethodID {string} valueOf (Ljava/lang/Object;)\n");
+        WORKLOADS.put("callmethod",
+                "define text string liveconnect\n"
+                + "define needle string c\n"
+                + "define list new java.util.ArrayList\n"
+                + "CallMethod {text} indexOf {needle}\n"
+                + "CallMethod {text} length\n"
+                + "CallMethod {list} size\n");
+        WORKLOADS.put("getfield",
+                "define point new java.awt.Point\n"
+                + "define x field java.awt.Point x\n"
+                + "define y field java.awt.Point y\n"
+                + "GetField {point} {x}\n"
+                + "GetField {point} {y}\n");
+        StringBuilder mixed = new StringBuilder();
+        for (String name : Arrays.asList("findclass", "getmethodid", "callmethod", "getfield")) {
+            mixed.append(WORKLOADS.get(name));
+        }
+        WORKLOADS.put("mixed", mixed.toString());
+    }
+
+    public static class Result {
+
+        private final int messages;
+        private final int errors;
+        private final long elapsedNanos;
+        private final long[] latencies;
+
+        Result(int messages, int errors, long elapsedNanos, long[] latencies) {
+            this.messages = messages;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+            this.latencies = latencies;
+            Arrays.sort(this.latencies);
+        }
+
+        public int getMessages() {
+            return messages;
+        }
+
+        public int getErrors() {
+            return errors;
+        }
+
+        public double getMessagesPerSecond() {
+            return messages * 1000000000d / elapsedNanos;
+        }
+
+        /**
+         * @param percentile 0-100
+         * @return latency in nanoseconds
+         */
+        public long getLatency(double percentile) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100d * latencies.length) - 1;
+            return latencies[Math.max(0, Math.min(latencies.length - 1, index))];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("messages: %d, errors: %d, time: %d ms, throughput: %.0f msg/s, "
+                    + "latency us p50: %d, p90: %d, p99: %d, max: %d",
+                    messages, errors, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), getMessagesPerSecond(),
+                    getLatency(50) / 1000, getLatency(90) / 1000, getLatency(99) / 1000, getLatency(100) / 1000);
+        }
+    }
+
+    /* Browser to Java pipe. Chunks are whole messages, so a reader never blocks mid message. */
+    private static class MessagePipe extends InputStream {
+
+        private final BlockingQueue<byte[]> chunks = new LinkedBlockingQueue<>();
+        private byte[] current = new byte[0];
+        private int position = 0;
+
+        void send(String message) {
+            chunks.add((message + "\n").getBytes(UTF8));
+        }
+
+        private boolean fill() throws IOException {
+            if (position < current.length) {
+                return true;
+            }
+            try {
+                current = chunks.take();
+                position = 0;
+                return true;
+            } catch (InterruptedException ex) {
+                // closing; the stream handler would exit the JVM on an
+                // IOException, this only ends its listener thread
+                throw new IllegalStateException("message pipe closed", ex);
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            fill();
+            return current[position++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            fill();
+            int count = Math.min(len, current.length - position);
+            System.arraycopy(current, position, b, off, count);
+            position += count;
+            return count;
+        }
+    }
+
+    /* Java to browser pipe. Writes are serialised by PluginStreamHandler. */
+    private class ReplySink extends OutputStream {
+
+        private final StringBuilder message = new StringBuilder();
+        private byte[] pending = new byte[256];
+        private int pendingLength = 0;
+
+        @Override
+        public void write(int b) throws IOException {
+            if (b == 0) {
+                message.append(new String(pending, 0, pendingLength, UTF8));
+                pendingLength = 0;
+                replied(message.toString());
+                message.setLength(0);
+            } else {
+                if (pendingLength == pending.length) {
+                    pending = Arrays.copyOf(pending, pending.length * 2);
+                }
+                pending[pendingLength++] = (byte) b;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+    }
+
+    private final ThreadGroup threads = new ThreadGroup("PluginMessageBenchmark") {
+        @Override
+        public void uncaughtException(Thread t, Throwable e) {
+            // Silent death for plugin message handler threads
+        }
+    };
+    private final MessagePipe pipe = new MessagePipe();
+    private final ReplySink sink = new ReplySink();
+    private final PluginObjectStore store = PluginObjectStore.getInstance();
+    private PluginStreamHandler streamHandler;
+
+    private volatile long[] sendTimes;
+    private volatile long[] latencies;
+    private volatile int firstReference;
+    private volatile Semaphore window;
+    private volatile CountDownLatch remaining;
+    private final AtomicInteger errors = new AtomicInteger();
+
+    public PluginMessageBenchmark() throws InterruptedException {
+        Thread init = new Thread(threads, "PluginMessageBenchmarkInit") {
+            @Override
+            public void run() {
+                PluginAppletSecurityContext context = new PluginAppletSecurityContext(0, false /* no security manager */);
+                AppletSecurityContextManager.addContext(0, context);
+                streamHandler = new PluginStreamHandler(pipe, sink);
+                PluginAppletSecurityContext.setStreamhandler(streamHandler);
+                PluginAppletViewer.setStreamhandler(streamHandler);
+                PluginAppletViewer.setPluginCallRequestFactory(new PluginCallRequestFactory());
+                streamHandler.startProcessing();
+            }
+        };
+        init.start();
+        init.join();
+    }
+
+    /**
+     * Resolves define lines of the trace against the object store.
+     *
+     * @param trace trace text, see class comment
+     * @return messages without reference prefix
+     * @throws Exception if a definition can not be resolved
+     */
+    public List<String> prepare(String trace) throws Exception {
+        Map<String, Integer> symbols = new HashMap<>();
+        List<String> messages = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new StringReader(trace));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            if (line.startsWith("define ")) {
+                String[] parts = line.split(" ", 4);
+                Object value = define(parts[2], parts[3]);
+                store.reference(value);
+                symbols.put(parts[1], store.getIdentifier(value));
+                continue;
+            }
+            Matcher m = SYMBOL.matcher(line);
+            StringBuffer resolved = new StringBuffer();
+            while (m.find()) {
+                Integer id = symbols.get(m.group(1));
+                if (id == null) {
+                    throw new IllegalArgumentException("Undefined " + m.group(1) + " in " + line);
+                }
+                m.appendReplacement(resolved, id.toString());
+            }
+            m.appendTail(resolved);
+            messages.add(resolved.toString());
+        }
+        if (messages.isEmpty()) {
+            throw new IllegalArgumentException("Trace contains no messages");
+        }
+        return messages;
+    }
+
+    private static Object define(String type, String value) throws Exception {
+        switch (type) {
+            case "class":
+                return Class.forName(value);
+            case "string":
+                return new String(value);
+            case "new":
+                return Class.forName(value).newInstance();
+            case "field":
+                String[] classAndField = value.split(" ");
+                Field f = Class.forName(classAndField[0]).getField(classAndField[1]);
+                return f;
+            case "int":
+                return Integer.valueOf(value);
+            default:
+                throw new IllegalArgumentException("Unknown definition type " + type);
+        }
+    }
+
+    private void replied(String message) {
+        long now = System.nanoTime();
+        Matcher m = REFERENCE.matcher(message);
+        if (!m.find()) {
+            return;
+        }
+        int index = Integer.parseInt(m.group(1)) - firstReference;
+        if (index < 0 || index >= sendTimes.length) {
+            return;
+        }
+        if (message.contains(" Error")) {
+            errors.incrementAndGet();
+        }
+        latencies[index] = now - sendTimes[index];
+        window.release();
+        remaining.countDown();
+    }
+
+    private int nextReference = 1;
+
+    /**
+     * Replays messages in a loop and waits for all replies.
+     *
+     * @param messages prepared messages
+     * @param count number of messages to send
+     * @param inFlight maximal number of messages waiting for reply
+     * @return measured result
+     * @throws InterruptedException if interrupted while waiting for replies
+     */
+    public Result run(List<String> messages, int count, int inFlight) throws InterruptedException {
+        sendTimes = new long[count];
+        latencies = new long[count];
+        firstReference = nextReference;
+        nextReference += count;
+        window = new Semaphore(inFlight);
+        remaining = new CountDownLatch(count);
+        errors.set(0);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            window.acquire();
+            sendTimes[i] = System.nanoTime();
+            pipe.send("context 0 reference " + (firstReference + i) + " " + messages.get(i % messages.size()));
+        }
+        if (!remaining.await(5, TimeUnit.MINUTES)) {
+            throw new IllegalStateException(remaining.getCount() + " messages got no reply");
+        }
+        return new Result(count, errors.get(), System.nanoTime() - start, latencies.clone());
+    }
+
+    /**
+     * Stops the message handling threads, waiting a few seconds at most.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void close() throws InterruptedException {
+        streamHandler.stopProcessing();
+        // its consumer thread was started in this group when the class was initialized
+        PluginStreamHandler.DummyHandler.stopProcessing();
+        Thread[] running = new Thread[threads.activeCount() + 16];
+        int count = threads.enumerate(running);
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            // daemons, like the logger, are shared with the rest of the JVM
+            if (!running[i].isDaemon()) {
+                running[i].interrupt();
+                workers.add(running[i]);
+            }
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        for (Thread worker : workers) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remaining > 0) {
+                worker.join(remaining);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String workload = "mixed";
+        String traceFile = null;
+        int count = 100000;
+        int warmup = 10000;
+        int inFlight = 1;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-workload":
+                    workload = args[++i];
+                    break;
+                case "-trace":
+                    traceFile = args[++i];
+                    break;
+                case "-messages":
+                    count = Integer.parseInt(args[++i]);
+                    break;
+                case "-warmup":
+                    warmup = Integer.parseInt(args[++i]);
+                    break;
+                case "-window":
+                    inFlight = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    System.err.println("Unknown argument " + args[i]);
+                    System.exit(1);
+            }
+        }
+        String trace;
+        if (traceFile != null) {
+            trace = readFile(new File(traceFile));
+            workload = traceFile;
+        } else {
+            trace = WORKLOADS.get(workload);
+            if (trace == null) {
+                System.err.println("Unknown workload " + workload + ", known are " + WORKLOADS.keySet());
+                System.exit(1);
+            }
+        }
+        PluginMessageBenchmark benchmark = new PluginMessageBenchmark();
+        List<String> messages = benchmark.prepare(trace);
+        if (warmup > 0) {
+            benchmark.run(messages, warmup, inFlight);
+        }
+        Result result = benchmark.run(messages, count, inFlight);
+        System.out.println(workload + " (window " + inFlight + ") " + result);
+        benchmark.close();
+        System.exit(0);
+    }
+
+    private static String readFile(File f) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        try (BufferedReader r = new BufferedReader(new InputStreamReader(new FileInputStream(f), UTF8))) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                sb.append(line).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+}